@@ -0,0 +1,91 @@
+package com.example.swing.bench;
+
+import com.example.swing.table.AbstractEmployeeTableModel;
+import com.example.swing.table.EmployeeTable;
+import com.example.swing.table.EmployeeTableModel;
+import com.example.swing.table.SampleEmployees;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.*;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 表格单元格渲染基准
+ * 分别用 JTable 默认渲染器和 EmployeeTable 的基本类型渲染器渲染 ID、薪资和在职列，
+ * 每次操作是一个单元格的 prepareRenderer 加 paint，分配的字节数见 GC 分析器输出的 gc.alloc.rate.norm。
+ * 直接调用渲染组件的 paint，不经过 CellRendererPane，后者自身的分配不计入。
+ * 表格只在基准线程上创建和使用，没有其他线程访问，因此不经过 EDT
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CellRendererBench {
+    
+    private static final int ROWS = 100_000;
+    
+    @Param({"ID", "SALARY", "ACTIVE"})
+    private String column;
+    
+    private int modelColumn;
+    private JTable plain;
+    private JTable employee;
+    private Graphics2D g;
+    private int row;
+    
+    @Setup(Level.Trial)
+    public void createTables() {
+        EmployeeTableModel model = SampleEmployees.generate(ROWS, 42);
+        modelColumn = switch (column) {
+            case "ID" -> AbstractEmployeeTableModel.COLUMN_ID;
+            case "SALARY" -> AbstractEmployeeTableModel.COLUMN_SALARY;
+            case "ACTIVE" -> AbstractEmployeeTableModel.COLUMN_ACTIVE;
+            default -> throw new IllegalArgumentException(column);
+        };
+        plain = new JTable(model);
+        employee = new EmployeeTable(model);
+        g = new BufferedImage(200, 20, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    }
+    
+    @TearDown(Level.Trial)
+    public void disposeGraphics() {
+        g.dispose();
+    }
+    
+    @Benchmark
+    public Component defaultRenderer() {
+        return render(plain);
+    }
+    
+    @Benchmark
+    public Component employeeRenderer() {
+        return render(employee);
+    }
+    
+    private Component render(JTable table) {
+        int current = row;
+        row = current + 1 == ROWS ? 0 : current + 1;
+        TableCellRenderer renderer = table.getCellRenderer(current, modelColumn);
+        Component component = table.prepareRenderer(renderer, current, modelColumn);
+        component.setBounds(0, 0, 200, 20);
+        component.paint(g);
+        return component;
+    }
+}
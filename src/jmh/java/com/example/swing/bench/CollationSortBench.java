@@ -0,0 +1,93 @@
+package com.example.swing.bench;
+
+import com.example.swing.table.AbstractEmployeeTableModel;
+import com.example.swing.table.CollationKeyCache;
+import com.example.swing.table.EmployeeTableModel;
+import com.example.swing.table.SampleEmployees;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.*;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 姓名排序基准
+ * 对比每次比较都调用 Collator 和先构建 CollationKeyCache 再比较字节数组两种方式，
+ * 按姓名对生成的员工数据排序。排序键缓存的构建与表格排序时一致：EDT 上复制取值、后台计算、EDT 上发布，
+ * 单独构建和构建加排序各计一项
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Djava.awt.headless=true"})
+public class CollationSortBench {
+    
+    @Param("1000000")
+    private int rows;
+    
+    private EmployeeTableModel model;
+    private Collator collator;
+    private Integer[] indexes;
+    
+    @Setup(Level.Trial)
+    public void createModel() {
+        model = SampleEmployees.generate(rows, 42);
+        collator = Collator.getInstance(Locale.CHINA);
+    }
+    
+    @Setup(Level.Invocation)
+    public void resetIndexes() {
+        indexes = new Integer[rows];
+        for (int i = 0; i < rows; i++) {
+            indexes[i] = i;
+        }
+    }
+    
+    @Benchmark
+    public Integer[] sortWithCollator() {
+        Arrays.sort(indexes, (a, b) -> collator.compare(model.getName(a), model.getName(b)));
+        return indexes;
+    }
+    
+    @Benchmark
+    public CollationKeyCache buildKeyCache() throws Exception {
+        CollationKeyCache cache = buildCache();
+        cache.dispose();
+        return cache;
+    }
+    
+    @Benchmark
+    public Integer[] sortWithKeyCache() throws Exception {
+        CollationKeyCache cache = buildCache();
+        Arrays.sort(indexes, (a, b) -> CollationKeyCache.compareKeys(cache.getRowKey(a), cache.getRowKey(b)));
+        cache.dispose();
+        return indexes;
+    }
+    
+    private CollationKeyCache buildCache() throws Exception {
+        CollationKeyCache[] cache = new CollationKeyCache[1];
+        CollationKeyCache.Build[] build = new CollationKeyCache.Build[1];
+        SwingUtilities.invokeAndWait(() -> {
+            cache[0] = new CollationKeyCache(model, AbstractEmployeeTableModel.COLUMN_NAME);
+            build[0] = cache[0].startBuild();
+        });
+        build[0].run();
+        SwingUtilities.invokeAndWait(() -> cache[0].publish(build[0]));
+        return cache[0];
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.swing.bench;
+
+import com.example.swing.tree.CompactTreeModel;
+import com.example.swing.tree.OrgChartSource;
+import com.example.swing.tree.SyntheticOrgSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeModel;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 组织架构树模型基准
+ * 把同一棵约 100 万节点的合成组织架构分别读入 DefaultMutableTreeNode 和 CompactTreeModel，
+ * 比较装载耗时和通过 TreeModel 接口遍历整棵树的耗时；CompactTreeModel 另外给出直接遍历数组的耗时。
+ * 两个模型的保留堆大小按 GC 前后的已用内存估算，在准备阶段打印到基准输出中
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CompactTreeBench {
+    
+    private static final int[] FAN_OUT = {20, 10, 10, 500};
+    
+    private SyntheticOrgSource source;
+    private DefaultTreeModel defaultModel;
+    private CompactTreeModel compactModel;
+    
+    @Setup(Level.Trial)
+    public void loadModels() throws IOException {
+        source = new SyntheticOrgSource(42, FAN_OUT, 0);
+        long before = usedMemory();
+        defaultModel = copyToDefault(source);
+        long defaultHeap = usedMemory() - before;
+        before = usedMemory();
+        compactModel = CompactTreeModel.copyOf(source);
+        long compactHeap = usedMemory() - before;
+        System.out.printf("%n%,d 个节点，保留堆：DefaultMutableTreeNode %.1f MB，CompactTreeModel %.1f MB%n",
+            compactModel.getNodeCount(), defaultHeap / 1e6, compactHeap / 1e6);
+    }
+    
+    @Benchmark
+    public DefaultTreeModel loadDefault() throws IOException {
+        return copyToDefault(source);
+    }
+    
+    @Benchmark
+    public CompactTreeModel loadCompact() throws IOException {
+        return CompactTreeModel.copyOf(source);
+    }
+    
+    @Benchmark
+    public int walkDefault() {
+        return walk(defaultModel);
+    }
+    
+    @Benchmark
+    public int walkCompact() {
+        return walk(compactModel);
+    }
+    
+    @Benchmark
+    public int walkCompactIds() {
+        return walkIds(compactModel);
+    }
+    
+    private static DefaultTreeModel copyToDefault(OrgChartSource source) throws IOException {
+        OrgChartSource.OrgUnit rootUnit = source.getRoot();
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode(rootUnit.name());
+        ArrayDeque<OrgChartSource.OrgUnit> units = new ArrayDeque<>();
+        ArrayDeque<DefaultMutableTreeNode> nodes = new ArrayDeque<>();
+        units.add(rootUnit);
+        nodes.add(root);
+        while (!units.isEmpty()) {
+            OrgChartSource.OrgUnit unit = units.poll();
+            DefaultMutableTreeNode node = nodes.poll();
+            if (unit.leaf()) {
+                continue;
+            }
+            List<OrgChartSource.OrgUnit> children = source.loadChildren(unit);
+            for (OrgChartSource.OrgUnit child : children) {
+                DefaultMutableTreeNode childNode = new DefaultMutableTreeNode(child.name(), !child.leaf());
+                node.add(childNode);
+                if (!child.leaf()) {
+                    units.add(child);
+                    nodes.add(childNode);
+                }
+            }
+        }
+        return new DefaultTreeModel(root);
+    }
+    
+    /**
+     * 像 JTree 一样通过 getChildCount 和 getChild 遍历，返回节点数
+     */
+    private static int walk(TreeModel model) {
+        ArrayDeque<Object> pending = new ArrayDeque<>();
+        pending.push(model.getRoot());
+        int count = 0;
+        while (!pending.isEmpty()) {
+            Object node = pending.pop();
+            count++;
+            int children = model.getChildCount(node);
+            for (int i = 0; i < children; i++) {
+                pending.push(model.getChild(node, i));
+            }
+        }
+        return count;
+    }
+    
+    private static int walkIds(CompactTreeModel model) {
+        int[] pending = new int[model.getIdLimit()];
+        int top = 0;
+        pending[top++] = model.getRootNode().getId();
+        int count = 0;
+        while (top > 0) {
+            int id = pending[--top];
+            count++;
+            for (int child = model.getFirstChild(id); child != CompactTreeModel.NO_NODE; child = model.getNextSibling(child)) {
+                pending[top++] = child;
+            }
+        }
+        return count;
+    }
+    
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
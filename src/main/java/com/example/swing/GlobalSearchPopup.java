@@ -0,0 +1,165 @@
+package com.example.swing;
+
+import com.example.swing.search.GlobalSearch;
+import com.example.swing.search.SearchHit;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.function.Consumer;
+
+/**
+ * 工具栏搜索框的结果弹出列表
+ * 输入时防抖后发出全局搜索，各来源的结果陆续返回时更新列表；
+ * 上下键选择，回车或单击定位到命中项，Esc 关闭。弹出层不获取焦点，输入不受影响
+ */
+public class GlobalSearchPopup {
+    
+    private static final int SEARCH_DEBOUNCE_MS = 150;
+    // 每个来源最多显示的命中数
+    private static final int HITS_PER_SOURCE = 50;
+    
+    private final JTextField field;
+    private final GlobalSearch search;
+    private final Consumer<String> statusUpdater;
+    private final JPopupMenu popup = new JPopupMenu();
+    private final DefaultListModel<SearchHit> hitsModel = new DefaultListModel<>();
+    private final JList<SearchHit> hitList = new JList<>(hitsModel);
+    private final JLabel summaryLabel = new JLabel();
+    private final Timer debounceTimer;
+    
+    public GlobalSearchPopup(JTextField field, GlobalSearch search, Consumer<String> statusUpdater) {
+        this.field = field;
+        this.search = search;
+        this.statusUpdater = statusUpdater;
+        
+        hitList.setFocusable(false);
+        hitList.setVisibleRowCount(12);
+        hitList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                SearchHit hit = (SearchHit) value;
+                return super.getListCellRendererComponent(list, "[" + hit.category() + "] " + hit.label(),
+                    index, isSelected, cellHasFocus);
+            }
+        });
+        hitList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = hitList.locationToIndex(e.getPoint());
+                if (index >= 0) {
+                    reveal(hitsModel.get(index));
+                }
+            }
+        });
+        summaryLabel.setBorder(BorderFactory.createEmptyBorder(3, 5, 3, 5));
+        
+        JScrollPane scrollPane = new JScrollPane(hitList);
+        scrollPane.setPreferredSize(new Dimension(420, 260));
+        popup.setFocusable(false);
+        popup.setLayout(new BorderLayout());
+        popup.add(scrollPane, BorderLayout.CENTER);
+        popup.add(summaryLabel, BorderLayout.SOUTH);
+        
+        debounceTimer = new Timer(SEARCH_DEBOUNCE_MS, e -> runSearch());
+        debounceTimer.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+        });
+        // 回车：列表中有选中项时定位，否则立即搜索
+        field.addActionListener(e -> {
+            SearchHit selected = popup.isVisible() ? hitList.getSelectedValue() : null;
+            if (selected != null) {
+                reveal(selected);
+            } else {
+                searchNow();
+            }
+        });
+        bindKey("DOWN", "globalSearchNext", () -> moveSelection(1));
+        bindKey("UP", "globalSearchPrevious", () -> moveSelection(-1));
+        bindKey("ESCAPE", "globalSearchClose", () -> popup.setVisible(false));
+    }
+    
+    /**
+     * 立即搜索框中的文本，供“搜索”按钮调用
+     */
+    public void searchNow() {
+        debounceTimer.stop();
+        runSearch();
+    }
+    
+    private void bindKey(String key, String name, Runnable action) {
+        field.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(key), name);
+        field.getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+    
+    private void moveSelection(int delta) {
+        if (!popup.isVisible() || hitsModel.isEmpty()) {
+            return;
+        }
+        int index = Math.floorMod(hitList.getSelectedIndex() + delta, hitsModel.size());
+        hitList.setSelectedIndex(index);
+        hitList.ensureIndexIsVisible(index);
+    }
+    
+    private void runSearch() {
+        String text = field.getText().trim();
+        if (text.isEmpty()) {
+            search.cancel();
+            popup.setVisible(false);
+            return;
+        }
+        search.search(text, HITS_PER_SOURCE, this::showResults);
+    }
+    
+    /**
+     * 每个来源返回时调用一次，显示已合并的结果
+     */
+    private void showResults(GlobalSearch.Snapshot snapshot) {
+        hitsModel.clear();
+        hitsModel.addAll(snapshot.hits());
+        if (!hitsModel.isEmpty()) {
+            hitList.setSelectedIndex(0);
+        }
+        String summary = snapshot.total() == 0 ? "没有找到 \"" + snapshot.text() + "\""
+            : "共 " + snapshot.total() + " 条" + (snapshot.total() > snapshot.hits().size()
+            ? "，显示前 " + snapshot.hits().size() + " 条" : "");
+        summaryLabel.setText(summary + (snapshot.pending() > 0 ? "，仍在搜索..." : "（" + snapshot.elapsed() + " ms）"));
+        if (!popup.isVisible() && field.isShowing()) {
+            popup.show(field, 0, field.getHeight());
+        }
+        if (snapshot.pending() == 0) {
+            statusUpdater.accept("全局搜索: " + snapshot.text() + "（" + snapshot.total() + " 条，"
+                + snapshot.elapsed() + " ms）");
+        }
+    }
+    
+    private void reveal(SearchHit hit) {
+        popup.setVisible(false);
+        hit.reveal().run();
+        statusUpdater.accept("定位到: [" + hit.category() + "] " + hit.label());
+    }
+}
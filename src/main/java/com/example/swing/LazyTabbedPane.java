@@ -0,0 +1,112 @@
+package com.example.swing;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * 按需构建的选项卡面板
+ * 每个选项卡先放一个空的占位面板，第一次被选中（或被 getPanel 取用）时才在 EDT 上调用工厂构建真正的面板。
+ * 选项卡可以附带一个预热任务，窗口显示后由低优先级的后台线程执行，
+ * 先预热当前选项卡两侧最可能被切换到的选项卡，再预热其余的；预热只做数据准备和类加载，不创建组件
+ */
+public class LazyTabbedPane extends JTabbedPane {
+    
+    private static final class LazyTab {
+        final Supplier<? extends JComponent> factory;
+        final Runnable warmUp;
+        JComponent panel;
+        boolean warmUpQueued;
+        
+        LazyTab(Supplier<? extends JComponent> factory, Runnable warmUp) {
+            this.factory = factory;
+            this.warmUp = warmUp;
+        }
+    }
+    
+    private final List<LazyTab> tabs = new ArrayList<>();
+    private ExecutorService prefetcher;
+    
+    /**
+     * 添加按需构建的选项卡，warmUp 在后台线程执行，可以为 null；返回选项卡的序号
+     */
+    public int addLazyTab(String title, Supplier<? extends JComponent> factory, Runnable warmUp) {
+        tabs.add(new LazyTab(factory, warmUp));
+        // 第一个选项卡加入时即被选中，会在 fireStateChanged 中立即构建
+        addTab(title, new JPanel());
+        return tabs.size() - 1;
+    }
+    
+    /**
+     * 返回选项卡的面板，尚未构建时立即构建
+     */
+    public JComponent getPanel(int index) {
+        LazyTab tab = tabs.get(index);
+        if (tab.panel == null) {
+            tab.panel = tab.factory.get();
+            setComponentAt(index, tab.panel);
+        }
+        return tab.panel;
+    }
+    
+    public boolean isBuilt(int index) {
+        return tabs.get(index).panel != null;
+    }
+    
+    /**
+     * 开始在后台预热尚未构建的选项卡，应在窗口显示之后调用
+     */
+    public void startPrefetch() {
+        if (prefetcher != null) {
+            return;
+        }
+        prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tab-prefetch");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        queueNeighbors(getSelectedIndex());
+        for (int i = 0; i < tabs.size(); i++) {
+            queueWarmUp(i);
+        }
+    }
+    
+    @Override
+    protected void fireStateChanged() {
+        int index = getSelectedIndex();
+        if (index >= 0 && index < tabs.size()) {
+            getPanel(index);
+            if (prefetcher != null) {
+                queueNeighbors(index);
+            }
+        }
+        super.fireStateChanged();
+    }
+    
+    private void queueNeighbors(int index) {
+        queueWarmUp(index + 1);
+        queueWarmUp(index - 1);
+    }
+    
+    private void queueWarmUp(int index) {
+        if (index < 0 || index >= tabs.size()) {
+            return;
+        }
+        LazyTab tab = tabs.get(index);
+        if (tab.warmUp == null || tab.warmUpQueued || tab.panel != null) {
+            return;
+        }
+        tab.warmUpQueued = true;
+        prefetcher.execute(() -> {
+            try {
+                tab.warmUp.run();
+            } catch (RuntimeException | LinkageError ex) {
+                // 预热失败不影响使用，构建面板时会重新加载
+            }
+        });
+    }
+}
@@ -1,8 +1,36 @@
 package com.example.swing;
 
+import com.example.swing.list.DirectoryListModel;
+import com.example.swing.list.FilteredListModel;
 import com.example.swing.panels.*;
+import com.example.swing.search.GlobalSearch;
+import com.example.swing.table.AbstractEmployeeTableModel;
+import com.example.swing.table.EmployeeCsvImporter;
+import com.example.swing.table.EmployeeDataFile;
+import com.example.swing.table.EmployeeRowSorter;
+import com.example.swing.table.EmployeeTable;
+import com.example.swing.table.EmployeeTableModel;
+import com.example.swing.table.SampleEmployees;
+import com.example.swing.tree.EmployeeTreeModel;
+import com.example.swing.tree.OrgTree;
+import com.example.swing.tree.OrgTreeFile;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
  * 主窗口框架
@@ -10,10 +38,22 @@ import java.awt.*;
  */
 public class MainFrame extends JFrame {
     
-    private JTabbedPane tabbedPane;
+    private LazyTabbedPane tabbedPane;
     private JMenuBar menuBar;
     private JToolBar toolBar;
     private JLabel statusLabel;
+    // 各面板的状态消息都经过它，状态栏每帧最多更新一次
+    private final StatusBus statusBus = new StatusBus(message -> statusLabel.setText(message));
+    private int tableTab;
+    private int treeTab;
+    private int listTab;
+    private final GlobalSearch globalSearch = new GlobalSearch();
+    // 以下面板在第一次选中对应选项卡时才创建
+    private TablePanel tablePanel;
+    private TreePanel treePanel;
+    private final FutureTask<EmployeeTableModel> sampleEmployees = new FutureTask<>(SampleEmployees::createSample);
+    // 表格换过的员工数据，构建树时使用
+    private AbstractEmployeeTableModel employees;
     
     public MainFrame() {
         initializeFrame();
@@ -57,7 +97,7 @@ public class MainFrame extends JFrame {
         
         JMenuItem saveItem = new JMenuItem("保存", 'S');
         saveItem.setAccelerator(KeyStroke.getKeyStroke("ctrl S"));
-        saveItem.addActionListener(e -> updateStatus("点击了: 保存"));
+        saveItem.addActionListener(e -> showSaveChooser());
         
         JMenuItem exitItem = new JMenuItem("退出", 'X');
         exitItem.addActionListener(e -> System.exit(0));
@@ -95,8 +135,12 @@ public class MainFrame extends JFrame {
         JCheckBoxMenuItem showStatus = new JCheckBoxMenuItem("显示状态栏", true);
         showStatus.addActionListener(e -> statusLabel.getParent().setVisible(showStatus.isSelected()));
         
+        JMenuItem historyItem = new JMenuItem("状态历史...");
+        historyItem.addActionListener(e -> showStatusHistory());
+        
         viewMenu.add(showToolbar);
         viewMenu.add(showStatus);
+        viewMenu.add(historyItem);
         
         // 帮助菜单
         JMenu helpMenu = new JMenu("帮助(H)");
@@ -137,13 +181,17 @@ public class MainFrame extends JFrame {
         toolBar.add(pasteBtn);
         toolBar.addSeparator();
         
-        // 添加一个搜索框
+        // 全局搜索：在表格、树和列表中查找，结果显示在搜索框下方的弹出列表中
         JTextField searchField = new JTextField(15);
         searchField.setMaximumSize(new Dimension(200, 30));
-        searchField.setToolTipText("搜索...");
+        searchField.setToolTipText("搜索表格、树和列表...");
         toolBar.add(searchField);
+        GlobalSearchPopup searchPopup = new GlobalSearchPopup(searchField, globalSearch, this::updateStatus);
         
-        JButton searchBtn = createToolButton("搜索", "执行搜索");
+        JButton searchBtn = new JButton("搜索");
+        searchBtn.setToolTipText("执行搜索");
+        searchBtn.setFocusPainted(false);
+        searchBtn.addActionListener(e -> searchPopup.searchNow());
         toolBar.add(searchBtn);
     }
     
@@ -155,18 +203,41 @@ public class MainFrame extends JFrame {
         return button;
     }
     
+    /**
+     * 选项卡只登记工厂，第一次选中时才构建面板；窗口显示后在后台预热其余选项卡
+     */
     private void createTabbedPane() {
-        tabbedPane = new JTabbedPane();
+        tabbedPane = new LazyTabbedPane();
         tabbedPane.setTabPlacement(JTabbedPane.TOP);
         
         // 添加各种组件示例面板
-        tabbedPane.addTab("基础组件", new BasicComponentsPanel(this::updateStatus));
-        tabbedPane.addTab("表格示例", new TablePanel(this::updateStatus));
-        tabbedPane.addTab("树形结构", new TreePanel(this::updateStatus));
-        tabbedPane.addTab("列表组件", new ListPanel(this::updateStatus));
-        tabbedPane.addTab("对话框", new DialogPanel(this, this::updateStatus));
-        tabbedPane.addTab("布局示例", new LayoutPanel(this::updateStatus));
-        tabbedPane.addTab("浏览器区域", new BrowserPlaceholderPanel(this::updateStatus));
+        tabbedPane.addLazyTab("基础组件", () -> new BasicComponentsPanel(this::updateStatus), null);
+        // 表格和树显示同一份员工数据，表格换了数据时树跟着切换
+        tableTab = tabbedPane.addLazyTab("表格示例", this::createTablePanel, () -> {
+            getSampleEmployees();
+            preload(new Class<?>[]{TablePanel.class, EmployeeTable.class, EmployeeRowSorter.class, JTable.class},
+                "TableUI", "TableHeaderUI", "ProgressBarUI");
+        });
+        treeTab = tabbedPane.addLazyTab("树形结构", this::createTreePanel, () -> {
+            getSampleEmployees();
+            preload(new Class<?>[]{TreePanel.class, OrgTree.class, EmployeeTreeModel.class, JTree.class}, "TreeUI");
+        });
+        listTab = tabbedPane.addLazyTab("列表组件", () -> new ListPanel(this::updateStatus),
+            () -> preload(new Class<?>[]{ListPanel.class, FilteredListModel.class, DirectoryListModel.class, JList.class},
+                "ListUI"));
+        tabbedPane.addLazyTab("对话框", () -> new DialogPanel(this, this::updateStatus),
+            () -> preload(new Class<?>[]{DialogPanel.class, JOptionPane.class}, "OptionPaneUI"));
+        tabbedPane.addLazyTab("布局示例", () -> new LayoutPanel(this::updateStatus),
+            () -> preload(new Class<?>[]{LayoutPanel.class}));
+        tabbedPane.addLazyTab("浏览器区域", () -> new BrowserPlaceholderPanel(this::updateStatus),
+            () -> preload(new Class<?>[]{BrowserPlaceholderPanel.class}));
+        tabbedPane.addLazyTab("诊断", () -> new DiagnosticsPanel(this::updateStatus), null);
+        tabbedPane.addLazyTab("绘制分析", () -> new PaintProfilerPanel(this::updateStatus), null);
+        
+        // 全局搜索的来源，只查已经打开过的面板：构建面板会加载数据，列表面板还会开始列出目录
+        globalSearch.addProvider(() -> (TablePanel) getBuiltPanel(tableTab), () -> tabbedPane.setSelectedIndex(tableTab));
+        globalSearch.addProvider(() -> (TreePanel) getBuiltPanel(treeTab), () -> tabbedPane.setSelectedIndex(treeTab));
+        globalSearch.addProvider(() -> (ListPanel) getBuiltPanel(listTab), () -> tabbedPane.setSelectedIndex(listTab));
         
         // 选项卡切换事件
         tabbedPane.addChangeListener(e -> {
@@ -174,6 +245,84 @@ public class MainFrame extends JFrame {
             String tabTitle = tabbedPane.getTitleAt(index);
             updateStatus("切换到选项卡: " + tabTitle);
         });
+        
+        // 第一帧显示后报告启动用时，并开始空闲预热
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+                updateStatus("就绪（启动用时 " + uptime + " 毫秒）");
+                SwingUtilities.invokeLater(tabbedPane::startPrefetch);
+            }
+        });
+    }
+    
+    private TablePanel createTablePanel() {
+        tablePanel = new TablePanel(this::updateStatus, getSampleEmployees());
+        tablePanel.addPropertyChangeListener("tableModel", e -> {
+            employees = (AbstractEmployeeTableModel) e.getNewValue();
+            if (treePanel != null) {
+                treePanel.setEmployees(employees);
+            }
+        });
+        return tablePanel;
+    }
+    
+    private TreePanel createTreePanel() {
+        // 表格已经换过数据时树直接显示新数据
+        treePanel = new TreePanel(this::updateStatus, employees != null ? employees : getSampleEmployees());
+        return treePanel;
+    }
+    
+    /**
+     * 表格和树共用的初始数据，由预取线程或第一次构建面板时创建，只创建一次
+     */
+    private EmployeeTableModel getSampleEmployees() {
+        sampleEmployees.run();
+        try {
+            return sampleEmployees.get();
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new IllegalStateException("创建示例数据失败", ex);
+        }
+    }
+    
+    private TablePanel getTablePanel() {
+        return (TablePanel) tabbedPane.getPanel(tableTab);
+    }
+    
+    private TreePanel getTreePanel() {
+        return (TreePanel) tabbedPane.getPanel(treeTab);
+    }
+    
+    /**
+     * 返回已经构建的面板，尚未构建时返回 null
+     */
+    private JComponent getBuiltPanel(int index) {
+        return tabbedPane.isBuilt(index) ? tabbedPane.getPanel(index) : null;
+    }
+    
+    /**
+     * 在预取线程上加载并初始化面板用到的类和当前外观的 UI 类，构建面板时不必再读取和校验类文件
+     */
+    private static void preload(Class<?>[] classes, String... uiClassIds) {
+        for (Class<?> type : classes) {
+            initialize(type.getName(), type.getClassLoader());
+        }
+        for (String uiClassId : uiClassIds) {
+            Object uiClassName = UIManager.get(uiClassId);
+            if (uiClassName instanceof String name) {
+                Object loader = UIManager.get("ClassLoader");
+                initialize(name, loader instanceof ClassLoader classLoader ? classLoader : MainFrame.class.getClassLoader());
+            }
+        }
+    }
+    
+    private static void initialize(String className, ClassLoader loader) {
+        try {
+            Class.forName(className, true, loader);
+        } catch (ClassNotFoundException ex) {
+            // 只是预热，找不到时构建面板照常加载
+        }
     }
     
     private void createStatusBar() {
@@ -191,16 +340,117 @@ public class MainFrame extends JFrame {
         add(statusLabel, BorderLayout.SOUTH);
     }
     
+    /**
+     * 可在任意线程调用；消息经状态总线合并，每帧最多更新一次状态栏
+     */
     public void updateStatus(String message) {
-        statusLabel.setText(message);
+        statusBus.accept(message);
+    }
+    
+    /**
+     * 状态消息历史，可按关键字筛选
+     */
+    private void showStatusHistory() {
+        JDialog dialog = new JDialog(this, "状态历史", false);
+        DefaultListModel<String> listModel = new DefaultListModel<>();
+        JTextField filterField = new JTextField();
+        JLabel summaryLabel = new JLabel();
+        DateTimeFormatter timeFormat = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+        Runnable refresh = () -> {
+            List<StatusBus.Message> messages = statusBus.search(filterField.getText().trim());
+            listModel.clear();
+            // 最新的在最上面
+            List<String> lines = new ArrayList<>(messages.size());
+            for (int i = messages.size() - 1; i >= 0; i--) {
+                StatusBus.Message message = messages.get(i);
+                lines.add(timeFormat.format(Instant.ofEpochMilli(message.time()))
+                    + " [" + message.thread() + "] " + message.text());
+            }
+            listModel.addAll(lines);
+            summaryLabel.setText(messages.size() + " 条" + (statusBus.getDroppedCount() > 0
+                ? "，另有 " + statusBus.getDroppedCount() + " 条消息因来得太快未记录" : ""));
+        };
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                refresh.run();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                refresh.run();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                refresh.run();
+            }
+        });
+        refresh.run();
+        
+        JPanel content = new JPanel(new BorderLayout(5, 5));
+        content.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        content.add(filterField, BorderLayout.NORTH);
+        content.add(new JScrollPane(new JList<>(listModel)), BorderLayout.CENTER);
+        content.add(summaryLabel, BorderLayout.SOUTH);
+        dialog.setContentPane(content);
+        dialog.setSize(600, 400);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
     }
     
     private void showFileChooser() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("选择文件");
+        fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("员工数据文件 (*.emp)", EmployeeDataFile.EXTENSION));
+        fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("CSV/TSV 文件", "csv", "tsv", "tab"));
+        fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("组织架构文件 (*.org)", OrgTreeFile.EXTENSION));
         int result = fileChooser.showOpenDialog(this);
         if (result == JFileChooser.APPROVE_OPTION) {
-            updateStatus("选择的文件: " + fileChooser.getSelectedFile().getName());
+            Path path = fileChooser.getSelectedFile().toPath();
+            if (EmployeeDataFile.isDataFile(path)) {
+                tabbedPane.setSelectedIndex(tableTab);
+                getTablePanel().openDataFile(path);
+            } else if (EmployeeCsvImporter.isCsvFile(path)) {
+                tabbedPane.setSelectedIndex(tableTab);
+                getTablePanel().importCsv(path);
+            } else if (OrgTreeFile.isDataFile(path)) {
+                tabbedPane.setSelectedIndex(treeTab);
+                getTreePanel().openTreeFile(path);
+            } else {
+                updateStatus("选择的文件: " + fileChooser.getSelectedFile().getName());
+            }
+        }
+    }
+    
+    private void showSaveChooser() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("保存数据");
+        FileNameExtensionFilter tableFilter = new FileNameExtensionFilter("员工数据文件 (*.emp)", EmployeeDataFile.EXTENSION);
+        FileNameExtensionFilter treeFilter = new FileNameExtensionFilter("组织架构文件 (*.org)", OrgTreeFile.EXTENSION);
+        fileChooser.addChoosableFileFilter(tableFilter);
+        fileChooser.addChoosableFileFilter(treeFilter);
+        fileChooser.setAcceptAllFileFilterUsed(false);
+        // 默认保存当前标签页的数据
+        fileChooser.setFileFilter(tabbedPane.getSelectedIndex() == treeTab ? treeFilter : tableFilter);
+        int result = fileChooser.showSaveDialog(this);
+        if (result == JFileChooser.APPROVE_OPTION) {
+            File file = fileChooser.getSelectedFile();
+            Path path = file.toPath();
+            // 文件扩展名优先，没有扩展名时按选择的文件类型
+            boolean saveTree = OrgTreeFile.isDataFile(path)
+                || (!EmployeeDataFile.isDataFile(path) && fileChooser.getFileFilter() == treeFilter);
+            if (saveTree) {
+                if (!OrgTreeFile.isDataFile(path)) {
+                    path = path.resolveSibling(file.getName() + "." + OrgTreeFile.EXTENSION);
+                }
+                getTreePanel().saveTreeFile(path);
+            } else {
+                if (!EmployeeDataFile.isDataFile(path)) {
+                    path = path.resolveSibling(file.getName() + "." + EmployeeDataFile.EXTENSION);
+                }
+                getTablePanel().saveDataFile(path);
+            }
         }
     }
     
@@ -0,0 +1,153 @@
+package com.example.swing;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 状态消息总线
+ * 实现 Consumer&lt;String&gt;，可以直接替换原来传给各面板的 statusUpdater，任意线程都可以调用。
+ * 消息写入无锁环形缓冲区，EDT 每帧最多取出一次，只把最后一条交给显示，
+ * 滑块拖动这类每个刻度都发消息的操作不会逐条触发 setText 和重新布局。
+ * 取出的消息按顺序保存在有上限的历史中，可以按关键字查找
+ */
+public class StatusBus implements Consumer<String> {
+    
+    private static final int FRAME_MS = 16;
+    // 环形缓冲区大小（2 的幂）；一帧内来不及取出而被覆盖的消息计为丢弃
+    private static final int RING_SIZE = 1024;
+    private static final int RING_MASK = RING_SIZE - 1;
+    private static final int DEFAULT_HISTORY = 1000;
+    
+    /**
+     * 一条状态消息，sequence 为提交顺序
+     */
+    public record Message(long sequence, long time, String text, String thread) {
+    }
+    
+    private final Consumer<String> display;
+    private final AtomicReferenceArray<Message> slots = new AtomicReferenceArray<>(RING_SIZE);
+    // 下一条消息的序号，生产者用 getAndIncrement 占位
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Timer frameTimer;
+    
+    // 以下只在 EDT 上访问
+    private long consumed;
+    private long dropped;
+    private final Message[] history;
+    private int historyStart;
+    private int historySize;
+    
+    /**
+     * display 在 EDT 上调用，每帧最多一次
+     */
+    public StatusBus(Consumer<String> display) {
+        this(display, DEFAULT_HISTORY);
+    }
+    
+    public StatusBus(Consumer<String> display, int historyCapacity) {
+        this.display = display;
+        this.history = new Message[historyCapacity];
+        frameTimer = new Timer(FRAME_MS, e -> drain());
+        frameTimer.setInitialDelay(0);
+        frameTimer.setCoalesce(true);
+    }
+    
+    /**
+     * 提交一条消息，可在任意线程调用，不会阻塞
+     */
+    @Override
+    public void accept(String text) {
+        long sequence = published.getAndIncrement();
+        slots.set((int) (sequence & RING_MASK),
+            new Message(sequence, System.currentTimeMillis(), text, Thread.currentThread().getName()));
+        if (scheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(frameTimer::start);
+        }
+    }
+    
+    /**
+     * 被覆盖而没有显示和记录的消息数，只在 EDT 上调用
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+    
+    /**
+     * 历史消息，从旧到新，只在 EDT 上调用
+     */
+    public List<Message> getHistory() {
+        return search("");
+    }
+    
+    /**
+     * 按关键字（不区分大小写）查找历史消息，从旧到新，只在 EDT 上调用
+     */
+    public List<Message> search(String query) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<Message> result = new ArrayList<>();
+        for (int i = 0; i < historySize; i++) {
+            Message message = history[(historyStart + i) % history.length];
+            if (needle.isEmpty() || message.text().toLowerCase(Locale.ROOT).contains(needle)) {
+                result.add(message);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 在 EDT 上每帧调用一次：取出已写入的消息，记入历史，显示最后一条；没有新消息时停止计时器
+     */
+    private void drain() {
+        long end = published.get();
+        if (end - consumed > RING_SIZE) {
+            // 生产者已经绕过一圈，最旧的消息已被覆盖
+            dropped += end - RING_SIZE - consumed;
+            consumed = end - RING_SIZE;
+        }
+        Message last = null;
+        while (consumed < end) {
+            Message message = slots.get((int) (consumed & RING_MASK));
+            if (message == null || message.sequence() < consumed) {
+                break; // 已占位但还没写入，下一帧再取
+            }
+            if (message.sequence() == consumed) {
+                record(message);
+                last = message;
+            } else {
+                dropped++;
+            }
+            consumed++;
+        }
+        if (last != null) {
+            display.accept(last.text());
+            return;
+        }
+        if (consumed == end) {
+            frameTimer.stop();
+            scheduled.set(false);
+            // 停止前后可能有新消息进来，它们看到 scheduled 为 true 而没有启动计时器
+            if (published.get() != consumed && scheduled.compareAndSet(false, true)) {
+                frameTimer.start();
+            }
+        }
+    }
+    
+    private void record(Message message) {
+        if (history.length == 0) {
+            return;
+        }
+        if (historySize < history.length) {
+            history[(historyStart + historySize++) % history.length] = message;
+        } else {
+            history[historyStart] = message;
+            historyStart = (historyStart + 1) % history.length;
+        }
+    }
+}
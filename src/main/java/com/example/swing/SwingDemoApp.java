@@ -1,5 +1,7 @@
 package com.example.swing;
 
+import com.example.swing.diagnostics.EdtMonitor;
+import com.example.swing.diagnostics.ProfilingRepaintManager;
 import com.formdev.flatlaf.FlatLightLaf;
 import javax.swing.*;
 
@@ -17,6 +19,10 @@ public class SwingDemoApp {
             System.err.println("无法设置FlatLaf外观，使用默认外观");
         }
         
+        // 可选的 EDT 延迟监控和绘制分析，必须在创建窗口之前替换事件队列
+        EdtMonitor.installIfEnabled();
+        ProfilingRepaintManager.installIfEnabled();
+        
         // 在事件调度线程中创建和显示GUI
         SwingUtilities.invokeLater(() -> {
             MainFrame mainFrame = new MainFrame();
@@ -0,0 +1,277 @@
+package com.example.swing.diagnostics;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * EDT 延迟监控
+ * 替换系统事件队列，给每个分发的事件计时，按事件类型和来源（组件类或 invokeLater 的 Runnable 类）
+ * 记录耗时直方图。看门狗线程定期检查当前事件已经执行了多久，超过阈值时抓取一次 EDT 的调用栈，
+ * 事件结束后连同总耗时一起保存，用来找出卡住界面的监听器。
+ * 默认不启用：启动时加 -Dswingdemo.edtMonitor=true（阈值用 -Dswingdemo.edtMonitor.thresholdMs 设置），
+ * 或在运行中调用 install
+ */
+public class EdtMonitor extends EventQueue {
+    
+    public static final String ENABLED_PROPERTY = "swingdemo.edtMonitor";
+    public static final String THRESHOLD_PROPERTY = "swingdemo.edtMonitor.thresholdMs";
+    public static final long DEFAULT_THRESHOLD_MS = 100;
+    
+    private static final int MAX_STALLS = 200;
+    // 看门狗检查间隔不短于此值，空闲时开销可以忽略
+    private static final long MIN_WATCH_PERIOD_MS = 10;
+    
+    private static volatile EdtMonitor installed;
+    
+    /**
+     * 直方图的分组：事件类、事件 id 和来源类名
+     */
+    public record EventKey(Class<?> eventType, int id, String source) {
+        
+        public String eventName() {
+            return eventType.getSimpleName() + "." + idName(id);
+        }
+    }
+    
+    /**
+     * 一次超过阈值的事件：开始时间、总耗时和超过阈值时抓到的 EDT 调用栈
+     */
+    public record Stall(long time, EventKey key, long durationNanos, StackTraceElement[] stack) {
+    }
+    
+    /**
+     * 看门狗抓到的调用栈，sequence 对应被抓取的那次分发
+     */
+    private record Sample(long sequence, StackTraceElement[] stack) {
+    }
+    
+    // 看门狗读取的当前分发状态
+    private volatile long dispatchStart;
+    private volatile long dispatchSequence;
+    private volatile Thread dispatchThread;
+    private volatile long thresholdNanos;
+    private volatile Sample sample;
+    
+    // 以下只在 EDT 上访问
+    private final Map<EventKey, LatencyHistogram> histograms = new HashMap<>();
+    private final ArrayDeque<Stall> stalls = new ArrayDeque<>();
+    private long stallCount;
+    private int depth;
+    // 每次嵌套分发加一；外层事件据此判断自己是否运行了模态对话框之类的二级事件循环
+    private long nestedDispatches;
+    private long nestedLoopCount;
+    
+    private EdtMonitor(long thresholdMillis) {
+        setThresholdMillis(thresholdMillis);
+    }
+    
+    /**
+     * 按系统属性决定是否启用，在创建任何窗口之前调用
+     */
+    public static void installIfEnabled() {
+        if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+            install(Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD_MS));
+        }
+    }
+    
+    /**
+     * 把监控队列压入系统事件队列并启动看门狗；已经安装时只返回现有的实例
+     */
+    public static synchronized EdtMonitor install(long thresholdMillis) {
+        if (installed == null) {
+            EdtMonitor monitor = new EdtMonitor(thresholdMillis);
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(monitor);
+            Thread watchdog = new Thread(monitor::watch, "edt-watchdog");
+            watchdog.setDaemon(true);
+            watchdog.start();
+            installed = monitor;
+        }
+        return installed;
+    }
+    
+    /**
+     * 已安装的实例，未启用时为 null
+     */
+    public static EdtMonitor getInstalled() {
+        return installed;
+    }
+    
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+    
+    public void setThresholdMillis(long thresholdMillis) {
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, thresholdMillis));
+    }
+    
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        if (depth > 0) {
+            nestedDispatches++;
+        }
+        long nestedBefore = nestedDispatches;
+        long sequence = ++dispatchSequence;
+        dispatchThread = Thread.currentThread();
+        long start = System.nanoTime();
+        dispatchStart = start;
+        depth++;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            depth--;
+            // 回到外层事件时重新计时，外层已经在模态循环里等待过的时间不算卡顿
+            dispatchSequence++;
+            dispatchStart = depth > 0 ? System.nanoTime() : 0;
+            if (nestedDispatches != nestedBefore) {
+                nestedLoopCount++;
+                sample = null;
+            } else {
+                record(event, sequence, elapsed);
+            }
+        }
+    }
+    
+    private void record(AWTEvent event, long sequence, long elapsed) {
+        boolean slow = elapsed >= thresholdNanos;
+        EventKey key = new EventKey(event.getClass(), event.getID(), sourceName(event));
+        histograms.computeIfAbsent(key, k -> new LatencyHistogram()).record(elapsed, slow);
+        Sample captured = sample;
+        if (captured == null || captured.sequence() != sequence) {
+            return;
+        }
+        sample = null;
+        stalls.addLast(new Stall(System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(elapsed),
+            key, elapsed, captured.stack()));
+        stallCount++;
+        if (stalls.size() > MAX_STALLS) {
+            stalls.removeFirst();
+        }
+    }
+    
+    /**
+     * 看门狗线程：当前事件执行超过阈值时抓取一次 EDT 调用栈
+     */
+    private void watch() {
+        long sampledSequence = -1;
+        while (true) {
+            long threshold = thresholdNanos;
+            LockSupport.parkNanos(Math.max(TimeUnit.MILLISECONDS.toNanos(MIN_WATCH_PERIOD_MS), threshold / 4));
+            long start = dispatchStart;
+            long sequence = dispatchSequence;
+            Thread thread = dispatchThread;
+            if (start == 0 || sequence == sampledSequence || System.nanoTime() - start < threshold) {
+                continue;
+            }
+            StackTraceElement[] stack = thread.getStackTrace();
+            // 抓取期间事件可能已经结束，栈属于下一个事件时丢弃
+            if (dispatchSequence == sequence && dispatchStart == start) {
+                sample = new Sample(sequence, stack);
+                sampledSequence = sequence;
+            }
+        }
+    }
+    
+    /**
+     * 各分组直方图的副本，只在 EDT 上调用
+     */
+    public Map<EventKey, LatencyHistogram> getHistograms() {
+        Map<EventKey, LatencyHistogram> copy = new HashMap<>(histograms.size() * 2);
+        histograms.forEach((key, histogram) -> copy.put(key, histogram.copy()));
+        return copy;
+    }
+    
+    /**
+     * 最近的卡顿记录，从旧到新，只在 EDT 上调用
+     */
+    public List<Stall> getStalls() {
+        return new ArrayList<>(stalls);
+    }
+    
+    /**
+     * 启用以来的卡顿总数（包括已被挤出记录的），只在 EDT 上调用
+     */
+    public long getStallCount() {
+        return stallCount;
+    }
+    
+    /**
+     * 因为运行了二级事件循环（模态对话框等）而没有计入直方图的事件数
+     */
+    public long getNestedLoopCount() {
+        return nestedLoopCount;
+    }
+    
+    /**
+     * 清空统计，只在 EDT 上调用
+     */
+    public void reset() {
+        histograms.clear();
+        stalls.clear();
+        stallCount = 0;
+        nestedLoopCount = 0;
+    }
+    
+    /**
+     * 组件事件取组件类；invokeLater 和 Swing 计时器的事件来源都是工具包本身，改取其中 Runnable 的类
+     */
+    private static String sourceName(AWTEvent event) {
+        if (event instanceof InvocationEvent invocation) {
+            // Runnable 没有公开的访问方法，只能从 paramString 中取出 "runnable=类名@哈希"
+            String params = invocation.paramString();
+            int begin = params.indexOf("runnable=");
+            if (begin >= 0) {
+                begin += "runnable=".length();
+                int end = params.indexOf(",notifier=", begin);
+                String runnable = params.substring(begin, end < 0 ? params.length() : end);
+                int hash = runnable.lastIndexOf('@');
+                return hash < 0 ? runnable : runnable.substring(0, hash);
+            }
+        }
+        Object source = event.getSource();
+        return source == null ? "null" : source.getClass().getName();
+    }
+    
+    private static String idName(int id) {
+        return switch (id) {
+            case ComponentEvent.COMPONENT_MOVED -> "COMPONENT_MOVED";
+            case ComponentEvent.COMPONENT_RESIZED -> "COMPONENT_RESIZED";
+            case ComponentEvent.COMPONENT_SHOWN -> "COMPONENT_SHOWN";
+            case ComponentEvent.COMPONENT_HIDDEN -> "COMPONENT_HIDDEN";
+            case WindowEvent.WINDOW_OPENED -> "WINDOW_OPENED";
+            case WindowEvent.WINDOW_CLOSING -> "WINDOW_CLOSING";
+            case WindowEvent.WINDOW_CLOSED -> "WINDOW_CLOSED";
+            case WindowEvent.WINDOW_ACTIVATED -> "WINDOW_ACTIVATED";
+            case WindowEvent.WINDOW_DEACTIVATED -> "WINDOW_DEACTIVATED";
+            case WindowEvent.WINDOW_GAINED_FOCUS -> "WINDOW_GAINED_FOCUS";
+            case WindowEvent.WINDOW_LOST_FOCUS -> "WINDOW_LOST_FOCUS";
+            case KeyEvent.KEY_TYPED -> "KEY_TYPED";
+            case KeyEvent.KEY_PRESSED -> "KEY_PRESSED";
+            case KeyEvent.KEY_RELEASED -> "KEY_RELEASED";
+            case MouseEvent.MOUSE_CLICKED -> "MOUSE_CLICKED";
+            case MouseEvent.MOUSE_PRESSED -> "MOUSE_PRESSED";
+            case MouseEvent.MOUSE_RELEASED -> "MOUSE_RELEASED";
+            case MouseEvent.MOUSE_MOVED -> "MOUSE_MOVED";
+            case MouseEvent.MOUSE_ENTERED -> "MOUSE_ENTERED";
+            case MouseEvent.MOUSE_EXITED -> "MOUSE_EXITED";
+            case MouseEvent.MOUSE_DRAGGED -> "MOUSE_DRAGGED";
+            case MouseEvent.MOUSE_WHEEL -> "MOUSE_WHEEL";
+            case PaintEvent.PAINT -> "PAINT";
+            case PaintEvent.UPDATE -> "UPDATE";
+            case FocusEvent.FOCUS_GAINED -> "FOCUS_GAINED";
+            case FocusEvent.FOCUS_LOST -> "FOCUS_LOST";
+            case InvocationEvent.INVOCATION_DEFAULT -> "INVOCATION";
+            case HierarchyEvent.HIERARCHY_CHANGED -> "HIERARCHY_CHANGED";
+            case InputMethodEvent.INPUT_METHOD_TEXT_CHANGED -> "INPUT_METHOD_TEXT_CHANGED";
+            case InputMethodEvent.CARET_POSITION_CHANGED -> "CARET_POSITION_CHANGED";
+            default -> String.valueOf(id);
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.swing.diagnostics;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * 重绘热力图叠加层
+ * 作为窗口的玻璃面板，把 ProfilingRepaintManager 记录的重绘区域画成半透明的红色格子，越常重绘颜色越深。
+ * 每次刷新时热度按比例衰减，显示的是最近一段时间的重绘频率。
+ * 不接收鼠标事件；自身的重绘不计入统计，但玻璃面板可见时 Swing 会从根面板开始绘制，
+ * 此时的绘制耗时会偏大，看耗时时应关闭叠加层
+ */
+public class HeatMapOverlay extends JComponent {
+    
+    private static final int REFRESH_MS = 250;
+    private static final float DECAY = 0.8f;
+    // 热度达到此值时显示为最深
+    private static final float FULL_HEAT = 8f;
+    private static final int MAX_ALPHA = 160;
+    
+    private final ProfilingRepaintManager profiler;
+    private final Timer refreshTimer;
+    private JRootPane attachedTo;
+    private Component previousGlassPane;
+    
+    public HeatMapOverlay(ProfilingRepaintManager profiler) {
+        this.profiler = profiler;
+        putClientProperty(ProfilingRepaintManager.IGNORE_PROPERTY, Boolean.TRUE);
+        setOpaque(false);
+        refreshTimer = new Timer(REFRESH_MS, e -> {
+            ProfilingRepaintManager.HeatMap heat = profiler.getHeatMap(attachedTo);
+            if (heat != null) {
+                heat.decay(DECAY);
+            }
+            repaint();
+        });
+        refreshTimer.setCoalesce(true);
+    }
+    
+    /**
+     * 替换窗口的玻璃面板并开始显示，detach 时还原
+     */
+    public void attach(JRootPane rootPane) {
+        detach();
+        attachedTo = rootPane;
+        previousGlassPane = rootPane.getGlassPane();
+        rootPane.setGlassPane(this);
+        setVisible(true);
+        refreshTimer.start();
+    }
+    
+    public void detach() {
+        if (attachedTo == null) {
+            return;
+        }
+        refreshTimer.stop();
+        setVisible(false);
+        attachedTo.setGlassPane(previousGlassPane);
+        attachedTo.repaint();
+        attachedTo = null;
+        previousGlassPane = null;
+    }
+    
+    public boolean isAttached() {
+        return attachedTo != null;
+    }
+    
+    @Override
+    public boolean contains(int x, int y) {
+        // 鼠标事件穿透到下面的组件
+        return false;
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        ProfilingRepaintManager.HeatMap heat = profiler.getHeatMap(attachedTo);
+        if (heat == null) {
+            return;
+        }
+        int cell = ProfilingRepaintManager.HEAT_CELL;
+        Rectangle clip = g.getClipBounds();
+        for (int y = 0; y < heat.rows; y++) {
+            for (int x = 0; x < heat.columns; x++) {
+                float value = heat.cells[y * heat.columns + x];
+                if (value < 0.5f || (clip != null && !clip.intersects(x * cell, y * cell, cell, cell))) {
+                    continue;
+                }
+                int alpha = Math.round(Math.min(1f, value / FULL_HEAT) * MAX_ALPHA);
+                g.setColor(new Color(255, 0, 0, alpha));
+                g.fillRect(x * cell, y * cell, cell, cell);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.swing.diagnostics;
+
+/**
+ * 耗时直方图
+ * 按微秒取以 2 为底的对数分桶，记录一次只做几次整数运算，不保存每个样本；
+ * 分位数取所在桶的上界，误差在一倍以内，足够区分“几毫秒”和“几百毫秒”。
+ * 不是线程安全的，只在 EDT 上访问
+ */
+public class LatencyHistogram {
+    
+    // 第 i 个桶记录 [2^(i-1), 2^i) 微秒，第 0 个桶记录不到 1 微秒的
+    private static final int BUCKETS = 32;
+    
+    private final long[] buckets = new long[BUCKETS];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+    private long slowCount;
+    
+    /**
+     * 记录一次耗时，slow 表示超过了监控阈值
+     */
+    public void record(long nanos, boolean slow) {
+        long micros = nanos / 1000;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets[bucket]++;
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        if (slow) {
+            slowCount++;
+        }
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public long getSlowCount() {
+        return slowCount;
+    }
+    
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+    
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+    
+    /**
+     * 近似分位数（纳秒），fraction 取 0 到 1
+     */
+    public long getPercentileNanos(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                // 桶上界不会超过实际最大值
+                return Math.min(maxNanos, (1L << i) * 1000);
+            }
+        }
+        return maxNanos;
+    }
+    
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        System.arraycopy(buckets, 0, copy.buckets, 0, BUCKETS);
+        copy.count = count;
+        copy.totalNanos = totalNanos;
+        copy.maxNanos = maxNanos;
+        copy.slowCount = slowCount;
+        return copy;
+    }
+}
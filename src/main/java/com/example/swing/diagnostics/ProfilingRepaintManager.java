@@ -0,0 +1,397 @@
+package com.example.swing.diagnostics;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 绘制与布局分析
+ * 替换当前的 RepaintManager，统计每个组件的重绘请求（addDirtyRegion）和重新布局请求（revalidate），
+ * 并分别计时每个待绘制子树的绘制和每个验证根的布局。
+ * 短时间内反复 revalidate 的组件记为一次“布局风暴”，保存第一次超限时的调用栈，用于找到发起的代码。
+ * 实际绘制的区域按窗口累计成热力图，可以叠加在窗口上显示。
+ * 为了单独计时，每个待绘制的子树分别调用 paintImmediately，比默认的合并绘制多几次缓冲区提交，
+ * 因此只在分析时启用：启动时加 -Dswingdemo.paintProfiler=true，或在运行中调用 install
+ */
+public class ProfilingRepaintManager extends RepaintManager {
+    
+    public static final String ENABLED_PROPERTY = "swingdemo.paintProfiler";
+    /**
+     * 设置了此客户端属性（值为 Boolean.TRUE）的组件不计入统计，例如热力图叠加层本身
+     */
+    public static final String IGNORE_PROPERTY = "paintProfiler.ignore";
+    
+    // 同一组件在窗口期内 revalidate 达到此次数即记为风暴
+    private static final int STORM_REQUESTS = 10;
+    private static final long STORM_WINDOW_MS = 1000;
+    private static final int MAX_STORMS = 100;
+    // 超过一帧的绘制或布局记为慢
+    private static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+    static final int HEAT_CELL = 16;
+    private static final String APP_PACKAGE = "com.example.swing.";
+    
+    private static ProfilingRepaintManager installed;
+    
+    /**
+     * 一个组件的统计快照
+     */
+    public record Profile(String component, String owner, long repaintRequests, LatencyHistogram paintTime,
+                          long revalidateRequests, LatencyHistogram layoutTime, int storms,
+                          int peakRevalidatesPerWindow) {
+    }
+    
+    /**
+     * 一次布局风暴：发起 revalidate 的组件、所在面板和第一次超限时的调用栈
+     */
+    public record Storm(long time, String component, String owner, StackTraceElement[] stack) {
+    }
+    
+    /**
+     * 一个组件的累计统计，由 lock 保护
+     */
+    private static final class Stats {
+        long repaintRequests;
+        final LatencyHistogram paintTime = new LatencyHistogram();
+        long revalidateRequests;
+        final LatencyHistogram layoutTime = new LatencyHistogram();
+        int storms;
+        long windowStart;
+        int windowRequests;
+        int peakWindowRequests;
+    }
+    
+    /**
+     * 一个窗口的重绘热力图，按 HEAT_CELL 像素分格累计，只在 EDT 上访问
+     */
+    static final class HeatMap {
+        int columns;
+        int rows;
+        float[] cells = new float[0];
+        
+        void add(Rectangle area, int width, int height) {
+            int newColumns = (width + HEAT_CELL - 1) / HEAT_CELL;
+            int newRows = (height + HEAT_CELL - 1) / HEAT_CELL;
+            if (newColumns != columns || newRows != rows) {
+                // 窗口大小变了，之前的格子已经对不上
+                columns = newColumns;
+                rows = newRows;
+                cells = new float[columns * rows];
+            }
+            int x0 = Math.max(0, area.x / HEAT_CELL);
+            int y0 = Math.max(0, area.y / HEAT_CELL);
+            int x1 = Math.min(columns - 1, (area.x + area.width - 1) / HEAT_CELL);
+            int y1 = Math.min(rows - 1, (area.y + area.height - 1) / HEAT_CELL);
+            for (int y = y0; y <= y1; y++) {
+                for (int x = x0; x <= x1; x++) {
+                    cells[y * columns + x]++;
+                }
+            }
+        }
+        
+        void decay(float factor) {
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] *= factor;
+            }
+        }
+    }
+    
+    private final Object lock = new Object();
+    // 以下由 lock 保护；组件被回收后统计随之丢弃
+    private final Map<Component, Stats> stats = new WeakHashMap<>();
+    private final Set<JComponent> pendingPaint = new LinkedHashSet<>();
+    private final Set<Container> pendingLayout = new LinkedHashSet<>();
+    private final List<Storm> storms = new ArrayList<>();
+    private long paintPasses;
+    private long layoutPasses;
+    
+    // 只在 EDT 上访问
+    private final Map<JRootPane, HeatMap> heatMaps = new WeakHashMap<>();
+    
+    private ProfilingRepaintManager() {
+    }
+    
+    /**
+     * 按系统属性决定是否启用
+     */
+    public static void installIfEnabled() {
+        if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+            install();
+        }
+    }
+    
+    /**
+     * 替换当前的 RepaintManager；已经安装时只返回现有的实例
+     */
+    public static synchronized ProfilingRepaintManager install() {
+        if (installed == null) {
+            installed = new ProfilingRepaintManager();
+            RepaintManager.setCurrentManager(installed);
+        }
+        return installed;
+    }
+    
+    /**
+     * 已安装的实例，未启用时为 null
+     */
+    public static synchronized ProfilingRepaintManager getInstalled() {
+        return installed;
+    }
+    
+    @Override
+    public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+        super.addDirtyRegion(c, x, y, w, h);
+        if (w <= 0 || h <= 0 || isIgnored(c)) {
+            return;
+        }
+        synchronized (lock) {
+            stats(c).repaintRequests++;
+            pendingPaint.add(c);
+        }
+    }
+    
+    @Override
+    public void addInvalidComponent(JComponent invalidComponent) {
+        super.addInvalidComponent(invalidComponent);
+        Container root = validateRoot(invalidComponent);
+        if (root == null) {
+            return;
+        }
+        boolean storm;
+        synchronized (lock) {
+            pendingLayout.add(root);
+            Stats s = stats(invalidComponent);
+            s.revalidateRequests++;
+            long now = System.currentTimeMillis();
+            if (now - s.windowStart > STORM_WINDOW_MS) {
+                s.windowStart = now;
+                s.windowRequests = 0;
+            }
+            s.windowRequests++;
+            s.peakWindowRequests = Math.max(s.peakWindowRequests, s.windowRequests);
+            storm = s.windowRequests == STORM_REQUESTS;
+            if (storm) {
+                s.storms++;
+            }
+        }
+        if (storm) {
+            // 每个窗口期只在第一次超限时抓取调用栈
+            Storm record = new Storm(System.currentTimeMillis(), componentName(invalidComponent),
+                ownerName(invalidComponent), Thread.currentThread().getStackTrace());
+            synchronized (lock) {
+                storms.add(record);
+                if (storms.size() > MAX_STORMS) {
+                    storms.remove(0);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 先逐个计时验证记录下来的验证根，剩下的交给默认实现
+     */
+    @Override
+    public void validateInvalidComponents() {
+        List<Container> roots;
+        synchronized (lock) {
+            if (!pendingLayout.isEmpty()) {
+                layoutPasses++;
+            }
+            roots = new ArrayList<>(pendingLayout);
+            pendingLayout.clear();
+        }
+        for (Container root : roots) {
+            if (root.isValid()) {
+                continue;
+            }
+            long start = System.nanoTime();
+            root.validate();
+            long elapsed = System.nanoTime() - start;
+            synchronized (lock) {
+                stats(root).layoutTime.record(elapsed, elapsed >= FRAME_NANOS);
+            }
+        }
+        super.validateInvalidComponents();
+    }
+    
+    /**
+     * 把待绘制的组件合并到最上层也待绘制的祖先，逐个子树绘制并计时，剩下的交给默认实现
+     */
+    @Override
+    public void paintDirtyRegions() {
+        List<JComponent> requested;
+        synchronized (lock) {
+            requested = new ArrayList<>(pendingPaint);
+            pendingPaint.clear();
+        }
+        Map<JComponent, Rectangle> dirty = new LinkedHashMap<>();
+        for (JComponent c : requested) {
+            Rectangle region = getDirtyRegion(c).intersection(new Rectangle(0, 0, c.getWidth(), c.getHeight()));
+            if (!region.isEmpty() && c.isShowing()) {
+                dirty.put(c, region);
+                recordHeat(c, region);
+            }
+        }
+        if (!dirty.isEmpty()) {
+            synchronized (lock) {
+                paintPasses++;
+            }
+        }
+        
+        Map<JComponent, Rectangle> roots = new LinkedHashMap<>();
+        for (Map.Entry<JComponent, Rectangle> entry : dirty.entrySet()) {
+            JComponent c = entry.getKey();
+            JComponent target = c;
+            for (Container parent = c.getParent(); parent instanceof JComponent component; parent = parent.getParent()) {
+                if (dirty.containsKey(component)) {
+                    target = component;
+                }
+            }
+            Rectangle region = target == c ? entry.getValue()
+                : SwingUtilities.convertRectangle(c, entry.getValue(), target);
+            roots.merge(target, region, Rectangle::union);
+            markCompletelyClean(c);
+        }
+        for (Map.Entry<JComponent, Rectangle> entry : roots.entrySet()) {
+            long start = System.nanoTime();
+            entry.getKey().paintImmediately(entry.getValue());
+            long elapsed = System.nanoTime() - start;
+            synchronized (lock) {
+                stats(entry.getKey()).paintTime.record(elapsed, elapsed >= FRAME_NANOS);
+            }
+        }
+        super.paintDirtyRegions();
+    }
+    
+    private void recordHeat(JComponent c, Rectangle region) {
+        JRootPane rootPane = SwingUtilities.getRootPane(c);
+        if (rootPane == null) {
+            return;
+        }
+        Rectangle area = SwingUtilities.convertRectangle(c, region, rootPane);
+        heatMaps.computeIfAbsent(rootPane, r -> new HeatMap()).add(area, rootPane.getWidth(), rootPane.getHeight());
+    }
+    
+    /**
+     * 窗口的热力图，只在 EDT 上调用；还没有记录时为 null
+     */
+    HeatMap getHeatMap(JRootPane rootPane) {
+        return heatMaps.get(rootPane);
+    }
+    
+    /**
+     * 各组件统计的快照，按重绘请求从多到少排列，只在 EDT 上调用
+     */
+    public List<Profile> getProfiles() {
+        List<Profile> profiles = new ArrayList<>();
+        synchronized (lock) {
+            for (Map.Entry<Component, Stats> entry : stats.entrySet()) {
+                Component c = entry.getKey();
+                Stats s = entry.getValue();
+                profiles.add(new Profile(componentName(c), ownerName(c), s.repaintRequests, s.paintTime.copy(),
+                    s.revalidateRequests, s.layoutTime.copy(), s.storms, s.peakWindowRequests));
+            }
+        }
+        profiles.sort((a, b) -> Long.compare(b.repaintRequests(), a.repaintRequests()));
+        return profiles;
+    }
+    
+    /**
+     * 最近的布局风暴，从旧到新
+     */
+    public List<Storm> getStorms() {
+        synchronized (lock) {
+            return new ArrayList<>(storms);
+        }
+    }
+    
+    public long getPaintPasses() {
+        synchronized (lock) {
+            return paintPasses;
+        }
+    }
+    
+    public long getLayoutPasses() {
+        synchronized (lock) {
+            return layoutPasses;
+        }
+    }
+    
+    /**
+     * 清空统计和热力图，只在 EDT 上调用
+     */
+    public void reset() {
+        synchronized (lock) {
+            stats.clear();
+            storms.clear();
+            paintPasses = 0;
+            layoutPasses = 0;
+        }
+        heatMaps.clear();
+    }
+    
+    private Stats stats(Component c) {
+        return stats.computeIfAbsent(c, k -> new Stats());
+    }
+    
+    private static boolean isIgnored(JComponent c) {
+        return Boolean.TRUE.equals(c.getClientProperty(IGNORE_PROPERTY));
+    }
+    
+    /**
+     * 与 RepaintManager 的做法相同：向上找到第一个验证根，途中遇到不可显示的组件时不需要布局
+     */
+    private static Container validateRoot(Component c) {
+        for (Container container = c instanceof Container self ? self : c.getParent();
+             container != null; container = container.getParent()) {
+            if (!container.isDisplayable() || container instanceof CellRendererPane) {
+                return null;
+            }
+            if (container.isValidateRoot()) {
+                return container;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 组件的显示名：类名（匿名类取父类）加上按钮或标签的文字
+     */
+    static String componentName(Component c) {
+        Class<?> type = c.getClass();
+        while (type.getSimpleName().isEmpty()) {
+            type = type.getSuperclass();
+        }
+        String text = null;
+        if (c instanceof AbstractButton button) {
+            text = button.getText();
+        } else if (c instanceof JLabel label) {
+            text = label.getText();
+        }
+        if (text == null || text.isEmpty()) {
+            text = c.getName();
+        }
+        return text == null || text.isEmpty() ? type.getSimpleName() : type.getSimpleName() + "「" + text + "」";
+    }
+    
+    /**
+     * 组件所在的本应用面板（最近的一个由本应用定义的具名类祖先），没有时取最顶层容器
+     */
+    static String ownerName(Component c) {
+        Component last = c;
+        for (Container parent = c.getParent(); parent != null; parent = parent.getParent()) {
+            Class<?> type = parent.getClass();
+            if (type.getName().startsWith(APP_PACKAGE) && !type.isAnonymousClass()) {
+                return type.getSimpleName();
+            }
+            last = parent;
+        }
+        return last == c ? "" : componentName(last);
+    }
+}
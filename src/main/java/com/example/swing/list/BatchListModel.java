@@ -0,0 +1,218 @@
+package com.example.swing.list;
+
+import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 支持批量增删的列表模型
+ * 元素保存在一个数组中，删除任意一组位置只做一次压缩，插入一批元素只做一次合并，
+ * 连续的增删发出一个区间事件，不连续的增删发出一对 {@link ListBatchEvent}；
+ * DefaultListModel 逐项删除和追加时每项都要移动数组并发出事件
+ */
+public class BatchListModel<E> extends AbstractListModel<E> {
+    
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    private Object[] elements = new Object[DEFAULT_CAPACITY];
+    private int size;
+    
+    @Override
+    public int getSize() {
+        return size;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public E getElementAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("序号越界: " + index);
+        }
+        return (E) elements[index];
+    }
+    
+    public void addElement(E element) {
+        ensureCapacity(size + 1);
+        elements[size++] = element;
+        fireIntervalAdded(this, size - 1, size - 1);
+    }
+    
+    /**
+     * 追加到末尾，返回第一个新元素的位置
+     */
+    public int addAll(Collection<? extends E> items) {
+        int first = size;
+        if (items.isEmpty()) {
+            return first;
+        }
+        ensureCapacity(size + items.size());
+        for (E item : items) {
+            elements[size++] = item;
+        }
+        fireIntervalAdded(this, first, size - 1);
+        return first;
+    }
+    
+    /**
+     * 按 comparator 插入到已排序的列表中，返回各新元素插入后的位置（升序）。
+     * 新元素先排序，再逐个二分查找在原有元素中的插入点，原有元素按段整体复制，一次合并完成
+     */
+    public int[] addAllSorted(Collection<? extends E> items, Comparator<? super E> comparator) {
+        int count = items.size();
+        if (count == 0) {
+            return new int[0];
+        }
+        @SuppressWarnings("unchecked")
+        E[] sorted = (E[]) items.toArray();
+        Arrays.sort(sorted, comparator);
+        
+        Object[] merged = new Object[Math.max(DEFAULT_CAPACITY, size + count)];
+        int[] indices = new int[count];
+        int from = 0;
+        int to = 0;
+        for (int i = 0; i < count; i++) {
+            // 相等的元素插在原有元素之后
+            int insertAt = upperBound(sorted[i], from, comparator);
+            int run = insertAt - from;
+            System.arraycopy(elements, from, merged, to, run);
+            to += run;
+            from = insertAt;
+            indices[i] = to;
+            merged[to++] = sorted[i];
+        }
+        System.arraycopy(elements, from, merged, to, size - from);
+        int oldSize = size;
+        elements = merged;
+        size += count;
+        if (indices[count - 1] - indices[0] + 1 == count) {
+            fireIntervalAdded(this, indices[0], indices[count - 1]);
+        } else {
+            // 不连续的插入：尾部增长的区间，加上原有元素中被后移的部分
+            fireBatchEvents(ListBatchEvent.inserted(this, oldSize, size - 1, indices),
+                ListBatchEvent.shifted(this, indices[0], oldSize - 1));
+        }
+        return indices;
+    }
+    
+    /**
+     * 一次压缩删除多个位置的元素，indices 必须升序，返回被删除的元素
+     */
+    public List<E> removeAll(int[] indices) {
+        List<E> removed = new ArrayList<>(indices.length);
+        if (indices.length == 0) {
+            return removed;
+        }
+        int first = indices[0];
+        int last = indices[indices.length - 1];
+        if (first < 0 || last >= size) {
+            throw new IndexOutOfBoundsException("序号越界: " + (first < 0 ? first : last));
+        }
+        int to = first;
+        int next = 0;
+        for (int from = first; from < size; from++) {
+            if (next < indices.length && indices[next] == from) {
+                @SuppressWarnings("unchecked")
+                E element = (E) elements[from];
+                removed.add(element);
+                next++;
+            } else {
+                elements[to++] = elements[from];
+            }
+        }
+        int oldSize = size;
+        Arrays.fill(elements, to, oldSize, null);
+        size = to;
+        if (last - first + 1 == indices.length) {
+            fireIntervalRemoved(this, first, last);
+        } else {
+            // 不连续的删除：尾部缩短的区间，加上剩余元素中被前移的部分
+            fireBatchEvents(ListBatchEvent.removed(this, size, oldSize - 1, indices.clone()),
+                ListBatchEvent.shifted(this, first, size - 1));
+        }
+        return removed;
+    }
+    
+    /**
+     * 清空列表，返回原有的全部元素
+     */
+    public List<E> clear() {
+        @SuppressWarnings("unchecked")
+        List<E> removed = (List<E>) Arrays.asList(Arrays.copyOf(elements, size));
+        if (size > 0) {
+            int oldSize = size;
+            elements = new Object[DEFAULT_CAPACITY];
+            size = 0;
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        return removed;
+    }
+    
+    /**
+     * 在按 comparator 排序的列表中二分查找 key，找不到时返回 -(插入点) - 1
+     */
+    @SuppressWarnings("unchecked")
+    public int binarySearch(E key, Comparator<? super E> comparator) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = comparator.compare((E) elements[mid], key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    
+    public void ensureCapacity(int capacity) {
+        if (capacity <= elements.length) {
+            return;
+        }
+        elements = Arrays.copyOf(elements, Math.max(capacity, elements.length + (elements.length >> 1)));
+    }
+    
+    /**
+     * 先发出尾部增删的事件，再发出内容变化的事件
+     */
+    private void fireBatchEvents(ListBatchEvent resize, ListBatchEvent shift) {
+        // 与 AbstractListModel 一致，后注册的监听器先收到
+        ListDataListener[] listeners = getListDataListeners();
+        for (int i = listeners.length - 1; i >= 0; i--) {
+            if (resize.getType() == ListDataEvent.INTERVAL_ADDED) {
+                listeners[i].intervalAdded(resize);
+            } else {
+                listeners[i].intervalRemoved(resize);
+            }
+        }
+        for (int i = listeners.length - 1; i >= 0; i--) {
+            listeners[i].contentsChanged(shift);
+        }
+    }
+    
+    /**
+     * 在 [from, size) 中找到第一个大于 element 的位置
+     */
+    @SuppressWarnings("unchecked")
+    private int upperBound(E element, int from, Comparator<? super E> comparator) {
+        int low = from;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare((E) elements[mid], element) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.swing.list;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * 目录列表模型
+ * 后台线程用 DirectoryStream 逐项读取目录，每读到一批就按顺序合并进列表，大目录不必等全部读完就能显示。
+ * 读取前先向 WatchService 注册，之后的新建和删除由监视线程按名称合并记录（同一名称只保留最后一次），
+ * EDT 定时取出，每次最多发出一个删除事件和一个插入事件，不重新读取整个目录；
+ * 只有事件溢出时才重新读取。目录在前，名称不区分大小写排序
+ */
+public class DirectoryListModel extends BatchListModel<DirectoryListModel.Entry> {
+    
+    public static final Comparator<Entry> ORDER = DirectoryListModel::compare;
+    
+    private static final int BATCH_SIZE = 2000;
+    private static final int COALESCE_MS = 200;
+    
+    /**
+     * 目录中的一项，只保存名称和是否为目录，几十万项时也不占用太多内存
+     */
+    public record Entry(String name, boolean directory) {
+        
+        @Override
+        public String toString() {
+            return icon() + " " + name;
+        }
+        
+        private String icon() {
+            if (directory) {
+                return "📁";
+            }
+            int dot = name.lastIndexOf('.');
+            String extension = dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+            return switch (extension) {
+                case "png", "jpg", "jpeg", "gif", "bmp", "svg" -> "🖼️";
+                case "mp3", "wav", "flac", "ogg" -> "🎵";
+                case "mp4", "mkv", "avi", "mov" -> "🎬";
+                default -> "📄";
+            };
+        }
+    }
+    
+    private final Timer changeTimer;
+    // 列表中各名称对应的项，用于按名称找到要删除或替换的项
+    private final Map<String, Entry> entries = new HashMap<>();
+    private Session session;
+    
+    public DirectoryListModel() {
+        changeTimer = new Timer(COALESCE_MS, e -> applyChanges());
+        changeTimer.setCoalesce(true);
+    }
+    
+    /**
+     * 清空列表并开始读取和监视 directory；读取结束（或失败）时在 EDT 上调用 onFinished，成功时参数为 null
+     */
+    public void open(Path directory, Consumer<Exception> onFinished) {
+        close();
+        clear();
+        entries.clear();
+        session = new Session(directory, onFinished);
+        session.loader.execute();
+        changeTimer.start();
+    }
+    
+    /**
+     * 停止读取和监视，列表内容保持不变
+     */
+    public void close() {
+        changeTimer.stop();
+        if (session != null) {
+            session.stop();
+            session = null;
+        }
+    }
+    
+    public Path getDirectory() {
+        return session == null ? null : session.directory;
+    }
+    
+    public boolean isLoading() {
+        return session != null && session.loading;
+    }
+    
+    public boolean isWatching() {
+        return session != null && session.watchService != null;
+    }
+    
+    private static int compare(Entry a, Entry b) {
+        if (a.directory() != b.directory()) {
+            return a.directory() ? -1 : 1;
+        }
+        int cmp = String.CASE_INSENSITIVE_ORDER.compare(a.name(), b.name());
+        return cmp != 0 ? cmp : a.name().compareTo(b.name());
+    }
+    
+    /**
+     * 在 EDT 上定时调用，把监视线程记录的变化合并进列表；读取期间先积压，读完再一起处理
+     */
+    private void applyChanges() {
+        Session current = session;
+        if (current == null || current.loading) {
+            return;
+        }
+        Map<String, Entry> changes;
+        synchronized (current.pending) {
+            if (current.overflow) {
+                // 丢失了部分事件，只能重新读取
+                open(current.directory, current.onFinished);
+                return;
+            }
+            if (current.pending.isEmpty()) {
+                return;
+            }
+            changes = new LinkedHashMap<>(current.pending);
+            current.pending.clear();
+        }
+        
+        int[] removed = new int[changes.size()];
+        int removedCount = 0;
+        List<Entry> added = new ArrayList<>();
+        for (Map.Entry<String, Entry> change : changes.entrySet()) {
+            Entry entry = change.getValue();
+            Entry old = entries.get(change.getKey());
+            if (entry == null ? old == null : entry.equals(old)) {
+                continue;
+            }
+            if (old != null) {
+                removed[removedCount++] = binarySearch(old, ORDER);
+                entries.remove(change.getKey());
+            }
+            if (entry != null) {
+                added.add(entry);
+                entries.put(change.getKey(), entry);
+            }
+        }
+        if (removedCount > 0) {
+            removed = Arrays.copyOf(removed, removedCount);
+            Arrays.sort(removed);
+            removeAll(removed);
+        }
+        addAllSorted(added, ORDER);
+    }
+    
+    private static void closeQuietly(WatchService service) {
+        try {
+            service.close();
+        } catch (IOException ex) {
+            // 关闭失败不影响列表
+        }
+    }
+    
+    /**
+     * 一次打开目录：读取任务、监视线程和它们记录的变化
+     */
+    private final class Session {
+        final Path directory;
+        final Consumer<Exception> onFinished;
+        final SwingWorker<Void, Entry> loader;
+        // 监视线程记录的变化：名称到新的项，已删除为 null
+        final Map<String, Entry> pending = new LinkedHashMap<>();
+        boolean overflow;
+        volatile WatchService watchService;
+        boolean loading = true;
+        
+        Session(Path directory, Consumer<Exception> onFinished) {
+            this.directory = directory;
+            this.onFinished = onFinished;
+            this.loader = new SwingWorker<>() {
+                @Override
+                protected Void doInBackground() throws IOException {
+                    // 先注册再读取，读取期间的变化不会遗漏
+                    startWatching();
+                    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                        Entry[] batch = new Entry[BATCH_SIZE];
+                        int count = 0;
+                        for (Path path : stream) {
+                            if (isCancelled()) {
+                                return null;
+                            }
+                            batch[count++] = new Entry(path.getFileName().toString(), Files.isDirectory(path));
+                            if (count == BATCH_SIZE) {
+                                publish(batch);
+                                batch = new Entry[BATCH_SIZE];
+                                count = 0;
+                            }
+                        }
+                        publish(Arrays.copyOf(batch, count));
+                    }
+                    return null;
+                }
+                
+                @Override
+                protected void process(List<Entry> chunk) {
+                    // EDT 忙时多批会合并到一次调用，只合并一次
+                    if (session != Session.this) {
+                        return;
+                    }
+                    for (Entry entry : chunk) {
+                        entries.put(entry.name(), entry);
+                    }
+                    addAllSorted(chunk, ORDER);
+                }
+                
+                @Override
+                protected void done() {
+                    if (session != Session.this) {
+                        return;
+                    }
+                    loading = false;
+                    Exception error = null;
+                    try {
+                        get();
+                    } catch (InterruptedException | ExecutionException ex) {
+                        error = ex;
+                    }
+                    onFinished.accept(error);
+                    applyChanges();
+                }
+            };
+        }
+        
+        /**
+         * 注册监视并启动监视线程；文件系统不支持监视时只读取一次
+         */
+        private void startWatching() {
+            WatchService service;
+            try {
+                service = directory.getFileSystem().newWatchService();
+                directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE);
+            } catch (IOException | UnsupportedOperationException ex) {
+                return;
+            }
+            watchService = service;
+            if (loader.isCancelled()) {
+                closeQuietly(service);
+                return;
+            }
+            Thread watcher = new Thread(() -> watch(service), "directory-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+        
+        private void watch(WatchService service) {
+            try {
+                while (true) {
+                    WatchKey key = service.take();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            synchronized (pending) {
+                                overflow = true;
+                            }
+                            continue;
+                        }
+                        Path name = (Path) event.context();
+                        Path path = directory.resolve(name);
+                        // 类型在监视线程上读取，EDT 不做文件 I/O
+                        Entry entry = event.kind() == StandardWatchEventKinds.ENTRY_DELETE || !Files.exists(path)
+                            ? null : new Entry(name.toString(), Files.isDirectory(path));
+                        synchronized (pending) {
+                            pending.put(name.toString(), entry);
+                        }
+                    }
+                    if (!key.reset()) {
+                        return; // 目录已不可访问
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException ex) {
+                // 已关闭
+            }
+        }
+        
+        void stop() {
+            loader.cancel(true);
+            WatchService service = watchService;
+            if (service != null) {
+                closeQuietly(service);
+            }
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.swing.list;
+
+import com.example.swing.search.NGramIndex;
+import com.example.swing.search.PrefixIndex;
+
+import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * 可筛选的列表视图
+ * 包装 BatchListModel，按子串或前缀筛选显示的元素，并为 JList 的键入查找提供前缀查询。
+ * 每个元素分配一个稳定编号登记在索引中：子串用 n-gram 倒排索引，前缀用排序前缀索引，
+ * 两个索引都在第一次用到时才建立，之后随源列表的增删增量更新。
+ * 筛选结果按源列表中的顺序显示
+ */
+public class FilteredListModel<E> extends AbstractListModel<E> implements ListDataListener {
+    
+    private static final int DEFAULT_CAPACITY = 16;
+    // 所有列表共用的查询线程
+    private static final ExecutorService SEARCH_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "list-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final BatchListModel<E> source;
+    // 按源位置的元素编号，以及按编号的源位置（空闲编号为 -1）
+    private int size;
+    private int[] idByPosition = new int[DEFAULT_CAPACITY];
+    private int[] positionById = new int[DEFAULT_CAPACITY];
+    private int idLimit;
+    // 删除元素释放的编号，新元素优先复用，索引不会随反复移动无限增长
+    private int[] freeIds = new int[DEFAULT_CAPACITY];
+    private int freeCount;
+    
+    private NGramIndex substringIndex;
+    // n-gram 索引删除是惰性的，登记次数远超元素数时丢弃重建
+    private int substringPuts;
+    private PrefixIndex prefixIndex;
+    
+    // 源列表每次增删加一，后台查询返回时据此判断结果是否需要核对
+    private int modCount;
+    
+    private String filterText = "";
+    private boolean prefixFilter;
+    // 通过筛选的源位置（升序），null 表示不筛选
+    private int[] visible;
+    
+    public FilteredListModel(BatchListModel<E> source) {
+        this.source = source;
+        reset();
+        source.addListDataListener(this);
+    }
+    
+    public BatchListModel<E> getSource() {
+        return source;
+    }
+    
+    public String getFilterText() {
+        return filterText;
+    }
+    
+    public boolean isFiltering() {
+        return visible != null;
+    }
+    
+    /**
+     * 设置筛选文本，prefix 为 true 时只显示以文本开头的元素，否则显示包含文本的元素；文本为空时显示全部
+     */
+    public void setFilter(String text, boolean prefix) {
+        filterText = text == null ? "" : text;
+        prefixFilter = prefix;
+        int oldSize = getSize();
+        applyFilter();
+        int changed = Math.max(oldSize, getSize());
+        if (changed > 0) {
+            fireContentsChanged(this, 0, changed - 1);
+        }
+    }
+    
+    @Override
+    public int getSize() {
+        return visible == null ? size : visible.length;
+    }
+    
+    @Override
+    public E getElementAt(int index) {
+        return source.getElementAt(convertIndexToSource(index));
+    }
+    
+    public int convertIndexToSource(int index) {
+        return visible == null ? index : visible[index];
+    }
+    
+    /**
+     * 源位置在视图中的位置，未通过筛选时返回 -1
+     */
+    public int convertIndexToView(int sourceIndex) {
+        if (visible == null) {
+            return sourceIndex;
+        }
+        int index = Arrays.binarySearch(visible, sourceIndex);
+        return index >= 0 ? index : -1;
+    }
+    
+    /**
+     * 从 startIndex 开始按方向（循环）找第一个以 prefix 开头的视图位置，供 JList.getNextMatch 使用
+     */
+    public int nextMatch(String prefix, int startIndex, boolean forward) {
+        int count = getSize();
+        if (count == 0 || prefix == null) {
+            return -1;
+        }
+        BitSet ids = prefixIndex().query(prefix);
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            int index = convertIndexToView(positionById[id]);
+            if (index < 0) {
+                continue;
+            }
+            int distance = forward ? Math.floorMod(index - startIndex, count) : Math.floorMod(startIndex - index, count);
+            if (distance < bestDistance) {
+                best = index;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * 在后台线程查询源列表中包含 text 的元素，完成后在 EDT 上以源位置（升序）回调，与当前筛选无关。
+     * 索引在调用线程（EDT）上确保建立，查询期间列表被修改时，结果只保留仍然匹配的位置
+     */
+    public void findAll(String text, Consumer<int[]> callback) {
+        NGramIndex index = substringIndex();
+        String needle = NGramIndex.normalize(text);
+        int startModCount = modCount;
+        SEARCH_EXECUTOR.execute(() -> {
+            BitSet ids = index.query(needle);
+            SwingUtilities.invokeLater(() -> {
+                BitSet positions = new BitSet(size);
+                for (int id = ids.nextSetBit(0); id >= 0 && id < idLimit; id = ids.nextSetBit(id + 1)) {
+                    int position = positionById[id];
+                    if (position < 0) {
+                        continue;
+                    }
+                    // 查询期间有增删时编号可能已被复用，再核对一次文本
+                    if (startModCount == modCount
+                        || NGramIndex.normalize(String.valueOf(source.getElementAt(position))).contains(needle)) {
+                        positions.set(position);
+                    }
+                }
+                callback.accept(positions.stream().toArray());
+            });
+        });
+    }
+    
+    private void applyFilter() {
+        if (filterText.isEmpty()) {
+            visible = null;
+            return;
+        }
+        BitSet ids = prefixFilter ? prefixIndex().query(filterText) : substringIndex().query(filterText);
+        BitSet positions = new BitSet(size);
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            positions.set(positionById[id]);
+        }
+        visible = positions.stream().toArray();
+    }
+    
+    private NGramIndex substringIndex() {
+        if (substringIndex == null) {
+            substringIndex = new NGramIndex();
+            for (int position = 0; position < size; position++) {
+                substringIndex.put(idByPosition[position], String.valueOf(source.getElementAt(position)));
+            }
+            substringPuts = size;
+        }
+        return substringIndex;
+    }
+    
+    private PrefixIndex prefixIndex() {
+        if (prefixIndex == null) {
+            prefixIndex = new PrefixIndex();
+            String[] texts = new String[size];
+            for (int position = 0; position < size; position++) {
+                texts[position] = String.valueOf(source.getElementAt(position));
+            }
+            prefixIndex.putAll(Arrays.copyOf(idByPosition, size), texts);
+        }
+        return prefixIndex;
+    }
+    
+    /**
+     * 按源列表的当前内容重新分配编号，索引在下次使用时重建
+     */
+    private void reset() {
+        modCount++;
+        size = 0;
+        idLimit = 0;
+        freeCount = 0;
+        substringIndex = null;
+        prefixIndex = null;
+        int count = source.getSize();
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = i;
+        }
+        insertPositions(positions);
+    }
+    
+    private int allocateId() {
+        if (freeCount > 0) {
+            return freeIds[--freeCount];
+        }
+        if (idLimit == positionById.length) {
+            positionById = Arrays.copyOf(positionById, idLimit + (idLimit >> 1));
+        }
+        return idLimit++;
+    }
+    
+    private void freeId(int id) {
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+        positionById[id] = -1;
+    }
+    
+    /**
+     * 源列表在 positions（插入后的位置，升序）插入了新元素
+     */
+    private void insertPositions(int[] positions) {
+        modCount++;
+        int count = positions.length;
+        int newSize = size + count;
+        int[] ids = new int[Math.max(DEFAULT_CAPACITY, newSize)];
+        int[] newIds = new int[count];
+        String[] texts = new String[count];
+        int from = 0;
+        int inserted = 0;
+        for (int position = 0; position < newSize; position++) {
+            int id;
+            if (inserted < count && positions[inserted] == position) {
+                id = allocateId();
+                newIds[inserted] = id;
+                texts[inserted++] = String.valueOf(source.getElementAt(position));
+            } else {
+                id = idByPosition[from++];
+            }
+            ids[position] = id;
+            positionById[id] = position;
+        }
+        idByPosition = ids;
+        size = newSize;
+        if (prefixIndex != null) {
+            prefixIndex.putAll(newIds, texts);
+        }
+        if (substringIndex != null) {
+            for (int i = 0; i < count; i++) {
+                substringIndex.put(newIds[i], texts[i]);
+            }
+            substringPuts += count;
+        }
+    }
+    
+    /**
+     * 源列表删除了 positions（删除前的位置，升序）处的元素
+     */
+    private void removePositions(int[] positions) {
+        modCount++;
+        BitSet removedIds = new BitSet(idLimit);
+        int to = 0;
+        int removed = 0;
+        for (int position = 0; position < size; position++) {
+            int id = idByPosition[position];
+            if (removed < positions.length && positions[removed] == position) {
+                removedIds.set(id);
+                freeId(id);
+                if (substringIndex != null) {
+                    substringIndex.remove(id);
+                }
+                removed++;
+            } else {
+                idByPosition[to] = id;
+                positionById[id] = to++;
+            }
+        }
+        size = to;
+        if (prefixIndex != null) {
+            prefixIndex.removeAll(removedIds);
+        }
+        if (substringPuts > 2 * size + 1024) {
+            substringIndex = null;
+        }
+    }
+    
+    private static int[] range(int index0, int index1) {
+        int[] positions = new int[index1 - index0 + 1];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = index0 + i;
+        }
+        return positions;
+    }
+    
+    @Override
+    public void intervalAdded(ListDataEvent e) {
+        // 批量插入的事件只给出尾部区间，实际位置另附
+        insertPositions(e instanceof ListBatchEvent batch ? batch.getInsertedIndices() : range(e.getIndex0(), e.getIndex1()));
+        if (visible == null) {
+            fireIntervalAdded(this, e.getIndex0(), e.getIndex1());
+        } else {
+            refilter();
+        }
+    }
+    
+    @Override
+    public void intervalRemoved(ListDataEvent e) {
+        int oldSize = getSize();
+        removePositions(e instanceof ListBatchEvent batch ? batch.getRemovedIndices() : range(e.getIndex0(), e.getIndex1()));
+        if (visible == null) {
+            fireIntervalRemoved(this, e.getIndex0(), e.getIndex1());
+        } else {
+            refilter(oldSize);
+        }
+    }
+    
+    @Override
+    public void contentsChanged(ListDataEvent e) {
+        if (e instanceof ListBatchEvent) {
+            // 批量增删后移动的区间，编号和筛选结果已在前一个事件中更新
+            if (visible == null) {
+                fireContentsChanged(this, e.getIndex0(), e.getIndex1());
+            }
+            return;
+        }
+        int oldSize = getSize();
+        reset();
+        if (visible == null) {
+            fireContentsChanged(this, e.getIndex0(), e.getIndex1());
+        } else {
+            refilter(oldSize);
+        }
+    }
+    
+    private void refilter() {
+        refilter(getSize());
+    }
+    
+    /**
+     * 源列表变化后重新筛选；筛选中的视图位置与源位置不对应，整体通知内容变化
+     */
+    private void refilter(int oldSize) {
+        applyFilter();
+        int changed = Math.max(oldSize, getSize());
+        if (changed > 0) {
+            fireContentsChanged(this, 0, changed - 1);
+        }
+    }
+}
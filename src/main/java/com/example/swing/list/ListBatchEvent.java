@@ -0,0 +1,56 @@
+package com.example.swing.list;
+
+import javax.swing.event.ListDataEvent;
+
+/**
+ * 批量增删的列表事件
+ * 不连续的增删分两个事件发出：先是列表尾部的区间增删，使普通监听器（包括 JList）看到的长度正确，
+ * 再是从第一个增删位置到原有元素末尾的内容变化。
+ * 了解此事件的监听器在第一个事件中按实际增删的位置增量更新，第二个事件不带位置，无需再处理
+ */
+public class ListBatchEvent extends ListDataEvent {
+    
+    private final int[] removedIndices;
+    private final int[] insertedIndices;
+    
+    private ListBatchEvent(Object source, int type, int index0, int index1, int[] removedIndices, int[] insertedIndices) {
+        super(source, type, index0, index1);
+        this.removedIndices = removedIndices;
+        this.insertedIndices = insertedIndices;
+    }
+    
+    /**
+     * 删除后列表缩短的尾部区间，附带实际删除的位置
+     */
+    static ListBatchEvent removed(Object source, int index0, int index1, int[] indices) {
+        return new ListBatchEvent(source, INTERVAL_REMOVED, index0, index1, indices, null);
+    }
+    
+    /**
+     * 插入后列表增长的尾部区间，附带实际插入的位置
+     */
+    static ListBatchEvent inserted(Object source, int index0, int index1, int[] indices) {
+        return new ListBatchEvent(source, INTERVAL_ADDED, index0, index1, null, indices);
+    }
+    
+    /**
+     * 增删之后内容发生移动的区间，增删的位置已由前一个事件给出
+     */
+    static ListBatchEvent shifted(Object source, int index0, int index1) {
+        return new ListBatchEvent(source, CONTENTS_CHANGED, index0, index1, null, null);
+    }
+    
+    /**
+     * 被删除元素在删除前的位置（升序），其他事件返回 null
+     */
+    public int[] getRemovedIndices() {
+        return removedIndices;
+    }
+    
+    /**
+     * 新元素插入后的位置（升序），其他事件返回 null
+     */
+    public int[] getInsertedIndices() {
+        return insertedIndices;
+    }
+}
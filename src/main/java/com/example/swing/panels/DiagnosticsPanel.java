@@ -0,0 +1,286 @@
+package com.example.swing.panels;
+
+import com.example.swing.diagnostics.EdtMonitor;
+import com.example.swing.diagnostics.LatencyHistogram;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 诊断面板
+ * 显示 EDT 延迟监控的统计：按事件类型和来源分组的耗时分布，以及超过阈值的事件和当时抓到的调用栈。
+ * 面板可见时每秒刷新一次；监控未启用时可以在这里临时启用
+ */
+public class DiagnosticsPanel extends JPanel {
+    
+    private static final int REFRESH_MS = 1000;
+    
+    private final Consumer<String> statusUpdater;
+    private final LatencyTableModel latencyModel = new LatencyTableModel();
+    private final DefaultListModel<EdtMonitor.Stall> stallModel = new DefaultListModel<>();
+    private final JList<EdtMonitor.Stall> stallList = new JList<>(stallModel);
+    private final JTextArea stackArea = new JTextArea();
+    private final JLabel summaryLabel = new JLabel();
+    private final JSpinner thresholdSpinner;
+    private final JButton enableButton = new JButton("启用监控");
+    private final Timer refreshTimer;
+    private long shownStallCount = -1;
+    
+    public DiagnosticsPanel(Consumer<String> statusUpdater) {
+        this.statusUpdater = statusUpdater;
+        setLayout(new BorderLayout(5, 5));
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+        thresholdSpinner = new JSpinner(new SpinnerNumberModel((int) EdtMonitor.DEFAULT_THRESHOLD_MS, 1, 10000, 10));
+        add(createToolbar(), BorderLayout.NORTH);
+        add(createContent(), BorderLayout.CENTER);
+        add(summaryLabel, BorderLayout.SOUTH);
+        
+        refreshTimer = new Timer(REFRESH_MS, e -> refresh());
+        refreshTimer.setCoalesce(true);
+        // 只在面板可见时刷新
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                if (isShowing()) {
+                    refresh();
+                    refreshTimer.start();
+                } else {
+                    refreshTimer.stop();
+                }
+            }
+        });
+        updateControls();
+    }
+    
+    private JPanel createToolbar() {
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        
+        enableButton.addActionListener(e -> {
+            EdtMonitor.install(((Number) thresholdSpinner.getValue()).longValue());
+            updateControls();
+            refresh();
+            statusUpdater.accept("EDT 延迟监控已启用");
+        });
+        thresholdSpinner.addChangeListener(e -> {
+            EdtMonitor monitor = EdtMonitor.getInstalled();
+            if (monitor != null) {
+                monitor.setThresholdMillis(((Number) thresholdSpinner.getValue()).longValue());
+            }
+        });
+        JButton resetButton = new JButton("清空统计");
+        resetButton.addActionListener(e -> {
+            EdtMonitor monitor = EdtMonitor.getInstalled();
+            if (monitor != null) {
+                monitor.reset();
+                refresh();
+                statusUpdater.accept("已清空 EDT 延迟统计");
+            }
+        });
+        
+        toolbar.add(enableButton);
+        toolbar.add(new JLabel("卡顿阈值(ms):"));
+        toolbar.add(thresholdSpinner);
+        toolbar.add(resetButton);
+        return toolbar;
+    }
+    
+    private JSplitPane createContent() {
+        JTable latencyTable = new JTable(latencyModel);
+        // 默认按次数从多到少；数值每秒更新，排序跟着更新
+        TableRowSorter<LatencyTableModel> sorter = new TableRowSorter<>(latencyModel);
+        sorter.setSortKeys(List.of(new RowSorter.SortKey(2, SortOrder.DESCENDING)));
+        sorter.setSortsOnUpdates(true);
+        latencyTable.setRowSorter(sorter);
+        latencyTable.getColumnModel().getColumn(0).setPreferredWidth(200);
+        latencyTable.getColumnModel().getColumn(1).setPreferredWidth(320);
+        
+        DateTimeFormatter timeFormat = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+        stallList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                EdtMonitor.Stall stall = (EdtMonitor.Stall) value;
+                String text = timeFormat.format(Instant.ofEpochMilli(stall.time())) + "  "
+                    + formatMillis(stall.durationNanos()) + " ms  " + stall.key().eventName();
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        stallList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showStack(stallList.getSelectedValue());
+            }
+        });
+        stackArea.setEditable(false);
+        stackArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        
+        JSplitPane stallSplit = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
+            new JScrollPane(stallList), new JScrollPane(stackArea));
+        stallSplit.setResizeWeight(0.35);
+        stallSplit.setBorder(BorderFactory.createTitledBorder("超过阈值的事件（选中查看当时的 EDT 调用栈）"));
+        
+        JScrollPane tableScroll = new JScrollPane(latencyTable);
+        tableScroll.setBorder(BorderFactory.createTitledBorder("按事件类型和来源的耗时分布"));
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, tableScroll, stallSplit);
+        split.setResizeWeight(0.6);
+        return split;
+    }
+    
+    private void updateControls() {
+        EdtMonitor monitor = EdtMonitor.getInstalled();
+        enableButton.setEnabled(monitor == null);
+        if (monitor != null) {
+            thresholdSpinner.setValue((int) monitor.getThresholdMillis());
+        } else {
+            summaryLabel.setText("监控未启用：启动时加 -D" + EdtMonitor.ENABLED_PROPERTY
+                + "=true，或点击“启用监控”");
+        }
+    }
+    
+    private void refresh() {
+        EdtMonitor monitor = EdtMonitor.getInstalled();
+        if (monitor == null) {
+            return;
+        }
+        latencyModel.setRows(monitor.getHistograms());
+        
+        if (monitor.getStallCount() != shownStallCount) {
+            shownStallCount = monitor.getStallCount();
+            EdtMonitor.Stall selected = stallList.getSelectedValue();
+            List<EdtMonitor.Stall> stalls = monitor.getStalls();
+            stallModel.clear();
+            // 最新的在最上面
+            for (int i = stalls.size() - 1; i >= 0; i--) {
+                stallModel.addElement(stalls.get(i));
+            }
+            if (selected != null) {
+                stallList.setSelectedValue(selected, false);
+            }
+        }
+        
+        summaryLabel.setText(latencyModel.getRowCount() + " 个分组，共 " + latencyModel.totalCount + " 个事件；"
+            + "卡顿 " + monitor.getStallCount() + " 次"
+            + (monitor.getNestedLoopCount() > 0
+            ? "；" + monitor.getNestedLoopCount() + " 个事件运行了模态循环，未计入" : ""));
+    }
+    
+    private void showStack(EdtMonitor.Stall stall) {
+        if (stall == null) {
+            stackArea.setText("");
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        text.append(stall.key().eventName()).append("  来源: ").append(stall.key().source())
+            .append("\n耗时 ").append(formatMillis(stall.durationNanos())).append(" ms\n\n");
+        for (StackTraceElement element : stall.stack()) {
+            text.append("    at ").append(element).append('\n');
+        }
+        stackArea.setText(text.toString());
+        stackArea.setCaretPosition(0);
+    }
+    
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+    
+    private static String formatMillis(long nanos) {
+        return String.format("%.1f", toMillis(nanos));
+    }
+    
+    /**
+     * 耗时分布表，每行一个（事件类型，来源）分组；行按分组第一次出现的顺序排列，
+     * 刷新时已有的行只更新数值，表格的选中行不会跳动
+     */
+    private static class LatencyTableModel extends AbstractTableModel {
+        
+        private static final String[] COLUMNS = {
+            "事件", "来源", "次数", "平均(ms)", "P50(ms)", "P90(ms)", "P99(ms)", "最大(ms)", "超过阈值"
+        };
+        
+        private final List<EdtMonitor.EventKey> keys = new ArrayList<>();
+        private Map<EdtMonitor.EventKey, LatencyHistogram> histograms = Map.of();
+        long totalCount;
+        
+        void setRows(Map<EdtMonitor.EventKey, LatencyHistogram> latest) {
+            totalCount = 0;
+            for (LatencyHistogram histogram : latest.values()) {
+                totalCount += histogram.getCount();
+            }
+            if (!latest.keySet().containsAll(keys)) {
+                // 统计被清空过
+                keys.clear();
+                keys.addAll(latest.keySet());
+                histograms = latest;
+                fireTableDataChanged();
+                return;
+            }
+            int oldSize = keys.size();
+            for (EdtMonitor.EventKey key : latest.keySet()) {
+                if (!histograms.containsKey(key)) {
+                    keys.add(key);
+                }
+            }
+            histograms = latest;
+            if (oldSize > 0) {
+                fireTableRowsUpdated(0, oldSize - 1);
+            }
+            if (keys.size() > oldSize) {
+                fireTableRowsInserted(oldSize, keys.size() - 1);
+            }
+        }
+        
+        @Override
+        public int getRowCount() {
+            return keys.size();
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+        
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return switch (column) {
+                case 0, 1 -> String.class;
+                case 2, 8 -> Long.class;
+                default -> Double.class;
+            };
+        }
+        
+        @Override
+        public Object getValueAt(int row, int column) {
+            EdtMonitor.EventKey key = keys.get(row);
+            LatencyHistogram histogram = histograms.get(key);
+            return switch (column) {
+                case 0 -> key.eventName();
+                case 1 -> key.source();
+                case 2 -> histogram.getCount();
+                case 3 -> round(histogram.getMeanNanos());
+                case 4 -> round(histogram.getPercentileNanos(0.5));
+                case 5 -> round(histogram.getPercentileNanos(0.9));
+                case 6 -> round(histogram.getPercentileNanos(0.99));
+                case 7 -> round(histogram.getMaxNanos());
+                default -> histogram.getSlowCount();
+            };
+        }
+        
+        private static double round(long nanos) {
+            return Math.round(toMillis(nanos) * 100) / 100.0;
+        }
+    }
+}
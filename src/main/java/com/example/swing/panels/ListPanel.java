@@ -1,21 +1,51 @@
 package com.example.swing.panels;
 
+import com.example.swing.list.BatchListModel;
+import com.example.swing.list.DirectoryListModel;
+import com.example.swing.list.FilteredListModel;
+import com.example.swing.search.SearchHit;
+import com.example.swing.search.SearchProvider;
+
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
+import javax.swing.text.Position;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
  * 列表组件面板
  * 展示JList的各种用法
  */
-public class ListPanel extends JPanel {
+public class ListPanel extends JPanel implements SearchProvider {
+    
+    private static final int GENERATED_ITEMS = 100_000;
+    private static final Comparator<String> ITEM_ORDER = String.CASE_INSENSITIVE_ORDER;
     
     private final Consumer<String> statusUpdater;
     private JList<String> leftList;
     private JList<String> rightList;
-    private DefaultListModel<String> leftModel;
-    private DefaultListModel<String> rightModel;
+    private BatchListModel<String> leftModel;
+    private BatchListModel<String> rightModel;
+    // 列表显示的是可筛选的视图，选中的位置需换算为源列表的位置
+    private FilteredListModel<String> leftFilter;
+    private FilteredListModel<String> rightFilter;
+    private JTextField leftFilterField;
+    private JTextField rightFilterField;
+    private JCheckBox sortedCheck;
+    private int generatedCount;
+    private int searchGeneration;
+    private DirectoryListModel directoryModel;
+    private JTextField directoryField;
     
     public ListPanel(Consumer<String> statusUpdater) {
         this.statusUpdater = statusUpdater;
@@ -34,22 +64,20 @@ public class ListPanel extends JPanel {
         gbc.insets = new Insets(5, 5, 5, 5);
         
         // 左侧列表（可选项）
-        leftModel = new DefaultListModel<>();
+        leftModel = new BatchListModel<>();
         String[] items = {"Java", "Python", "JavaScript", "C++", "Go", "Rust", "Swift", "Kotlin"};
         for (String item : items) {
             leftModel.addElement(item);
         }
         
-        leftList = new JList<>(leftModel);
-        leftList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        leftFilter = new FilteredListModel<>(leftModel);
+        leftList = createFilterableList(leftFilter);
         leftList.addListSelectionListener(this::onLeftListSelection);
         
-        JScrollPane leftScroll = new JScrollPane(leftList);
-        leftScroll.setPreferredSize(new Dimension(150, 200));
-        
         gbc.gridx = 0; gbc.gridy = 0; gbc.gridheight = 4;
         gbc.fill = GridBagConstraints.BOTH;
-        panel.add(leftScroll, gbc);
+        leftFilterField = new JTextField(8);
+        panel.add(createListColumn(leftList, leftFilter, leftFilterField), gbc);
         
         // 按钮区域
         gbc.gridx = 1; gbc.gridy = 0; gbc.gridheight = 1;
@@ -57,75 +85,148 @@ public class ListPanel extends JPanel {
         
         JButton addButton = new JButton(">");
         addButton.setToolTipText("添加选中项");
-        addButton.addActionListener(e -> moveSelectedItems(leftList, leftModel, rightModel));
+        addButton.addActionListener(e -> moveSelectedItems(leftList, leftFilter, rightList, rightFilter));
         panel.add(addButton, gbc);
         
         gbc.gridy = 1;
         JButton addAllButton = new JButton(">>");
         addAllButton.setToolTipText("添加所有项");
-        addAllButton.addActionListener(e -> moveAllItems(leftModel, rightModel));
+        addAllButton.addActionListener(e -> moveAllItems(leftList, leftFilter, rightList, rightFilter));
         panel.add(addAllButton, gbc);
         
         gbc.gridy = 2;
         JButton removeButton = new JButton("<");
         removeButton.setToolTipText("移除选中项");
-        removeButton.addActionListener(e -> moveSelectedItems(rightList, rightModel, leftModel));
+        removeButton.addActionListener(e -> moveSelectedItems(rightList, rightFilter, leftList, leftFilter));
         panel.add(removeButton, gbc);
         
         gbc.gridy = 3;
         JButton removeAllButton = new JButton("<<");
         removeAllButton.setToolTipText("移除所有项");
-        removeAllButton.addActionListener(e -> moveAllItems(rightModel, leftModel));
+        removeAllButton.addActionListener(e -> moveAllItems(rightList, rightFilter, leftList, leftFilter));
         panel.add(removeAllButton, gbc);
         
         // 右侧列表（已选项）
-        rightModel = new DefaultListModel<>();
-        rightList = new JList<>(rightModel);
-        rightList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        rightModel = new BatchListModel<>();
+        rightFilter = new FilteredListModel<>(rightModel);
+        rightList = createFilterableList(rightFilter);
         rightList.addListSelectionListener(this::onRightListSelection);
         
-        JScrollPane rightScroll = new JScrollPane(rightList);
-        rightScroll.setPreferredSize(new Dimension(150, 200));
-        
         gbc.gridx = 2; gbc.gridy = 0; gbc.gridheight = 4;
         gbc.fill = GridBagConstraints.BOTH;
-        panel.add(rightScroll, gbc);
+        rightFilterField = new JTextField(8);
+        panel.add(createListColumn(rightList, rightFilter, rightFilterField), gbc);
         
         // 标签
         gbc.gridx = 0; gbc.gridy = 4; gbc.gridheight = 1;
         gbc.fill = GridBagConstraints.NONE;
         panel.add(new JLabel("可选语言", SwingConstants.CENTER), gbc);
         
+        gbc.gridx = 1;
+        sortedCheck = new JCheckBox("排序");
+        sortedCheck.setToolTipText("移动的项按字母顺序插入目标列表");
+        panel.add(sortedCheck, gbc);
+        
         gbc.gridx = 2;
         panel.add(new JLabel("已选语言", SwingConstants.CENTER), gbc);
         
+        // 生成大量测试项，检验批量移动
+        gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 3;
+        JButton generateButton = new JButton("添加 10 万项");
+        generateButton.addActionListener(e -> generateItems());
+        panel.add(generateButton, gbc);
+        
         return panel;
     }
     
+    /**
+     * 键入查找使用视图的前缀索引，不必逐项比较
+     */
+    private static JList<String> createFilterableList(FilteredListModel<String> model) {
+        JList<String> list = new JList<>(model) {
+            @Override
+            public int getNextMatch(String prefix, int startIndex, Position.Bias bias) {
+                return model.nextMatch(prefix, startIndex, bias == Position.Bias.Forward);
+            }
+        };
+        // 固定单元格尺寸，项很多时不必逐项测量
+        list.setPrototypeCellValue("JavaScript 000000");
+        list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        return list;
+    }
+    
+    /**
+     * 列表上方加筛选框，可选按包含或开头匹配，输入时立即筛选
+     */
+    private JPanel createListColumn(JList<String> list, FilteredListModel<String> model, JTextField filterField) {
+        JComboBox<String> modeCombo = new JComboBox<>(new String[]{"包含", "开头"});
+        Runnable applyFilter = () -> {
+            long start = System.nanoTime();
+            list.clearSelection();
+            model.setFilter(filterField.getText(), modeCombo.getSelectedIndex() == 1);
+            if (model.isFiltering()) {
+                statusUpdater.accept(String.format("筛选 \"%s\": %d / %d 项，用时 %.2f 毫秒", filterField.getText(),
+                    model.getSize(), model.getSource().getSize(), (System.nanoTime() - start) / 1e6));
+            }
+        };
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                applyFilter.run();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                applyFilter.run();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                applyFilter.run();
+            }
+        });
+        modeCombo.addActionListener(e -> applyFilter.run());
+        
+        JPanel filterPanel = new JPanel(new BorderLayout(5, 0));
+        filterPanel.add(filterField, BorderLayout.CENTER);
+        filterPanel.add(modeCombo, BorderLayout.EAST);
+        
+        JScrollPane scrollPane = new JScrollPane(list);
+        scrollPane.setPreferredSize(new Dimension(150, 200));
+        
+        JPanel column = new JPanel(new BorderLayout(0, 5));
+        column.add(filterPanel, BorderLayout.NORTH);
+        column.add(scrollPane, BorderLayout.CENTER);
+        return column;
+    }
+    
+    /**
+     * 带图标的目录列表：后台分批读取真实目录，之后按文件系统的变化增量更新
+     */
     private JPanel createSimpleListPanel() {
         JPanel panel = new JPanel(new BorderLayout(5, 5));
         panel.setBorder(BorderFactory.createTitledBorder("带图标列表"));
         panel.setPreferredSize(new Dimension(200, 0));
         
-        // 创建带图标的列表
-        DefaultListModel<String> model = new DefaultListModel<>();
-        model.addElement("📁 文档");
-        model.addElement("📁 图片");
-        model.addElement("📁 音乐");
-        model.addElement("📁 视频");
-        model.addElement("📄 readme.txt");
-        model.addElement("📄 config.json");
-        model.addElement("🖼️ logo.png");
-        model.addElement("🎵 music.mp3");
-        
-        JList<String> iconList = new JList<>(model);
+        directoryModel = new DirectoryListModel();
+        JList<DirectoryListModel.Entry> iconList = new JList<>(directoryModel);
         iconList.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 14));
         iconList.setFixedCellHeight(30);
+        // 固定单元格宽度，几十万项时不必逐项测量
+        iconList.setFixedCellWidth(160);
         iconList.addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
-                String selected = iconList.getSelectedValue();
+                DirectoryListModel.Entry selected = iconList.getSelectedValue();
                 if (selected != null) {
-                    statusUpdater.accept("选中文件: " + selected);
+                    statusUpdater.accept("选中文件: " + selected.name());
+                }
+            }
+        });
+        iconList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    openEntry(iconList.getSelectedValue());
                 }
             }
         });
@@ -133,36 +234,152 @@ public class ListPanel extends JPanel {
         JScrollPane scrollPane = new JScrollPane(iconList);
         panel.add(scrollPane, BorderLayout.CENTER);
         
+        // 当前目录，可输入路径后回车打开
+        directoryField = new JTextField();
+        directoryField.addActionListener(e -> {
+            try {
+                openDirectory(Paths.get(directoryField.getText().trim()));
+            } catch (InvalidPathException ex) {
+                statusUpdater.accept("无效的路径: " + ex.getMessage());
+            }
+        });
+        JButton upButton = new JButton("上级");
+        upButton.addActionListener(e -> {
+            Path directory = directoryModel.getDirectory();
+            if (directory != null && directory.toAbsolutePath().getParent() != null) {
+                openDirectory(directory.toAbsolutePath().getParent());
+            }
+        });
+        JPanel pathPanel = new JPanel(new BorderLayout(5, 0));
+        pathPanel.add(directoryField, BorderLayout.CENTER);
+        pathPanel.add(upButton, BorderLayout.EAST);
+        panel.add(pathPanel, BorderLayout.NORTH);
+        
         // 操作按钮
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         JButton openButton = new JButton("打开");
-        openButton.addActionListener(e -> {
-            String selected = iconList.getSelectedValue();
-            if (selected != null) {
-                JOptionPane.showMessageDialog(this, 
-                    "打开: " + selected, "操作", JOptionPane.INFORMATION_MESSAGE);
-            }
-        });
+        openButton.addActionListener(e -> openEntry(iconList.getSelectedValue()));
         
-        JButton deleteButton = new JButton("删除");
-        deleteButton.addActionListener(e -> {
-            int index = iconList.getSelectedIndex();
-            if (index >= 0) {
-                String item = model.remove(index);
-                statusUpdater.accept("删除了: " + item);
+        JButton refreshButton = new JButton("刷新");
+        refreshButton.addActionListener(e -> {
+            Path directory = directoryModel.getDirectory();
+            if (directory != null) {
+                openDirectory(directory);
             }
         });
         
         buttonPanel.add(openButton);
-        buttonPanel.add(deleteButton);
+        buttonPanel.add(refreshButton);
         panel.add(buttonPanel, BorderLayout.SOUTH);
         
+        openDirectory(Paths.get(System.getProperty("user.home")));
         return panel;
     }
     
+    private void openEntry(DirectoryListModel.Entry entry) {
+        Path directory = directoryModel.getDirectory();
+        if (entry == null || directory == null) {
+            return;
+        }
+        if (entry.directory()) {
+            openDirectory(directory.resolve(entry.name()));
+        } else {
+            JOptionPane.showMessageDialog(this,
+                "打开: " + directory.resolve(entry.name()), "操作", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+    
+    /**
+     * 列出目录，读取完成前已读到的项就会显示出来
+     */
+    private void openDirectory(Path directory) {
+        directoryField.setText(directory.toString());
+        statusUpdater.accept("正在读取 " + directory + "...");
+        long start = System.nanoTime();
+        directoryModel.open(directory, ex -> {
+            if (ex != null) {
+                statusUpdater.accept("读取目录失败: " + rootMessage(ex));
+                return;
+            }
+            statusUpdater.accept(String.format("%s: %d 项，用时 %d 毫秒%s", directory, directoryModel.getSize(),
+                (System.nanoTime() - start) / 1_000_000, directoryModel.isWatching() ? "" : "（不会自动刷新）"));
+        });
+    }
+    
+    private static String rootMessage(Exception ex) {
+        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+        return cause.getMessage();
+    }
+    
+    @Override
+    public String getSearchCategory() {
+        return "列表";
+    }
+    
+    /**
+     * 在两个列表的全部项（不受筛选框影响）中查找，两个列表都返回后合并回调
+     */
+    @Override
+    public void searchAll(String text, int limit, Consumer<Result> callback) {
+        int generation = ++searchGeneration;
+        List<SearchHit> hits = new ArrayList<>();
+        int[] total = {0};
+        int[] pending = {2};
+        for (int side = 0; side < 2; side++) {
+            JList<String> list = side == 0 ? leftList : rightList;
+            FilteredListModel<String> view = side == 0 ? leftFilter : rightFilter;
+            JTextField filterField = side == 0 ? leftFilterField : rightFilterField;
+            String listName = side == 0 ? "可选语言" : "已选语言";
+            view.findAll(text, positions -> {
+                if (generation != searchGeneration) {
+                    return;
+                }
+                total[0] += positions.length;
+                for (int i = 0; i < positions.length && hits.size() < limit; i++) {
+                    String item = view.getSource().getElementAt(positions[i]);
+                    int position = positions[i];
+                    hits.add(new SearchHit(getSearchCategory(), item + "（" + listName + "）",
+                        () -> revealItem(list, view, filterField, item, position)));
+                }
+                if (--pending[0] == 0) {
+                    callback.accept(new Result(hits, total[0]));
+                }
+            });
+        }
+    }
+    
+    /**
+     * 选中并滚动到列表项；项已移动时按内容重新查找，被筛选框隐藏时先清除筛选
+     */
+    private void revealItem(JList<String> list, FilteredListModel<String> view, JTextField filterField,
+                            String item, int position) {
+        BatchListModel<String> source = view.getSource();
+        if (position >= source.getSize() || !item.equals(source.getElementAt(position))) {
+            position = -1;
+            for (int i = 0; i < source.getSize(); i++) {
+                if (item.equals(source.getElementAt(i))) {
+                    position = i;
+                    break;
+                }
+            }
+            if (position < 0) {
+                statusUpdater.accept("列表中已没有: " + item);
+                return;
+            }
+        }
+        int index = view.convertIndexToView(position);
+        if (index < 0) {
+            filterField.setText("");
+            index = view.convertIndexToView(position);
+        }
+        list.setSelectedIndex(index);
+        list.ensureIndexIsVisible(index);
+        list.requestFocusInWindow();
+    }
+    
     private void onLeftListSelection(ListSelectionEvent e) {
         if (!e.getValueIsAdjusting()) {
-            java.util.List<String> selected = leftList.getSelectedValuesList();
+            List<String> selected = leftList.getSelectedValuesList();
             if (!selected.isEmpty()) {
                 statusUpdater.accept("可选列表选中: " + String.join(", ", selected));
             }
@@ -171,36 +388,110 @@ public class ListPanel extends JPanel {
     
     private void onRightListSelection(ListSelectionEvent e) {
         if (!e.getValueIsAdjusting()) {
-            java.util.List<String> selected = rightList.getSelectedValuesList();
+            List<String> selected = rightList.getSelectedValuesList();
             if (!selected.isEmpty()) {
                 statusUpdater.accept("已选列表选中: " + String.join(", ", selected));
             }
         }
     }
     
-    private void moveSelectedItems(JList<String> sourceList, 
-                                   DefaultListModel<String> sourceModel,
-                                   DefaultListModel<String> targetModel) {
-        java.util.List<String> selected = sourceList.getSelectedValuesList();
-        for (String item : selected) {
-            sourceModel.removeElement(item);
-            targetModel.addElement(item);
+    private void generateItems() {
+        List<String> items = new ArrayList<>(GENERATED_ITEMS);
+        for (int i = 0; i < GENERATED_ITEMS; i++) {
+            items.add(String.format("项目 %06d", generatedCount++));
         }
-        if (!selected.isEmpty()) {
-            statusUpdater.accept("移动了 " + selected.size() + " 项");
+        leftModel.addAll(items);
+        statusUpdater.accept("添加了 " + GENERATED_ITEMS + " 项，可选列表共 " + leftModel.getSize() + " 项");
+    }
+    
+    /**
+     * 把选中项移到另一个列表：源列表一次压缩删除，目标列表一次追加或按顺序合并，
+     * 移动后的项在目标列表中保持选中（目标列表正在筛选时只能选中通过筛选的项）
+     */
+    private void moveSelectedItems(JList<String> sourceList, FilteredListModel<String> sourceView,
+                                   JList<String> targetList, FilteredListModel<String> targetView) {
+        int[] selected = sourceList.getSelectedIndices();
+        if (selected.length == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = sourceView.convertIndexToSource(selected[i]);
+        }
+        sourceList.clearSelection();
+        List<String> moved = sourceView.getSource().removeAll(selected);
+        int[] positions = insertItems(targetView.getSource(), moved);
+        
+        // 连续的位置合并为一个区间，选择变化只通知一次
+        ListSelectionModel selection = targetList.getSelectionModel();
+        selection.setValueIsAdjusting(true);
+        selection.clearSelection();
+        int runStart = -1;
+        int runEnd = -1;
+        int firstVisible = -1;
+        for (int position : positions) {
+            int index = targetView.convertIndexToView(position);
+            if (index < 0) {
+                continue;
+            }
+            if (firstVisible < 0) {
+                firstVisible = index;
+            }
+            if (index != runEnd + 1 || runStart < 0) {
+                if (runStart >= 0) {
+                    selection.addSelectionInterval(runStart, runEnd);
+                }
+                runStart = index;
+            }
+            runEnd = index;
         }
+        if (runStart >= 0) {
+            selection.addSelectionInterval(runStart, runEnd);
+        }
+        selection.setValueIsAdjusting(false);
+        if (firstVisible >= 0) {
+            targetList.ensureIndexIsVisible(firstVisible);
+        }
+        statusUpdater.accept(String.format("移动了 %d 项，用时 %d 毫秒",
+            moved.size(), (System.nanoTime() - start) / 1_000_000));
+    }
+    
+    /**
+     * 移动源列表中显示的全部项，正在筛选时只移动通过筛选的项
+     */
+    private void moveAllItems(JList<String> sourceList, FilteredListModel<String> sourceView,
+                              JList<String> targetList, FilteredListModel<String> targetView) {
+        sourceList.clearSelection();
+        List<String> moved;
+        if (sourceView.isFiltering()) {
+            int[] positions = new int[sourceView.getSize()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = sourceView.convertIndexToSource(i);
+            }
+            moved = sourceView.getSource().removeAll(positions);
+        } else {
+            moved = sourceView.getSource().clear();
+        }
+        if (moved.isEmpty()) {
+            return;
+        }
+        targetList.clearSelection();
+        insertItems(targetView.getSource(), moved);
+        statusUpdater.accept("移动了所有 " + moved.size() + " 项");
     }
     
-    private void moveAllItems(DefaultListModel<String> sourceModel,
-                              DefaultListModel<String> targetModel) {
-        int count = sourceModel.size();
-        while (sourceModel.size() > 0) {
-            String item = sourceModel.remove(0);
-            targetModel.addElement(item);
+    /**
+     * 勾选"排序"时按字母顺序合并，否则追加到末尾；返回各项插入后的位置
+     */
+    private int[] insertItems(BatchListModel<String> targetModel, List<String> items) {
+        if (sortedCheck.isSelected()) {
+            return targetModel.addAllSorted(items, ITEM_ORDER);
         }
-        if (count > 0) {
-            statusUpdater.accept("移动了所有 " + count + " 项");
+        int first = targetModel.addAll(items);
+        int[] positions = new int[items.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = first + i;
         }
+        return positions;
     }
 }
-
@@ -0,0 +1,257 @@
+package com.example.swing.panels;
+
+import com.example.swing.diagnostics.HeatMapOverlay;
+import com.example.swing.diagnostics.ProfilingRepaintManager;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 绘制分析面板
+ * 显示 ProfilingRepaintManager 的统计：各组件的重绘和重新布局请求次数、子树绘制和布局耗时，
+ * 以及布局风暴和发起时的调用栈。可以在窗口上叠加重绘热力图，切换到其他选项卡时叠加层保持显示。
+ * 面板可见时每秒刷新一次
+ */
+public class PaintProfilerPanel extends JPanel {
+    
+    private static final int REFRESH_MS = 1000;
+    
+    private final Consumer<String> statusUpdater;
+    private final ProfileTableModel profileModel = new ProfileTableModel();
+    private final DefaultListModel<ProfilingRepaintManager.Storm> stormModel = new DefaultListModel<>();
+    private final JList<ProfilingRepaintManager.Storm> stormList = new JList<>(stormModel);
+    private final JTextArea stackArea = new JTextArea();
+    private final JLabel summaryLabel = new JLabel();
+    private final JButton enableButton = new JButton("启用分析");
+    private final JCheckBox heatMapCheck = new JCheckBox("显示重绘热力图");
+    private final Timer refreshTimer;
+    private HeatMapOverlay overlay;
+    
+    public PaintProfilerPanel(Consumer<String> statusUpdater) {
+        this.statusUpdater = statusUpdater;
+        setLayout(new BorderLayout(5, 5));
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+        add(createToolbar(), BorderLayout.NORTH);
+        add(createContent(), BorderLayout.CENTER);
+        add(summaryLabel, BorderLayout.SOUTH);
+        
+        refreshTimer = new Timer(REFRESH_MS, e -> refresh());
+        refreshTimer.setCoalesce(true);
+        // 只在面板可见时刷新
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                if (isShowing()) {
+                    refresh();
+                    refreshTimer.start();
+                } else {
+                    refreshTimer.stop();
+                }
+            }
+        });
+        updateControls();
+    }
+    
+    private JPanel createToolbar() {
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        
+        enableButton.addActionListener(e -> {
+            ProfilingRepaintManager.install();
+            updateControls();
+            refresh();
+            statusUpdater.accept("绘制与布局分析已启用");
+        });
+        heatMapCheck.addActionListener(e -> {
+            ProfilingRepaintManager profiler = ProfilingRepaintManager.getInstalled();
+            if (profiler == null) {
+                return;
+            }
+            if (heatMapCheck.isSelected()) {
+                if (overlay == null) {
+                    overlay = new HeatMapOverlay(profiler);
+                }
+                overlay.attach(SwingUtilities.getRootPane(this));
+                statusUpdater.accept("已显示重绘热力图，颜色越深重绘越频繁");
+            } else if (overlay != null) {
+                overlay.detach();
+            }
+        });
+        JButton resetButton = new JButton("清空统计");
+        resetButton.addActionListener(e -> {
+            ProfilingRepaintManager profiler = ProfilingRepaintManager.getInstalled();
+            if (profiler != null) {
+                profiler.reset();
+                refresh();
+                statusUpdater.accept("已清空绘制与布局统计");
+            }
+        });
+        
+        toolbar.add(enableButton);
+        toolbar.add(heatMapCheck);
+        toolbar.add(resetButton);
+        return toolbar;
+    }
+    
+    private JSplitPane createContent() {
+        JTable profileTable = new JTable(profileModel);
+        // 默认按重绘请求从多到少
+        TableRowSorter<ProfileTableModel> sorter = new TableRowSorter<>(profileModel);
+        sorter.setSortKeys(List.of(new RowSorter.SortKey(2, SortOrder.DESCENDING)));
+        profileTable.setRowSorter(sorter);
+        profileTable.getColumnModel().getColumn(0).setPreferredWidth(220);
+        profileTable.getColumnModel().getColumn(1).setPreferredWidth(140);
+        
+        DateTimeFormatter timeFormat = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+        stormList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                ProfilingRepaintManager.Storm storm = (ProfilingRepaintManager.Storm) value;
+                String text = timeFormat.format(Instant.ofEpochMilli(storm.time())) + "  " + storm.component()
+                    + (storm.owner().isEmpty() ? "" : " @ " + storm.owner());
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        stormList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showStack(stormList.getSelectedValue());
+            }
+        });
+        stackArea.setEditable(false);
+        stackArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        
+        JSplitPane stormSplit = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
+            new JScrollPane(stormList), new JScrollPane(stackArea));
+        stormSplit.setResizeWeight(0.35);
+        stormSplit.setBorder(BorderFactory.createTitledBorder("布局风暴（一秒内 revalidate 十次以上，选中查看发起的调用栈）"));
+        
+        JScrollPane tableScroll = new JScrollPane(profileTable);
+        tableScroll.setBorder(BorderFactory.createTitledBorder("各组件的重绘与布局"));
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, tableScroll, stormSplit);
+        split.setResizeWeight(0.65);
+        return split;
+    }
+    
+    private void updateControls() {
+        boolean enabled = ProfilingRepaintManager.getInstalled() != null;
+        enableButton.setEnabled(!enabled);
+        heatMapCheck.setEnabled(enabled);
+        if (!enabled) {
+            summaryLabel.setText("分析未启用：启动时加 -D" + ProfilingRepaintManager.ENABLED_PROPERTY
+                + "=true，或点击“启用分析”");
+        }
+    }
+    
+    private void refresh() {
+        ProfilingRepaintManager profiler = ProfilingRepaintManager.getInstalled();
+        if (profiler == null) {
+            return;
+        }
+        profileModel.setProfiles(profiler.getProfiles());
+        
+        List<ProfilingRepaintManager.Storm> storms = profiler.getStorms();
+        if (storms.size() != stormModel.size()
+            || (!storms.isEmpty() && storms.get(storms.size() - 1) != stormModel.get(0))) {
+            ProfilingRepaintManager.Storm selected = stormList.getSelectedValue();
+            stormModel.clear();
+            // 最新的在最上面
+            for (int i = storms.size() - 1; i >= 0; i--) {
+                stormModel.addElement(storms.get(i));
+            }
+            if (selected != null) {
+                stormList.setSelectedValue(selected, false);
+            }
+        }
+        
+        summaryLabel.setText(profileModel.getRowCount() + " 个组件；绘制 " + profiler.getPaintPasses()
+            + " 轮，布局 " + profiler.getLayoutPasses() + " 轮，布局风暴 " + storms.size() + " 次"
+            + (overlay != null && overlay.isAttached() ? "（热力图显示中，绘制耗时偏大）" : ""));
+    }
+    
+    private void showStack(ProfilingRepaintManager.Storm storm) {
+        if (storm == null) {
+            stackArea.setText("");
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        text.append(storm.component()).append("  所在面板: ").append(storm.owner()).append("\n\n");
+        for (StackTraceElement element : storm.stack()) {
+            text.append("    at ").append(element).append('\n');
+        }
+        stackArea.setText(text.toString());
+        stackArea.setCaretPosition(0);
+    }
+    
+    /**
+     * 各组件统计表，每秒整体替换
+     */
+    private static class ProfileTableModel extends AbstractTableModel {
+        
+        private static final String[] COLUMNS = {
+            "组件", "所在面板", "重绘请求", "绘制次数", "平均绘制(ms)", "最大绘制(ms)",
+            "布局请求", "布局次数", "平均布局(ms)", "风暴"
+        };
+        
+        private List<ProfilingRepaintManager.Profile> profiles = new ArrayList<>();
+        
+        void setProfiles(List<ProfilingRepaintManager.Profile> profiles) {
+            this.profiles = profiles;
+            fireTableDataChanged();
+        }
+        
+        @Override
+        public int getRowCount() {
+            return profiles.size();
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+        
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return switch (column) {
+                case 0, 1 -> String.class;
+                case 4, 5, 8 -> Double.class;
+                case 9 -> Integer.class;
+                default -> Long.class;
+            };
+        }
+        
+        @Override
+        public Object getValueAt(int row, int column) {
+            ProfilingRepaintManager.Profile profile = profiles.get(row);
+            return switch (column) {
+                case 0 -> profile.component();
+                case 1 -> profile.owner();
+                case 2 -> profile.repaintRequests();
+                case 3 -> profile.paintTime().getCount();
+                case 4 -> toMillis(profile.paintTime().getMeanNanos());
+                case 5 -> toMillis(profile.paintTime().getMaxNanos());
+                case 6 -> profile.revalidateRequests();
+                case 7 -> profile.layoutTime().getCount();
+                case 8 -> toMillis(profile.layoutTime().getMeanNanos());
+                default -> profile.storms();
+            };
+        }
+        
+        private static double toMillis(long nanos) {
+            return Math.round(nanos / 10_000.0) / 100.0;
+        }
+    }
+}
@@ -1,77 +1,99 @@
 package com.example.swing.panels;
 
+import com.example.swing.search.SearchHit;
+import com.example.swing.search.SearchProvider;
+import com.example.swing.search.SnapshotSearch;
+import com.example.swing.table.AbstractEmployeeTableModel;
+import com.example.swing.table.DepartmentAggregates;
+import com.example.swing.table.DepartmentSummaryTableModel;
+import com.example.swing.table.EmployeeCsvImporter;
+import com.example.swing.table.EmployeeDataFile;
+import com.example.swing.table.EmployeeRowSorter;
+import com.example.swing.table.EmployeeTable;
+import com.example.swing.table.EmployeeTableModel;
+import com.example.swing.table.LiveUpdateFeed;
+import com.example.swing.table.MappedEmployeeTableModel;
+import com.example.swing.table.SampleEmployees;
+import com.example.swing.table.TableSearchEngine;
+
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
  * 表格面板
  * 展示JTable的各种用法
  */
-public class TablePanel extends JPanel {
+public class TablePanel extends JPanel implements SearchProvider {
+    
+    private static final int SEARCH_DEBOUNCE_MS = 150;
+    private static final int LIVE_PRODUCERS = 4;
+    private static final int LIVE_UPDATES_PER_PRODUCER = 25_000;
     
     private final Consumer<String> statusUpdater;
     private JTable table;
-    private DefaultTableModel tableModel;
+    private AbstractEmployeeTableModel tableModel;
+    // 可编辑的模型；打开只读的映射文件时为 null
+    private EmployeeTableModel editableModel;
+    private EmployeeRowSorter rowSorter;
+    // 首次搜索时才建立索引，打开大文件时不必扫描全部姓名；搜索框和全局搜索共用
+    private TableSearchEngine searchEngine;
+    // 搜索框和全局搜索各自进行中的查询，互不取消
+    private SnapshotSearch.Query searchQuery;
+    private SnapshotSearch.Query globalQuery;
+    private JTextField searchField;
+    private Timer debounceTimer;
+    private LiveUpdateFeed liveFeed;
+    private JButton addButton;
+    private JButton deleteButton;
+    private JToggleButton liveButton;
+    private Timer liveRateTimer;
+    private JPanel importPanel;
+    private JToggleButton summaryButton;
+    private JScrollPane summaryPane;
+    private JTable summaryTable;
+    // 部门统计只在显示统计面板时维护
+    private DepartmentAggregates aggregates;
+    private DepartmentSummaryTableModel summaryModel;
+    private JProgressBar importProgress;
+    private SwingWorker<Void, EmployeeTableModel> importWorker;
+    private long lastAppliedCount;
     
-    public TablePanel(Consumer<String> statusUpdater) {
+    public TablePanel(Consumer<String> statusUpdater, EmployeeTableModel employees) {
         this.statusUpdater = statusUpdater;
+        this.editableModel = employees;
         setLayout(new BorderLayout(10, 10));
         setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
         createTable();
         createControlPanel();
+        createImportPanel();
+        createSummaryPanel();
     }
     
     private void createTable() {
-        // 表格列名
-        String[] columnNames = {"ID", "姓名", "年龄", "部门", "薪资", "在职"};
-        
-        // 表格数据
-        Object[][] data = {
-            {1, "张三", 28, "研发部", 15000.0, true},
-            {2, "李四", 32, "市场部", 12000.0, true},
-            {3, "王五", 25, "人事部", 10000.0, true},
-            {4, "赵六", 35, "财务部", 18000.0, false},
-            {5, "钱七", 29, "研发部", 16000.0, true},
-            {6, "孙八", 31, "市场部", 13000.0, true},
-            {7, "周九", 27, "研发部", 14000.0, true},
-            {8, "吴十", 33, "产品部", 17000.0, false},
-        };
-        
-        // 创建表格模型
-        tableModel = new DefaultTableModel(data, columnNames) {
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                return switch (columnIndex) {
-                    case 0 -> Integer.class;
-                    case 2 -> Integer.class;
-                    case 4 -> Double.class;
-                    case 5 -> Boolean.class;
-                    default -> String.class;
-                };
-            }
-            
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column != 0; // ID列不可编辑
-            }
-        };
+        // 列式表格模型，列定义见 AbstractEmployeeTableModel；初始数据与树形面板共用
+        tableModel = editableModel;
+        liveFeed = new LiveUpdateFeed(editableModel);
         
-        table = new JTable(tableModel);
-        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table = new EmployeeTable(tableModel);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         table.setRowHeight(25);
-        table.setAutoCreateRowSorter(true);
+        // 排序在后台线程中计算，支持多列排序
+        rowSorter = new EmployeeRowSorter(tableModel);
+        table.setRowSorter(rowSorter);
         
-        // 设置列宽
-        table.getColumnModel().getColumn(0).setPreferredWidth(50);
-        table.getColumnModel().getColumn(1).setPreferredWidth(100);
-        table.getColumnModel().getColumn(2).setPreferredWidth(60);
-        table.getColumnModel().getColumn(3).setPreferredWidth(100);
-        table.getColumnModel().getColumn(4).setPreferredWidth(100);
-        table.getColumnModel().getColumn(5).setPreferredWidth(60);
+        applyColumnWidths();
         
         // 选择事件
         table.getSelectionModel().addListSelectionListener(e -> {
@@ -79,7 +101,7 @@ public class TablePanel extends JPanel {
                 int row = table.getSelectedRow();
                 if (row >= 0) {
                     int modelRow = table.convertRowIndexToModel(row);
-                    String name = tableModel.getValueAt(modelRow, 1).toString();
+                    String name = tableModel.getName(modelRow);
                     statusUpdater.accept("选中员工: " + name);
                 }
             }
@@ -89,44 +111,86 @@ public class TablePanel extends JPanel {
         add(scrollPane, BorderLayout.CENTER);
     }
     
+    private void applyColumnWidths() {
+        // 设置列宽
+        table.getColumnModel().getColumn(0).setPreferredWidth(50);
+        table.getColumnModel().getColumn(1).setPreferredWidth(100);
+        table.getColumnModel().getColumn(2).setPreferredWidth(60);
+        table.getColumnModel().getColumn(3).setPreferredWidth(100);
+        table.getColumnModel().getColumn(4).setPreferredWidth(100);
+        table.getColumnModel().getColumn(5).setPreferredWidth(60);
+    }
+    
     private void createControlPanel() {
         JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
         controlPanel.setBorder(BorderFactory.createTitledBorder("表格操作"));
         
-        // 添加行按钮
-        JButton addButton = new JButton("添加行");
+        // 添加行按钮，可一次添加多行
+        JSpinner addCountSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 1_000_000, 1));
+        addButton = new JButton("添加行");
         addButton.addActionListener(e -> {
-            int newId = tableModel.getRowCount() + 1;
-            tableModel.addRow(new Object[]{newId, "新员工", 25, "未分配", 8000.0, true});
-            statusUpdater.accept("添加了新行");
+            int count = (Integer) addCountSpinner.getValue();
+            if (count == 1) {
+                editableModel.addRow(editableModel.allocateId(), "新员工", 25, "未分配", 8000.0, true);
+                statusUpdater.accept("添加了新行");
+                return;
+            }
+            EmployeeTableModel batch = new EmployeeTableModel(count);
+            int firstId = editableModel.allocateIds(count);
+            for (int i = 0; i < count; i++) {
+                batch.appendRow(firstId + i, "新员工", 25, "未分配", 8000.0, true);
+            }
+            editableModel.addRows(batch);
+            statusUpdater.accept("添加了 " + count + " 行");
         });
         
-        // 删除行按钮
-        JButton deleteButton = new JButton("删除选中行");
+        // 删除行按钮，支持多选
+        deleteButton = new JButton("删除选中行");
         deleteButton.addActionListener(e -> {
-            int row = table.getSelectedRow();
-            if (row >= 0) {
-                int modelRow = table.convertRowIndexToModel(row);
-                String name = tableModel.getValueAt(modelRow, 1).toString();
-                tableModel.removeRow(modelRow);
-                statusUpdater.accept("删除了员工: " + name);
-            } else {
+            int[] selected = table.getSelectedRows();
+            if (selected.length == 0) {
                 statusUpdater.accept("请先选择要删除的行");
+                return;
+            }
+            if (selected.length == 1) {
+                int modelRow = table.convertRowIndexToModel(selected[0]);
+                String name = editableModel.getName(modelRow);
+                editableModel.removeRow(modelRow);
+                statusUpdater.accept("删除了员工: " + name);
+                return;
             }
+            BitSet modelRows = new BitSet(tableModel.getRowCount());
+            for (int row : selected) {
+                modelRows.set(table.convertRowIndexToModel(row));
+            }
+            editableModel.removeRows(modelRows);
+            statusUpdater.accept("删除了 " + selected.length + " 名员工");
         });
         
-        // 搜索框
+        // 搜索框：输入时防抖，回车立即搜索，查询在后台线程执行
         JLabel searchLabel = new JLabel("搜索:");
-        JTextField searchField = new JTextField(15);
-        searchField.addActionListener(e -> {
-            String text = searchField.getText();
-            TableRowSorter<?> sorter = (TableRowSorter<?>) table.getRowSorter();
-            if (text.isEmpty()) {
-                sorter.setRowFilter(null);
-            } else {
-                sorter.setRowFilter(RowFilter.regexFilter("(?i)" + text));
+        searchField = new JTextField(15);
+        debounceTimer = new Timer(SEARCH_DEBOUNCE_MS, e -> applySearch(searchField.getText()));
+        debounceTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounceTimer.restart();
             }
-            statusUpdater.accept("搜索: " + text);
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+        });
+        searchField.addActionListener(e -> {
+            debounceTimer.stop();
+            applySearch(searchField.getText());
         });
         
         JButton searchButton = new JButton("搜索");
@@ -134,12 +198,41 @@ public class TablePanel extends JPanel {
         
         JButton clearButton = new JButton("清除筛选");
         clearButton.addActionListener(e -> {
-            searchField.setText("");
-            TableRowSorter<?> sorter = (TableRowSorter<?>) table.getRowSorter();
-            sorter.setRowFilter(null);
+            clearSearch();
             statusUpdater.accept("清除了搜索筛选");
         });
         
+        // 按姓名的拼音顺序范围筛选，使用缓存的排序键比较
+        JButton rangeButton = new JButton("姓名范围");
+        rangeButton.addActionListener(e -> showNameRangeDialog());
+        
+        // 按部门统计薪资和在职人数，随编辑、增删和筛选实时更新
+        summaryButton = new JToggleButton("部门统计");
+        summaryButton.addActionListener(e -> setSummaryVisible(summaryButton.isSelected()));
+        
+        // 生成大规模测试数据
+        JComboBox<String> sizeCombo = new JComboBox<>(new String[]{"1万", "10万", "100万", "500万"});
+        JButton generateButton = new JButton("生成数据");
+        generateButton.addActionListener(e -> {
+            int rows = switch (sizeCombo.getSelectedIndex()) {
+                case 0 -> 10_000;
+                case 1 -> 100_000;
+                case 2 -> 1_000_000;
+                default -> 5_000_000;
+            };
+            generateData(rows);
+        });
+        
+        // 从 CSV/TSV 文件导入
+        JButton importButton = new JButton("导入CSV");
+        importButton.addActionListener(e -> chooseCsvFile());
+        
+        // 实时更新：后台线程持续修改薪资和在职状态，每帧合并后刷新表格
+        liveButton = new JToggleButton("实时更新");
+        liveRateTimer = new Timer(1000, e -> reportLiveRate());
+        liveButton.addActionListener(e -> setLiveUpdates(liveButton.isSelected()));
+        
+        controlPanel.add(addCountSpinner);
         controlPanel.add(addButton);
         controlPanel.add(deleteButton);
         controlPanel.add(Box.createHorizontalStrut(20));
@@ -147,8 +240,401 @@ public class TablePanel extends JPanel {
         controlPanel.add(searchField);
         controlPanel.add(searchButton);
         controlPanel.add(clearButton);
+        controlPanel.add(rangeButton);
+        controlPanel.add(summaryButton);
+        controlPanel.add(Box.createHorizontalStrut(20));
+        controlPanel.add(sizeCombo);
+        controlPanel.add(generateButton);
+        controlPanel.add(liveButton);
+        controlPanel.add(importButton);
         
         add(controlPanel, BorderLayout.NORTH);
     }
+    
+    private void createSummaryPanel() {
+        summaryTable = new JTable();
+        summaryTable.setRowHeight(25);
+        summaryPane = new JScrollPane(summaryTable);
+        summaryPane.setPreferredSize(new Dimension(380, 0));
+        summaryPane.setBorder(BorderFactory.createTitledBorder("部门统计（当前筛选）"));
+        summaryPane.setVisible(false);
+        add(summaryPane, BorderLayout.EAST);
+    }
+    
+    private void setSummaryVisible(boolean visible) {
+        if (visible && aggregates == null) {
+            aggregates = new DepartmentAggregates(tableModel, rowSorter);
+            summaryModel = new DepartmentSummaryTableModel(tableModel, aggregates);
+            summaryTable.setModel(summaryModel);
+        } else if (!visible && aggregates != null) {
+            aggregates.dispose();
+            summaryModel.dispose();
+            aggregates = null;
+            summaryModel = null;
+            summaryTable.setModel(new DefaultTableModel());
+        }
+        summaryPane.setVisible(visible);
+        revalidate();
+    }
+    
+    private void createImportPanel() {
+        importPanel = new JPanel(new BorderLayout(10, 0));
+        importProgress = new JProgressBar(0, 100);
+        importProgress.setStringPainted(true);
+        JButton cancelButton = new JButton("取消导入");
+        cancelButton.addActionListener(e -> {
+            if (importWorker != null) {
+                importWorker.cancel(true);
+            }
+        });
+        importPanel.add(importProgress, BorderLayout.CENTER);
+        importPanel.add(cancelButton, BorderLayout.EAST);
+        importPanel.setVisible(false);
+        add(importPanel, BorderLayout.SOUTH);
+    }
+    
+    private void chooseCsvFile() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("导入员工数据");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV/TSV 文件", "csv", "tsv", "tab"));
+        if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            importCsv(fileChooser.getSelectedFile().toPath());
+        }
+    }
+    
+    /**
+     * 导入 CSV/TSV 文件：新建空模型，解析好的批次按文件顺序陆续追加，每批一个插入事件
+     */
+    public void importCsv(Path path) {
+        if (importWorker != null) {
+            importWorker.cancel(true);
+        }
+        EmployeeTableModel target = new EmployeeTableModel();
+        setTableModel(target);
+        EmployeeCsvImporter importer = new EmployeeCsvImporter(path);
+        long start = System.nanoTime();
+        importProgress.setValue(0);
+        importPanel.setVisible(true);
+        statusUpdater.accept("正在导入 " + path.getFileName() + "...");
+        
+        SwingWorker<Void, EmployeeTableModel> worker = new SwingWorker<>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                importer.run(this::publish,
+                    (processed, total) -> setProgress(total == 0 ? 100 : (int) (processed * 100 / total)),
+                    this::isCancelled);
+                return null;
+            }
+            
+            @Override
+            protected void process(List<EmployeeTableModel> batches) {
+                // 模型已被替换（例如又生成了新数据）时丢弃剩余批次
+                if (isCancelled() || tableModel != target) {
+                    return;
+                }
+                for (EmployeeTableModel batch : batches) {
+                    target.addRows(batch);
+                }
+            }
+            
+            @Override
+            protected void done() {
+                if (importWorker == this) {
+                    importWorker = null;
+                    importPanel.setVisible(false);
+                }
+                if (isCancelled()) {
+                    statusUpdater.accept("已取消导入，保留了 " + target.getRowCount() + " 行");
+                    return;
+                }
+                try {
+                    get();
+                    long elapsed = (System.nanoTime() - start) / 1_000_000;
+                    long skipped = importer.getSkippedLines();
+                    statusUpdater.accept("已导入 " + target.getRowCount() + " 行，用时 " + elapsed + " ms"
+                        + (skipped > 0 ? "，跳过 " + skipped + " 行格式错误的数据" : ""));
+                } catch (Exception ex) {
+                    statusUpdater.accept("导入失败: " + rootMessage(ex));
+                }
+            }
+        };
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                importProgress.setValue((Integer) e.getNewValue());
+            }
+        });
+        importWorker = worker;
+        worker.execute();
+    }
+    
+    private void generateData(int rows) {
+        statusUpdater.accept("正在生成 " + rows + " 行数据...");
+        new SwingWorker<EmployeeTableModel, Void>() {
+            @Override
+            protected EmployeeTableModel doInBackground() {
+                return SampleEmployees.generate(rows, System.nanoTime());
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    setTableModel(get());
+                    statusUpdater.accept("已生成 " + rows + " 行数据");
+                } catch (Exception ex) {
+                    statusUpdater.accept("生成数据失败: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
+    
+    private void setLiveUpdates(boolean enabled) {
+        if (enabled) {
+            lastAppliedCount = liveFeed.getAppliedCount();
+            liveFeed.start();
+            liveFeed.startSyntheticLoad(LIVE_PRODUCERS, LIVE_UPDATES_PER_PRODUCER);
+            liveRateTimer.start();
+            statusUpdater.accept("已开启实时更新");
+        } else {
+            liveFeed.stop();
+            liveRateTimer.stop();
+            statusUpdater.accept("已停止实时更新");
+        }
+    }
+    
+    private void reportLiveRate() {
+        long applied = liveFeed.getAppliedCount();
+        statusUpdater.accept("实时更新: " + (applied - lastAppliedCount) + " 次/秒");
+        lastAppliedCount = applied;
+    }
+    
+    private void applySearch(String text) {
+        long start = System.nanoTime();
+        if (searchEngine == null) {
+            if (text.isEmpty()) {
+                rowSorter.setFilter(null);
+                return;
+            }
+            searchEngine = new TableSearchEngine(tableModel);
+        }
+        if (searchQuery != null) {
+            searchQuery.cancel();
+        }
+        searchQuery = searchEngine.search(text, rows -> {
+            rowSorter.setFilter(rows);
+            if (!text.isEmpty()) {
+                long elapsed = (System.nanoTime() - start) / 1_000_000;
+                statusUpdater.accept("搜索: " + text + "（" + rows.cardinality() + " 条，" + elapsed + " ms）");
+            }
+        });
+    }
+    
+    private void clearSearch() {
+        debounceTimer.stop();
+        searchField.setText("");
+        applySearch("");
+    }
+    
+    @Override
+    public String getSearchCategory() {
+        return "表格";
+    }
+    
+    /**
+     * 全局搜索：在全部行（不受当前筛选影响）中查找，与搜索框共用索引但查询互不取消
+     */
+    @Override
+    public void searchAll(String text, int limit, Consumer<Result> callback) {
+        if (searchEngine == null) {
+            searchEngine = new TableSearchEngine(tableModel);
+        }
+        if (globalQuery != null) {
+            globalQuery.cancel();
+        }
+        AbstractEmployeeTableModel model = tableModel;
+        globalQuery = searchEngine.search(text, rows -> {
+            if (rows == null) {
+                callback.accept(Result.EMPTY);
+                return;
+            }
+            List<SearchHit> hits = new ArrayList<>();
+            for (int row = rows.nextSetBit(0); row >= 0 && hits.size() < limit; row = rows.nextSetBit(row + 1)) {
+                int id = model.getId(row);
+                int hintRow = row;
+                hits.add(new SearchHit(getSearchCategory(),
+                    model.getName(row) + "（" + model.getDepartment(row) + "，工号 " + id + "）",
+                    () -> revealEmployee(model, hintRow, id)));
+            }
+            callback.accept(new Result(hits, rows.cardinality()));
+        });
+    }
+    
+    /**
+     * 选中并滚动到员工所在行；行号已变化时按工号重新查找，被筛选隐藏时先清除筛选
+     */
+    private void revealEmployee(AbstractEmployeeTableModel model, int row, int id) {
+        if (model != tableModel) {
+            statusUpdater.accept("表格已换了数据");
+            return;
+        }
+        if (row >= model.getRowCount() || model.getId(row) != id) {
+            row = -1;
+            for (int i = 0; i < model.getRowCount(); i++) {
+                if (model.getId(i) == id) {
+                    row = i;
+                    break;
+                }
+            }
+            if (row < 0) {
+                statusUpdater.accept("工号 " + id + " 已被删除");
+                return;
+            }
+        }
+        int viewRow = rowSorter.convertRowIndexToView(row);
+        if (viewRow < 0) {
+            clearSearch();
+            viewRow = rowSorter.convertRowIndexToView(row);
+        }
+        table.getSelectionModel().setSelectionInterval(viewRow, viewRow);
+        table.scrollRectToVisible(table.getCellRect(viewRow, 0, true));
+        table.requestFocusInWindow();
+    }
+    
+    private void showNameRangeDialog() {
+        JTextField fromField = new JTextField(8);
+        JTextField toField = new JTextField(8);
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
+        panel.add(new JLabel("从:"));
+        panel.add(fromField);
+        panel.add(new JLabel("到:"));
+        panel.add(toField);
+        
+        int result = JOptionPane.showConfirmDialog(this, panel, "按姓名范围筛选",
+            JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (result == JOptionPane.OK_OPTION) {
+            String from = fromField.getText().trim();
+            String to = toField.getText().trim();
+            // 排序键第一次使用时在后台构建，完成后再筛选
+            EmployeeRowSorter sorter = rowSorter;
+            sorter.withCollationKeys(EmployeeTableModel.COLUMN_NAME, cache -> {
+                if (sorter != rowSorter) {
+                    return;
+                }
+                BitSet rows = cache.rowsInRange(from, to);
+                rowSorter.setFilter(rows);
+                statusUpdater.accept("姓名范围: " + from + " ~ " + to + "（" + rows.cardinality() + " 条）");
+            });
+        }
+    }
+    
+    /**
+     * 以只读方式打开员工数据文件（.emp），只映射文件，不读入数据
+     */
+    public void openDataFile(Path path) {
+        statusUpdater.accept("正在打开 " + path.getFileName() + "...");
+        long start = System.nanoTime();
+        new SwingWorker<AbstractEmployeeTableModel, Void>() {
+            @Override
+            protected AbstractEmployeeTableModel doInBackground() throws IOException {
+                return EmployeeDataFile.open(path);
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    AbstractEmployeeTableModel model = get();
+                    setTableModel(model);
+                    long elapsed = (System.nanoTime() - start) / 1_000_000;
+                    statusUpdater.accept("已打开 " + path.getFileName() + "（" + model.getRowCount() + " 行，" + elapsed + " ms）");
+                } catch (Exception ex) {
+                    statusUpdater.accept("打开文件失败: " + rootMessage(ex));
+                }
+            }
+        }.execute();
+    }
+    
+    /**
+     * 把当前表格数据写入员工数据文件；可编辑的模型先在 EDT 上复制，再在后台写出
+     */
+    public void saveDataFile(Path path) {
+        // 只读的映射模型保存回自身时内容不变；而且 Windows 上不能替换仍被映射的文件
+        if (tableModel instanceof MappedEmployeeTableModel mapped && isSameFile(mapped.getPath(), path)) {
+            statusUpdater.accept(path.getFileName() + " 已是当前数据，无需保存");
+            return;
+        }
+        AbstractEmployeeTableModel snapshot = tableModel;
+        if (editableModel != null) {
+            EmployeeTableModel copy = new EmployeeTableModel(editableModel.getRowCount());
+            copy.addRows(editableModel);
+            snapshot = copy;
+        }
+        AbstractEmployeeTableModel source = snapshot;
+        statusUpdater.accept("正在保存 " + path.getFileName() + "...");
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                EmployeeDataFile.write(source, path);
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    statusUpdater.accept("已保存 " + source.getRowCount() + " 行到 " + path.getFileName());
+                } catch (Exception ex) {
+                    statusUpdater.accept("保存文件失败: " + rootMessage(ex));
+                }
+            }
+        }.execute();
+    }
+    
+    private static boolean isSameFile(Path a, Path b) {
+        try {
+            return Files.exists(b) && Files.isSameFile(a, b);
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+    
+    private static String rootMessage(Exception ex) {
+        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+        return cause.getMessage();
+    }
+    
+    private void setTableModel(AbstractEmployeeTableModel model) {
+        if (liveFeed != null) {
+            liveFeed.stop();
+            liveFeed = null;
+        }
+        setSummaryVisible(false);
+        rowSorter.dispose();
+        if (searchEngine != null) {
+            searchEngine.dispose();
+            searchEngine = null;
+        }
+        searchQuery = null;
+        globalQuery = null;
+        AbstractEmployeeTableModel oldModel = tableModel;
+        tableModel = model;
+        editableModel = model instanceof EmployeeTableModel editable ? editable : null;
+        table.setModel(model);
+        rowSorter = new EmployeeRowSorter(model);
+        table.setRowSorter(rowSorter);
+        addButton.setEnabled(editableModel != null);
+        deleteButton.setEnabled(editableModel != null);
+        liveButton.setEnabled(editableModel != null);
+        setSummaryVisible(summaryButton.isSelected());
+        if (editableModel != null) {
+            liveFeed = new LiveUpdateFeed(editableModel);
+            if (liveButton.isSelected()) {
+                setLiveUpdates(true);
+            }
+        } else if (liveButton.isSelected()) {
+            liveButton.setSelected(false);
+            liveRateTimer.stop();
+        }
+        applyColumnWidths();
+        // 共用员工数据的树形面板据此切换
+        firePropertyChange("tableModel", oldModel, model);
+    }
 }
-
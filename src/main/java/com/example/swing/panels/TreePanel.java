@@ -1,126 +1,579 @@
 package com.example.swing.panels;
 
+import com.example.swing.search.SearchHit;
+import com.example.swing.search.SearchProvider;
+import com.example.swing.search.SnapshotSearch;
+import com.example.swing.table.AbstractEmployeeTableModel;
+import com.example.swing.table.EmployeeTableModel;
+import com.example.swing.table.TableSearchEngine;
+import com.example.swing.tree.CompactTreeModel;
+import com.example.swing.tree.EmployeeTreeModel;
+import com.example.swing.tree.LazyOrgTreeModel;
+import com.example.swing.tree.MatchHighlightRenderer;
+import com.example.swing.tree.NodeMetadataCache;
+import com.example.swing.tree.OrgTree;
+import com.example.swing.tree.OrgTreeFile;
+import com.example.swing.tree.SyntheticOrgSource;
+import com.example.swing.tree.TreeSearchEngine;
+
 import javax.swing.*;
-import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.DefaultTreeModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreePath;
 import java.awt.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 
 /**
  * 树形结构面板
  * 展示JTree的用法
  */
-public class TreePanel extends JPanel {
+public class TreePanel extends JPanel implements SearchProvider {
+    
+    private static final int SEARCH_DEBOUNCE_MS = 150;
+    private static final String ROOT_LABEL = "公司组织架构";
     
     private final Consumer<String> statusUpdater;
-    private JTree tree;
-    private DefaultTreeModel treeModel;
-    private DefaultMutableTreeNode rootNode;
+    private OrgTree tree;
+    // 员工数据由表格面板维护，树只是按部门分组的视图；不显示时释放
+    private AbstractEmployeeTableModel employees;
+    private EmployeeTreeModel employeeModel;
+    // 带小组和职位的示例组织架构，首次切换时创建，之后一直保留
+    private CompactTreeModel sampleModel;
+    // 大型组织架构，按需加载或完整加载，切换数据源时释放
+    private LazyOrgTreeModel lazyModel;
+    private CompactTreeModel largeModel;
+    private SwingWorker<CompactTreeModel, Void> loadWorker;
+    private JButton addButton;
+    private JButton deleteButton;
+    private final MatchHighlightRenderer renderer = new MatchHighlightRenderer();
+    private JTextField searchField;
+    // 针对当前数组模型创建，切换模型时释放；搜索框和全局搜索共用
+    private TreeSearchEngine searchEngine;
+    // 员工分组使用的引擎，只按姓名和部门匹配；搜索框和全局搜索共用
+    private TableSearchEngine employeeSearchEngine;
+    // 搜索框和全局搜索各自进行中的查询，互不取消
+    private SnapshotSearch.Query searchQuery;
+    private SnapshotSearch.Query globalQuery;
+    // 信息栏使用的节点统计，同样针对当前数组模型
+    private NodeMetadataCache metadataCache;
     
-    public TreePanel(Consumer<String> statusUpdater) {
+    public TreePanel(Consumer<String> statusUpdater, AbstractEmployeeTableModel employees) {
         this.statusUpdater = statusUpdater;
+        this.employees = employees;
         setLayout(new BorderLayout(10, 10));
         setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
         createTree();
         createControlPanel();
         createInfoPanel();
+        modelChanged();
     }
     
     private void createTree() {
-        // 创建根节点
-        rootNode = new DefaultMutableTreeNode("公司组织架构");
+        // 员工按部门分组显示，数据与表格面板共用
+        employeeModel = new EmployeeTreeModel(employees, ROOT_LABEL);
+        tree = new OrgTree(employeeModel);
+        tree.setRootVisible(true);
+        tree.setShowsRootHandles(true);
+        tree.setCellRenderer(renderer);
+        
+        // 展开所有节点
+        tree.expandAll();
+        
+        JScrollPane scrollPane = new JScrollPane(tree);
+        scrollPane.setPreferredSize(new Dimension(300, 400));
+        add(scrollPane, BorderLayout.CENTER);
+    }
+    
+    /**
+     * 表格面板换了员工数据时调用，正在显示员工分组时立即切换到新数据
+     */
+    public void setEmployees(AbstractEmployeeTableModel employees) {
+        this.employees = employees;
+        disposeSearchEngines();
+        if (employeeModel == null) {
+            return;
+        }
+        boolean showing = tree.getModel() == employeeModel;
+        employeeModel.dispose();
+        employeeModel = null;
+        if (showing) {
+            showEmployees();
+            modelChanged();
+        }
+    }
+    
+    private void showEmployees() {
+        if (employeeModel == null) {
+            employeeModel = new EmployeeTreeModel(employees, ROOT_LABEL);
+        }
+        tree.setModel(employeeModel);
+        tree.expandAll();
+    }
+    
+    /**
+     * 切换数据源：0 员工按部门分组；1 示例组织架构；2 大型组织，展开时才加载下级；3 大型组织，在后台完整读入数组模型
+     */
+    private void setDataSource(int source) {
+        releaseLargeModel();
+        switch (source) {
+            case 1 -> {
+                if (sampleModel == null) {
+                    sampleModel = createSampleModel();
+                }
+                tree.setModel(sampleModel);
+                tree.expandAll();
+                statusUpdater.accept("已切换到示例组织架构");
+            }
+            case 2 -> {
+                SyntheticOrgSource orgSource = new SyntheticOrgSource(42, 150);
+                lazyModel = new LazyOrgTreeModel(orgSource);
+                lazyModel.setErrorHandler(statusUpdater);
+                tree.setModel(lazyModel);
+                lazyModel.install(tree);
+                statusUpdater.accept("已切换到大型组织架构（" + orgSource.getEmployeeCount() + " 人），展开节点时加载");
+            }
+            case 3 -> loadLargeModel();
+            default -> {
+                showEmployees();
+                statusUpdater.accept("已切换到员工数据（" + employees.getRowCount() + " 人）");
+            }
+        }
+        modelChanged();
+    }
+    
+    /**
+     * 示例数据，节点保存在数组中
+     */
+    private static CompactTreeModel createSampleModel() {
+        CompactTreeModel model = new CompactTreeModel(ROOT_LABEL);
+        int root = model.getRootNode().getId();
         
         // 创建部门节点
-        DefaultMutableTreeNode techDept = new DefaultMutableTreeNode("技术部");
-        DefaultMutableTreeNode salesDept = new DefaultMutableTreeNode("销售部");
-        DefaultMutableTreeNode hrDept = new DefaultMutableTreeNode("人力资源部");
-        DefaultMutableTreeNode financeDept = new DefaultMutableTreeNode("财务部");
+        int techDept = model.appendNode(root, "技术部");
+        int salesDept = model.appendNode(root, "销售部");
+        int hrDept = model.appendNode(root, "人力资源部");
+        int financeDept = model.appendNode(root, "财务部");
         
         // 技术部子节点
-        DefaultMutableTreeNode devTeam = new DefaultMutableTreeNode("研发组");
-        devTeam.add(new DefaultMutableTreeNode("张三 - 高级工程师"));
-        devTeam.add(new DefaultMutableTreeNode("李四 - 中级工程师"));
-        devTeam.add(new DefaultMutableTreeNode("王五 - 初级工程师"));
-        
-        DefaultMutableTreeNode testTeam = new DefaultMutableTreeNode("测试组");
-        testTeam.add(new DefaultMutableTreeNode("赵六 - 测试主管"));
-        testTeam.add(new DefaultMutableTreeNode("钱七 - 测试工程师"));
+        int devTeam = model.appendNode(techDept, "研发组");
+        model.appendNode(devTeam, "张三 - 高级工程师");
+        model.appendNode(devTeam, "李四 - 中级工程师");
+        model.appendNode(devTeam, "王五 - 初级工程师");
         
-        DefaultMutableTreeNode opsTeam = new DefaultMutableTreeNode("运维组");
-        opsTeam.add(new DefaultMutableTreeNode("孙八 - 运维工程师"));
+        int testTeam = model.appendNode(techDept, "测试组");
+        model.appendNode(testTeam, "赵六 - 测试主管");
+        model.appendNode(testTeam, "钱七 - 测试工程师");
         
-        techDept.add(devTeam);
-        techDept.add(testTeam);
-        techDept.add(opsTeam);
+        int opsTeam = model.appendNode(techDept, "运维组");
+        model.appendNode(opsTeam, "孙八 - 运维工程师");
         
         // 销售部子节点
-        salesDept.add(new DefaultMutableTreeNode("周九 - 销售经理"));
-        salesDept.add(new DefaultMutableTreeNode("吴十 - 销售代表"));
-        salesDept.add(new DefaultMutableTreeNode("郑十一 - 销售代表"));
+        model.appendNode(salesDept, "周九 - 销售经理");
+        model.appendNode(salesDept, "吴十 - 销售代表");
+        model.appendNode(salesDept, "郑十一 - 销售代表");
         
         // 人力资源部子节点
-        hrDept.add(new DefaultMutableTreeNode("王十二 - HR主管"));
-        hrDept.add(new DefaultMutableTreeNode("冯十三 - 招聘专员"));
+        model.appendNode(hrDept, "王十二 - HR主管");
+        model.appendNode(hrDept, "冯十三 - 招聘专员");
         
         // 财务部子节点
-        financeDept.add(new DefaultMutableTreeNode("陈十四 - 财务主管"));
-        financeDept.add(new DefaultMutableTreeNode("褚十五 - 会计"));
-        
-        // 添加到根节点
-        rootNode.add(techDept);
-        rootNode.add(salesDept);
-        rootNode.add(hrDept);
-        rootNode.add(financeDept);
-        
-        // 创建树模型和树
-        treeModel = new DefaultTreeModel(rootNode);
-        tree = new JTree(treeModel);
-        tree.setRootVisible(true);
-        tree.setShowsRootHandles(true);
-        
-        // 展开所有节点
-        expandAllNodes(tree, 0, tree.getRowCount());
-        
-        // 选择事件
-        tree.addTreeSelectionListener(e -> {
-            DefaultMutableTreeNode node = (DefaultMutableTreeNode) 
-                tree.getLastSelectedPathComponent();
-            if (node != null) {
-                statusUpdater.accept("选中节点: " + node.getUserObject());
+        model.appendNode(financeDept, "陈十四 - 财务主管");
+        model.appendNode(financeDept, "褚十五 - 会计");
+        return model;
+    }
+    
+    /**
+     * 取消进行中的加载，释放大型组织架构的模型
+     */
+    private void releaseLargeModel() {
+        if (loadWorker != null) {
+            loadWorker.cancel(true);
+            loadWorker = null;
+        }
+        if (lazyModel != null) {
+            lazyModel.dispose();
+            lazyModel = null;
+        }
+        if (employeeModel != null) {
+            employeeModel.dispose();
+            employeeModel = null;
+        }
+        largeModel = null;
+    }
+    
+    /**
+     * 树的模型被替换后更新按钮状态，并在新模型上重新搜索
+     */
+    private void modelChanged() {
+        // 按需加载的模型只读，也不支持搜索；员工分组随员工数据是否可编辑
+        boolean editable = getEditableModel() != null;
+        boolean employeesShown = employeeModel != null && tree.getModel() == employeeModel;
+        boolean employeesEditable = employeesShown && employees instanceof EmployeeTableModel;
+        addButton.setEnabled(editable || employeesEditable);
+        deleteButton.setEnabled(editable || employeesEditable);
+        searchField.setEnabled(editable || employeesShown);
+        disposeSearchEngines();
+        if (metadataCache != null) {
+            metadataCache.dispose();
+            metadataCache = null;
+        }
+        renderer.setMatches(null);
+        renderer.setEmployeeMatches(null);
+        if ((editable || employeesShown) && !searchField.getText().isEmpty()) {
+            applySearch(searchField.getText());
+        }
+    }
+    
+    @Override
+    public String getSearchCategory() {
+        return "树";
+    }
+    
+    /**
+     * 全局搜索：数组模型按节点名称查找，员工分组按员工数据查找；按需加载的模型不支持
+     */
+    @Override
+    public void searchAll(String text, int limit, Consumer<Result> callback) {
+        TreeModel model = tree.getModel();
+        if (globalQuery != null) {
+            globalQuery.cancel();
+            globalQuery = null;
+        }
+        if (model instanceof CompactTreeModel compact) {
+            if (searchEngine == null) {
+                searchEngine = new TreeSearchEngine(compact);
+            }
+            globalQuery = searchEngine.search(text, result -> {
+                if (result == null) {
+                    callback.accept(Result.EMPTY);
+                    return;
+                }
+                List<SearchHit> hits = new ArrayList<>();
+                for (TreePath path : result.paths().subList(0, Math.min(limit, result.paths().size()))) {
+                    TreePath parent = path.getParentPath();
+                    hits.add(new SearchHit(getSearchCategory(), path.getLastPathComponent()
+                        + (parent != null ? "（" + parent.getLastPathComponent() + "）" : ""),
+                        () -> revealPath(model, path)));
+                }
+                callback.accept(new Result(hits, result.count()));
+            });
+        } else if (model == employeeModel && employeeModel != null) {
+            if (employeeSearchEngine == null) {
+                // 树中只显示姓名和部门，只按这两项匹配
+                employeeSearchEngine = new TableSearchEngine(employees, true);
+            }
+            AbstractEmployeeTableModel data = employees;
+            EmployeeTreeModel groups = employeeModel;
+            globalQuery = employeeSearchEngine.search(text, rows -> {
+                if (rows == null) {
+                    callback.accept(Result.EMPTY);
+                    return;
+                }
+                List<SearchHit> hits = new ArrayList<>();
+                for (int row = rows.nextSetBit(0); row >= 0 && hits.size() < limit; row = rows.nextSetBit(row + 1)) {
+                    int id = data.getId(row);
+                    int hintRow = row;
+                    hits.add(new SearchHit(getSearchCategory(), data.getName(row) + "（" + data.getDepartment(row) + "）",
+                        () -> revealEmployee(groups, data, hintRow, id)));
+                }
+                callback.accept(new Result(hits, rows.cardinality()));
+            });
+        } else {
+            callback.accept(Result.EMPTY);
+        }
+    }
+    
+    private void revealPath(TreeModel model, TreePath path) {
+        if (tree.getModel() != model) {
+            statusUpdater.accept("树已换了数据");
+            return;
+        }
+        tree.setSelectionPath(path);
+        tree.scrollPathToVisible(path);
+        tree.requestFocusInWindow();
+    }
+    
+    private void revealEmployee(EmployeeTreeModel groups, AbstractEmployeeTableModel data, int row, int id) {
+        if (row >= data.getRowCount() || data.getId(row) != id) {
+            row = -1;
+            for (int i = 0; i < data.getRowCount(); i++) {
+                if (data.getId(i) == id) {
+                    row = i;
+                    break;
+                }
+            }
+            if (row < 0) {
+                statusUpdater.accept("工号 " + id + " 已被删除");
+                return;
+            }
+        }
+        revealPath(groups, groups.getPath(row));
+    }
+    
+    private void disposeSearchEngines() {
+        if (searchEngine != null) {
+            searchEngine.dispose();
+            searchEngine = null;
+        }
+        if (employeeSearchEngine != null) {
+            employeeSearchEngine.dispose();
+            employeeSearchEngine = null;
+        }
+        searchQuery = null;
+        globalQuery = null;
+    }
+    
+    private void cancelSearchQuery() {
+        if (searchQuery != null) {
+            searchQuery.cancel();
+            searchQuery = null;
+        }
+    }
+    
+    private void applySearch(String text) {
+        if (employeeModel != null && tree.getModel() == employeeModel) {
+            searchEmployees(text);
+            return;
+        }
+        CompactTreeModel model = getEditableModel();
+        if (model == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (searchEngine == null) {
+            if (text.isEmpty()) {
+                renderer.setMatches(null);
+                tree.repaint();
+                return;
+            }
+            searchEngine = new TreeSearchEngine(model);
+        }
+        cancelSearchQuery();
+        searchQuery = searchEngine.search(text, result -> {
+            renderer.setMatches(result == null ? null : result.nodes());
+            if (result != null && !result.paths().isEmpty()) {
+                // 只展开命中节点的祖先
+                Set<TreePath> parents = new LinkedHashSet<>();
+                for (TreePath path : result.paths()) {
+                    if (path.getParentPath() != null) {
+                        parents.add(path.getParentPath());
+                    }
+                }
+                tree.expandPaths(parents);
+                tree.scrollPathToVisible(result.paths().get(0));
+            }
+            tree.repaint();
+            if (result != null) {
+                long elapsed = (System.nanoTime() - start) / 1_000_000;
+                statusUpdater.accept("搜索: " + text + "（" + result.count() + " 个节点"
+                    + (result.count() > result.paths().size() ? "，展开了前 " + result.paths().size() + " 个" : "")
+                    + "，" + elapsed + " ms）");
             }
         });
-        
-        JScrollPane scrollPane = new JScrollPane(tree);
-        scrollPane.setPreferredSize(new Dimension(300, 400));
-        add(scrollPane, BorderLayout.CENTER);
     }
     
-    private void expandAllNodes(JTree tree, int startingIndex, int rowCount) {
-        for (int i = startingIndex; i < rowCount; ++i) {
-            tree.expandRow(i);
+    /**
+     * 员工分组按姓名和部门查找，按员工 ID 高亮命中的节点并展开所在的部门
+     */
+    private void searchEmployees(String text) {
+        long start = System.nanoTime();
+        if (employeeSearchEngine == null) {
+            if (text.isEmpty()) {
+                renderer.setEmployeeMatches(null);
+                tree.repaint();
+                return;
+            }
+            employeeSearchEngine = new TableSearchEngine(employees, true);
         }
-        if (tree.getRowCount() != rowCount) {
-            expandAllNodes(tree, rowCount, tree.getRowCount());
+        cancelSearchQuery();
+        AbstractEmployeeTableModel data = employees;
+        EmployeeTreeModel groups = employeeModel;
+        searchQuery = employeeSearchEngine.search(text, rows -> {
+            if (tree.getModel() != groups) {
+                return;
+            }
+            if (rows == null) {
+                renderer.setEmployeeMatches(null);
+                tree.repaint();
+                return;
+            }
+            BitSet ids = new BitSet();
+            BitSet departments = new BitSet();
+            int first = -1;
+            for (int row = rows.nextSetBit(0); row >= 0 && row < data.getRowCount(); row = rows.nextSetBit(row + 1)) {
+                ids.set(data.getId(row));
+                departments.set(data.getDepartmentCode(row));
+                if (first < 0) {
+                    first = row;
+                }
+            }
+            renderer.setEmployeeMatches(ids);
+            Set<TreePath> parents = new LinkedHashSet<>();
+            for (int code = departments.nextSetBit(0); code >= 0; code = departments.nextSetBit(code + 1)) {
+                EmployeeTreeModel.Department department = groups.getDepartmentNode(code);
+                if (department != null) {
+                    parents.add(new TreePath(new Object[]{groups.getRoot(), department}));
+                }
+            }
+            tree.expandPaths(parents);
+            if (first >= 0) {
+                tree.scrollPathToVisible(groups.getPath(first));
+            }
+            tree.repaint();
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            statusUpdater.accept("搜索: " + text + "（" + rows.cardinality() + " 名员工，" + elapsed + " ms）");
+        });
+    }
+    
+    private void loadLargeModel() {
+        SyntheticOrgSource orgSource = new SyntheticOrgSource(42, new int[]{20, 10, 10, 500}, 0);
+        statusUpdater.accept("正在加载 " + orgSource.getEmployeeCount() + " 人的组织架构...");
+        long start = System.nanoTime();
+        SwingWorker<CompactTreeModel, Void> worker = new SwingWorker<>() {
+            @Override
+            protected CompactTreeModel doInBackground() throws Exception {
+                return CompactTreeModel.copyOf(orgSource);
+            }
+            
+            @Override
+            protected void done() {
+                if (isCancelled() || loadWorker != this) {
+                    return;
+                }
+                loadWorker = null;
+                try {
+                    largeModel = get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    statusUpdater.accept("加载失败: " + ex.getMessage());
+                    return;
+                }
+                tree.setModel(largeModel);
+                modelChanged();
+                statusUpdater.accept(String.format("已加载 %d 个节点，用时 %d 毫秒",
+                    largeModel.getNodeCount(), (System.nanoTime() - start) / 1_000_000));
+            }
+        };
+        loadWorker = worker;
+        worker.execute();
+    }
+    
+    /**
+     * 在后台读取组织架构文件，完成后替换树的模型
+     */
+    public void openTreeFile(Path path) {
+        releaseLargeModel();
+        if (!(tree.getModel() instanceof CompactTreeModel)) {
+            // 原来的模型已释放，读取期间先显示员工数据
+            showEmployees();
+            modelChanged();
         }
+        statusUpdater.accept("正在打开 " + path.getFileName() + "...");
+        long start = System.nanoTime();
+        SwingWorker<CompactTreeModel, Void> worker = new SwingWorker<>() {
+            @Override
+            protected CompactTreeModel doInBackground() throws Exception {
+                return OrgTreeFile.read(path);
+            }
+            
+            @Override
+            protected void done() {
+                if (isCancelled() || loadWorker != this) {
+                    return;
+                }
+                loadWorker = null;
+                try {
+                    largeModel = get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    statusUpdater.accept("打开文件失败: " + rootMessage(ex));
+                    return;
+                }
+                if (employeeModel != null) {
+                    employeeModel.dispose();
+                    employeeModel = null;
+                }
+                tree.setModel(largeModel);
+                modelChanged();
+                statusUpdater.accept(String.format("已打开 %s（%d 个节点，%d ms）", path.getFileName(),
+                    largeModel.getNodeCount(), (System.nanoTime() - start) / 1_000_000));
+            }
+        };
+        loadWorker = worker;
+        worker.execute();
+    }
+    
+    /**
+     * 把当前的树写入组织架构文件；模型先在 EDT 上复制，再在后台写出。
+     * 员工分组按部门和员工姓名保存，再次打开时是普通的组织架构
+     */
+    public void saveTreeFile(Path path) {
+        CompactTreeModel snapshot;
+        if (employeeModel != null && tree.getModel() == employeeModel) {
+            snapshot = employeeModel.toCompactModel();
+        } else if (getEditableModel() != null) {
+            snapshot = getEditableModel().copy();
+        } else {
+            statusUpdater.accept("按需加载的组织架构不能保存，请先切换到完整加载");
+            return;
+        }
+        statusUpdater.accept("正在保存 " + path.getFileName() + "...");
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                OrgTreeFile.write(snapshot, path);
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    statusUpdater.accept("已保存 " + snapshot.getNodeCount() + " 个节点到 " + path.getFileName());
+                } catch (Exception ex) {
+                    statusUpdater.accept("保存文件失败: " + rootMessage(ex));
+                }
+            }
+        }.execute();
+    }
+    
+    private static String rootMessage(Exception ex) {
+        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+        return cause.getMessage();
+    }
+    
+    private CompactTreeModel getEditableModel() {
+        return tree.getModel() instanceof CompactTreeModel model ? model : null;
     }
     
     private void createControlPanel() {
         JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
         controlPanel.setBorder(BorderFactory.createTitledBorder("树操作"));
         
-        JButton addButton = new JButton("添加节点");
+        JComboBox<String> sourceCombo = new JComboBox<>(new String[]{"员工（按部门）", "示例组织架构", "大型组织（按需加载）", "大型组织（完整加载）"});
+        sourceCombo.addActionListener(e -> setDataSource(sourceCombo.getSelectedIndex()));
+        
+        addButton = new JButton("添加节点");
         addButton.addActionListener(e -> {
-            DefaultMutableTreeNode selectedNode = (DefaultMutableTreeNode) 
-                tree.getLastSelectedPathComponent();
-            if (selectedNode != null) {
+            if (tree.getModel() == employeeModel) {
+                addEmployee();
+                return;
+            }
+            CompactTreeModel model = getEditableModel();
+            if (model != null && tree.getLastSelectedPathComponent() instanceof CompactTreeModel.Node selectedNode) {
                 String nodeName = JOptionPane.showInputDialog(this, 
                     "请输入新节点名称:", "添加节点", JOptionPane.PLAIN_MESSAGE);
                 if (nodeName != null && !nodeName.trim().isEmpty()) {
-                    DefaultMutableTreeNode newNode = new DefaultMutableTreeNode(nodeName);
-                    treeModel.insertNodeInto(newNode, selectedNode, selectedNode.getChildCount());
-                    tree.scrollPathToVisible(new TreePath(newNode.getPath()));
+                    CompactTreeModel.Node newNode = model.insertNodeInto(nodeName, selectedNode,
+                        model.getChildCount(selectedNode.getId()));
+                    tree.scrollPathToVisible(model.getPath(newNode));
                     statusUpdater.accept("添加了节点: " + nodeName);
                 }
             } else {
@@ -128,13 +581,17 @@ public class TreePanel extends JPanel {
             }
         });
         
-        JButton deleteButton = new JButton("删除节点");
+        deleteButton = new JButton("删除节点");
         deleteButton.addActionListener(e -> {
-            DefaultMutableTreeNode selectedNode = (DefaultMutableTreeNode) 
-                tree.getLastSelectedPathComponent();
-            if (selectedNode != null && selectedNode != rootNode) {
-                String nodeName = selectedNode.getUserObject().toString();
-                treeModel.removeNodeFromParent(selectedNode);
+            if (tree.getModel() == employeeModel) {
+                deleteEmployees();
+                return;
+            }
+            CompactTreeModel model = getEditableModel();
+            if (model != null && tree.getLastSelectedPathComponent() instanceof CompactTreeModel.Node selectedNode
+                && !selectedNode.equals(model.getRootNode())) {
+                String nodeName = selectedNode.toString();
+                model.removeNodeFromParent(selectedNode);
                 statusUpdater.accept("删除了节点: " + nodeName);
             } else {
                 statusUpdater.accept("请选择要删除的节点（不能删除根节点）");
@@ -143,28 +600,105 @@ public class TreePanel extends JPanel {
         
         JButton expandButton = new JButton("全部展开");
         expandButton.addActionListener(e -> {
-            expandAllNodes(tree, 0, tree.getRowCount());
-            statusUpdater.accept("展开了所有节点");
+            long start = System.nanoTime();
+            int count = tree.expandAll();
+            statusUpdater.accept(String.format("展开了 %d 个节点，用时 %d 毫秒",
+                count, (System.nanoTime() - start) / 1_000_000));
         });
         
         JButton collapseButton = new JButton("全部折叠");
         collapseButton.addActionListener(e -> {
-            int row = tree.getRowCount() - 1;
-            while (row >= 1) {
-                tree.collapseRow(row);
-                row--;
-            }
-            statusUpdater.accept("折叠了所有节点");
+            long start = System.nanoTime();
+            int count = tree.collapseAll();
+            statusUpdater.accept(String.format("折叠了 %d 个节点，用时 %d 毫秒",
+                count, (System.nanoTime() - start) / 1_000_000));
         });
         
+        controlPanel.add(new JLabel("数据:"));
+        controlPanel.add(sourceCombo);
         controlPanel.add(addButton);
         controlPanel.add(deleteButton);
         controlPanel.add(expandButton);
         controlPanel.add(collapseButton);
         
+        // 搜索框：输入时防抖，回车立即搜索，查询在后台线程执行
+        searchField = new JTextField(12);
+        Timer debounceTimer = new Timer(SEARCH_DEBOUNCE_MS, e -> applySearch(searchField.getText()));
+        debounceTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+        });
+        searchField.addActionListener(e -> {
+            debounceTimer.stop();
+            applySearch(searchField.getText());
+        });
+        controlPanel.add(new JLabel("搜索:"));
+        controlPanel.add(searchField);
+        
         add(controlPanel, BorderLayout.NORTH);
     }
     
+    /**
+     * 在选中的部门中添加员工；写入员工数据后树和表格都由模型事件更新
+     */
+    private void addEmployee() {
+        Object selected = tree.getLastSelectedPathComponent();
+        String department;
+        if (selected instanceof EmployeeTreeModel.Department node) {
+            department = node.toString();
+        } else if (selected instanceof EmployeeTreeModel.Employee node && node.getRow() >= 0) {
+            department = employees.getDepartment(node.getRow());
+        } else {
+            statusUpdater.accept("请先选择一个部门");
+            return;
+        }
+        String name = JOptionPane.showInputDialog(this,
+            "请输入员工姓名:", "添加员工", JOptionPane.PLAIN_MESSAGE);
+        if (name != null && !name.trim().isEmpty() && employees instanceof EmployeeTableModel editable) {
+            editable.addRow(editable.allocateId(), name.trim(), 25, department, 8000.0, true);
+            tree.scrollPathToVisible(employeeModel.getPath(editable.getRowCount() - 1));
+            statusUpdater.accept("在" + department + "添加了员工: " + name.trim());
+        }
+    }
+    
+    /**
+     * 删除选中的员工，选中部门时删除部门中的全部员工
+     */
+    private void deleteEmployees() {
+        if (!(employees instanceof EmployeeTableModel editable)) {
+            return;
+        }
+        Object selected = tree.getLastSelectedPathComponent();
+        if (selected instanceof EmployeeTreeModel.Employee node && node.getRow() >= 0) {
+            editable.removeRow(node.getRow());
+            statusUpdater.accept("删除了员工: " + node);
+        } else if (selected instanceof EmployeeTreeModel.Department node) {
+            BitSet rows = new BitSet(editable.getRowCount());
+            for (int row = 0; row < editable.getRowCount(); row++) {
+                if (editable.getDepartmentCode(row) == node.getCode()) {
+                    rows.set(row);
+                }
+            }
+            editable.removeRows(rows);
+            statusUpdater.accept("删除了" + node + "的 " + rows.cardinality() + " 名员工");
+        } else {
+            statusUpdater.accept("请选择要删除的员工或部门");
+        }
+    }
+    
     private void createInfoPanel() {
         JPanel infoPanel = new JPanel(new BorderLayout());
         infoPanel.setBorder(BorderFactory.createTitledBorder("节点信息"));
@@ -173,17 +707,13 @@ public class TreePanel extends JPanel {
         infoArea.setEditable(false);
         infoArea.setText("选择一个节点查看详细信息...");
         
+        // 状态栏和信息栏共用一个选择监听器
         tree.addTreeSelectionListener(e -> {
-            DefaultMutableTreeNode node = (DefaultMutableTreeNode) 
-                tree.getLastSelectedPathComponent();
-            if (node != null) {
-                StringBuilder info = new StringBuilder();
-                info.append("节点名称: ").append(node.getUserObject()).append("\n");
-                info.append("层级深度: ").append(node.getLevel()).append("\n");
-                info.append("子节点数: ").append(node.getChildCount()).append("\n");
-                info.append("是否叶节点: ").append(node.isLeaf() ? "是" : "否").append("\n");
-                info.append("路径: ").append(getNodePath(node));
-                infoArea.setText(info.toString());
+            TreePath selected = tree.getSelectionPath();
+            if (selected != null) {
+                statusUpdater.accept("选中节点: " + selected.getLastPathComponent());
+                infoArea.setText(describeNode(selected));
+                infoArea.setCaretPosition(0);
             }
         });
         
@@ -191,9 +721,59 @@ public class TreePanel extends JPanel {
         add(infoPanel, BorderLayout.EAST);
     }
     
-    private String getNodePath(DefaultMutableTreeNode node) {
+    private String describeNode(TreePath selected) {
+        TreeModel model = tree.getModel();
+        Object node = selected.getLastPathComponent();
+        StringBuilder info = new StringBuilder();
+        info.append("节点名称: ").append(node).append("\n");
+        if (model instanceof CompactTreeModel compactModel && node instanceof CompactTreeModel.Node compactNode) {
+            // 数组模型的统计由缓存增量维护，子树合计也无需遍历
+            if (metadataCache == null) {
+                metadataCache = new NodeMetadataCache(compactModel);
+            }
+            int id = compactNode.getId();
+            info.append("层级深度: ").append(metadataCache.getDepth(id)).append("\n");
+            info.append("子节点数: ").append(compactModel.getChildCount(id)).append("\n");
+            info.append("下属节点总数: ").append(metadataCache.getSubtreeSize(id) - 1).append("\n");
+            info.append("下属叶节点数: ").append(compactModel.getChildCount(id) == 0 ? 0 : metadataCache.getLeafCount(id))
+                .append("\n");
+            info.append("是否叶节点: ").append(compactModel.getChildCount(id) == 0 ? "是" : "否").append("\n");
+            info.append("路径: ").append(metadataCache.getPathString(id));
+            return info.toString();
+        }
+        if (node instanceof EmployeeTreeModel.Employee employee && employee.getRow() >= 0) {
+            int row = employee.getRow();
+            info.append("员工ID: ").append(employees.getId(row)).append("\n");
+            info.append("部门: ").append(employees.getDepartment(row)).append("\n");
+            info.append("年龄: ").append(employees.getAge(row)).append("\n");
+            info.append("在职: ").append(employees.isActive(row) ? "是" : "否").append("\n");
+        }
+        // 按需加载的模型只显示已知信息
+        info.append("层级深度: ").append(selected.getPathCount() - 1).append("\n");
+        info.append("子节点数: ").append(model.getChildCount(node)).append("\n");
+        if (model instanceof EmployeeTreeModel) {
+            // 员工分组只有部门和员工两层，子树合计由各部门的人数得出
+            Object root = model.getRoot();
+            int leaves = model.getChildCount(node);
+            int descendants = leaves;
+            if (root.equals(node)) {
+                leaves = 0;
+                for (int i = 0; i < model.getChildCount(root); i++) {
+                    leaves += model.getChildCount(model.getChild(root, i));
+                }
+                descendants = leaves + model.getChildCount(root);
+            }
+            info.append("下属节点总数: ").append(descendants).append("\n");
+            info.append("下属叶节点数: ").append(leaves).append("\n");
+        }
+        info.append("是否叶节点: ").append(model.isLeaf(node) ? "是" : "否").append("\n");
+        info.append("路径: ").append(getNodePath(selected));
+        return info.toString();
+    }
+    
+    private String getNodePath(TreePath treePath) {
         StringBuilder path = new StringBuilder();
-        Object[] nodes = node.getUserObjectPath();
+        Object[] nodes = treePath.getPath();
         for (int i = 0; i < nodes.length; i++) {
             path.append(nodes[i]);
             if (i < nodes.length - 1) {
@@ -0,0 +1,104 @@
+package com.example.swing.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 全局搜索
+ * 把一次查询同时发给所有登记的来源，各来源在自己的后台线程中查询，
+ * 每返回一个来源就按登记顺序合并一次结果回调，先完成的来源先显示。只在 EDT 上使用
+ */
+public class GlobalSearch {
+    
+    /**
+     * 合并后的结果
+     *
+     * @param hits    各来源的命中，按来源登记顺序排列
+     * @param total   各来源命中总数之和
+     * @param pending 尚未返回的来源数
+     * @param elapsed 从发出查询到本次回调的毫秒数
+     */
+    public record Snapshot(String text, List<SearchHit> hits, int total, int pending, long elapsed) {
+    }
+    
+    private record Source(Supplier<? extends SearchProvider> provider, Runnable show) {
+    }
+    
+    private final List<Source> sources = new ArrayList<>();
+    private int generation;
+    
+    /**
+     * 登记来源；provider 在每次查询时取用，返回 null 表示来源暂不可用（例如面板尚未构建），本次查询跳过它；
+     * show 在定位命中之前调用，用于切换到来源所在的界面
+     */
+    public void addProvider(Supplier<? extends SearchProvider> provider, Runnable show) {
+        sources.add(new Source(provider, show));
+    }
+    
+    /**
+     * 发出查询，每个来源最多取 limit 个命中；新的查询使旧查询的后续回调失效
+     */
+    public void search(String text, int limit, Consumer<Snapshot> callback) {
+        int searchGeneration = ++generation;
+        long start = System.nanoTime();
+        List<SearchProvider> providers = new ArrayList<>(sources.size());
+        for (Source source : sources) {
+            providers.add(source.provider().get());
+        }
+        SearchProvider.Result[] results = new SearchProvider.Result[sources.size()];
+        int[] pending = {(int) providers.stream().filter(Objects::nonNull).count()};
+        if (pending[0] == 0) {
+            callback.accept(merge(text, results, 0, start));
+            return;
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            int index = i;
+            Source source = sources.get(i);
+            SearchProvider provider = providers.get(i);
+            if (provider == null) {
+                continue;
+            }
+            provider.searchAll(text, limit, result -> {
+                if (searchGeneration != generation || results[index] != null) {
+                    return;
+                }
+                results[index] = wrap(result, source.show());
+                pending[0]--;
+                callback.accept(merge(text, results, pending[0], start));
+            });
+        }
+    }
+    
+    /**
+     * 使尚未返回的查询失效
+     */
+    public void cancel() {
+        generation++;
+    }
+    
+    private static SearchProvider.Result wrap(SearchProvider.Result result, Runnable show) {
+        List<SearchHit> hits = new ArrayList<>(result.hits().size());
+        for (SearchHit hit : result.hits()) {
+            hits.add(new SearchHit(hit.category(), hit.label(), () -> {
+                show.run();
+                hit.reveal().run();
+            }));
+        }
+        return new SearchProvider.Result(hits, result.total());
+    }
+    
+    private static Snapshot merge(String text, SearchProvider.Result[] results, int pending, long start) {
+        List<SearchHit> hits = new ArrayList<>();
+        int total = 0;
+        for (SearchProvider.Result result : results) {
+            if (result != null) {
+                hits.addAll(result.hits());
+                total += result.total();
+            }
+        }
+        return new Snapshot(text, hits, total, pending, (System.nanoTime() - start) / 1_000_000);
+    }
+}
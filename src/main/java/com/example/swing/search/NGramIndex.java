@@ -0,0 +1,125 @@
+package com.example.swing.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 字符 n-gram 倒排索引
+ * 以稳定的 int 编号登记文本，按单字和双字建立倒排表，用于不区分大小写的子串查询。
+ * 删除采用惰性标记，查询时再校验，所有方法均可在任意线程调用
+ */
+public class NGramIndex {
+    
+    private final Map<Integer, Postings> unigrams = new HashMap<>();
+    private final Map<Integer, Postings> bigrams = new HashMap<>();
+    private String[] texts = new String[16];
+    private int liveCount;
+    
+    /**
+     * 登记或替换编号对应的文本
+     */
+    public synchronized void put(int id, String text) {
+        if (id >= texts.length) {
+            texts = Arrays.copyOf(texts, Math.max(id + 1, texts.length * 2));
+        }
+        String normalized = normalize(text);
+        String previous = texts[id];
+        if (normalized.equals(previous)) {
+            return;
+        }
+        if (previous == null) {
+            liveCount++;
+        }
+        texts[id] = normalized;
+        // 旧文本的倒排项不删除，查询时按当前文本校验即可过滤
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            postings(unigrams, c).add(id);
+            if (i + 1 < normalized.length()) {
+                postings(bigrams, (c << 16) | normalized.charAt(i + 1)).add(id);
+            }
+        }
+    }
+    
+    public synchronized void remove(int id) {
+        if (id < texts.length && texts[id] != null) {
+            texts[id] = null;
+            liveCount--;
+        }
+    }
+    
+    public synchronized int size() {
+        return liveCount;
+    }
+    
+    /**
+     * 返回文本包含查询串的编号集合，查询串为空时返回所有编号
+     */
+    public synchronized BitSet query(String text) {
+        String needle = normalize(text);
+        BitSet result = new BitSet();
+        if (needle.isEmpty()) {
+            for (int id = 0; id < texts.length; id++) {
+                if (texts[id] != null) {
+                    result.set(id);
+                }
+            }
+            return result;
+        }
+        
+        // 取最短的倒排表作为候选集，再逐个校验
+        Postings candidates = unigrams.get((int) needle.charAt(0));
+        if (needle.length() > 1) {
+            candidates = null;
+            for (int i = 0; i + 1 < needle.length(); i++) {
+                Postings postings = bigrams.get((needle.charAt(i) << 16) | needle.charAt(i + 1));
+                if (postings == null) {
+                    return result;
+                }
+                if (candidates == null || postings.size < candidates.size) {
+                    candidates = postings;
+                }
+            }
+        }
+        if (candidates == null) {
+            return result;
+        }
+        for (int i = 0; i < candidates.size; i++) {
+            int id = candidates.ids[i];
+            String value = texts[id];
+            if (value != null && value.contains(needle)) {
+                result.set(id);
+            }
+        }
+        return result;
+    }
+    
+    public static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+    
+    private static Postings postings(Map<Integer, Postings> map, int key) {
+        return map.computeIfAbsent(key, k -> new Postings());
+    }
+    
+    /**
+     * 可增长的编号列表，同一编号连续重复登记时只保留一份
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+        
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
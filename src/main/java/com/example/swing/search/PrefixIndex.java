@@ -0,0 +1,205 @@
+package com.example.swing.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 排序前缀索引
+ * 按规范化后的文本排序保存（文本，编号）对，前缀查询是两次二分查找得到的一个连续区间。
+ * 单项增删二分定位后移动数组；批量登记先排序再与原数组合并一次，批量删除压缩一次。
+ * 所有方法均可在任意线程调用
+ */
+public class PrefixIndex {
+    
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    // 按 (文本, 编号) 排序
+    private String[] keys = new String[DEFAULT_CAPACITY];
+    private int[] ids = new int[DEFAULT_CAPACITY];
+    private int size;
+    // 按编号的文本，用于删除时定位
+    private String[] keyById = new String[DEFAULT_CAPACITY];
+    
+    /**
+     * 登记或替换编号对应的文本
+     */
+    public synchronized void put(int id, String text) {
+        remove(id);
+        String key = NGramIndex.normalize(text);
+        ensureIdCapacity(id + 1);
+        keyById[id] = key;
+        ensureCapacity(size + 1);
+        int position = -search(key, id) - 1;
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        keys[position] = key;
+        ids[position] = id;
+        size++;
+    }
+    
+    /**
+     * 批量登记新编号，编号不能已经存在
+     */
+    public synchronized void putAll(int[] newIds, String[] texts) {
+        int count = newIds.length;
+        if (count == 0) {
+            return;
+        }
+        Integer[] order = new Integer[count];
+        String[] newKeys = new String[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            newKeys[i] = NGramIndex.normalize(texts[i]);
+            ensureIdCapacity(newIds[i] + 1);
+            keyById[newIds[i]] = newKeys[i];
+        }
+        Arrays.sort(order, (a, b) -> compare(newKeys[a], newIds[a], newKeys[b], newIds[b]));
+        
+        String[] mergedKeys = new String[Math.max(DEFAULT_CAPACITY, size + count)];
+        int[] mergedIds = new int[mergedKeys.length];
+        int from = 0;
+        int to = 0;
+        for (Integer index : order) {
+            String key = newKeys[index];
+            int id = newIds[index];
+            while (from < size && compare(keys[from], ids[from], key, id) < 0) {
+                mergedKeys[to] = keys[from];
+                mergedIds[to++] = ids[from++];
+            }
+            mergedKeys[to] = key;
+            mergedIds[to++] = id;
+        }
+        System.arraycopy(keys, from, mergedKeys, to, size - from);
+        System.arraycopy(ids, from, mergedIds, to, size - from);
+        keys = mergedKeys;
+        ids = mergedIds;
+        size += count;
+    }
+    
+    public synchronized void remove(int id) {
+        if (id >= keyById.length || keyById[id] == null) {
+            return;
+        }
+        int position = search(keyById[id], id);
+        System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+        keys[size] = null;
+        keyById[id] = null;
+    }
+    
+    /**
+     * 一次压缩删除多个编号
+     */
+    public synchronized void removeAll(BitSet removed) {
+        int to = 0;
+        for (int from = 0; from < size; from++) {
+            if (removed.get(ids[from])) {
+                keyById[ids[from]] = null;
+            } else {
+                keys[to] = keys[from];
+                ids[to++] = ids[from];
+            }
+        }
+        Arrays.fill(keys, to, size, null);
+        size = to;
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    /**
+     * 返回文本以 prefix 开头的编号集合，prefix 为空时返回所有编号
+     */
+    public synchronized BitSet query(String prefix) {
+        String needle = NGramIndex.normalize(prefix);
+        BitSet result = new BitSet();
+        int end = prefixEnd(needle);
+        for (int i = prefixStart(needle); i < end; i++) {
+            result.set(ids[i]);
+        }
+        return result;
+    }
+    
+    /**
+     * 以 prefix 开头的文本个数
+     */
+    public synchronized int count(String prefix) {
+        String needle = NGramIndex.normalize(prefix);
+        return prefixEnd(needle) - prefixStart(needle);
+    }
+    
+    /**
+     * 第一个不小于 prefix 的位置
+     */
+    private int prefixStart(String prefix) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * 第一个大于 prefix 且不以 prefix 开头的位置；在排序数组中小于它的都不大于 prefix 或以 prefix 开头
+     */
+    private int prefixEnd(String prefix) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0 || keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * 二分查找 (key, id)，找不到时返回 -(插入点) - 1
+     */
+    private int search(String key, int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(keys[mid], ids[mid], key, id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    
+    private static int compare(String key1, int id1, String key2, int id2) {
+        int cmp = key1.compareTo(key2);
+        return cmp != 0 ? cmp : Integer.compare(id1, id2);
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newCapacity = Math.max(capacity, keys.length + (keys.length >> 1));
+            keys = Arrays.copyOf(keys, newCapacity);
+            ids = Arrays.copyOf(ids, newCapacity);
+        }
+    }
+    
+    private void ensureIdCapacity(int capacity) {
+        if (capacity > keyById.length) {
+            keyById = Arrays.copyOf(keyById, Math.max(capacity, keyById.length * 2));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.swing.search;
+
+/**
+ * 全局搜索的一条命中
+ *
+ * @param category 来源，例如“表格”
+ * @param label    显示的文本
+ * @param reveal   在 EDT 上调用，定位到命中的行、节点或列表项
+ */
+public record SearchHit(String category, String label, Runnable reveal) {
+}
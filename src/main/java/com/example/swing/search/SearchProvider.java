@@ -0,0 +1,29 @@
+package com.example.swing.search;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 全局搜索的数据来源
+ * 由各面板实现，使用各自随模型增量维护的索引，查询在后台线程执行
+ */
+public interface SearchProvider {
+    
+    /**
+     * 一个来源的查询结果
+     *
+     * @param hits  前若干个命中
+     * @param total 命中总数
+     */
+    record Result(List<SearchHit> hits, int total) {
+        
+        public static final Result EMPTY = new Result(List.of(), 0);
+    }
+    
+    String getSearchCategory();
+    
+    /**
+     * 异步查询 text，完成后在 EDT 上以最多 limit 个命中回调；新的查询会使尚未完成的旧查询失效
+     */
+    void searchAll(String text, int limit, Consumer<Result> callback);
+}
@@ -0,0 +1,116 @@
+package com.example.swing.search;
+
+import javax.swing.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 后台查询的公共流程
+ * 查询发起时在 EDT 上复制查询需要的模型数据，后台线程只读这份快照，不接触仍在 EDT 上修改的模型；
+ * 结果回到 EDT 后，若快照之后模型有变化（行号或节点编号可能已经失效）则丢弃，基于最新数据重新查询。
+ * 查询本身抛出的异常在 EDT 上重新抛出，不当作并发修改重试。
+ * 每次查询返回自己的 Query，调用方只取消自己发出的查询，同一个引擎可以同时服务多个调用方。
+ * 所有引擎共用一个查询线程，块内并行扫描的部分由各实现自行决定
+ *
+ * @param <S> 快照类型
+ * @param <R> 结果类型
+ */
+public abstract class SnapshotSearch<S, R> {
+    
+    private static final ExecutorService SEARCH_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "snapshot-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    /**
+     * 一次查询的取消标记
+     */
+    public static final class Query {
+        
+        private volatile boolean cancelled;
+        
+        /**
+         * 取消后不再回调；查询已经完成时没有效果
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+        
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+    
+    private final AtomicInteger generation = new AtomicInteger();
+    
+    /**
+     * 异步执行查询，完成后在 EDT 上回调；文本为空时立即以 null 回调表示没有查询。
+     * 不会取消同一引擎上的其他查询，调用方发出新查询前应取消自己的旧查询
+     */
+    public Query search(String text, Consumer<R> callback) {
+        Query query = new Query();
+        if (text == null || text.isEmpty()) {
+            callback.accept(null);
+            return query;
+        }
+        submit(text, query, generation.get(), callback, null);
+        return query;
+    }
+    
+    /**
+     * 使这个引擎上所有尚未完成的查询失效，之后仍可发出新的查询
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+    
+    private void submit(String text, Query query, int searchGeneration, Consumer<R> callback, S previous) {
+        S snapshot = snapshot(text, previous);
+        BooleanSupplier cancelled = () -> query.isCancelled() || searchGeneration != generation.get();
+        SEARCH_EXECUTOR.execute(() -> {
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            R result;
+            try {
+                result = evaluate(snapshot, cancelled);
+            } catch (RuntimeException ex) {
+                SwingUtilities.invokeLater(() -> {
+                    throw ex;
+                });
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                if (!isCurrent(snapshot)) {
+                    submit(text, query, searchGeneration, callback, snapshot);
+                    return;
+                }
+                if (result != null) {
+                    callback.accept(result);
+                }
+            });
+        });
+    }
+    
+    /**
+     * 在 EDT 上复制查询 text 需要的数据；previous 为因模型变化而作废的上一份快照，第一次为 null
+     */
+    protected abstract S snapshot(String text, S previous);
+    
+    /**
+     * 在查询线程上按快照计算结果，cancelled 为 true 时可以提前返回 null
+     */
+    protected abstract R evaluate(S snapshot, BooleanSupplier cancelled);
+    
+    /**
+     * 在 EDT 上判断快照之后模型是否有影响结果的变化
+     */
+    protected abstract boolean isCurrent(S snapshot);
+}
@@ -0,0 +1,79 @@
+package com.example.swing.table;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * 员工表格模型基类
+ * 定义列结构，并提供按列类型的基本类型访问方法，
+ * 排序、渲染等热点路径应直接使用这些方法以避免装箱
+ */
+public abstract class AbstractEmployeeTableModel extends AbstractTableModel {
+    
+    public static final int COLUMN_ID = 0;
+    public static final int COLUMN_NAME = 1;
+    public static final int COLUMN_AGE = 2;
+    public static final int COLUMN_DEPARTMENT = 3;
+    public static final int COLUMN_SALARY = 4;
+    public static final int COLUMN_ACTIVE = 5;
+    
+    private static final String[] COLUMN_NAMES = {"ID", "姓名", "年龄", "部门", "薪资", "在职"};
+    
+    public abstract int getId(int row);
+    
+    public abstract String getName(int row);
+    
+    public abstract int getAge(int row);
+    
+    /**
+     * 部门列的字典编码，配合 {@link #getDepartmentDictionary()} 使用
+     */
+    public abstract int getDepartmentCode(int row);
+    
+    public abstract StringDictionary getDepartmentDictionary();
+    
+    public abstract double getSalary(int row);
+    
+    public abstract boolean isActive(int row);
+    
+    public String getDepartment(int row) {
+        return getDepartmentDictionary().decode(getDepartmentCode(row));
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+    
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return switch (columnIndex) {
+            case COLUMN_ID, COLUMN_AGE -> Integer.class;
+            case COLUMN_SALARY -> Double.class;
+            case COLUMN_ACTIVE -> Boolean.class;
+            default -> String.class;
+        };
+    }
+    
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column != COLUMN_ID; // ID列不可编辑
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        return switch (column) {
+            case COLUMN_ID -> getId(row);
+            case COLUMN_NAME -> getName(row);
+            case COLUMN_AGE -> getAge(row);
+            case COLUMN_DEPARTMENT -> getDepartment(row);
+            case COLUMN_SALARY -> getSalary(row);
+            case COLUMN_ACTIVE -> isActive(row);
+            default -> throw new IllegalArgumentException("无效的列: " + column);
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.swing.table;
+
+import javax.swing.*;
+import javax.swing.border.Border;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+
+/**
+ * 在职状态列的复选框渲染器
+ * 外观与 JTable 默认的布尔渲染器相同，直接读取模型的位集
+ */
+public class ActiveCellRenderer extends JCheckBox implements EmployeeCellRenderer {
+    
+    private static final Border NO_FOCUS_BORDER = new EmptyBorder(1, 1, 1, 1);
+    
+    public ActiveCellRenderer() {
+        setHorizontalAlignment(JLabel.CENTER);
+        setBorderPainted(true);
+    }
+    
+    @Override
+    public Component getRendererComponent(JTable table, AbstractEmployeeTableModel model, int modelRow, int modelColumn,
+                                          boolean isSelected, boolean hasFocus, int row, int column) {
+        return configure(table, model.isActive(modelRow), isSelected, hasFocus);
+    }
+    
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        return configure(table, Boolean.TRUE.equals(value), isSelected, hasFocus);
+    }
+    
+    private Component configure(JTable table, boolean active, boolean isSelected, boolean hasFocus) {
+        if (isSelected) {
+            setForeground(table.getSelectionForeground());
+            setBackground(table.getSelectionBackground());
+        } else {
+            setForeground(table.getForeground());
+            setBackground(table.getBackground());
+        }
+        setSelected(active);
+        setBorder(hasFocus ? UIManager.getBorder("Table.focusCellHighlightBorder") : NO_FOCUS_BORDER);
+        return this;
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.swing.table;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 字符串列的排序键缓存
+ * 每个不同取值只计算一次 CollationKey 字节序列，随单元格编辑和行增删保持同步，
+ * 排序和范围筛选直接比较字节数组，不再逐次调用 Collator。
+ * 部门列按字典编码缓存，姓名列按行缓存（构建时相同姓名共享同一数组）。
+ * 创建时不计算：完整构建由 Build 在 EDT 上复制取值、在排序线程上计算，再回到 EDT 发布；
+ * 模型整体变化或大批插入时缓存作废，等下次使用时重新在后台构建，EDT 上只处理少量行的增量
+ */
+public class CollationKeyCache implements TableModelListener {
+    
+    private static final byte[][] EMPTY = new byte[0][];
+    // 一次插入超过此行数时不在 EDT 上逐行计算，作废后由后台重新构建
+    private static final int MAX_INCREMENTAL_ROWS = 10_000;
+    
+    private final AbstractEmployeeTableModel model;
+    private final int column;
+    private final Collator collator = Collator.getInstance(Locale.CHINA);
+    private byte[][] rowKeys = EMPTY;
+    private byte[][] codeKeys = EMPTY;
+    private int rowCount;
+    private boolean ready;
+    // 本列每次变化加一，发布构建结果时据此判断期间是否有变化
+    private long version;
+    
+    /**
+     * 一次完整构建：创建时在 EDT 上复制取值，run 在后台线程计算排序键，之后交给 publish
+     */
+    public final class Build {
+        private final long startVersion = version;
+        private final int builtRowCount = model.getRowCount();
+        // 姓名列为每行的姓名，部门列为每个字典编码的取值
+        private final String[] values;
+        private byte[][] keys;
+        
+        private Build() {
+            if (column == AbstractEmployeeTableModel.COLUMN_NAME) {
+                values = new String[builtRowCount];
+                for (int row = 0; row < builtRowCount; row++) {
+                    values[row] = model.getName(row);
+                }
+            } else {
+                StringDictionary dictionary = model.getDepartmentDictionary();
+                values = new String[dictionary.size()];
+                for (int code = 0; code < values.length; code++) {
+                    values[code] = dictionary.decode(code);
+                }
+            }
+        }
+        
+        /**
+         * 在后台线程调用；Collator 不是线程安全的，使用副本
+         */
+        public void run() {
+            Collator local = (Collator) collator.clone();
+            Map<String, byte[]> shared = new HashMap<>();
+            byte[][] result = new byte[values.length][];
+            for (int i = 0; i < values.length; i++) {
+                result[i] = shared.computeIfAbsent(values[i], v -> local.getCollationKey(v).toByteArray());
+            }
+            keys = result;
+        }
+        
+        /**
+         * 构建得到的每行（姓名列）或每个字典编码（部门列）的排序键，run 之前为 null
+         */
+        byte[][] keys() {
+            return keys;
+        }
+    }
+    
+    /**
+     * 为姓名列或部门列创建缓存，需在 EDT 上调用；创建后尚未就绪，需经 startBuild 和 publish 构建
+     */
+    public CollationKeyCache(AbstractEmployeeTableModel model, int column) {
+        if (column != AbstractEmployeeTableModel.COLUMN_NAME
+            && column != AbstractEmployeeTableModel.COLUMN_DEPARTMENT) {
+            throw new IllegalArgumentException("不是字符串列: " + column);
+        }
+        this.model = model;
+        this.column = column;
+        model.addTableModelListener(this);
+    }
+    
+    public void dispose() {
+        model.removeTableModelListener(this);
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * 在 EDT 上开始一次完整构建
+     */
+    public Build startBuild() {
+        return new Build();
+    }
+    
+    /**
+     * 在 EDT 上发布已完成的构建；构建期间本列有变化时放弃并返回 false
+     */
+    public boolean publish(Build build) {
+        if (build.keys == null || build.startVersion != version) {
+            return false;
+        }
+        rowCount = build.builtRowCount;
+        if (column == AbstractEmployeeTableModel.COLUMN_NAME) {
+            rowKeys = build.keys;
+        } else {
+            codeKeys = build.keys;
+            syncDepartments();
+        }
+        ready = true;
+        return true;
+    }
+    
+    /**
+     * 计算单个取值的排序键，不缓存，用于编辑过的行和范围查询的边界
+     */
+    public byte[] keyOf(String value) {
+        return collator.getCollationKey(value).toByteArray();
+    }
+    
+    public byte[] getRowKey(int row) {
+        if (column == AbstractEmployeeTableModel.COLUMN_NAME) {
+            return rowKeys[row];
+        }
+        syncDepartments();
+        return codeKeys[model.getDepartmentCode(row)];
+    }
+    
+    /**
+     * 按排序键比较两个字节序列
+     */
+    public static int compareKeys(byte[] key1, byte[] key2) {
+        return Arrays.compareUnsigned(key1, key2);
+    }
+    
+    /**
+     * 返回取值在 [from, to] 范围内（按 Collator 顺序，含两端）的模型行号集合，只在缓存就绪后调用
+     */
+    public BitSet rowsInRange(String from, String to) {
+        byte[] lower = from == null || from.isEmpty() ? null : keyOf(from);
+        byte[] upper = to == null || to.isEmpty() ? null : keyOf(to);
+        BitSet rows = new BitSet(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            byte[] key = getRowKey(row);
+            if ((lower == null || compareKeys(key, lower) >= 0)
+                && (upper == null || compareKeys(key, upper) <= 0)) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * 复制每行的排序键引用，供后台排序使用（仅姓名列）
+     */
+    byte[][] snapshotRowKeys() {
+        return Arrays.copyOf(rowKeys, rowCount);
+    }
+    
+    /**
+     * 复制每个字典编码的排序键，供后台排序使用（仅部门列）
+     */
+    byte[][] snapshotCodeKeys() {
+        syncDepartments();
+        return codeKeys.clone();
+    }
+    
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        if (e.getType() == TableModelEvent.UPDATE && e.getColumn() != TableModelEvent.ALL_COLUMNS
+            && e.getColumn() != column) {
+            return;
+        }
+        version++;
+        if (!ready) {
+            return;
+        }
+        if (e instanceof RowsRemovedEvent removed) {
+            if (column == AbstractEmployeeTableModel.COLUMN_NAME) {
+                removed.compact(rowKeys);
+                Arrays.fill(rowKeys, removed.getNewRowCount(), rowCount, null);
+            }
+            rowCount = removed.getNewRowCount();
+            return;
+        }
+        int first = e.getFirstRow();
+        int last = e.getLastRow();
+        if (first == TableModelEvent.HEADER_ROW || last == Integer.MAX_VALUE
+            || (e.getType() == TableModelEvent.INSERT && last - first >= MAX_INCREMENTAL_ROWS)) {
+            invalidate();
+            return;
+        }
+        if (column == AbstractEmployeeTableModel.COLUMN_DEPARTMENT) {
+            rowCount = model.getRowCount();
+            syncDepartments();
+            return;
+        }
+        int count = last - first + 1;
+        switch (e.getType()) {
+            case TableModelEvent.INSERT -> {
+                if (rowCount + count > rowKeys.length) {
+                    rowKeys = Arrays.copyOf(rowKeys, Math.max(rowCount + count, rowKeys.length + (rowKeys.length >> 1)));
+                }
+                System.arraycopy(rowKeys, first, rowKeys, first + count, rowCount - first);
+                rowCount += count;
+                for (int row = first; row <= last; row++) {
+                    rowKeys[row] = keyOf(model.getName(row));
+                }
+            }
+            case TableModelEvent.DELETE -> {
+                System.arraycopy(rowKeys, last + 1, rowKeys, first, rowCount - last - 1);
+                Arrays.fill(rowKeys, rowCount - count, rowCount, null);
+                rowCount -= count;
+            }
+            default -> {
+                if (e.getColumn() == TableModelEvent.ALL_COLUMNS || e.getColumn() == column) {
+                    for (int row = first; row <= last; row++) {
+                        rowKeys[row] = keyOf(model.getName(row));
+                    }
+                }
+            }
+        }
+    }
+    
+    private void invalidate() {
+        ready = false;
+        rowKeys = EMPTY;
+        codeKeys = EMPTY;
+        rowCount = 0;
+    }
+    
+    private void syncDepartments() {
+        StringDictionary dictionary = model.getDepartmentDictionary();
+        int size = dictionary.size();
+        if (codeKeys.length < size) {
+            int start = codeKeys.length;
+            codeKeys = Arrays.copyOf(codeKeys, size);
+            for (int code = start; code < size; code++) {
+                codeKeys[code] = keyOf(dictionary.decode(code));
+            }
+        }
+    }
+}
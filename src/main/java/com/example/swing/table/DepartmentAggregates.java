@@ -0,0 +1,314 @@
+package com.example.swing.table;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+import javax.swing.event.RowSorterEvent;
+import javax.swing.event.RowSorterListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 按部门增量维护的统计：人数、在职人数、薪资合计
+ * 每行的部门、薪资、在职状态另存一份，事件到达时用旧值减、新值加，
+ * 每个变化的行只需 O(1)；只统计通过当前筛选的行，筛选变化时只处理进出筛选的行。
+ * 薪资以分为单位累加为 long，反复增减不会产生浮点误差。
+ * 应在表格和排序器之后创建，使模型事件先于排序器的视图变化到达
+ */
+public class DepartmentAggregates implements TableModelListener, RowSorterListener {
+    
+    private final AbstractEmployeeTableModel model;
+    private final EmployeeRowSorter sorter;
+    private final EventListenerList listeners = new EventListenerList();
+    
+    // 每行的旧值
+    private int rowCount;
+    private int[] rowDepartments = new int[0];
+    private long[] rowSalaries = new long[0];
+    private final BitSet rowActive = new BitSet();
+    // 当前统计的筛选，null 表示全部行
+    private BitSet filter;
+    
+    // 按部门编码的统计
+    private int[] counts = new int[0];
+    private int[] activeCounts = new int[0];
+    private long[] salarySums = new long[0];
+    
+    public DepartmentAggregates(AbstractEmployeeTableModel model, EmployeeRowSorter sorter) {
+        this.model = model;
+        this.sorter = sorter;
+        rebuild();
+        model.addTableModelListener(this);
+        sorter.addRowSorterListener(this);
+    }
+    
+    public void dispose() {
+        model.removeTableModelListener(this);
+        sorter.removeRowSorterListener(this);
+    }
+    
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(ChangeListener.class, listener);
+    }
+    
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(ChangeListener.class, listener);
+    }
+    
+    /**
+     * 部门编码的个数，编码含义见模型的部门字典
+     */
+    public int getDepartmentCount() {
+        return counts.length;
+    }
+    
+    public int getCount(int department) {
+        return counts[department];
+    }
+    
+    public int getActiveCount(int department) {
+        return activeCounts[department];
+    }
+    
+    public double getSalarySum(int department) {
+        return salarySums[department] / 100.0;
+    }
+    
+    public int getTotalCount() {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+    
+    public int getTotalActiveCount() {
+        int total = 0;
+        for (int count : activeCounts) {
+            total += count;
+        }
+        return total;
+    }
+    
+    public double getTotalSalarySum() {
+        long total = 0;
+        for (long sum : salarySums) {
+            total += sum;
+        }
+        return total / 100.0;
+    }
+    
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        if (e instanceof RowsRemovedEvent removed) {
+            BitSet rows = removed.getRemovedRows();
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                if (isIncluded(row)) {
+                    subtract(row);
+                }
+            }
+            removed.compact(rowDepartments);
+            removed.compact(rowSalaries);
+            BitSet active = removed.compact(rowActive);
+            rowActive.clear();
+            rowActive.or(active);
+            if (filter != null) {
+                filter = removed.compact(filter);
+            }
+            rowCount = removed.getNewRowCount();
+            fireStateChanged();
+            return;
+        }
+        int first = e.getFirstRow();
+        int last = e.getLastRow();
+        if (first == TableModelEvent.HEADER_ROW || last == Integer.MAX_VALUE) {
+            rebuild();
+            fireStateChanged();
+            return;
+        }
+        switch (e.getType()) {
+            case TableModelEvent.INSERT -> rowsInserted(first, last);
+            case TableModelEvent.DELETE -> rowsDeleted(first, last);
+            default -> {
+                int column = e.getColumn();
+                if (column != TableModelEvent.ALL_COLUMNS
+                    && column != AbstractEmployeeTableModel.COLUMN_DEPARTMENT
+                    && column != AbstractEmployeeTableModel.COLUMN_SALARY
+                    && column != AbstractEmployeeTableModel.COLUMN_ACTIVE) {
+                    return;
+                }
+                if (e instanceof RowsUpdatedEvent updated) {
+                    for (int row = updated.nextUpdatedRow(first); row >= 0; row = updated.nextUpdatedRow(row + 1)) {
+                        rowUpdated(row);
+                    }
+                } else {
+                    for (int row = first; row <= last; row++) {
+                        rowUpdated(row);
+                    }
+                }
+            }
+        }
+        fireStateChanged();
+    }
+    
+    /**
+     * 排序器的筛选变化时，只对进出筛选的行做增减
+     */
+    @Override
+    public void sorterChanged(RowSorterEvent e) {
+        BitSet newFilter = sorter.getFilter();
+        if (filter == null && newFilter == null) {
+            return;
+        }
+        BitSet changed;
+        if (filter == null || newFilter == null) {
+            changed = new BitSet(rowCount);
+            changed.set(0, rowCount);
+            changed.andNot(filter == null ? newFilter : filter);
+        } else {
+            changed = (BitSet) filter.clone();
+            changed.xor(newFilter);
+        }
+        if (changed.isEmpty()) {
+            filter = newFilter == null ? null : (BitSet) newFilter.clone();
+            return;
+        }
+        for (int row = changed.nextSetBit(0); row >= 0 && row < rowCount; row = changed.nextSetBit(row + 1)) {
+            if (isIncluded(row)) {
+                subtract(row);
+            }
+        }
+        filter = newFilter == null ? null : (BitSet) newFilter.clone();
+        for (int row = changed.nextSetBit(0); row >= 0 && row < rowCount; row = changed.nextSetBit(row + 1)) {
+            if (isIncluded(row)) {
+                add(row);
+            }
+        }
+        fireStateChanged();
+    }
+    
+    private boolean isIncluded(int row) {
+        return filter == null || filter.get(row);
+    }
+    
+    private void rebuild() {
+        rowCount = model.getRowCount();
+        rowDepartments = new int[rowCount];
+        rowSalaries = new long[rowCount];
+        rowActive.clear();
+        int departments = model.getDepartmentDictionary().size();
+        counts = new int[departments];
+        activeCounts = new int[departments];
+        salarySums = new long[departments];
+        BitSet sorterFilter = sorter.getFilter();
+        filter = sorterFilter == null ? null : (BitSet) sorterFilter.clone();
+        for (int row = 0; row < rowCount; row++) {
+            capture(row);
+            if (isIncluded(row)) {
+                add(row);
+            }
+        }
+    }
+    
+    private void rowsInserted(int first, int last) {
+        int count = last - first + 1;
+        if (rowCount + count > rowDepartments.length) {
+            int capacity = Math.max(rowCount + count, rowDepartments.length + (rowDepartments.length >> 1));
+            rowDepartments = Arrays.copyOf(rowDepartments, capacity);
+            rowSalaries = Arrays.copyOf(rowSalaries, capacity);
+        }
+        System.arraycopy(rowDepartments, first, rowDepartments, first + count, rowCount - first);
+        System.arraycopy(rowSalaries, first, rowSalaries, first + count, rowCount - first);
+        shiftBits(rowActive, first, count);
+        if (filter != null) {
+            // 与排序器一致，新行总是可见
+            shiftBits(filter, first, count);
+            filter.set(first, last + 1);
+        }
+        rowCount += count;
+        for (int row = first; row <= last; row++) {
+            capture(row);
+            add(row);
+        }
+    }
+    
+    private void rowsDeleted(int first, int last) {
+        int count = last - first + 1;
+        for (int row = first; row <= last; row++) {
+            if (isIncluded(row)) {
+                subtract(row);
+            }
+        }
+        System.arraycopy(rowDepartments, last + 1, rowDepartments, first, rowCount - last - 1);
+        System.arraycopy(rowSalaries, last + 1, rowSalaries, first, rowCount - last - 1);
+        shiftBits(rowActive, last + 1, -count);
+        if (filter != null) {
+            shiftBits(filter, last + 1, -count);
+        }
+        rowCount -= count;
+    }
+    
+    private void rowUpdated(int row) {
+        boolean included = isIncluded(row);
+        if (included) {
+            subtract(row);
+        }
+        capture(row);
+        if (included) {
+            add(row);
+        }
+    }
+    
+    /**
+     * 记录行的当前值
+     */
+    private void capture(int row) {
+        rowDepartments[row] = model.getDepartmentCode(row);
+        rowSalaries[row] = Math.round(model.getSalary(row) * 100);
+        rowActive.set(row, model.isActive(row));
+    }
+    
+    private void add(int row) {
+        int department = rowDepartments[row];
+        if (department >= counts.length) {
+            int size = Math.max(department + 1, model.getDepartmentDictionary().size());
+            counts = Arrays.copyOf(counts, size);
+            activeCounts = Arrays.copyOf(activeCounts, size);
+            salarySums = Arrays.copyOf(salarySums, size);
+        }
+        counts[department]++;
+        salarySums[department] += rowSalaries[row];
+        if (rowActive.get(row)) {
+            activeCounts[department]++;
+        }
+    }
+    
+    private void subtract(int row) {
+        int department = rowDepartments[row];
+        counts[department]--;
+        salarySums[department] -= rowSalaries[row];
+        if (rowActive.get(row)) {
+            activeCounts[department]--;
+        }
+    }
+    
+    /**
+     * 把 from 及之后的位整体移动 distance 位，distance 为负时覆盖前面的位
+     */
+    private static void shiftBits(BitSet bits, int from, int distance) {
+        BitSet tail = bits.get(from, Math.max(from, bits.length()));
+        bits.clear(Math.min(from, from + distance), Math.max(from, bits.length()));
+        for (int bit = tail.nextSetBit(0); bit >= 0; bit = tail.nextSetBit(bit + 1)) {
+            bits.set(from + distance + bit);
+        }
+    }
+    
+    private void fireStateChanged() {
+        ChangeEvent event = new ChangeEvent(this);
+        for (ChangeListener listener : listeners.getListeners(ChangeListener.class)) {
+            listener.stateChanged(event);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.swing.table;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+
+/**
+ * 部门统计表格模型
+ * 每个有员工的部门一行，末行为合计；统计变化很频繁，刷新合并到定时器中，每 200 毫秒最多一次
+ */
+public class DepartmentSummaryTableModel extends AbstractTableModel {
+    
+    private static final int REFRESH_MS = 200;
+    private static final String[] COLUMN_NAMES = {"部门", "人数", "在职", "薪资合计", "平均薪资"};
+    
+    private final AbstractEmployeeTableModel model;
+    private final DepartmentAggregates aggregates;
+    private final Timer refreshTimer;
+    // 显示的部门编码，不含人数为 0 的部门
+    private int[] departments = new int[0];
+    
+    public DepartmentSummaryTableModel(AbstractEmployeeTableModel model, DepartmentAggregates aggregates) {
+        this.model = model;
+        this.aggregates = aggregates;
+        this.refreshTimer = new Timer(REFRESH_MS, e -> refresh());
+        refreshTimer.setRepeats(false);
+        aggregates.addChangeListener(e -> {
+            if (!refreshTimer.isRunning()) {
+                refreshTimer.start();
+            }
+        });
+        refresh();
+    }
+    
+    public void dispose() {
+        refreshTimer.stop();
+    }
+    
+    private void refresh() {
+        int count = aggregates.getDepartmentCount();
+        int[] visible = new int[count];
+        int size = 0;
+        for (int code = 0; code < count; code++) {
+            if (aggregates.getCount(code) > 0) {
+                visible[size++] = code;
+            }
+        }
+        int[] newDepartments = Arrays.copyOf(visible, size);
+        if (Arrays.equals(newDepartments, departments)) {
+            fireTableRowsUpdated(0, getRowCount() - 1);
+        } else {
+            departments = newDepartments;
+            fireTableDataChanged();
+        }
+    }
+    
+    @Override
+    public int getRowCount() {
+        return departments.length + 1;
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+    
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return switch (column) {
+            case 0 -> String.class;
+            case 1, 2 -> Integer.class;
+            default -> Double.class;
+        };
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        boolean total = row == departments.length;
+        int code = total ? -1 : departments[row];
+        int count = total ? aggregates.getTotalCount() : aggregates.getCount(code);
+        double sum = total ? aggregates.getTotalSalarySum() : aggregates.getSalarySum(code);
+        return switch (column) {
+            case 0 -> total ? "合计" : model.getDepartmentDictionary().decode(code);
+            case 1 -> count;
+            case 2 -> total ? aggregates.getTotalActiveCount() : aggregates.getActiveCount(code);
+            case 3 -> sum;
+            default -> count == 0 ? 0.0 : Math.round(sum / count * 100) / 100.0;
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.swing.table;
+
+import javax.swing.*;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+
+/**
+ * 直接读取基本类型列的单元格渲染器
+ * EmployeeTable 遇到此类渲染器时不再调用 getValueAt，避免每个单元格每次绘制都装箱
+ */
+public interface EmployeeCellRenderer extends TableCellRenderer {
+    
+    Component getRendererComponent(JTable table, AbstractEmployeeTableModel model, int modelRow, int modelColumn,
+                                   boolean isSelected, boolean hasFocus, int row, int column);
+}
@@ -0,0 +1,332 @@
+package com.example.swing.table;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 员工数据的 CSV/TSV 导入
+ * 文件按行边界切分为若干块，在 ForkJoin 线程池中并行解析，
+ * 数字直接从字节解析，每块得到一个列式的 EmployeeTableModel 作为批次，按文件顺序交给调用方。
+ * 同时在途的块数有上限，导入大文件时内存占用与文件大小无关。
+ * 列顺序为 ID、姓名、年龄、部门、薪资、在职，首行不是数字 ID 时视为表头跳过。
+ * 字段数不是 6 的行按格式错误跳过并计入 {@link #getSkippedLines()}。
+ * 切块和分行都只看换行符，不支持引号内的换行：这样的记录会被拆成两行，两行都按格式错误跳过
+ */
+public class EmployeeCsvImporter {
+    
+    private static final int CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int CANCEL_CHECK_LINES = 8192;
+    
+    private final Path path;
+    private final byte delimiter;
+    private final AtomicLong skippedLines = new AtomicLong();
+    
+    public EmployeeCsvImporter(Path path) {
+        this.path = path;
+        String fileName = path.getFileName().toString().toLowerCase();
+        this.delimiter = fileName.endsWith(".tsv") || fileName.endsWith(".tab") ? (byte) '\t' : (byte) ',';
+    }
+    
+    public static boolean isCsvFile(Path path) {
+        String fileName = path.getFileName().toString().toLowerCase();
+        return fileName.endsWith(".csv") || fileName.endsWith(".tsv") || fileName.endsWith(".tab");
+    }
+    
+    /**
+     * 格式不正确而被跳过的行数
+     */
+    public long getSkippedLines() {
+        return skippedLines.get();
+    }
+    
+    /**
+     * 在调用线程中驱动导入：batchConsumer 按文件顺序收到各批数据，
+     * progress 收到已处理的字节数和总字节数；cancelled 返回 true 时抛出 CancellationException
+     */
+    public void run(Consumer<EmployeeTableModel> batchConsumer, ProgressListener progress,
+                    BooleanSupplier cancelled) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int window = Math.max(2, ForkJoinPool.getCommonPoolParallelism() * 2);
+            Deque<ForkJoinTask<EmployeeTableModel>> pending = new ArrayDeque<>();
+            Deque<Long> pendingEnds = new ArrayDeque<>();
+            long position = 0;
+            boolean first = true;
+            try {
+                while (position < size || !pending.isEmpty()) {
+                    while (position < size && pending.size() < window) {
+                        long end = findChunkEnd(channel, position, size);
+                        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, end - position);
+                        boolean skipHeader = first;
+                        pending.add(ForkJoinPool.commonPool().submit(() -> parse(chunk, skipHeader, cancelled)));
+                        pendingEnds.add(end);
+                        position = end;
+                        first = false;
+                    }
+                    EmployeeTableModel batch = pending.removeFirst().join();
+                    long done = pendingEnds.removeFirst();
+                    if (cancelled.getAsBoolean()) {
+                        throw new CancellationException();
+                    }
+                    batchConsumer.accept(batch);
+                    progress.progress(done, size);
+                }
+            } finally {
+                for (ForkJoinTask<EmployeeTableModel> task : pending) {
+                    task.cancel(true);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 导入进度回调
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void progress(long processedBytes, long totalBytes);
+    }
+    
+    /**
+     * 从 start + CHUNK_SIZE 处向后找到下一个换行符之后的位置
+     */
+    private static long findChunkEnd(FileChannel channel, long start, long size) throws IOException {
+        long end = start + CHUNK_SIZE;
+        if (end >= size) {
+            return size;
+        }
+        int probe = (int) Math.min(64 * 1024, size - end);
+        while (true) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, end, probe);
+            for (int i = 0; i < probe; i++) {
+                if (buffer.get(i) == '\n') {
+                    return end + i + 1;
+                }
+            }
+            end += probe;
+            if (end >= size) {
+                return size;
+            }
+            probe = (int) Math.min(probe, size - end);
+        }
+    }
+    
+    private EmployeeTableModel parse(MappedByteBuffer chunk, boolean skipHeader, BooleanSupplier cancelled) {
+        int limit = chunk.limit();
+        byte[] bytes = new byte[limit];
+        chunk.get(0, bytes);
+        EmployeeTableModel batch = new EmployeeTableModel(limit / 32);
+        Map<String, String> names = new HashMap<>();
+        FieldReader reader = new FieldReader(bytes, delimiter);
+        int position = 0;
+        // UTF-8 BOM
+        if (skipHeader && limit >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF) {
+            position = 3;
+        }
+        int lines = 0;
+        while (position < limit) {
+            int lineEnd = position;
+            while (lineEnd < limit && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd > position && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            if (contentEnd > position) {
+                reader.reset(position, contentEnd);
+                try {
+                    int id = reader.nextInt();
+                    String name = names.computeIfAbsent(reader.nextString(), n -> n);
+                    int age = reader.nextInt();
+                    String department = reader.nextString();
+                    double salary = reader.nextDouble();
+                    boolean active = reader.nextBoolean();
+                    reader.requireEnd();
+                    batch.appendRow(id, name, age, department, salary, active);
+                } catch (NumberFormatException ex) {
+                    if (!(skipHeader && lines == 0)) {
+                        skippedLines.incrementAndGet();
+                    }
+                }
+            }
+            position = lineEnd + 1;
+            if (++lines % CANCEL_CHECK_LINES == 0 && cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+        }
+        return batch;
+    }
+    
+    /**
+     * 在一行字节中按分隔符依次读取字段，数值字段不经过 String
+     */
+    private static final class FieldReader {
+        private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+        };
+        
+        private final byte[] bytes;
+        private final byte delimiter;
+        private int position;
+        private int end;
+        private int fieldStart;
+        private int fieldEnd;
+        
+        FieldReader(byte[] bytes, byte delimiter) {
+            this.bytes = bytes;
+            this.delimiter = delimiter;
+        }
+        
+        void reset(int start, int end) {
+            this.position = start;
+            this.end = end;
+        }
+        
+        private void nextField() {
+            if (position > end) {
+                throw new NumberFormatException("字段不足");
+            }
+            fieldStart = position;
+            if (position < end && bytes[position] == '"') {
+                // 带引号的字段，"" 表示一个引号
+                position++;
+                while (position < end) {
+                    if (bytes[position] == '"') {
+                        if (position + 1 < end && bytes[position + 1] == '"') {
+                            position += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    position++;
+                }
+                fieldEnd = Math.min(position + 1, end);
+                while (position < end && bytes[position] != delimiter) {
+                    position++;
+                }
+            } else {
+                while (position < end && bytes[position] != delimiter) {
+                    position++;
+                }
+                fieldEnd = position;
+            }
+            position++;
+            // 去掉首尾空格
+            while (fieldStart < fieldEnd && bytes[fieldStart] == ' ') {
+                fieldStart++;
+            }
+            while (fieldEnd > fieldStart && bytes[fieldEnd - 1] == ' ') {
+                fieldEnd--;
+            }
+        }
+        
+        /**
+         * 字段已读完时返回，否则说明行末还有多余的列
+         */
+        void requireEnd() {
+            if (position <= end) {
+                throw new NumberFormatException("字段过多");
+            }
+        }
+        
+        String nextString() {
+            nextField();
+            if (fieldEnd - fieldStart >= 2 && bytes[fieldStart] == '"' && bytes[fieldEnd - 1] == '"') {
+                String value = new String(bytes, fieldStart + 1, fieldEnd - fieldStart - 2, StandardCharsets.UTF_8);
+                return value.indexOf('"') >= 0 ? value.replace("\"\"", "\"") : value;
+            }
+            return new String(bytes, fieldStart, fieldEnd - fieldStart, StandardCharsets.UTF_8);
+        }
+        
+        int nextInt() {
+            nextField();
+            long value = parseLong(fieldStart, fieldEnd);
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("整数越界");
+            }
+            return (int) value;
+        }
+        
+        double nextDouble() {
+            nextField();
+            int i = fieldStart;
+            boolean negative = i < fieldEnd && bytes[i] == '-';
+            if (negative || (i < fieldEnd && bytes[i] == '+')) {
+                i++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int scale = -1;
+            for (; i < fieldEnd; i++) {
+                byte b = bytes[i];
+                if (b >= '0' && b <= '9') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (scale >= 0) {
+                        scale++;
+                    }
+                } else if (b == '.' && scale < 0) {
+                    scale = 0;
+                } else {
+                    break;
+                }
+            }
+            if (i == fieldEnd && digits > 0 && digits <= 15 && scale < POWERS_OF_TEN.length) {
+                // 尾数和 10 的幂都能精确表示为 double，一次除法的结果即为正确舍入
+                double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+                return negative ? -value : value;
+            }
+            // 指数形式等少见情况交给 Double.parseDouble
+            return Double.parseDouble(new String(bytes, fieldStart, fieldEnd - fieldStart, StandardCharsets.ISO_8859_1));
+        }
+        
+        boolean nextBoolean() {
+            nextField();
+            int length = fieldEnd - fieldStart;
+            if (length == 1 && (bytes[fieldStart] == '1' || bytes[fieldStart] == '0')) {
+                return bytes[fieldStart] == '1';
+            }
+            String value = new String(bytes, fieldStart, length, StandardCharsets.UTF_8);
+            if (value.equalsIgnoreCase("true") || value.equals("是")) {
+                return true;
+            }
+            if (value.equalsIgnoreCase("false") || value.equals("否")) {
+                return false;
+            }
+            throw new NumberFormatException("无效的布尔值: " + value);
+        }
+        
+        private long parseLong(int from, int to) {
+            int i = from;
+            boolean negative = i < to && bytes[i] == '-';
+            if (negative || (i < to && bytes[i] == '+')) {
+                i++;
+            }
+            if (i == to || to - i > 18) {
+                throw new NumberFormatException("无效的整数");
+            }
+            long value = 0;
+            for (; i < to; i++) {
+                byte b = bytes[i];
+                if (b < '0' || b > '9') {
+                    throw new NumberFormatException("无效的整数");
+                }
+                value = value * 10 + (b - '0');
+            }
+            return negative ? -value : value;
+        }
+    }
+}
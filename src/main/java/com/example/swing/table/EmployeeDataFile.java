@@ -0,0 +1,199 @@
+package com.example.swing.table;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * 员工数据的二进制列式文件（.emp）
+ * 文件头之后依次是定长列：ID、姓名编码、年龄、部门编码（int），薪资（double），
+ * 在职状态（long 位集），最后是姓名和部门的字符串字典。
+ * 各段按 8 字节对齐，偏移量记录在文件头中，读取时每列单独映射，按需分页载入
+ */
+public final class EmployeeDataFile {
+    
+    public static final String EXTENSION = "emp";
+    
+    static final int MAGIC = 0x454D5046; // "EMPF"
+    static final int VERSION = 1;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    
+    // 文件头：魔数、版本、行数、保留字段，随后是 8 个段偏移
+    static final int SECTION_IDS = 0;
+    static final int SECTION_NAMES = 1;
+    static final int SECTION_AGES = 2;
+    static final int SECTION_DEPARTMENTS = 3;
+    static final int SECTION_SALARIES = 4;
+    static final int SECTION_ACTIVE = 5;
+    static final int SECTION_NAME_DICTIONARY = 6;
+    static final int SECTION_DEPARTMENT_DICTIONARY = 7;
+    static final int SECTION_COUNT = 8;
+    static final int HEADER_SIZE = 16 + SECTION_COUNT * 8;
+    
+    private static final int BUFFER_SIZE = 256 * 1024;
+    
+    private EmployeeDataFile() {
+    }
+    
+    public static boolean isDataFile(Path path) {
+        return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith("." + EXTENSION);
+    }
+    
+    /**
+     * 以只读方式映射文件，只读取文件头和部门字典并核对编码列，其余数据在访问时才载入
+     */
+    public static MappedEmployeeTableModel open(Path path) throws IOException {
+        return MappedEmployeeTableModel.open(path);
+    }
+    
+    /**
+     * 按列依次写出模型数据，调用期间模型不能被修改。
+     * 先写入同一目录下的临时文件并刷到磁盘，再原子地替换目标文件：
+     * 写入失败或被取消时原文件保持不变。Windows 上仍被映射的文件不能替换，调用方不应覆盖正在映射的文件
+     */
+    public static void write(AbstractEmployeeTableModel model, Path path) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString() + ".", ".tmp");
+        try {
+            writeTo(model, temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+    }
+    
+    private static void writeTo(AbstractEmployeeTableModel model, Path path) throws IOException {
+        int rows = model.getRowCount();
+        long[] offsets = new long[SECTION_COUNT];
+        StringDictionary names = new StringDictionary();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ColumnWriter out = new ColumnWriter(channel, HEADER_SIZE);
+            
+            offsets[SECTION_IDS] = out.beginSection();
+            for (int row = 0; row < rows; row++) {
+                out.ensure(4).putInt(model.getId(row));
+            }
+            offsets[SECTION_NAMES] = out.beginSection();
+            for (int row = 0; row < rows; row++) {
+                out.ensure(4).putInt(names.encode(model.getName(row)));
+            }
+            offsets[SECTION_AGES] = out.beginSection();
+            for (int row = 0; row < rows; row++) {
+                out.ensure(4).putInt(model.getAge(row));
+            }
+            offsets[SECTION_DEPARTMENTS] = out.beginSection();
+            for (int row = 0; row < rows; row++) {
+                out.ensure(4).putInt(model.getDepartmentCode(row));
+            }
+            offsets[SECTION_SALARIES] = out.beginSection();
+            for (int row = 0; row < rows; row++) {
+                out.ensure(8).putDouble(model.getSalary(row));
+            }
+            offsets[SECTION_ACTIVE] = out.beginSection();
+            for (int row = 0; row < rows; row += 64) {
+                long word = 0;
+                int end = Math.min(rows, row + 64);
+                for (int i = row; i < end; i++) {
+                    if (model.isActive(i)) {
+                        word |= 1L << (i - row);
+                    }
+                }
+                out.ensure(8).putLong(word);
+            }
+            offsets[SECTION_NAME_DICTIONARY] = out.beginSection();
+            writeDictionary(out, names);
+            offsets[SECTION_DEPARTMENT_DICTIONARY] = out.beginSection();
+            writeDictionary(out, model.getDepartmentDictionary());
+            out.flush();
+            
+            // 偏移量全部确定后再写文件头，写入中断的文件因魔数缺失不会被误读
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+            header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(0);
+            for (long offset : offsets) {
+                header.putLong(offset);
+            }
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+    
+    /**
+     * 字典段：个数、各字符串的结束位置（相对字符串数据起点），然后是 UTF-8 字节
+     */
+    private static void writeDictionary(ColumnWriter out, StringDictionary dictionary) throws IOException {
+        int size = dictionary.size();
+        byte[][] encoded = new byte[size][];
+        out.ensure(4).putInt(size);
+        int end = 0;
+        for (int code = 0; code < size; code++) {
+            encoded[code] = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+            end += encoded[code].length;
+            out.ensure(4).putInt(end);
+        }
+        for (byte[] bytes : encoded) {
+            out.put(bytes);
+        }
+    }
+    
+    /**
+     * 带缓冲的顺序写出
+     */
+    private static final class ColumnWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(BYTE_ORDER);
+        private long position;
+        
+        ColumnWriter(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+        
+        ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+        
+        void put(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int length = Math.min(ensure(1).remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+        
+        /**
+         * 对齐到 8 字节并返回新段的起始偏移
+         */
+        long beginSection() throws IOException {
+            long current = position + buffer.position();
+            int padding = (int) (-current & 7);
+            for (int i = 0; i < padding; i++) {
+                ensure(1).put((byte) 0);
+            }
+            return current + padding;
+        }
+        
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+    }
+}
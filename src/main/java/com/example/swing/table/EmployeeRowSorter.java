@@ -0,0 +1,510 @@
+package com.example.swing.table;
+
+import javax.swing.*;
+import javax.swing.event.TableModelListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 员工表格的后台排序器
+ * 点击表头时先更新排序键并重绘表头，排列在后台线程中并行计算，
+ * 期间表格继续显示旧的顺序，完成后在 EDT 上一次性替换；再次点击会作废尚未完成的排序。
+ * 筛选以模型行号位集表示，与已排好的完整排列组合得到视图，无需重新排序。
+ * 批量删除时按删除的行号压缩排列，插入新行时只对新行排序后归并，都不需要整体重新排序
+ */
+public class EmployeeRowSorter extends RowSorter<AbstractEmployeeTableModel> {
+    
+    private static final int MAX_SORT_KEYS = 3;
+    
+    private static final ExecutorService SORT_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "table-sort");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final AbstractEmployeeTableModel model;
+    private final AtomicInteger sortGeneration = new AtomicInteger();
+    private final CollationKeyCache[] collationKeyCaches = new CollationKeyCache[AbstractEmployeeTableModel.COLUMN_ACTIVE + 1];
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private BitSet filter;
+    
+    // 全部模型行的排序结果，null 表示模型的自然顺序
+    private int[] order;
+    // 由 order 和 filter 推导出的视图映射，均为 null 时视图与模型一致
+    private int[] viewToModel;
+    private int[] modelToView;
+    private int modelRowCount;
+    // 行的增删会使正在计算的排列失效，单元格更新不会
+    private long structureVersion;
+    private boolean sorting;
+    private boolean resortPending;
+    private boolean disposed;
+    // JTable 收到 RowsRemovedEvent 时只会调用 allRowsChanged()，事件本身由这里的监听器先行记下
+    private RowsRemovedEvent pendingRemoval;
+    private final TableModelListener removalListener = e -> {
+        if (e instanceof RowsRemovedEvent removal && removal.getOldRowCount() == modelRowCount) {
+            pendingRemoval = removal;
+        }
+    };
+    
+    /**
+     * 创建排序器，应在表格设置模型之后创建，使删除事件先于表格到达排序器
+     */
+    public EmployeeRowSorter(AbstractEmployeeTableModel model) {
+        this.model = model;
+        this.modelRowCount = model.getRowCount();
+        model.addTableModelListener(removalListener);
+    }
+    
+    @Override
+    public AbstractEmployeeTableModel getModel() {
+        return model;
+    }
+    
+    @Override
+    public void toggleSortOrder(int column) {
+        List<SortKey> keys = new ArrayList<>(sortKeys);
+        SortKey primary = keys.isEmpty() ? null : keys.get(0);
+        if (primary != null && primary.getColumn() == column) {
+            SortOrder next = primary.getSortOrder() == SortOrder.ASCENDING
+                ? SortOrder.DESCENDING : SortOrder.ASCENDING;
+            keys.set(0, new SortKey(column, next));
+        } else {
+            keys.removeIf(key -> key.getColumn() == column);
+            keys.add(0, new SortKey(column, SortOrder.ASCENDING));
+            if (keys.size() > MAX_SORT_KEYS) {
+                keys = keys.subList(0, MAX_SORT_KEYS);
+            }
+        }
+        setSortKeys(keys);
+    }
+    
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> newKeys = new ArrayList<>();
+        if (keys != null) {
+            for (SortKey key : keys) {
+                if (key.getSortOrder() != SortOrder.UNSORTED) {
+                    newKeys.add(key);
+                }
+            }
+        }
+        if (newKeys.equals(sortKeys)) {
+            return;
+        }
+        sortKeys = Collections.unmodifiableList(newKeys);
+        fireSortOrderChanged();
+        if (sortKeys.isEmpty()) {
+            sortGeneration.incrementAndGet();
+            int[] previous = viewToModel;
+            order = null;
+            rebuildView(previous);
+        } else {
+            scheduleSort();
+        }
+    }
+    
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+    
+    /**
+     * 设置行筛选，rows 为包含的模型行号集合，null 表示不筛选
+     */
+    public void setFilter(BitSet rows) {
+        int[] previous = viewToModel;
+        filter = rows;
+        rebuildView(previous);
+    }
+    
+    /**
+     * 当前的行筛选，null 表示不筛选；返回的位集不应被修改
+     */
+    public BitSet getFilter() {
+        return filter;
+    }
+    
+    public boolean isSorting() {
+        return sorting;
+    }
+    
+    /**
+     * 返回姓名列或部门列的排序键缓存，首次使用时创建，之后随模型变化增量维护；
+     * 返回的缓存可能尚未就绪，需要用到排序键时使用 withCollationKeys
+     */
+    public CollationKeyCache getCollationKeyCache(int column) {
+        if (collationKeyCaches[column] == null) {
+            collationKeyCaches[column] = new CollationKeyCache(model, column);
+        }
+        return collationKeyCaches[column];
+    }
+    
+    /**
+     * 排序键缓存就绪后在 EDT 上调用 action；尚未就绪时在排序线程上构建，不阻塞 EDT
+     */
+    public void withCollationKeys(int column, Consumer<CollationKeyCache> action) {
+        CollationKeyCache cache = getCollationKeyCache(column);
+        if (cache.isReady()) {
+            action.accept(cache);
+            return;
+        }
+        CollationKeyCache.Build build = cache.startBuild();
+        SORT_EXECUTOR.execute(() -> {
+            build.run();
+            SwingUtilities.invokeLater(() -> {
+                if (disposed) {
+                    return;
+                }
+                if (cache.isReady() || cache.publish(build)) {
+                    action.accept(cache);
+                } else {
+                    // 构建期间该列有变化，重新构建
+                    withCollationKeys(column, action);
+                }
+            });
+        });
+    }
+    
+    /**
+     * 模型被替换时调用，解除排序键缓存对模型的监听
+     */
+    public void dispose() {
+        disposed = true;
+        sortGeneration.incrementAndGet();
+        model.removeTableModelListener(removalListener);
+        for (CollationKeyCache cache : collationKeyCaches) {
+            if (cache != null) {
+                cache.dispose();
+            }
+        }
+    }
+    
+    private static boolean isStringColumn(int column) {
+        return column == AbstractEmployeeTableModel.COLUMN_NAME
+            || column == AbstractEmployeeTableModel.COLUMN_DEPARTMENT;
+    }
+    
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (viewToModel == null) {
+            if (index < 0 || index >= modelRowCount) {
+                throw new IndexOutOfBoundsException("视图行号越界: " + index);
+            }
+            return index;
+        }
+        return viewToModel[index];
+    }
+    
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (modelToView == null) {
+            if (index < 0 || index >= modelRowCount) {
+                throw new IndexOutOfBoundsException("模型行号越界: " + index);
+            }
+            return index;
+        }
+        return modelToView[index];
+    }
+    
+    @Override
+    public int getViewRowCount() {
+        return viewToModel == null ? modelRowCount : viewToModel.length;
+    }
+    
+    @Override
+    public int getModelRowCount() {
+        return modelRowCount;
+    }
+    
+    @Override
+    public void modelStructureChanged() {
+        sortGeneration.incrementAndGet();
+        structureVersion++;
+        modelRowCount = model.getRowCount();
+        filter = null;
+        order = null;
+        viewToModel = null;
+        modelToView = null;
+        sorting = false;
+        resortPending = false;
+        if (!sortKeys.isEmpty()) {
+            sortKeys = Collections.emptyList();
+            fireSortOrderChanged();
+        }
+    }
+    
+    @Override
+    public void allRowsChanged() {
+        RowsRemovedEvent removal = pendingRemoval;
+        pendingRemoval = null;
+        if (removal != null && removal.getOldRowCount() == modelRowCount) {
+            rowsRemoved(removal);
+            return;
+        }
+        // 行号已不再有效，先退回自然顺序，再在后台重新排序
+        structureVersion++;
+        int[] previous = viewToModel;
+        modelRowCount = model.getRowCount();
+        filter = null;
+        order = null;
+        rebuildView(previous);
+        if (!sortKeys.isEmpty()) {
+            scheduleSort();
+        }
+    }
+    
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        structureVersion++;
+        // 当前排列对现有排序键有效时，新行排好后归并进来即可
+        boolean mergeable = order != null && !sorting && !resortPending;
+        int count = endRow - firstRow + 1;
+        int oldRowCount = modelRowCount;
+        modelRowCount += count;
+        int[] previous = viewToModel;
+        if (order != null) {
+            // 已有行按原顺序保留，新行暂时排在末尾，等待后台重新排序
+            int[] newOrder = new int[modelRowCount];
+            for (int i = 0; i < oldRowCount; i++) {
+                int row = order[i];
+                newOrder[i] = row >= firstRow ? row + count : row;
+            }
+            for (int i = 0; i < count; i++) {
+                newOrder[oldRowCount + i] = firstRow + i;
+            }
+            order = newOrder;
+        }
+        if (filter != null) {
+            // 新行总是可见
+            BitSet shifted = new BitSet(modelRowCount);
+            shifted.or(filter.get(0, firstRow));
+            for (int row = filter.nextSetBit(firstRow); row >= 0; row = filter.nextSetBit(row + 1)) {
+                shifted.set(row + count);
+            }
+            shifted.set(firstRow, endRow + 1);
+            filter = shifted;
+        }
+        rebuildView(previous);
+        if (!sortKeys.isEmpty()) {
+            scheduleSort(mergeable ? oldRowCount : 0);
+        }
+    }
+    
+    /**
+     * 批量删除：一次遍历压缩排列和筛选，保留已有的排序结果
+     */
+    private void rowsRemoved(RowsRemovedEvent removal) {
+        structureVersion++;
+        modelRowCount = removal.getNewRowCount();
+        int[] previous = viewToModel;
+        if (order != null) {
+            int[] newOrder = new int[modelRowCount];
+            int size = 0;
+            for (int row : order) {
+                int newRow = removal.convertRowIndex(row);
+                if (newRow >= 0) {
+                    newOrder[size++] = newRow;
+                }
+            }
+            order = newOrder;
+        }
+        if (filter != null) {
+            filter = removal.compact(filter);
+        }
+        rebuildView(previous);
+        if (sorting) {
+            scheduleSort();
+        }
+    }
+    
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        structureVersion++;
+        int count = endRow - firstRow + 1;
+        modelRowCount -= count;
+        int[] previous = viewToModel;
+        if (order != null) {
+            int[] newOrder = new int[modelRowCount];
+            int size = 0;
+            for (int row : order) {
+                if (row < firstRow) {
+                    newOrder[size++] = row;
+                } else if (row > endRow) {
+                    newOrder[size++] = row - count;
+                }
+            }
+            order = newOrder;
+        }
+        if (filter != null) {
+            BitSet shifted = filter.get(0, firstRow);
+            for (int row = filter.nextSetBit(endRow + 1); row >= 0; row = filter.nextSetBit(row + 1)) {
+                shifted.set(row - count);
+            }
+            filter = shifted;
+        }
+        rebuildView(previous);
+        if (sorting) {
+            // 正在计算的排列基于旧的行号，重新排序
+            scheduleSort();
+        }
+    }
+    
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        if (!sortKeys.isEmpty()) {
+            requestResort();
+        }
+    }
+    
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        for (SortKey key : sortKeys) {
+            if (key.getColumn() == column) {
+                requestResort();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 单元格更新不会使当前排列失效，正在排序时只记录下来，完成后再排一次，
+     * 避免高频更新不断作废尚未完成的排序
+     */
+    private void requestResort() {
+        if (sorting) {
+            resortPending = true;
+        } else {
+            scheduleSort();
+        }
+    }
+    
+    private void scheduleSort() {
+        scheduleSort(0);
+    }
+    
+    /**
+     * 在 EDT 上复制排序列，在后台线程中计算排列；
+     * sortedPrefix 大于 0 时当前排列的前 sortedPrefix 项已有序，只需排序其余部分再归并
+     */
+    private void scheduleSort(int sortedPrefix) {
+        int generation = sortGeneration.incrementAndGet();
+        long startVersion = structureVersion;
+        resortPending = false;
+        List<SortKey> keys = sortKeys;
+        SortKeySnapshot[] snapshots = new SortKeySnapshot[keys.size()];
+        boolean[] descending = new boolean[keys.size()];
+        for (int i = 0; i < snapshots.length; i++) {
+            int column = keys.get(i).getColumn();
+            snapshots[i] = SortKeySnapshot.of(model, column, isStringColumn(column) ? getCollationKeyCache(column) : null);
+            descending[i] = keys.get(i).getSortOrder() == SortOrder.DESCENDING;
+        }
+        int rows = modelRowCount;
+        int[] currentOrder = order;
+        sorting = true;
+        SORT_EXECUTOR.execute(() -> {
+            if (generation != sortGeneration.get()) {
+                return;
+            }
+            int[] sorted;
+            ParallelIntSort.IntComparator comparator = (a, b) -> {
+                for (int i = 0; i < snapshots.length; i++) {
+                    int result = snapshots[i].compare(a, b);
+                    if (result != 0) {
+                        return descending[i] ? -result : result;
+                    }
+                }
+                return 0;
+            };
+            try {
+                for (SortKeySnapshot snapshot : snapshots) {
+                    snapshot.prepare();
+                }
+                if (sortedPrefix > 0) {
+                    int[] tail = Arrays.copyOfRange(currentOrder, sortedPrefix, rows);
+                    ParallelIntSort.sort(tail, comparator, () -> generation != sortGeneration.get());
+                    sorted = merge(currentOrder, sortedPrefix, tail, comparator);
+                } else {
+                    sorted = new int[rows];
+                    for (int i = 0; i < rows; i++) {
+                        sorted[i] = i;
+                    }
+                    ParallelIntSort.sort(sorted, comparator, () -> generation != sortGeneration.get());
+                }
+            } catch (CancellationException ex) {
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                // 排序键的构建结果与这次排序是否作废无关，列没有变化就可以发布
+                for (int i = 0; i < snapshots.length; i++) {
+                    CollationKeyCache.Build build = snapshots[i].getBuild();
+                    if (build != null) {
+                        getCollationKeyCache(keys.get(i).getColumn()).publish(build);
+                    }
+                }
+                if (generation != sortGeneration.get()) {
+                    return;
+                }
+                if (startVersion != structureVersion) {
+                    scheduleSort();
+                    return;
+                }
+                sorting = false;
+                int[] previous = viewToModel;
+                order = sorted;
+                rebuildView(previous);
+                if (resortPending) {
+                    scheduleSort();
+                }
+            });
+        });
+    }
+    
+    private static int[] merge(int[] head, int headSize, int[] tail, ParallelIntSort.IntComparator comparator) {
+        int[] merged = new int[headSize + tail.length];
+        int left = 0;
+        int right = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (right >= tail.length || (left < headSize && comparator.compare(head[left], tail[right]) <= 0)) {
+                merged[i] = head[left++];
+            } else {
+                merged[i] = tail[right++];
+            }
+        }
+        return merged;
+    }
+    
+    /**
+     * 由排序结果和筛选重新推导视图映射，并通知监听器
+     */
+    private void rebuildView(int[] previousViewToModel) {
+        if (order == null && filter == null) {
+            viewToModel = null;
+            modelToView = null;
+        } else {
+            int[] newViewToModel = new int[modelRowCount];
+            int[] newModelToView = new int[modelRowCount];
+            Arrays.fill(newModelToView, -1);
+            int view = 0;
+            for (int i = 0; i < modelRowCount; i++) {
+                int row = order == null ? i : order[i];
+                if (filter == null || filter.get(row)) {
+                    newViewToModel[view] = row;
+                    newModelToView[row] = view;
+                    view++;
+                }
+            }
+            viewToModel = view == modelRowCount ? newViewToModel : Arrays.copyOf(newViewToModel, view);
+            modelToView = newModelToView;
+        }
+        fireRowSorterChanged(previousViewToModel);
+    }
+}
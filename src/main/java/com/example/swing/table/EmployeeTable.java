@@ -0,0 +1,40 @@
+package com.example.swing.table;
+
+import javax.swing.*;
+import javax.swing.table.TableCellRenderer;
+import javax.swing.table.TableModel;
+import java.awt.*;
+
+/**
+ * 员工表格
+ * 为整数、薪资和在职列安装直接读取基本类型列的渲染器，
+ * 并在绘制这些单元格时跳过 getValueAt，滚动时不再为每个单元格创建包装对象和字符串
+ */
+public class EmployeeTable extends JTable {
+    
+    public EmployeeTable(TableModel model) {
+        super(model);
+        setDefaultRenderer(Integer.class, new NumberCellRenderer());
+        setDefaultRenderer(Double.class, new NumberCellRenderer());
+        setDefaultRenderer(Boolean.class, new ActiveCellRenderer());
+    }
+    
+    @Override
+    public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
+        if (!(renderer instanceof EmployeeCellRenderer employeeRenderer)
+            || !(getModel() instanceof AbstractEmployeeTableModel model)) {
+            return super.prepareRenderer(renderer, row, column);
+        }
+        boolean isSelected = false;
+        boolean hasFocus = false;
+        // 与 JTable 相同：打印时不显示选中和焦点
+        if (!isPaintingForPrint()) {
+            isSelected = isCellSelected(row, column);
+            boolean rowIsLead = getSelectionModel().getLeadSelectionIndex() == row;
+            boolean colIsLead = getColumnModel().getSelectionModel().getLeadSelectionIndex() == column;
+            hasFocus = rowIsLead && colIsLead && isFocusOwner();
+        }
+        return employeeRenderer.getRendererComponent(this, model, convertRowIndexToModel(row),
+            convertColumnIndexToModel(column), isSelected, hasFocus, row, column);
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.swing.table;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 列式员工表格模型
+ * 每列保存在独立的基本类型数组中：ID/年龄为 int[]，薪资为 double[]，
+ * 在职状态为位集，部门为字典编码，避免 DefaultTableModel 每行一个 Vector 加装箱对象的开销
+ */
+public class EmployeeTableModel extends AbstractEmployeeTableModel {
+    
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    private final StringDictionary departments = new StringDictionary();
+    private int rowCount;
+    private int[] ids;
+    private String[] names;
+    private int[] ages;
+    private int[] departmentCodes;
+    private double[] salaries;
+    private final BitSet active = new BitSet();
+    // 下一个可分配的 ID，只增不减，删除行后也不会复用
+    private int nextId = 1;
+    
+    public EmployeeTableModel() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    public EmployeeTableModel(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, DEFAULT_CAPACITY);
+        ids = new int[capacity];
+        names = new String[capacity];
+        ages = new int[capacity];
+        departmentCodes = new int[capacity];
+        salaries = new double[capacity];
+    }
+    
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    @Override
+    public int getId(int row) {
+        return ids[row];
+    }
+    
+    @Override
+    public String getName(int row) {
+        return names[row];
+    }
+    
+    @Override
+    public int getAge(int row) {
+        return ages[row];
+    }
+    
+    @Override
+    public int getDepartmentCode(int row) {
+        return departmentCodes[row];
+    }
+    
+    @Override
+    public StringDictionary getDepartmentDictionary() {
+        return departments;
+    }
+    
+    @Override
+    public double getSalary(int row) {
+        return salaries[row];
+    }
+    
+    @Override
+    public boolean isActive(int row) {
+        return active.get(row);
+    }
+    
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        switch (column) {
+            case COLUMN_NAME -> names[row] = String.valueOf(value);
+            case COLUMN_AGE -> ages[row] = ((Number) value).intValue();
+            case COLUMN_DEPARTMENT -> departmentCodes[row] = departments.encode(String.valueOf(value));
+            case COLUMN_SALARY -> salaries[row] = ((Number) value).doubleValue();
+            case COLUMN_ACTIVE -> active.set(row, (Boolean) value);
+            default -> throw new IllegalArgumentException("列不可编辑: " + column);
+        }
+        fireTableCellUpdated(row, column);
+    }
+    
+    /**
+     * 写入薪资但不发出事件，由 LiveUpdateFeed 合并后统一通知
+     */
+    void storeSalary(int row, double salary) {
+        salaries[row] = salary;
+    }
+    
+    /**
+     * 写入在职状态但不发出事件，由 LiveUpdateFeed 合并后统一通知
+     */
+    void storeActive(int row, boolean isActive) {
+        active.set(row, isActive);
+    }
+    
+    /**
+     * 分配一个新的员工 ID
+     */
+    public int allocateId() {
+        return nextId++;
+    }
+    
+    /**
+     * 连续分配 count 个 ID，返回第一个
+     */
+    public int allocateIds(int count) {
+        int first = nextId;
+        nextId += count;
+        return first;
+    }
+    
+    /**
+     * 追加一行并通知表格
+     */
+    public void addRow(int id, String name, int age, String department, double salary, boolean isActive) {
+        appendRow(id, name, age, department, salary, isActive);
+        fireTableRowsInserted(rowCount - 1, rowCount - 1);
+    }
+    
+    /**
+     * 追加一行但不发出事件，批量装载完成后由调用方统一调用 fireTableRowsInserted
+     */
+    public void appendRow(int id, String name, int age, String department, double salary, boolean isActive) {
+        ensureCapacity(rowCount + 1);
+        int row = rowCount++;
+        ids[row] = id;
+        if (id >= nextId) {
+            nextId = id + 1;
+        }
+        names[row] = name;
+        ages[row] = age;
+        departmentCodes[row] = departments.encode(department);
+        salaries[row] = salary;
+        active.set(row, isActive);
+    }
+    
+    /**
+     * 把另一个模型中的全部行追加到末尾，只发出一个插入事件
+     */
+    public void addRows(EmployeeTableModel batch) {
+        int count = batch.rowCount;
+        if (count == 0) {
+            return;
+        }
+        int first = rowCount;
+        ensureCapacity(rowCount + count);
+        System.arraycopy(batch.ids, 0, ids, first, count);
+        System.arraycopy(batch.names, 0, names, first, count);
+        System.arraycopy(batch.ages, 0, ages, first, count);
+        System.arraycopy(batch.salaries, 0, salaries, first, count);
+        // 两个模型的部门字典各自编码，逐个取值换算一次
+        StringDictionary batchDepartments = batch.departments;
+        int[] codeMap = new int[batchDepartments.size()];
+        for (int code = 0; code < codeMap.length; code++) {
+            codeMap[code] = departments.encode(batchDepartments.decode(code));
+        }
+        for (int i = 0; i < count; i++) {
+            departmentCodes[first + i] = codeMap[batch.departmentCodes[i]];
+            int id = batch.ids[i];
+            if (id >= nextId) {
+                nextId = id + 1;
+            }
+        }
+        for (int i = batch.active.nextSetBit(0); i >= 0 && i < count; i = batch.active.nextSetBit(i + 1)) {
+            active.set(first + i);
+        }
+        rowCount += count;
+        fireTableRowsInserted(first, rowCount - 1);
+    }
+    
+    /**
+     * 一次压缩删除 rows 中的全部行，发出一个 RowsRemovedEvent
+     */
+    public void removeRows(BitSet rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (rows.length() > rowCount) {
+            throw new IndexOutOfBoundsException("行号越界: " + (rows.length() - 1));
+        }
+        RowsRemovedEvent event = new RowsRemovedEvent(this, (BitSet) rows.clone(), rowCount);
+        event.compact(ids);
+        event.compact(names);
+        event.compact(ages);
+        event.compact(departmentCodes);
+        event.compact(salaries);
+        BitSet compactedActive = event.compact(active);
+        active.clear();
+        active.or(compactedActive);
+        int newRowCount = event.getNewRowCount();
+        Arrays.fill(names, newRowCount, rowCount, null);
+        rowCount = newRowCount;
+        fireTableChanged(event);
+    }
+    
+    public void removeRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("行号越界: " + row);
+        }
+        int tail = rowCount - row - 1;
+        System.arraycopy(ids, row + 1, ids, row, tail);
+        System.arraycopy(names, row + 1, names, row, tail);
+        System.arraycopy(ages, row + 1, ages, row, tail);
+        System.arraycopy(departmentCodes, row + 1, departmentCodes, row, tail);
+        System.arraycopy(salaries, row + 1, salaries, row, tail);
+        for (int i = row; i < rowCount - 1; i++) {
+            active.set(i, active.get(i + 1));
+        }
+        rowCount--;
+        names[rowCount] = null;
+        active.clear(rowCount);
+        fireTableRowsDeleted(row, row);
+    }
+    
+    public void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, newCapacity);
+        names = Arrays.copyOf(names, newCapacity);
+        ages = Arrays.copyOf(ages, newCapacity);
+        departmentCodes = Arrays.copyOf(departmentCodes, newCapacity);
+        salaries = Arrays.copyOf(salaries, newCapacity);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.swing.table;
+
+import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 实时更新通道
+ * 生产者线程把薪资/在职状态更新提交到无锁队列，EDT 每帧取出一次，
+ * 写入模型后把脏行合并为尽量少的连续区间，每个区间只发出一个 RowsUpdatedEvent。
+ * 表格对更新事件的重绘由 RepaintManager 裁剪到可见区域，因此每帧最多重绘一次视口。
+ * 更新按提交时的行号寻址，运行期间模型插入、删除或整体替换行时行号失效，
+ * 此前提交而尚未处理的更新全部丢弃
+ */
+public class LiveUpdateFeed implements TableModelListener {
+    
+    private static final int FRAME_MS = 16;
+    // 单帧最多处理的更新数，超出部分留到下一帧，保证 EDT 响应
+    private static final int MAX_UPDATES_PER_FRAME = 200_000;
+    // 相距不超过该行数的脏区间合并为一个事件
+    private static final int MERGE_GAP = 8;
+    // 区间过多时退化为一个覆盖全部脏行的事件
+    private static final int MAX_EVENTS_PER_FRAME = 64;
+    
+    private final EmployeeTableModel model;
+    private final ConcurrentLinkedQueue<Update> queue = new ConcurrentLinkedQueue<>();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final Timer frameTimer;
+    private final BitSet salaryRows = new BitSet();
+    private final BitSet activeRows = new BitSet();
+    private volatile boolean loadRunning;
+    // 行结构的版本，插入、删除或整体替换行时加一，只在 EDT 上修改
+    private volatile int structureVersion;
+    private Thread[] producers = new Thread[0];
+    
+    private record Update(int version, int row, int column, double value) {
+    }
+    
+    public LiveUpdateFeed(EmployeeTableModel model) {
+        this.model = model;
+        this.frameTimer = new Timer(FRAME_MS, e -> drain());
+        frameTimer.setCoalesce(true);
+    }
+    
+    /**
+     * 提交薪资更新，可在任意线程调用
+     */
+    public void submitSalary(int row, double salary) {
+        submit(structureVersion, row, AbstractEmployeeTableModel.COLUMN_SALARY, salary);
+    }
+    
+    /**
+     * 提交在职状态更新，可在任意线程调用
+     */
+    public void submitActive(int row, boolean isActive) {
+        submit(structureVersion, row, AbstractEmployeeTableModel.COLUMN_ACTIVE, isActive ? 1 : 0);
+    }
+    
+    private void submit(int version, int row, int column, double value) {
+        queue.offer(new Update(version, row, column, value));
+        submitted.increment();
+    }
+    
+    public void start() {
+        model.removeTableModelListener(this);
+        model.addTableModelListener(this);
+        frameTimer.start();
+    }
+    
+    /**
+     * 停止合成负载和逐帧处理，未处理的更新被丢弃
+     */
+    public void stop() {
+        stopSyntheticLoad();
+        frameTimer.stop();
+        model.removeTableModelListener(this);
+        queue.clear();
+    }
+    
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        // 自己发出的 RowsUpdatedEvent 和其他单元格修改不改变行号
+        boolean structural = e.getType() != TableModelEvent.UPDATE
+            || e.getFirstRow() == TableModelEvent.HEADER_ROW || e.getLastRow() == Integer.MAX_VALUE;
+        if (structural) {
+            structureVersion++;
+        }
+    }
+    
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+    
+    public long getAppliedCount() {
+        return applied.sum();
+    }
+    
+    /**
+     * 启动合成负载，用于压测：每个生产者线程以指定速率随机修改薪资和在职状态
+     */
+    public void startSyntheticLoad(int producerCount, int updatesPerSecondPerProducer) {
+        stopSyntheticLoad();
+        loadRunning = true;
+        producers = new Thread[producerCount];
+        for (int i = 0; i < producerCount; i++) {
+            long seed = System.nanoTime() + i;
+            producers[i] = new Thread(() -> produce(seed, updatesPerSecondPerProducer), "live-feed-" + i);
+            producers[i].setDaemon(true);
+            producers[i].start();
+        }
+    }
+    
+    public void stopSyntheticLoad() {
+        loadRunning = false;
+        for (Thread producer : producers) {
+            producer.interrupt();
+        }
+        producers = new Thread[0];
+    }
+    
+    private void produce(long seed, int updatesPerSecond) {
+        SplittableRandom random = new SplittableRandom(seed);
+        // 每毫秒提交一批，避免逐条休眠
+        int batch = Math.max(1, updatesPerSecond / 1000);
+        long interval = TimeUnit.SECONDS.toNanos(1) * batch / Math.max(1, updatesPerSecond);
+        long next = System.nanoTime();
+        while (loadRunning && !Thread.currentThread().isInterrupted()) {
+            // 先取版本再取行数，行数变化后选出的行号会随版本一起作废
+            int version = structureVersion;
+            int rows = model.getRowCount();
+            if (rows > 0) {
+                for (int i = 0; i < batch; i++) {
+                    int row = random.nextInt(rows);
+                    if (random.nextInt(20) == 0) {
+                        submit(version, row, AbstractEmployeeTableModel.COLUMN_ACTIVE, random.nextBoolean() ? 1 : 0);
+                    } else {
+                        submit(version, row, AbstractEmployeeTableModel.COLUMN_SALARY, 5000 + random.nextInt(300) * 100.0);
+                    }
+                }
+            }
+            next += interval;
+            long delay = next - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+        }
+    }
+    
+    /**
+     * 在 EDT 上每帧调用一次
+     */
+    private void drain() {
+        int rows = model.getRowCount();
+        int version = structureVersion;
+        int count = 0;
+        Update update;
+        while (count < MAX_UPDATES_PER_FRAME && (update = queue.poll()) != null) {
+            count++;
+            if (update.version() != version || update.row() >= rows) {
+                continue; // 提交后行号已经变化
+            }
+            if (update.column() == AbstractEmployeeTableModel.COLUMN_SALARY) {
+                model.storeSalary(update.row(), update.value());
+                salaryRows.set(update.row());
+            } else {
+                model.storeActive(update.row(), update.value() != 0);
+                activeRows.set(update.row());
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        applied.add(count);
+        fireMergedEvents(salaryRows, AbstractEmployeeTableModel.COLUMN_SALARY);
+        fireMergedEvents(activeRows, AbstractEmployeeTableModel.COLUMN_ACTIVE);
+    }
+    
+    private void fireMergedEvents(BitSet dirtyRows, int column) {
+        if (dirtyRows.isEmpty()) {
+            return;
+        }
+        int events = 0;
+        int start = dirtyRows.nextSetBit(0);
+        while (start >= 0) {
+            int end = dirtyRows.nextClearBit(start);
+            int next = dirtyRows.nextSetBit(end);
+            while (next >= 0 && next - end <= MERGE_GAP) {
+                end = dirtyRows.nextClearBit(next);
+                next = dirtyRows.nextSetBit(end);
+            }
+            if (++events == MAX_EVENTS_PER_FRAME && next >= 0) {
+                // 剩余区间合并为一个事件
+                end = dirtyRows.length();
+                next = -1;
+            }
+            model.fireTableChanged(new RowsUpdatedEvent(model, start, end - 1, column, dirtyRows.get(start, end)));
+            start = next;
+        }
+        dirtyRows.clear();
+    }
+}
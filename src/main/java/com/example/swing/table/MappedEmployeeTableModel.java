@@ -0,0 +1,200 @@
+package com.example.swing.table;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 基于内存映射文件的只读员工表格模型
+ * 每列单独映射为一个缓冲区，打开时读取文件头和部门字典，并顺序核对姓名和部门编码列，
+ * 损坏的文件在打开时报错，不会在绘制表格时越界；其余各列表格滚动到哪里，
+ * 操作系统才把哪里的页面载入内存，姓名在首次显示时才解码
+ */
+public class MappedEmployeeTableModel extends AbstractEmployeeTableModel {
+    
+    private final Path path;
+    private final int rowCount;
+    private final IntBuffer ids;
+    private final IntBuffer nameCodes;
+    private final IntBuffer ages;
+    private final IntBuffer departmentCodes;
+    private final DoubleBuffer salaries;
+    private final LongBuffer active;
+    private final IntBuffer nameEnds;
+    private final ByteBuffer nameBytes;
+    private final String[] decodedNames;
+    private final StringDictionary departments;
+    
+    private MappedEmployeeTableModel(Path path, FileChannel channel, ByteBuffer header) throws IOException {
+        this.path = path;
+        this.rowCount = header.getInt(8);
+        if (rowCount < 0) {
+            throw new IOException("文件已损坏：行数 " + rowCount);
+        }
+        long[] offsets = new long[EmployeeDataFile.SECTION_COUNT];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = header.getLong(16 + i * 8);
+        }
+        long rows = rowCount;
+        ids = map(channel, offsets[EmployeeDataFile.SECTION_IDS], rows * 4).asIntBuffer();
+        nameCodes = map(channel, offsets[EmployeeDataFile.SECTION_NAMES], rows * 4).asIntBuffer();
+        ages = map(channel, offsets[EmployeeDataFile.SECTION_AGES], rows * 4).asIntBuffer();
+        departmentCodes = map(channel, offsets[EmployeeDataFile.SECTION_DEPARTMENTS], rows * 4).asIntBuffer();
+        salaries = map(channel, offsets[EmployeeDataFile.SECTION_SALARIES], rows * 8).asDoubleBuffer();
+        active = map(channel, offsets[EmployeeDataFile.SECTION_ACTIVE], ((rows + 63) >> 6) * 8).asLongBuffer();
+        
+        long nameOffset = offsets[EmployeeDataFile.SECTION_NAME_DICTIONARY];
+        long departmentOffset = offsets[EmployeeDataFile.SECTION_DEPARTMENT_DICTIONARY];
+        int nameCount = map(channel, nameOffset, 4).getInt(0);
+        if (nameCount < 0) {
+            throw new IOException("文件已损坏：姓名数 " + nameCount);
+        }
+        nameEnds = map(channel, nameOffset + 4, nameCount * 4L).asIntBuffer();
+        long nameBytesOffset = nameOffset + 4 + nameCount * 4L;
+        nameBytes = map(channel, nameBytesOffset, departmentOffset - nameBytesOffset);
+        decodedNames = new String[nameCount];
+        
+        // 部门数量很少，直接读入字典
+        MappedByteBuffer departmentSection = map(channel, departmentOffset, channel.size() - departmentOffset);
+        int departmentCount = departmentSection.getInt(0);
+        long dataOffset = 4 + departmentCount * 4L;
+        if (departmentCount < 0 || dataOffset > departmentSection.capacity()) {
+            throw new IOException("文件已损坏：部门数 " + departmentCount);
+        }
+        departments = new StringDictionary();
+        int start = 0;
+        for (int code = 0; code < departmentCount; code++) {
+            int end = departmentSection.getInt(4 + code * 4);
+            if (end < start || dataOffset + end > departmentSection.capacity()) {
+                throw new IOException("文件已损坏：部门字典越界");
+            }
+            departments.encode(decode(departmentSection, (int) dataOffset + start, end - start));
+            start = end;
+        }
+        validateCodes();
+    }
+    
+    /**
+     * 核对姓名字典的结束位置，以及各行的姓名、部门编码是否在字典范围内
+     */
+    private void validateCodes() throws IOException {
+        int nameCount = decodedNames.length;
+        int previous = 0;
+        for (int code = 0; code < nameCount; code++) {
+            int end = nameEnds.get(code);
+            if (end < previous || end > nameBytes.capacity()) {
+                throw new IOException("文件已损坏：姓名字典越界");
+            }
+            previous = end;
+        }
+        int departmentCount = departments.size();
+        for (int row = 0; row < rowCount; row++) {
+            int name = nameCodes.get(row);
+            if (name < 0 || name >= nameCount) {
+                throw new IOException("文件已损坏：第 " + (row + 1) + " 行的姓名编码 " + name + " 超出字典范围");
+            }
+            int department = departmentCodes.get(row);
+            if (department < 0 || department >= departmentCount) {
+                throw new IOException("文件已损坏：第 " + (row + 1) + " 行的部门编码 " + department + " 超出字典范围");
+            }
+        }
+    }
+    
+    public static MappedEmployeeTableModel open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < EmployeeDataFile.HEADER_SIZE) {
+                throw new IOException("文件过短，不是员工数据文件: " + path.getFileName());
+            }
+            ByteBuffer header = map(channel, 0, EmployeeDataFile.HEADER_SIZE);
+            if (header.getInt(0) != EmployeeDataFile.MAGIC) {
+                throw new IOException("不是员工数据文件: " + path.getFileName());
+            }
+            if (header.getInt(4) != EmployeeDataFile.VERSION) {
+                throw new IOException("不支持的文件版本: " + header.getInt(4));
+            }
+            // 映射在通道关闭后仍然有效
+            return new MappedEmployeeTableModel(path, channel, header);
+        }
+    }
+    
+    private static MappedByteBuffer map(FileChannel channel, long offset, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("单列数据超过 2GB，无法映射");
+        }
+        if (offset < 0 || offset + size > channel.size()) {
+            throw new IOException("文件已损坏：数据段超出文件范围");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        buffer.order(EmployeeDataFile.BYTE_ORDER);
+        return buffer;
+    }
+    
+    private static String decode(ByteBuffer source, int offset, int length) {
+        byte[] bytes = new byte[length];
+        source.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    @Override
+    public int getId(int row) {
+        return ids.get(row);
+    }
+    
+    @Override
+    public String getName(int row) {
+        int code = nameCodes.get(row);
+        String name = decodedNames[code];
+        if (name == null) {
+            int start = code == 0 ? 0 : nameEnds.get(code - 1);
+            name = decode(nameBytes, start, nameEnds.get(code) - start);
+            decodedNames[code] = name;
+        }
+        return name;
+    }
+    
+    @Override
+    public int getAge(int row) {
+        return ages.get(row);
+    }
+    
+    @Override
+    public int getDepartmentCode(int row) {
+        return departmentCodes.get(row);
+    }
+    
+    @Override
+    public StringDictionary getDepartmentDictionary() {
+        return departments;
+    }
+    
+    @Override
+    public double getSalary(int row) {
+        return salaries.get(row);
+    }
+    
+    @Override
+    public boolean isActive(int row) {
+        return (active.get(row >> 6) & (1L << row)) != 0;
+    }
+    
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // 映射文件只读
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.swing.table;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Map;
+
+/**
+ * 整数和薪资列的渲染器
+ * 数值格式化到复用的 char 数组中，用 drawChars 直接绘制，不创建 String 和包装对象；
+ * 小整数和出现过的薪资取值的格式化结果缓存起来，重复取值只需复制字符。
+ * 薪资的显示格式与 JTable 默认的 Double 渲染器（NumberFormat.getInstance()）一致：
+ * 使用当前区域的数字符号，千位分隔，最多 3 位小数，按 HALF_EVEN 舍入
+ */
+public class NumberCellRenderer extends DefaultTableCellRenderer implements EmployeeCellRenderer {
+    
+    private static final int SMALL_INT_CACHE = 4096;
+    private static final int DOUBLE_CACHE_SIZE = 4096; // 2 的幂
+    // 超过该值的薪资交给 NumberFormat 处理，保证 value * 1000 可以精确放进 long
+    private static final double FAST_FORMAT_LIMIT = 1e12;
+    
+    private static Object textAntialiasing;
+    private static Object lcdContrast;
+    
+    private final char[][] smallInts = new char[SMALL_INT_CACHE][];
+    private final long[] doubleKeys = new long[DOUBLE_CACHE_SIZE];
+    private final char[][] doubleValues = new char[DOUBLE_CACHE_SIZE][];
+    private final char[] buffer = new char[64];
+    private final char[] scratch = new char[64];
+    private final Insets insets = new Insets(0, 0, 0, 0);
+    // JTable 默认 Double 渲染器使用的格式；快速路径从中取得数字符号和正负号的前后缀
+    private final NumberFormat format = NumberFormat.getInstance();
+    private final DecimalFormatSymbols symbols;
+    private final boolean fastFormat;
+    private final char[] negativePrefix;
+    private final char[] negativeSuffix;
+    private char[] chars = buffer;
+    private int charCount;
+    
+    public NumberCellRenderer() {
+        setHorizontalAlignment(JLabel.RIGHT);
+        // 快速路径只实现默认的模式：千位分隔，0 到 3 位小数，没有前后缀的正数
+        if (format instanceof DecimalFormat decimal && decimal.isGroupingUsed() && decimal.getGroupingSize() == 3
+            && decimal.getMinimumFractionDigits() == 0 && decimal.getMaximumFractionDigits() == 3
+            && decimal.getPositivePrefix().isEmpty() && decimal.getPositiveSuffix().isEmpty()) {
+            symbols = decimal.getDecimalFormatSymbols();
+            negativePrefix = decimal.getNegativePrefix().toCharArray();
+            negativeSuffix = decimal.getNegativeSuffix().toCharArray();
+            fastFormat = true;
+        } else {
+            symbols = null;
+            negativePrefix = null;
+            negativeSuffix = null;
+            fastFormat = false;
+        }
+    }
+    
+    @Override
+    public Component getRendererComponent(JTable table, AbstractEmployeeTableModel model, int modelRow, int modelColumn,
+                                          boolean isSelected, boolean hasFocus, int row, int column) {
+        // 由父类设置颜色、字体和边框，文字由 paintComponent 绘制
+        super.getTableCellRendererComponent(table, null, isSelected, hasFocus, row, column);
+        switch (modelColumn) {
+            case AbstractEmployeeTableModel.COLUMN_ID -> formatInt(model.getId(modelRow));
+            case AbstractEmployeeTableModel.COLUMN_AGE -> formatInt(model.getAge(modelRow));
+            case AbstractEmployeeTableModel.COLUMN_SALARY -> formatDouble(model.getSalary(modelRow));
+            default -> charCount = 0;
+        }
+        return this;
+    }
+    
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        super.getTableCellRendererComponent(table, null, isSelected, hasFocus, row, column);
+        if (value instanceof Integer number) {
+            formatInt(number);
+        } else if (value instanceof Number number) {
+            formatDouble(number.doubleValue());
+        } else {
+            charCount = 0;
+        }
+        return this;
+    }
+    
+    @Override
+    protected void setValue(Object value) {
+        // 文字保存在 char 数组中，不使用 JLabel 的 text
+    }
+    
+    private void formatInt(int value) {
+        if (value >= 0 && value < SMALL_INT_CACHE) {
+            char[] cached = smallInts[value];
+            if (cached == null) {
+                int length = appendLong(value, buffer, 0);
+                cached = new char[length];
+                System.arraycopy(buffer, 0, cached, 0, length);
+                smallInts[value] = cached;
+            }
+            chars = cached;
+            charCount = cached.length;
+            return;
+        }
+        chars = buffer;
+        charCount = appendLong(value, buffer, 0);
+    }
+    
+    private void formatDouble(double value) {
+        long bits = Double.doubleToLongBits(value);
+        int slot = (int) (bits ^ (bits >>> 32)) * 0x9E3779B9 >>> 20 & (DOUBLE_CACHE_SIZE - 1);
+        char[] cached = doubleValues[slot];
+        if (cached != null && doubleKeys[slot] == bits) {
+            chars = cached;
+            charCount = cached.length;
+            return;
+        }
+        int length = formatGrouped(value, buffer);
+        cached = new char[length];
+        System.arraycopy(buffer, 0, cached, 0, length);
+        doubleKeys[slot] = bits;
+        doubleValues[slot] = cached;
+        chars = cached;
+        charCount = length;
+    }
+    
+    /**
+     * 按千位分隔、最多 3 位小数格式化，符号和舍入与 NumberFormat 相同
+     */
+    private int formatGrouped(double value, char[] out) {
+        if (!fastFormat || Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= FAST_FORMAT_LIMIT) {
+            String formatted = format.format(value);
+            formatted.getChars(0, formatted.length(), out, 0);
+            return formatted.length();
+        }
+        long thousandths = roundThousandths(Math.abs(value));
+        long integer = thousandths / 1000;
+        int fraction = (int) (thousandths % 1000);
+        int zero = symbols.getZeroDigit();
+        int length = 0;
+        // NumberFormat 对 -0.0 和舍入为 0 的负数也输出负号
+        boolean negative = Math.copySign(1.0, value) < 0;
+        if (negative) {
+            System.arraycopy(negativePrefix, 0, out, length, negativePrefix.length);
+            length += negativePrefix.length;
+        }
+        int digits = appendLong(integer, scratch, 0);
+        for (int i = 0; i < digits; i++) {
+            if (i > 0 && (digits - i) % 3 == 0) {
+                out[length++] = symbols.getGroupingSeparator();
+            }
+            out[length++] = (char) (zero + scratch[i] - '0');
+        }
+        if (fraction != 0) {
+            out[length++] = symbols.getDecimalSeparator();
+            out[length++] = (char) (zero + fraction / 100);
+            out[length++] = (char) (zero + fraction / 10 % 10);
+            out[length++] = (char) (zero + fraction % 10);
+            while (out[length - 1] == zero) {
+                length--;
+            }
+        }
+        if (negative) {
+            System.arraycopy(negativeSuffix, 0, out, length, negativeSuffix.length);
+            length += negativeSuffix.length;
+        }
+        return length;
+    }
+    
+    /**
+     * 把非负数舍入到千分之一，按 double 的精确值 HALF_EVEN 舍入。
+     * value * 1000 本身有舍入误差，只有结果离 .5 不超过这个误差时才需要用 BigDecimal 判断
+     */
+    private static long roundThousandths(double value) {
+        double scaled = value * 1000;
+        double offset = Math.abs(scaled - Math.floor(scaled) - 0.5);
+        if (offset > Math.ulp(scaled)) {
+            return Math.round(scaled);
+        }
+        return new BigDecimal(value).setScale(3, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+    
+    private static int appendLong(long value, char[] out, int offset) {
+        if (value == Long.MIN_VALUE) {
+            String text = Long.toString(value);
+            text.getChars(0, text.length(), out, offset);
+            return offset + text.length();
+        }
+        int position = offset;
+        if (value < 0) {
+            out[position++] = '-';
+            value = -value;
+        }
+        int start = position;
+        do {
+            out[position++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            char c = out[i];
+            out[i] = out[j];
+            out[j] = c;
+        }
+        return position;
+    }
+    
+    /**
+     * 渲染器只在 CellRendererPane 中绘制，传入的 Graphics 已是为本单元格新建的副本，
+     * 不必像 JComponent.paint 那样再复制一次
+     */
+    @Override
+    public void paint(Graphics g) {
+        paintComponent(g);
+        paintBorder(g);
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (isOpaque()) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+        }
+        if (charCount == 0) {
+            return;
+        }
+        if (textAntialiasing == null) {
+            // 与 JLabel 一样使用桌面的文字抗锯齿设置
+            Object hints = Toolkit.getDefaultToolkit().getDesktopProperty("awt/font/desktophints");
+            Map<?, ?> map = hints instanceof Map<?, ?> m ? m : Map.of();
+            Object aa = map.get(RenderingHints.KEY_TEXT_ANTIALIASING);
+            textAntialiasing = aa != null ? aa : RenderingHints.VALUE_TEXT_ANTIALIAS_ON;
+            lcdContrast = map.get(RenderingHints.KEY_TEXT_LCD_CONTRAST);
+        }
+        if (g instanceof Graphics2D g2) {
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, textAntialiasing);
+            if (lcdContrast != null) {
+                g2.setRenderingHint(RenderingHints.KEY_TEXT_LCD_CONTRAST, lcdContrast);
+            }
+        }
+        g.setFont(getFont());
+        g.setColor(getForeground());
+        FontMetrics metrics = g.getFontMetrics();
+        getInsets(insets);
+        int width = metrics.charsWidth(chars, 0, charCount);
+        int x = getHorizontalAlignment() == JLabel.LEFT
+            ? insets.left : getWidth() - insets.right - width;
+        int y = insets.top + (getHeight() - insets.top - insets.bottom - metrics.getHeight()) / 2 + metrics.getAscent();
+        g.drawChars(chars, 0, charCount, x, y);
+    }
+}
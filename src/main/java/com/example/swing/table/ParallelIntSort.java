@@ -0,0 +1,107 @@
+package com.example.swing.table;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * int 数组的并行稳定归并排序
+ * 用于对行号排列排序，比较器直接读取基本类型列，避免 Integer[] 装箱
+ */
+public final class ParallelIntSort {
+    
+    private static final int SEQUENTIAL_THRESHOLD = 8192;
+    private static final int INSERTION_THRESHOLD = 32;
+    
+    /**
+     * 行号比较器
+     */
+    @FunctionalInterface
+    public interface IntComparator {
+        int compare(int a, int b);
+    }
+    
+    private ParallelIntSort() {
+    }
+    
+    /**
+     * 排序整个数组；cancelled 返回 true 时尽快抛出 CancellationException
+     */
+    public static void sort(int[] values, IntComparator comparator, BooleanSupplier cancelled) {
+        if (values.length < 2) {
+            return;
+        }
+        int[] buffer = new int[values.length];
+        ForkJoinPool.commonPool().invoke(new SortTask(values, buffer, 0, values.length, comparator, cancelled));
+    }
+    
+    private static final class SortTask extends RecursiveAction {
+        private final int[] values;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final IntComparator comparator;
+        private final BooleanSupplier cancelled;
+        
+        SortTask(int[] values, int[] buffer, int from, int to,
+                 IntComparator comparator, BooleanSupplier cancelled) {
+            this.values = values;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator;
+            this.cancelled = cancelled;
+        }
+        
+        @Override
+        protected void compute() {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                mergeSort(values, buffer, from, to, comparator);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(values, buffer, from, mid, comparator, cancelled),
+                new SortTask(values, buffer, mid, to, comparator, cancelled));
+            merge(values, buffer, from, mid, to, comparator);
+        }
+    }
+    
+    private static void mergeSort(int[] values, int[] buffer, int from, int to, IntComparator comparator) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int value = values[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(values[j], value) > 0) {
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                values[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(values, buffer, from, mid, comparator);
+        mergeSort(values, buffer, mid, to, comparator);
+        merge(values, buffer, from, mid, to, comparator);
+    }
+    
+    private static void merge(int[] values, int[] buffer, int from, int mid, int to, IntComparator comparator) {
+        if (comparator.compare(values[mid - 1], values[mid]) <= 0) {
+            return; // 两段已经有序
+        }
+        System.arraycopy(values, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && comparator.compare(buffer[left], buffer[right]) <= 0)) {
+                values[i] = buffer[left++];
+            } else {
+                values[i] = buffer[right++];
+            }
+        }
+    }
+}
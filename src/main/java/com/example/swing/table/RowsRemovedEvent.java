@@ -0,0 +1,94 @@
+package com.example.swing.table;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.TableModel;
+import java.util.BitSet;
+
+/**
+ * 批量删除行的事件
+ * 对普通监听器（包括 JTable）表现为"所有行已变化"，
+ * 了解此事件的监听器可以按删除的行号集合原地压缩自己的行数据，无需整体重建
+ */
+public class RowsRemovedEvent extends TableModelEvent {
+    
+    private final BitSet removedRows;
+    private final int oldRowCount;
+    private int[] newIndexes;
+    
+    public RowsRemovedEvent(TableModel source, BitSet removedRows, int oldRowCount) {
+        super(source);
+        this.removedRows = removedRows;
+        this.oldRowCount = oldRowCount;
+    }
+    
+    /**
+     * 被删除的行在删除前的行号集合，不可修改
+     */
+    public BitSet getRemovedRows() {
+        return removedRows;
+    }
+    
+    public int getOldRowCount() {
+        return oldRowCount;
+    }
+    
+    public int getNewRowCount() {
+        return oldRowCount - removedRows.cardinality();
+    }
+    
+    /**
+     * 把删除前的行号换算为删除后的行号，被删除的行返回 -1
+     */
+    public int convertRowIndex(int oldRow) {
+        if (newIndexes == null) {
+            int[] indexes = new int[oldRowCount];
+            int next = 0;
+            for (int row = 0; row < oldRowCount; row++) {
+                indexes[row] = removedRows.get(row) ? -1 : next++;
+            }
+            newIndexes = indexes;
+        }
+        return newIndexes[oldRow];
+    }
+    
+    /**
+     * 一次遍历原地移除数组中被删除行的元素，array 可以是任意类型的数组，返回保留的元素个数
+     */
+    public int compact(Object array) {
+        int size = 0;
+        int start = removedRows.nextClearBit(0);
+        while (start < oldRowCount) {
+            int end = removedRows.nextSetBit(start);
+            if (end < 0 || end > oldRowCount) {
+                end = oldRowCount;
+            }
+            if (start != size) {
+                System.arraycopy(array, start, array, size, end - start);
+            }
+            size += end - start;
+            start = removedRows.nextClearBit(end);
+        }
+        return size;
+    }
+    
+    /**
+     * 返回移除被删除行后的位集
+     */
+    public BitSet compact(BitSet bits) {
+        BitSet compacted = new BitSet(getNewRowCount());
+        int size = 0;
+        int start = removedRows.nextClearBit(0);
+        while (start < oldRowCount) {
+            int end = removedRows.nextSetBit(start);
+            if (end < 0 || end > oldRowCount) {
+                end = oldRowCount;
+            }
+            for (int row = bits.nextSetBit(start); row >= 0 && row < end; row = bits.nextSetBit(row + 1)) {
+                compacted.set(size + row - start);
+            }
+            size += end - start;
+            start = removedRows.nextClearBit(end);
+        }
+        return compacted;
+    }
+}
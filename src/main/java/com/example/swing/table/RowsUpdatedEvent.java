@@ -0,0 +1,30 @@
+package com.example.swing.table;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.TableModel;
+import java.util.BitSet;
+
+/**
+ * 合并后的单元格更新事件
+ * 对普通监听器表现为 [firstRow, lastRow] 区间内某列的更新，
+ * 区间中可能夹杂着未变化的行，需要逐行处理的监听器可以只遍历实际变化的行
+ */
+public class RowsUpdatedEvent extends TableModelEvent {
+    
+    // 以 firstRow 为起点的相对行号
+    private final BitSet rows;
+    
+    public RowsUpdatedEvent(TableModel source, int firstRow, int lastRow, int column, BitSet rows) {
+        super(source, firstRow, lastRow, column);
+        this.rows = rows;
+    }
+    
+    /**
+     * 返回 fromRow 及之后第一个实际变化的行，没有时返回 -1
+     */
+    public int nextUpdatedRow(int fromRow) {
+        int first = getFirstRow();
+        int next = rows.nextSetBit(Math.max(0, fromRow - first));
+        return next < 0 || next + first > getLastRow() ? -1 : next + first;
+    }
+}
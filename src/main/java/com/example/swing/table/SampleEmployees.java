@@ -0,0 +1,57 @@
+package com.example.swing.table;
+
+import java.util.SplittableRandom;
+
+/**
+ * 示例员工数据
+ * 提供默认的演示数据，以及用于压力测试的大规模随机数据
+ */
+public final class SampleEmployees {
+    
+    private static final String[] SURNAMES = {"张", "李", "王", "赵", "钱", "孙", "周", "吴", "郑", "冯", "陈", "褚", "卫", "蒋", "沈", "韩"};
+    private static final String[] GIVEN_NAMES = {"伟", "芳", "娜", "敏", "静", "丽", "强", "磊", "军", "洋", "勇", "艳", "杰", "涛", "明", "超"};
+    private static final String[] DEPARTMENTS = {"研发部", "市场部", "人事部", "财务部", "产品部", "销售部", "运维部", "法务部"};
+    
+    private SampleEmployees() {
+    }
+    
+    public static EmployeeTableModel createSample() {
+        EmployeeTableModel model = new EmployeeTableModel();
+        model.appendRow(1, "张三", 28, "研发部", 15000.0, true);
+        model.appendRow(2, "李四", 32, "市场部", 12000.0, true);
+        model.appendRow(3, "王五", 25, "人事部", 10000.0, true);
+        model.appendRow(4, "赵六", 35, "财务部", 18000.0, false);
+        model.appendRow(5, "钱七", 29, "研发部", 16000.0, true);
+        model.appendRow(6, "孙八", 31, "市场部", 13000.0, true);
+        model.appendRow(7, "周九", 27, "研发部", 14000.0, true);
+        model.appendRow(8, "吴十", 33, "产品部", 17000.0, false);
+        return model;
+    }
+    
+    /**
+     * 生成指定行数的随机员工数据，相同种子生成相同数据
+     */
+    public static EmployeeTableModel generate(int rows, long seed) {
+        // 姓名从预先组合好的名字池中选取，大量行共享同一个 String 实例
+        String[] namePool = new String[SURNAMES.length * GIVEN_NAMES.length * GIVEN_NAMES.length];
+        int index = 0;
+        for (String surname : SURNAMES) {
+            for (String first : GIVEN_NAMES) {
+                for (String second : GIVEN_NAMES) {
+                    namePool[index++] = surname + first + second;
+                }
+            }
+        }
+        
+        EmployeeTableModel model = new EmployeeTableModel(rows);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < rows; i++) {
+            model.appendRow(i + 1, namePool[random.nextInt(namePool.length)],
+                22 + random.nextInt(40),
+                DEPARTMENTS[random.nextInt(DEPARTMENTS.length)],
+                5000 + random.nextInt(300) * 100.0,
+                random.nextInt(10) != 0);
+        }
+        return model;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.swing.table;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 排序列快照
+ * 在 EDT 上复制一列数据，之后在后台线程中准备排序键并比较，
+ * 字符串列使用 CollationKeyCache 中缓存的排序键，比较时只需比较字节数组或名次；
+ * 缓存尚未就绪时带上一次构建，在 prepare 中计算排序键，排序完成后由排序器发布到缓存
+ */
+abstract class SortKeySnapshot {
+    
+    /**
+     * 在 EDT 上调用，复制 column 列的当前数据；字符串列需提供对应的排序键缓存
+     */
+    static SortKeySnapshot of(AbstractEmployeeTableModel model, int column, CollationKeyCache collationKeys) {
+        int rows = model.getRowCount();
+        switch (column) {
+            case AbstractEmployeeTableModel.COLUMN_ID, AbstractEmployeeTableModel.COLUMN_AGE -> {
+                int[] values = new int[rows];
+                for (int row = 0; row < rows; row++) {
+                    values[row] = column == AbstractEmployeeTableModel.COLUMN_ID
+                        ? model.getId(row) : model.getAge(row);
+                }
+                return new IntKey(values);
+            }
+            case AbstractEmployeeTableModel.COLUMN_SALARY -> {
+                double[] values = new double[rows];
+                for (int row = 0; row < rows; row++) {
+                    values[row] = model.getSalary(row);
+                }
+                return new DoubleKey(values);
+            }
+            case AbstractEmployeeTableModel.COLUMN_ACTIVE -> {
+                BitSet values = new BitSet(rows);
+                for (int row = 0; row < rows; row++) {
+                    values.set(row, model.isActive(row));
+                }
+                return new BooleanKey(values);
+            }
+            case AbstractEmployeeTableModel.COLUMN_DEPARTMENT -> {
+                int[] codes = new int[rows];
+                for (int row = 0; row < rows; row++) {
+                    codes[row] = model.getDepartmentCode(row);
+                }
+                return collationKeys.isReady() ? new DictionaryKey(codes, collationKeys.snapshotCodeKeys(), null)
+                    : new DictionaryKey(codes, null, collationKeys.startBuild());
+            }
+            default -> {
+                return collationKeys.isReady() ? new BytesKey(collationKeys.snapshotRowKeys(), null)
+                    : new BytesKey(null, collationKeys.startBuild());
+            }
+        }
+    }
+    
+    /**
+     * 在后台线程调用，计算比较所需的排序键
+     */
+    void prepare() {
+    }
+    
+    /**
+     * 随快照一起进行的排序键缓存构建，没有时为 null
+     */
+    CollationKeyCache.Build getBuild() {
+        return null;
+    }
+    
+    abstract int compare(int row1, int row2);
+    
+    private static final class IntKey extends SortKeySnapshot {
+        private final int[] values;
+        
+        IntKey(int[] values) {
+            this.values = values;
+        }
+        
+        @Override
+        int compare(int row1, int row2) {
+            return Integer.compare(values[row1], values[row2]);
+        }
+    }
+    
+    private static final class DoubleKey extends SortKeySnapshot {
+        private final double[] values;
+        
+        DoubleKey(double[] values) {
+            this.values = values;
+        }
+        
+        @Override
+        int compare(int row1, int row2) {
+            return Double.compare(values[row1], values[row2]);
+        }
+    }
+    
+    private static final class BooleanKey extends SortKeySnapshot {
+        private final BitSet values;
+        
+        BooleanKey(BitSet values) {
+            this.values = values;
+        }
+        
+        @Override
+        int compare(int row1, int row2) {
+            return Boolean.compare(values.get(row1), values.get(row2));
+        }
+    }
+    
+    private static final class DictionaryKey extends SortKeySnapshot {
+        private final int[] codes;
+        private final CollationKeyCache.Build build;
+        private byte[][] codeKeys;
+        private int[] ranks;
+        
+        DictionaryKey(int[] codes, byte[][] codeKeys, CollationKeyCache.Build build) {
+            this.codes = codes;
+            this.codeKeys = codeKeys;
+            this.build = build;
+        }
+        
+        @Override
+        CollationKeyCache.Build getBuild() {
+            return build;
+        }
+        
+        @Override
+        void prepare() {
+            if (build != null) {
+                build.run();
+                codeKeys = build.keys();
+            }
+            // 字典取值很少，先换算为名次，逐行比较时只比较 int
+            Integer[] order = new Integer[codeKeys.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> CollationKeyCache.compareKeys(codeKeys[a], codeKeys[b]));
+            ranks = new int[codeKeys.length];
+            for (int i = 0; i < order.length; i++) {
+                ranks[order[i]] = i;
+            }
+        }
+        
+        @Override
+        int compare(int row1, int row2) {
+            return Integer.compare(ranks[codes[row1]], ranks[codes[row2]]);
+        }
+    }
+    
+    private static final class BytesKey extends SortKeySnapshot {
+        private final CollationKeyCache.Build build;
+        private byte[][] keys;
+        
+        BytesKey(byte[][] keys, CollationKeyCache.Build build) {
+            this.keys = keys;
+            this.build = build;
+        }
+        
+        @Override
+        CollationKeyCache.Build getBuild() {
+            return build;
+        }
+        
+        @Override
+        void prepare() {
+            if (build != null) {
+                build.run();
+                keys = build.keys();
+            }
+        }
+        
+        @Override
+        int compare(int row1, int row2) {
+            byte[] key1 = keys[row1];
+            byte[] key2 = keys[row2];
+            return key1 == key2 ? 0 : CollationKeyCache.compareKeys(key1, key2);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.swing.table;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 字符串字典
+ * 把重复出现的字符串（如部门名称）编码为连续的 int，列中只保存编码
+ */
+public class StringDictionary {
+    
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[16];
+    private int size;
+    
+    /**
+     * 返回字符串对应的编码，不存在时追加一个新编码
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        codes.put(value, size);
+        return size++;
+    }
+    
+    /**
+     * 查找已有编码，不存在时返回 -1
+     */
+    public int lookup(String value) {
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+    
+    public String decode(int code) {
+        return values[code];
+    }
+    
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.swing.table;
+
+import com.example.swing.search.NGramIndex;
+import com.example.swing.search.SnapshotSearch;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * 表格搜索引擎
+ * 姓名和部门的不同取值登记在 n-gram 索引中，每行只保存姓名编码；
+ * 查询时在 EDT 上复制姓名编码和查询用得到的列，先在索引中求出命中的取值集合，
+ * 再在后台线程中按块并行扫描快照，结果以模型行号位集的形式在 EDT 上一次性发布
+ */
+public class TableSearchEngine extends SnapshotSearch<TableSearchEngine.Snapshot, BitSet> implements TableModelListener {
+    
+    // 块大小为 64 的倍数，保证各块写入位集中互不重叠的 long 元素
+    private static final int CHUNK_SIZE = 64 * 1024;
+    
+    private final AbstractEmployeeTableModel model;
+    private final boolean namesOnly;
+    private final StringDictionary nameDictionary = new StringDictionary();
+    private final NGramIndex nameIndex = new NGramIndex();
+    private final NGramIndex departmentIndex = new NGramIndex();
+    
+    // 以下只在 EDT 上访问
+    private int[] nameCodes = new int[0];
+    private int rowCount;
+    private long modCount;
+    // 薪资和在职状态的修改次数，只影响能匹配这两列的查询
+    private long valueModCount;
+    private int indexedNames;
+    private int indexedDepartments;
+    
+    public TableSearchEngine(AbstractEmployeeTableModel model) {
+        this(model, false);
+    }
+    
+    /**
+     * namesOnly 为 true 时只匹配姓名和部门，不匹配工号、年龄、薪资和在职状态，例如树中只显示这两项
+     */
+    public TableSearchEngine(AbstractEmployeeTableModel model, boolean namesOnly) {
+        this.model = model;
+        this.namesOnly = namesOnly;
+        rebuild();
+        model.addTableModelListener(this);
+    }
+    
+    /**
+     * 查询时在 EDT 上复制的数据，查询用不到的列为 null；
+     * valuesFinal 为 true 时不再因薪资和在职状态的变化重新查询
+     */
+    static final class Snapshot {
+        final String needle;
+        final long modCount;
+        final long valueModCount;
+        final boolean valuesFinal;
+        final int rows;
+        final int[] nameCodes;
+        final int[] departmentCodes;
+        final BitSet active;
+        final int[] ids;
+        final int[] ages;
+        final double[] salaries;
+        
+        private Snapshot(AbstractEmployeeTableModel model, String needle, long modCount, long valueModCount,
+                         boolean valuesFinal, int[] nameCodes, int rows, boolean numeric, boolean flags) {
+            this.needle = needle;
+            this.modCount = modCount;
+            this.valueModCount = valueModCount;
+            this.valuesFinal = valuesFinal;
+            this.rows = rows;
+            this.nameCodes = Arrays.copyOf(nameCodes, rows);
+            departmentCodes = new int[rows];
+            active = flags ? new BitSet(rows) : null;
+            ids = numeric ? new int[rows] : null;
+            ages = numeric ? new int[rows] : null;
+            salaries = numeric ? new double[rows] : null;
+            for (int row = 0; row < rows; row++) {
+                departmentCodes[row] = model.getDepartmentCode(row);
+                if (flags && model.isActive(row)) {
+                    active.set(row);
+                }
+                if (numeric) {
+                    ids[row] = model.getId(row);
+                    ages[row] = model.getAge(row);
+                    salaries[row] = model.getSalary(row);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 取消进行中的查询并解除对模型的监听
+     */
+    public void dispose() {
+        cancel();
+        model.removeTableModelListener(this);
+    }
+    
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        if (e instanceof RowsRemovedEvent removed) {
+            modCount++;
+            removed.compact(nameCodes);
+            rowCount = removed.getNewRowCount();
+            return;
+        }
+        int first = e.getFirstRow();
+        int last = e.getLastRow();
+        if (first == TableModelEvent.HEADER_ROW || last == Integer.MAX_VALUE) {
+            modCount++;
+            rebuild();
+            return;
+        }
+        switch (e.getType()) {
+            case TableModelEvent.INSERT -> {
+                modCount++;
+                rowsInserted(first, last);
+            }
+            case TableModelEvent.DELETE -> {
+                modCount++;
+                rowsDeleted(first, last);
+            }
+            default -> {
+                int column = e.getColumn();
+                // 薪资、在职状态的实时更新频率很高，单独计数，只让能匹配这两列的查询重新计算
+                if (column == AbstractEmployeeTableModel.COLUMN_SALARY
+                    || column == AbstractEmployeeTableModel.COLUMN_ACTIVE) {
+                    valueModCount++;
+                } else {
+                    modCount++;
+                }
+                if (column == TableModelEvent.ALL_COLUMNS || column == AbstractEmployeeTableModel.COLUMN_NAME) {
+                    for (int row = first; row <= last; row++) {
+                        nameCodes[row] = encodeName(model.getName(row));
+                    }
+                }
+            }
+        }
+        indexDepartments();
+    }
+    
+    private void rebuild() {
+        int rows = model.getRowCount();
+        int[] codes = new int[Math.max(rows, 16)];
+        for (int row = 0; row < rows; row++) {
+            codes[row] = encodeName(model.getName(row));
+        }
+        nameCodes = codes;
+        rowCount = rows;
+        indexDepartments();
+    }
+    
+    private void rowsInserted(int first, int last) {
+        int count = last - first + 1;
+        int[] codes = nameCodes;
+        if (rowCount + count > codes.length) {
+            codes = Arrays.copyOf(codes, Math.max(rowCount + count, codes.length + (codes.length >> 1)));
+        }
+        System.arraycopy(codes, first, codes, first + count, rowCount - first);
+        for (int row = first; row <= last; row++) {
+            codes[row] = encodeName(model.getName(row));
+        }
+        nameCodes = codes;
+        rowCount += count;
+    }
+    
+    private void rowsDeleted(int first, int last) {
+        int count = last - first + 1;
+        int[] codes = nameCodes;
+        System.arraycopy(codes, last + 1, codes, first, rowCount - last - 1);
+        rowCount -= count;
+    }
+    
+    private int encodeName(String name) {
+        int code = nameDictionary.encode(name);
+        if (code == indexedNames) {
+            nameIndex.put(code, name);
+            indexedNames++;
+        }
+        return code;
+    }
+    
+    private void indexDepartments() {
+        StringDictionary departments = model.getDepartmentDictionary();
+        while (indexedDepartments < departments.size()) {
+            departmentIndex.put(indexedDepartments, departments.decode(indexedDepartments));
+            indexedDepartments++;
+        }
+    }
+    
+    @Override
+    protected Snapshot snapshot(String text, Snapshot previous) {
+        String needle = NGramIndex.normalize(text);
+        boolean numeric = !namesOnly && isNumeric(needle);
+        boolean flags = !namesOnly && ("true".contains(needle) || "false".contains(needle));
+        // 上一次只因数值变化作废时，这次的结果无论数值是否又变都发布：
+        // 实时更新期间每帧都在变化，一直重算会永远得不到结果，而快照本身是某一时刻的一致数据
+        boolean valuesFinal = previous != null && previous.modCount == modCount;
+        return new Snapshot(model, needle, modCount, valueModCount, valuesFinal, nameCodes, rowCount, numeric, flags);
+    }
+    
+    @Override
+    protected boolean isCurrent(Snapshot snapshot) {
+        if (snapshot.modCount != modCount) {
+            return false;
+        }
+        boolean readsValues = snapshot.salaries != null || snapshot.active != null;
+        return !readsValues || snapshot.valuesFinal || snapshot.valueModCount == valueModCount;
+    }
+    
+    /**
+     * 在查询线程上执行，只读快照；查询已被取消时返回 null
+     */
+    @Override
+    protected BitSet evaluate(Snapshot snapshot, BooleanSupplier cancelled) {
+        String needle = snapshot.needle;
+        BitSet names = nameIndex.query(needle);
+        BitSet departments = departmentIndex.query(needle);
+        char[] digits = snapshot.ids != null ? needle.toCharArray() : null;
+        boolean matchTrue = snapshot.active != null && "true".contains(needle);
+        boolean matchFalse = snapshot.active != null && "false".contains(needle);
+        
+        int rows = snapshot.rows;
+        long[] words = new long[(rows + 63) >> 6];
+        int chunks = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            char[] buffer = new char[32];
+            int end = Math.min(rows, (chunk + 1) * CHUNK_SIZE);
+            for (int row = chunk * CHUNK_SIZE; row < end; row++) {
+                if (names.get(snapshot.nameCodes[row])
+                    || departments.get(snapshot.departmentCodes[row])
+                    || (snapshot.active != null && (snapshot.active.get(row) ? matchTrue : matchFalse))
+                    || (digits != null && matchesNumber(snapshot, row, digits, buffer))) {
+                    words[row >> 6] |= 1L << row;
+                }
+            }
+        });
+        return cancelled.getAsBoolean() ? null : BitSet.valueOf(words);
+    }
+    
+    private static boolean matchesNumber(Snapshot snapshot, int row, char[] needle, char[] buffer) {
+        if (contains(buffer, formatLong(snapshot.ids[row], buffer), needle)
+            || contains(buffer, formatLong(snapshot.ages[row], buffer), needle)) {
+            return true;
+        }
+        double salary = snapshot.salaries[row];
+        if (salary == Math.rint(salary) && Math.abs(salary) < 1e7) {
+            // 与 Double.toString 的格式一致，例如 15000.0
+            int end = buffer.length;
+            buffer[--end] = '0';
+            buffer[--end] = '.';
+            int start = formatLong((long) salary, buffer, end);
+            return containsRange(buffer, start, buffer.length, needle);
+        }
+        String text = Double.toString(salary);
+        return text.contains(new String(needle));
+    }
+    
+    private static boolean isNumeric(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c < '0' || c > '9') && c != '.' && c != '-' && c != 'e') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 把数值写到缓冲区末尾，返回起始位置
+     */
+    private static int formatLong(long value, char[] buffer) {
+        return formatLong(value, buffer, buffer.length);
+    }
+    
+    private static int formatLong(long value, char[] buffer, int end) {
+        int pos = end;
+        boolean negative = value < 0;
+        long remaining = Math.abs(value);
+        do {
+            buffer[--pos] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (negative) {
+            buffer[--pos] = '-';
+        }
+        return pos;
+    }
+    
+    private static boolean contains(char[] buffer, int start, char[] needle) {
+        return containsRange(buffer, start, buffer.length, needle);
+    }
+    
+    private static boolean containsRange(char[] buffer, int start, int end, char[] needle) {
+        outer:
+        for (int i = start; i + needle.length <= end; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (buffer[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
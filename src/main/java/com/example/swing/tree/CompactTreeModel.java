@@ -0,0 +1,495 @@
+package com.example.swing.tree;
+
+import com.example.swing.table.StringDictionary;
+import com.example.swing.tree.OrgChartSource.OrgUnit;
+
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 数组存储的树模型
+ * 节点是连续的 int 编号，父节点、首个/末个子节点、下一个兄弟、子节点数各存一个 int[]，
+ * 名称经字典编码，相同的名称只保存一份；每个节点约 24 字节，
+ * 不需要 DefaultMutableTreeNode 的节点对象、子节点 Vector 和用户对象。
+ * 交给 JTree 的是按需创建的 {@link Node} 句柄，只在展开和绘制的路径上存在。
+ * 节点编号只增不减，删除后不会复用
+ */
+public class CompactTreeModel implements TreeModel {
+    
+    public static final int NO_NODE = -1;
+    // 已删除节点的 parent 值
+    static final int REMOVED = -2;
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    private final EventListenerList listeners = new EventListenerList();
+    private final StringDictionary labelStore = new StringDictionary();
+    private int[] parents;
+    private int[] firstChildren;
+    private int[] lastChildren;
+    private int[] nextSiblings;
+    private int[] childCounts;
+    private int[] labels;
+    // 已分配的编号数和存活节点数
+    private int size;
+    private int nodeCount;
+    private final Node root;
+    
+    // 最近一次按序号取子节点的位置，顺序访问兄弟节点时不必从头遍历
+    private int cursorParent = NO_NODE;
+    private int cursorIndex;
+    private int cursorNode;
+    
+    public CompactTreeModel(String rootLabel) {
+        this(rootLabel, DEFAULT_CAPACITY);
+    }
+    
+    public CompactTreeModel(String rootLabel, int initialCapacity) {
+        int capacity = Math.max(initialCapacity, DEFAULT_CAPACITY);
+        parents = new int[capacity];
+        firstChildren = new int[capacity];
+        lastChildren = new int[capacity];
+        nextSiblings = new int[capacity];
+        childCounts = new int[capacity];
+        labels = new int[capacity];
+        root = new Node(this, allocate(NO_NODE, labelStore.encode(rootLabel)));
+    }
+    
+    private CompactTreeModel(CompactTreeModel source) {
+        size = source.size;
+        nodeCount = source.nodeCount;
+        parents = Arrays.copyOf(source.parents, size);
+        firstChildren = Arrays.copyOf(source.firstChildren, size);
+        lastChildren = Arrays.copyOf(source.lastChildren, size);
+        nextSiblings = Arrays.copyOf(source.nextSiblings, size);
+        childCounts = Arrays.copyOf(source.childCounts, size);
+        labels = Arrays.copyOf(source.labels, size);
+        // 按原顺序登记，编码与原字典一致
+        for (int code = 0; code < source.labelStore.size(); code++) {
+            labelStore.encode(source.labelStore.decode(code));
+        }
+        root = new Node(this, source.root.id);
+    }
+    
+    /**
+     * 从数据源完整读取整棵树
+     */
+    public static CompactTreeModel copyOf(OrgChartSource source) throws IOException {
+        OrgUnit rootUnit = source.getRoot();
+        CompactTreeModel model = new CompactTreeModel(rootUnit.name());
+        ArrayDeque<OrgUnit> units = new ArrayDeque<>();
+        ArrayDeque<Integer> ids = new ArrayDeque<>();
+        units.add(rootUnit);
+        ids.add(model.root.id);
+        while (!units.isEmpty()) {
+            OrgUnit unit = units.poll();
+            int id = ids.poll();
+            if (unit.leaf()) {
+                continue;
+            }
+            List<OrgUnit> children = source.loadChildren(unit);
+            model.ensureCapacity(model.size + children.size());
+            for (OrgUnit child : children) {
+                int childId = model.appendNode(id, child.name());
+                if (!child.leaf()) {
+                    units.add(child);
+                    ids.add(childId);
+                }
+            }
+        }
+        return model;
+    }
+    
+    public Node getRootNode() {
+        return root;
+    }
+    
+    /**
+     * 存活的节点数，包括根节点
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+    
+    /**
+     * 已分配的节点编号上限（不含），编号在 [0, getIdLimit()) 之间，其中可能有已删除的
+     */
+    public int getIdLimit() {
+        return size;
+    }
+    
+    public boolean contains(int id) {
+        return id >= 0 && id < size && parents[id] != REMOVED;
+    }
+    
+    public Node getNode(int id) {
+        return id == root.id ? root : new Node(this, id);
+    }
+    
+    public int getParent(int id) {
+        return parents[id];
+    }
+    
+    public int getFirstChild(int id) {
+        return firstChildren[id];
+    }
+    
+    public int getNextSibling(int id) {
+        return nextSiblings[id];
+    }
+    
+    public int getChildCount(int id) {
+        return childCounts[id];
+    }
+    
+    public String getLabel(int id) {
+        return labelStore.decode(labels[id]);
+    }
+    
+    /**
+     * 节点名称在名称字典中的编码
+     */
+    public int getLabelCode(int id) {
+        return labels[id];
+    }
+    
+    public StringDictionary getLabelDictionary() {
+        return labelStore;
+    }
+    
+    /**
+     * 在 parent 的子节点末尾追加节点但不发出事件，用于装载数据；模型已交给 JTree 后应使用 insertNodeInto
+     */
+    public int appendNode(int parent, String label) {
+        return appendEncodedNode(parent, labelStore.encode(label));
+    }
+    
+    /**
+     * 与 appendNode 相同，但名称已经在名称字典中编码，批量装载时每个名称只需查一次字典
+     */
+    int appendEncodedNode(int parent, int labelCode) {
+        checkNode(parent);
+        int id = allocate(parent, labelCode);
+        if (lastChildren[parent] == NO_NODE) {
+            firstChildren[parent] = id;
+        } else {
+            nextSiblings[lastChildren[parent]] = id;
+        }
+        lastChildren[parent] = id;
+        childCounts[parent]++;
+        return id;
+    }
+    
+    /**
+     * 复制各节点的名称编码，供后台查询读取
+     */
+    int[] copyLabelCodes() {
+        return Arrays.copyOf(labels, size);
+    }
+    
+    /**
+     * 复制各节点的父节点编号，已删除的节点为 REMOVED，供后台查询读取
+     */
+    int[] copyParents() {
+        return Arrays.copyOf(parents, size);
+    }
+    
+    /**
+     * 复制当前的节点和名称，得到不带监听器的独立模型，用于在后台线程读取
+     */
+    public CompactTreeModel copy() {
+        return new CompactTreeModel(this);
+    }
+    
+    /**
+     * 在 parent 的第 index 个位置插入新节点并通知树
+     */
+    public Node insertNodeInto(String label, Node parent, int index) {
+        int parentId = parent.id;
+        checkNode(parentId);
+        if (index < 0 || index > childCounts[parentId]) {
+            throw new IndexOutOfBoundsException("子节点序号越界: " + index);
+        }
+        int id;
+        if (index == childCounts[parentId]) {
+            id = appendNode(parentId, label);
+        } else {
+            id = allocate(parentId, labelStore.encode(label));
+            if (index == 0) {
+                nextSiblings[id] = firstChildren[parentId];
+                firstChildren[parentId] = id;
+            } else {
+                int previous = childAt(parentId, index - 1);
+                nextSiblings[id] = nextSiblings[previous];
+                nextSiblings[previous] = id;
+            }
+            childCounts[parentId]++;
+        }
+        cursorParent = NO_NODE;
+        Node node = new Node(this, id);
+        fireTreeNodesInserted(getPath(parentId), new int[]{index}, new Object[]{node});
+        return node;
+    }
+    
+    /**
+     * 删除节点及其整棵子树并通知树，不能删除根节点
+     */
+    public void removeNodeFromParent(Node node) {
+        int id = node.id;
+        checkNode(id);
+        int parentId = parents[id];
+        if (parentId == NO_NODE) {
+            throw new IllegalArgumentException("不能删除根节点");
+        }
+        int index = 0;
+        int previous = NO_NODE;
+        for (int child = firstChildren[parentId]; child != id; child = nextSiblings[child]) {
+            previous = child;
+            index++;
+        }
+        if (previous == NO_NODE) {
+            firstChildren[parentId] = nextSiblings[id];
+        } else {
+            nextSiblings[previous] = nextSiblings[id];
+        }
+        if (lastChildren[parentId] == id) {
+            lastChildren[parentId] = previous;
+        }
+        childCounts[parentId]--;
+        cursorParent = NO_NODE;
+        TreePath parentPath = getPath(parentId);
+        // 事件发出前子树仍可读取，监听器可能需要子节点的名称
+        fireTreeNodesRemoved(parentPath, new int[]{index}, new Object[]{node});
+        markRemoved(id);
+    }
+    
+    /**
+     * 修改节点名称并通知树
+     */
+    public void setLabel(Node node, String label) {
+        checkNode(node.id);
+        labels[node.id] = labelStore.encode(label);
+        int parentId = parents[node.id];
+        if (parentId == NO_NODE) {
+            fireTreeNodesChanged(new TreePath(root), null, null);
+        } else {
+            fireTreeNodesChanged(getPath(parentId), new int[]{indexOf(parentId, node.id)}, new Object[]{node});
+        }
+    }
+    
+    public TreePath getPath(Node node) {
+        return getPath(node.id);
+    }
+    
+    public TreePath getPath(int id) {
+        int depth = getDepth(id);
+        Object[] path = new Object[depth + 1];
+        for (int node = id; node != NO_NODE; node = parents[node]) {
+            path[depth--] = getNode(node);
+        }
+        return new TreePath(path);
+    }
+    
+    /**
+     * 节点的层级，根节点为 0
+     */
+    public int getDepth(int id) {
+        int depth = 0;
+        for (int node = parents[id]; node != NO_NODE; node = parents[node]) {
+            depth++;
+        }
+        return depth;
+    }
+    
+    public void ensureCapacity(int capacity) {
+        if (capacity <= parents.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, parents.length + (parents.length >> 1));
+        parents = Arrays.copyOf(parents, newCapacity);
+        firstChildren = Arrays.copyOf(firstChildren, newCapacity);
+        lastChildren = Arrays.copyOf(lastChildren, newCapacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, newCapacity);
+        childCounts = Arrays.copyOf(childCounts, newCapacity);
+        labels = Arrays.copyOf(labels, newCapacity);
+    }
+    
+    private int allocate(int parent, int labelCode) {
+        ensureCapacity(size + 1);
+        int id = size++;
+        parents[id] = parent;
+        firstChildren[id] = NO_NODE;
+        lastChildren[id] = NO_NODE;
+        nextSiblings[id] = NO_NODE;
+        childCounts[id] = 0;
+        labels[id] = labelCode;
+        nodeCount++;
+        return id;
+    }
+    
+    private void markRemoved(int id) {
+        ArrayDeque<Integer> pending = new ArrayDeque<>();
+        pending.push(id);
+        while (!pending.isEmpty()) {
+            int node = pending.pop();
+            for (int child = firstChildren[node]; child != NO_NODE; child = nextSiblings[child]) {
+                pending.push(child);
+            }
+            parents[node] = REMOVED;
+            nodeCount--;
+        }
+    }
+    
+    private void checkNode(int id) {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("节点不存在: " + id);
+        }
+    }
+    
+    private int childAt(int parent, int index) {
+        int child;
+        int position;
+        if (parent == cursorParent && index >= cursorIndex) {
+            child = cursorNode;
+            position = cursorIndex;
+        } else if (index == childCounts[parent] - 1) {
+            child = lastChildren[parent];
+            position = index;
+        } else {
+            child = firstChildren[parent];
+            position = 0;
+        }
+        while (position < index) {
+            child = nextSiblings[child];
+            position++;
+        }
+        cursorParent = parent;
+        cursorIndex = index;
+        cursorNode = child;
+        return child;
+    }
+    
+    private int indexOf(int parent, int child) {
+        if (parent == cursorParent && child == cursorNode) {
+            return cursorIndex;
+        }
+        int index = 0;
+        for (int node = firstChildren[parent]; node != NO_NODE; node = nextSiblings[node]) {
+            if (node == child) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+    
+    @Override
+    public Object getRoot() {
+        return root;
+    }
+    
+    @Override
+    public Object getChild(Object parent, int index) {
+        int parentId = ((Node) parent).id;
+        if (index < 0 || index >= childCounts[parentId]) {
+            return null;
+        }
+        return new Node(this, childAt(parentId, index));
+    }
+    
+    @Override
+    public int getChildCount(Object parent) {
+        return parent instanceof Node node && node.model == this ? childCounts[node.id] : 0;
+    }
+    
+    @Override
+    public boolean isLeaf(Object node) {
+        return getChildCount(node) == 0;
+    }
+    
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+        setLabel((Node) path.getLastPathComponent(), String.valueOf(newValue));
+    }
+    
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (!(parent instanceof Node parentNode) || !(child instanceof Node childNode)
+            || parentNode.model != this || childNode.model != this
+            || !contains(childNode.id) || parents[childNode.id] != parentNode.id) {
+            return -1;
+        }
+        return indexOf(parentNode.id, childNode.id);
+    }
+    
+    @Override
+    public void addTreeModelListener(TreeModelListener listener) {
+        listeners.add(TreeModelListener.class, listener);
+    }
+    
+    @Override
+    public void removeTreeModelListener(TreeModelListener listener) {
+        listeners.remove(TreeModelListener.class, listener);
+    }
+    
+    private void fireTreeNodesChanged(TreePath path, int[] indices, Object[] children) {
+        TreeModelEvent event = new TreeModelEvent(this, path, indices, children);
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesChanged(event);
+        }
+    }
+    
+    private void fireTreeNodesInserted(TreePath path, int[] indices, Object[] children) {
+        TreeModelEvent event = new TreeModelEvent(this, path, indices, children);
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesInserted(event);
+        }
+    }
+    
+    private void fireTreeNodesRemoved(TreePath path, int[] indices, Object[] children) {
+        TreeModelEvent event = new TreeModelEvent(this, path, indices, children);
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesRemoved(event);
+        }
+    }
+    
+    /**
+     * 节点句柄，按编号比较相等，显示为节点名称
+     */
+    public static final class Node {
+        
+        private final CompactTreeModel model;
+        private final int id;
+        
+        private Node(CompactTreeModel model, int id) {
+            this.model = model;
+            this.id = id;
+        }
+        
+        public int getId() {
+            return id;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Node node && node.id == id && node.model == model;
+        }
+        
+        @Override
+        public int hashCode() {
+            return id;
+        }
+        
+        @Override
+        public String toString() {
+            // 删除后名称仍然保留，移除事件的监听器可以读取
+            return model.getLabel(id);
+        }
+    }
+}
@@ -0,0 +1,609 @@
+package com.example.swing.tree;
+
+import com.example.swing.table.AbstractEmployeeTableModel;
+import com.example.swing.table.RowsRemovedEvent;
+
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 按部门分组显示员工表格模型的树模型
+ * 员工数据只保存在表格模型中，这里只维护部门索引：每个部门的成员行号（升序）、
+ * 每行所在的部门和在部门中的位置。表格事件到达时换算成针对性的树事件，
+ * 修改一名员工的部门只移动树中的一个节点，不需要重建整棵树。
+ * 部门按字典编码排列，没有成员的部门不显示
+ */
+public class EmployeeTreeModel implements TreeModel, TableModelListener {
+    
+    private final AbstractEmployeeTableModel employees;
+    private final EventListenerList listeners = new EventListenerList();
+    private final String root;
+    
+    // 按部门编码的成员行号，只有前 memberCounts[code] 个有效
+    private int[][] members = new int[0][];
+    private int[] memberCounts = new int[0];
+    private int departmentCount;
+    // 按行的部门编码和在部门中的位置
+    private int rowCount;
+    private int[] rowIds = new int[0];
+    private int[] rowDepartments = new int[0];
+    private int[] positions = new int[0];
+    
+    public EmployeeTreeModel(AbstractEmployeeTableModel employees, String rootLabel) {
+        this.employees = employees;
+        this.root = rootLabel;
+        rebuild();
+        employees.addTableModelListener(this);
+    }
+    
+    public void dispose() {
+        employees.removeTableModelListener(this);
+    }
+    
+    public AbstractEmployeeTableModel getEmployees() {
+        return employees;
+    }
+    
+    /**
+     * 部门编码对应的节点，部门没有成员时返回 null
+     */
+    public Department getDepartmentNode(int code) {
+        return code < memberCounts.length && memberCounts[code] > 0 ? new Department(this, code) : null;
+    }
+    
+    /**
+     * 按当前分组复制成数组树模型：根、各部门、部门下的员工姓名，用于保存为组织架构文件。在 EDT 上调用
+     */
+    public CompactTreeModel toCompactModel() {
+        CompactTreeModel copy = new CompactTreeModel(root, rowCount + departmentCount + 1);
+        int rootId = copy.getRootNode().getId();
+        for (int code = 0; code < memberCounts.length; code++) {
+            int count = memberCounts[code];
+            if (count == 0) {
+                continue;
+            }
+            int department = copy.appendNode(rootId, employees.getDepartmentDictionary().decode(code));
+            for (int i = 0; i < count; i++) {
+                copy.appendNode(department, employees.getName(members[code][i]));
+            }
+        }
+        return copy;
+    }
+    
+    /**
+     * 员工所在行的节点路径
+     */
+    public TreePath getPath(int row) {
+        return new TreePath(new Object[]{root, new Department(this, rowDepartments[row]), employeeAt(row)});
+    }
+    
+    private void rebuild() {
+        rowCount = employees.getRowCount();
+        rowIds = new int[rowCount];
+        rowDepartments = new int[rowCount];
+        positions = new int[rowCount];
+        int dictionarySize = employees.getDepartmentDictionary().size();
+        memberCounts = new int[dictionarySize];
+        for (int row = 0; row < rowCount; row++) {
+            int code = employees.getDepartmentCode(row);
+            rowIds[row] = employees.getId(row);
+            rowDepartments[row] = code;
+            positions[row] = memberCounts[code]++;
+        }
+        members = new int[dictionarySize][];
+        departmentCount = 0;
+        for (int code = 0; code < dictionarySize; code++) {
+            members[code] = new int[Math.max(memberCounts[code], 4)];
+            if (memberCounts[code] > 0) {
+                departmentCount++;
+            }
+        }
+        for (int row = 0; row < rowCount; row++) {
+            members[rowDepartments[row]][positions[row]] = row;
+        }
+    }
+    
+    private void ensureDepartments(int size) {
+        if (size <= members.length) {
+            return;
+        }
+        int oldSize = members.length;
+        members = Arrays.copyOf(members, size);
+        memberCounts = Arrays.copyOf(memberCounts, size);
+        for (int code = oldSize; code < size; code++) {
+            members[code] = new int[4];
+        }
+    }
+    
+    private void ensureRows(int capacity) {
+        if (capacity <= rowDepartments.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, rowDepartments.length + (rowDepartments.length >> 1));
+        rowIds = Arrays.copyOf(rowIds, newCapacity);
+        rowDepartments = Arrays.copyOf(rowDepartments, newCapacity);
+        positions = Arrays.copyOf(positions, newCapacity);
+    }
+    
+    /**
+     * 部门在根节点子节点中的序号，即编码更小的非空部门个数
+     */
+    private int departmentIndex(int code) {
+        int index = 0;
+        for (int other = 0; other < code; other++) {
+            if (memberCounts[other] > 0) {
+                index++;
+            }
+        }
+        return index;
+    }
+    
+    private int departmentAt(int index) {
+        for (int code = 0; code < memberCounts.length; code++) {
+            if (memberCounts[code] > 0 && index-- == 0) {
+                return code;
+            }
+        }
+        return -1;
+    }
+    
+    private Employee employeeAt(int row) {
+        return new Employee(this, rowIds[row], row, employees.getName(row));
+    }
+    
+    /**
+     * 把行插入部门中按行号排序的位置，返回位置
+     */
+    private int addMember(int code, int row) {
+        int count = memberCounts[code];
+        int[] rows = members[code];
+        int position = count;
+        if (count > 0 && rows[count - 1] > row) {
+            position = Arrays.binarySearch(rows, 0, count, row);
+            position = position < 0 ? -position - 1 : position;
+        }
+        if (count == rows.length) {
+            rows = Arrays.copyOf(rows, count + (count >> 1));
+            members[code] = rows;
+        }
+        System.arraycopy(rows, position, rows, position + 1, count - position);
+        rows[position] = row;
+        memberCounts[code] = count + 1;
+        for (int i = position; i <= count; i++) {
+            positions[rows[i]] = i;
+        }
+        rowDepartments[row] = code;
+        if (count == 0) {
+            departmentCount++;
+        }
+        return position;
+    }
+    
+    private void removeMember(int code, int position) {
+        int[] rows = members[code];
+        int count = --memberCounts[code];
+        System.arraycopy(rows, position + 1, rows, position, count - position);
+        for (int i = position; i < count; i++) {
+            positions[rows[i]] = i;
+        }
+        if (count == 0) {
+            departmentCount--;
+        }
+    }
+    
+    /**
+     * 按员工 ID 找到当前的行号；句柄中记录的行号在删除行后可能失效，此时按 ID 查找
+     */
+    private int rowOf(Employee employee) {
+        int row = employee.row;
+        if (row >= 0 && row < rowCount && rowIds[row] == employee.id) {
+            return row;
+        }
+        for (row = 0; row < rowCount; row++) {
+            if (rowIds[row] == employee.id) {
+                employee.row = row;
+                return row;
+            }
+        }
+        return -1;
+    }
+    
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        if (e instanceof RowsRemovedEvent removed) {
+            rowsRemoved(removed);
+            return;
+        }
+        int first = e.getFirstRow();
+        int last = e.getLastRow();
+        if (first == TableModelEvent.HEADER_ROW || last == Integer.MAX_VALUE) {
+            rebuild();
+            fireTreeStructureChanged(new TreePath(root));
+            return;
+        }
+        switch (e.getType()) {
+            case TableModelEvent.INSERT -> rowsInserted(first, last);
+            case TableModelEvent.DELETE -> {
+                BitSet rows = new BitSet(rowCount);
+                rows.set(first, last + 1);
+                rowsRemoved(new RowsRemovedEvent(employees, rows, rowCount));
+            }
+            default -> {
+                int column = e.getColumn();
+                boolean department = column == TableModelEvent.ALL_COLUMNS
+                    || column == AbstractEmployeeTableModel.COLUMN_DEPARTMENT;
+                boolean name = column == TableModelEvent.ALL_COLUMNS
+                    || column == AbstractEmployeeTableModel.COLUMN_NAME;
+                if (!department && !name) {
+                    // 薪资、在职状态等与树无关
+                    return;
+                }
+                for (int row = first; row <= last && row < rowCount; row++) {
+                    if (department && employees.getDepartmentCode(row) != rowDepartments[row]) {
+                        moveRow(row);
+                    } else if (name) {
+                        int code = rowDepartments[row];
+                        fireTreeNodesChanged(new TreePath(new Object[]{root, new Department(this, code)}),
+                            new int[]{positions[row]}, new Object[]{employeeAt(row)});
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * 员工换了部门：从原部门移除一个节点，再插入到新部门；部门因此变空或新出现时增删部门节点
+     */
+    private void moveRow(int row) {
+        int oldCode = rowDepartments[row];
+        int newCode = employees.getDepartmentCode(row);
+        ensureDepartments(newCode + 1);
+        Employee node = employeeAt(row);
+        
+        int oldPosition = positions[row];
+        int oldIndex = departmentIndex(oldCode);
+        removeMember(oldCode, oldPosition);
+        if (memberCounts[oldCode] == 0) {
+            fireTreeNodesRemoved(new TreePath(root), new int[]{oldIndex}, new Object[]{new Department(this, oldCode)});
+        } else {
+            fireTreeNodesRemoved(new TreePath(new Object[]{root, new Department(this, oldCode)}),
+                new int[]{oldPosition}, new Object[]{node});
+        }
+        
+        int newPosition = addMember(newCode, row);
+        if (memberCounts[newCode] == 1) {
+            fireTreeNodesInserted(new TreePath(root), new int[]{departmentIndex(newCode)},
+                new Object[]{new Department(this, newCode)});
+        } else {
+            fireTreeNodesInserted(new TreePath(new Object[]{root, new Department(this, newCode)}),
+                new int[]{newPosition}, new Object[]{node});
+        }
+    }
+    
+    private void rowsInserted(int first, int last) {
+        int count = last - first + 1;
+        ensureRows(rowCount + count);
+        ensureDepartments(employees.getDepartmentDictionary().size());
+        if (first < rowCount) {
+            // 插在中间时后面的行号整体后移
+            System.arraycopy(rowIds, first, rowIds, first + count, rowCount - first);
+            System.arraycopy(rowDepartments, first, rowDepartments, first + count, rowCount - first);
+            System.arraycopy(positions, first, positions, first + count, rowCount - first);
+            for (int code = 0; code < members.length; code++) {
+                int[] rows = members[code];
+                for (int i = 0; i < memberCounts[code]; i++) {
+                    if (rows[i] >= first) {
+                        rows[i] += count;
+                    }
+                }
+            }
+        }
+        rowCount += count;
+        
+        int[] oldCounts = memberCounts.clone();
+        BitSet touched = new BitSet(members.length);
+        for (int row = first; row <= last; row++) {
+            int code = employees.getDepartmentCode(row);
+            rowIds[row] = employees.getId(row);
+            addMember(code, row);
+            touched.set(code);
+        }
+        
+        // 新出现的部门先作为一个整体插入根节点，已有部门再按最终位置插入员工节点
+        List<Integer> newDepartments = new ArrayList<>();
+        for (int code = touched.nextSetBit(0); code >= 0; code = touched.nextSetBit(code + 1)) {
+            if (oldCounts[code] == 0) {
+                newDepartments.add(code);
+            }
+        }
+        if (!newDepartments.isEmpty()) {
+            int[] indices = new int[newDepartments.size()];
+            Object[] children = new Object[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                int code = newDepartments.get(i);
+                indices[i] = departmentIndex(code);
+                children[i] = new Department(this, code);
+            }
+            fireTreeNodesInserted(new TreePath(root), indices, children);
+        }
+        for (int code = touched.nextSetBit(0); code >= 0; code = touched.nextSetBit(code + 1)) {
+            if (oldCounts[code] == 0) {
+                continue;
+            }
+            int added = memberCounts[code] - oldCounts[code];
+            int[] indices = new int[added];
+            Object[] children = new Object[added];
+            int n = 0;
+            int[] rows = members[code];
+            for (int i = 0; i < memberCounts[code] && n < added; i++) {
+                if (rows[i] >= first && rows[i] <= last) {
+                    indices[n] = i;
+                    children[n++] = employeeAt(rows[i]);
+                }
+            }
+            fireTreeNodesInserted(new TreePath(new Object[]{root, new Department(this, code)}), indices, children);
+        }
+    }
+    
+    /**
+     * 删除行：先移除变空的部门，再按部门移除员工节点；其余行的行号整体前移，部门中的顺序不变
+     */
+    private void rowsRemoved(RowsRemovedEvent removed) {
+        BitSet removedRows = removed.getRemovedRows();
+        int oldRowCount = removed.getOldRowCount();
+        int departments = members.length;
+        // 事件中的序号都是删除前的序号，表格模型中被删除的行已不可读，节点用保存的 ID 创建
+        int[] oldIndexes = new int[departments];
+        int index = 0;
+        for (int code = 0; code < departments; code++) {
+            oldIndexes[code] = memberCounts[code] > 0 ? index++ : -1;
+        }
+        BitSet[] removedPositions = new BitSet[departments];
+        for (int row = removedRows.nextSetBit(0); row >= 0 && row < oldRowCount; row = removedRows.nextSetBit(row + 1)) {
+            int code = rowDepartments[row];
+            if (removedPositions[code] == null) {
+                removedPositions[code] = new BitSet();
+            }
+            removedPositions[code].set(positions[row]);
+        }
+        Object[][] removedChildren = new Object[departments][];
+        for (int code = 0; code < departments; code++) {
+            BitSet removedAt = removedPositions[code];
+            if (removedAt == null || removedAt.cardinality() == memberCounts[code]) {
+                continue;
+            }
+            Object[] children = new Object[removedAt.cardinality()];
+            int n = 0;
+            for (int i = removedAt.nextSetBit(0); i >= 0; i = removedAt.nextSetBit(i + 1)) {
+                int row = members[code][i];
+                children[n++] = new Employee(this, rowIds[row], -1, "");
+            }
+            removedChildren[code] = children;
+        }
+        
+        // 压缩按行的数组，成员行号换算为删除后的行号
+        removed.compact(rowIds);
+        removed.compact(rowDepartments);
+        removed.compact(positions);
+        rowCount = removed.getNewRowCount();
+        List<Integer> emptied = new ArrayList<>();
+        for (int code = 0; code < departments; code++) {
+            int[] rows = members[code];
+            int count = memberCounts[code];
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                int row = removed.convertRowIndex(rows[i]);
+                if (row >= 0) {
+                    rows[size] = row;
+                    positions[row] = size++;
+                }
+            }
+            memberCounts[code] = size;
+            if (size == 0 && count > 0) {
+                departmentCount--;
+                emptied.add(code);
+            }
+        }
+        
+        if (!emptied.isEmpty()) {
+            int[] indices = new int[emptied.size()];
+            Object[] children = new Object[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                int code = emptied.get(i);
+                indices[i] = oldIndexes[code];
+                children[i] = new Department(this, code);
+            }
+            fireTreeNodesRemoved(new TreePath(root), indices, children);
+        }
+        for (int code = 0; code < departments; code++) {
+            if (removedChildren[code] == null) {
+                continue;
+            }
+            BitSet removedAt = removedPositions[code];
+            fireTreeNodesRemoved(new TreePath(new Object[]{root, new Department(this, code)}),
+                removedAt.stream().toArray(), removedChildren[code]);
+        }
+    }
+    
+    @Override
+    public Object getRoot() {
+        return root;
+    }
+    
+    @Override
+    public Object getChild(Object parent, int index) {
+        if (parent == root) {
+            int code = departmentAt(index);
+            return code < 0 ? null : new Department(this, code);
+        }
+        if (parent instanceof Department department && department.model == this) {
+            int code = department.code;
+            return index >= 0 && index < memberCounts[code] ? employeeAt(members[code][index]) : null;
+        }
+        return null;
+    }
+    
+    @Override
+    public int getChildCount(Object parent) {
+        if (parent == root) {
+            return departmentCount;
+        }
+        if (parent instanceof Department department && department.model == this) {
+            return memberCounts[department.code];
+        }
+        return 0;
+    }
+    
+    @Override
+    public boolean isLeaf(Object node) {
+        return node instanceof Employee;
+    }
+    
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+        if (path.getLastPathComponent() instanceof Employee employee && employee.model == this) {
+            int row = rowOf(employee);
+            if (row >= 0) {
+                employees.setValueAt(String.valueOf(newValue), row, AbstractEmployeeTableModel.COLUMN_NAME);
+            }
+        }
+    }
+    
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (parent == root && child instanceof Department department && department.model == this) {
+            return memberCounts[department.code] > 0 ? departmentIndex(department.code) : -1;
+        }
+        if (parent instanceof Department department && department.model == this
+            && child instanceof Employee employee && employee.model == this) {
+            int row = rowOf(employee);
+            return row >= 0 && rowDepartments[row] == department.code ? positions[row] : -1;
+        }
+        return -1;
+    }
+    
+    @Override
+    public void addTreeModelListener(TreeModelListener listener) {
+        listeners.add(TreeModelListener.class, listener);
+    }
+    
+    @Override
+    public void removeTreeModelListener(TreeModelListener listener) {
+        listeners.remove(TreeModelListener.class, listener);
+    }
+    
+    private void fireTreeNodesChanged(TreePath path, int[] indices, Object[] children) {
+        TreeModelEvent event = new TreeModelEvent(this, path, indices, children);
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesChanged(event);
+        }
+    }
+    
+    private void fireTreeNodesInserted(TreePath path, int[] indices, Object[] children) {
+        TreeModelEvent event = new TreeModelEvent(this, path, indices, children);
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesInserted(event);
+        }
+    }
+    
+    private void fireTreeNodesRemoved(TreePath path, int[] indices, Object[] children) {
+        TreeModelEvent event = new TreeModelEvent(this, path, indices, children);
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesRemoved(event);
+        }
+    }
+    
+    private void fireTreeStructureChanged(TreePath path) {
+        TreeModelEvent event = new TreeModelEvent(this, path);
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeStructureChanged(event);
+        }
+    }
+    
+    /**
+     * 部门节点，按部门编码比较相等
+     */
+    public static final class Department {
+        
+        private final EmployeeTreeModel model;
+        private final int code;
+        
+        private Department(EmployeeTreeModel model, int code) {
+            this.model = model;
+            this.code = code;
+        }
+        
+        public int getCode() {
+            return code;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Department department && department.code == code && department.model == model;
+        }
+        
+        @Override
+        public int hashCode() {
+            return code;
+        }
+        
+        @Override
+        public String toString() {
+            return model.employees.getDepartmentDictionary().decode(code);
+        }
+    }
+    
+    /**
+     * 员工节点，按员工 ID 比较相等；显示的姓名在创建时取得，改名时树会重新取得节点
+     */
+    public static final class Employee {
+        
+        private final EmployeeTreeModel model;
+        private final int id;
+        private final String name;
+        // 创建时的行号，删除行后由 rowOf 按 ID 更正
+        private int row;
+        
+        private Employee(EmployeeTreeModel model, int id, int row, String name) {
+            this.model = model;
+            this.id = id;
+            this.row = row;
+            this.name = name;
+        }
+        
+        public int getId() {
+            return id;
+        }
+        
+        /**
+         * 员工在表格模型中的行号，员工已被删除时返回 -1
+         */
+        public int getRow() {
+            return model.rowOf(this);
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Employee employee && employee.id == id && employee.model == model;
+        }
+        
+        @Override
+        public int hashCode() {
+            return id;
+        }
+        
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.example.swing.tree;
+
+import com.example.swing.tree.OrgChartSource.OrgUnit;
+
+import javax.swing.*;
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.event.TreeWillExpandListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * 按需加载的组织架构树模型
+ * 节点第一次展开时才在后台线程向数据源查询下级，查询期间显示一个"加载中"子节点；
+ * 折叠超过一定时间、或已加载节点过多时，释放折叠子树的下级，再次展开时重新加载
+ */
+public class LazyOrgTreeModel implements TreeModel {
+    
+    // 折叠超过该时间的子树释放下级
+    private static final long EVICT_AFTER_MS = 60_000;
+    private static final int EVICT_CHECK_MS = 5_000;
+    // 已加载节点超过该数量时，从最早折叠的子树开始释放
+    private static final int MAX_LOADED_NODES = 200_000;
+    
+    private final OrgChartSource source;
+    private final LazyNode root;
+    private final EventListenerList listeners = new EventListenerList();
+    private final ExecutorService loader;
+    private final Timer evictTimer;
+    private final ExpansionHandler expansionHandler = new ExpansionHandler();
+    // 已加载下级且当前折叠的节点，按折叠时间排列
+    private final LinkedHashMap<LazyNode, Long> collapsed = new LinkedHashMap<>();
+    private int loadedCount;
+    private JTree tree;
+    private Consumer<String> errorHandler = message -> { };
+    private boolean disposed;
+    
+    public LazyOrgTreeModel(OrgChartSource source) {
+        this.source = source;
+        this.root = new LazyNode(null, 0, source.getRoot());
+        this.loader = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "tree-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictTimer = new Timer(EVICT_CHECK_MS, e -> evictCollapsed(System.currentTimeMillis()));
+    }
+    
+    /**
+     * 接管树的展开事件：展开时加载下级，折叠时登记等待释放
+     */
+    public void install(JTree tree) {
+        this.tree = tree;
+        tree.addTreeWillExpandListener(expansionHandler);
+        tree.addTreeExpansionListener(expansionHandler);
+        evictTimer.start();
+        if (tree.isExpanded(new TreePath(root))) {
+            ensureLoaded(root);
+        }
+    }
+    
+    public void uninstall() {
+        if (tree != null) {
+            tree.removeTreeWillExpandListener(expansionHandler);
+            tree.removeTreeExpansionListener(expansionHandler);
+            tree = null;
+        }
+        evictTimer.stop();
+    }
+    
+    /**
+     * 停止加载并释放后台线程，之后模型不再变化
+     */
+    public void dispose() {
+        uninstall();
+        disposed = true;
+        loader.shutdownNow();
+    }
+    
+    /**
+     * 加载失败时的提示
+     */
+    public void setErrorHandler(Consumer<String> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+    
+    /**
+     * 当前已加载的节点数
+     */
+    public int getLoadedCount() {
+        return loadedCount;
+    }
+    
+    /**
+     * 节点尚未加载时在后台查询下级，已在加载或已加载时什么也不做
+     */
+    public void ensureLoaded(LazyNode node) {
+        if (node.unit.leaf() || node.state != LoadState.UNLOADED || disposed) {
+            return;
+        }
+        node.state = LoadState.LOADING;
+        int generation = ++node.generation;
+        loader.execute(() -> {
+            List<OrgUnit> units;
+            try {
+                units = source.loadChildren(node.unit);
+            } catch (Exception ex) {
+                SwingUtilities.invokeLater(() -> loadFailed(node, generation, ex));
+                return;
+            }
+            SwingUtilities.invokeLater(() -> loaded(node, generation, units));
+        });
+    }
+    
+    private void loaded(LazyNode node, int generation, List<OrgUnit> units) {
+        if (disposed || node.generation != generation || node.state != LoadState.LOADING) {
+            return;
+        }
+        TreePath path = node.getPath();
+        // 先移除占位节点，再插入真实的下级
+        node.state = LoadState.LOADED;
+        node.children = new LazyNode[0];
+        fireTreeNodesRemoved(path, new int[]{0}, new Object[]{node.placeholder});
+        LazyNode[] children = new LazyNode[units.size()];
+        int[] indices = new int[children.length];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = new LazyNode(node, i, units.get(i));
+            indices[i] = i;
+        }
+        node.children = children;
+        loadedCount += children.length;
+        if (children.length > 0) {
+            fireTreeNodesInserted(path, indices, children);
+        }
+        if (tree != null && !tree.isExpanded(path)) {
+            // 加载期间已被折叠
+            collapsed.put(node, System.currentTimeMillis());
+        }
+        if (loadedCount > MAX_LOADED_NODES) {
+            evictCollapsed(System.currentTimeMillis());
+        }
+    }
+    
+    private void loadFailed(LazyNode node, int generation, Exception ex) {
+        if (disposed || node.generation != generation) {
+            return;
+        }
+        // 回到未加载状态，下次展开时重试
+        node.state = LoadState.UNLOADED;
+        fireTreeNodesChanged(node.getPath(), new int[]{0}, new Object[]{node.placeholder});
+        errorHandler.accept("加载 " + node + " 失败: " + ex.getMessage());
+    }
+    
+    /**
+     * 释放折叠过久的子树；已加载节点过多时，不论时间从最早折叠的开始释放
+     */
+    void evictCollapsed(long now) {
+        Iterator<Map.Entry<LazyNode, Long>> it = collapsed.entrySet().iterator();
+        List<LazyNode> victims = new ArrayList<>();
+        int remaining = loadedCount;
+        while (it.hasNext()) {
+            Map.Entry<LazyNode, Long> entry = it.next();
+            LazyNode node = entry.getKey();
+            if (now - entry.getValue() < EVICT_AFTER_MS && remaining <= MAX_LOADED_NODES) {
+                break;
+            }
+            if (node.state != LoadState.LOADED || node.isDetached()) {
+                it.remove();
+                continue;
+            }
+            if (isPinned(node)) {
+                continue;
+            }
+            it.remove();
+            victims.add(node);
+            remaining -= node.countLoaded();
+        }
+        for (LazyNode node : victims) {
+            // 祖先已被释放的节点不必再处理
+            if (!node.isDetached() && node.state == LoadState.LOADED) {
+                unload(node);
+            }
+        }
+    }
+    
+    /**
+     * 展开的节点以及选中节点的祖先不能释放
+     */
+    private boolean isPinned(LazyNode node) {
+        if (tree == null) {
+            return false;
+        }
+        TreePath path = node.getPath();
+        if (tree.isExpanded(path)) {
+            return true;
+        }
+        TreePath[] selection = tree.getSelectionPaths();
+        if (selection != null) {
+            for (TreePath selected : selection) {
+                if (path.isDescendant(selected) && !path.equals(selected)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private void unload(LazyNode node) {
+        loadedCount -= node.countLoaded();
+        node.detachChildren();
+        node.children = null;
+        node.state = LoadState.UNLOADED;
+        node.generation++;
+        fireTreeStructureChanged(node.getPath());
+    }
+    
+    @Override
+    public Object getRoot() {
+        return root;
+    }
+    
+    @Override
+    public Object getChild(Object parent, int index) {
+        LazyNode node = (LazyNode) parent;
+        return node.state == LoadState.LOADED ? node.children[index] : node.placeholder;
+    }
+    
+    @Override
+    public int getChildCount(Object parent) {
+        if (!(parent instanceof LazyNode node) || node.unit.leaf()) {
+            return 0;
+        }
+        // 未加载时显示一个占位节点，使节点可以展开
+        return node.state == LoadState.LOADED ? node.children.length : 1;
+    }
+    
+    @Override
+    public boolean isLeaf(Object node) {
+        return !(node instanceof LazyNode lazy) || lazy.unit.leaf();
+    }
+    
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+        // 只读
+    }
+    
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (!(parent instanceof LazyNode node)) {
+            return -1;
+        }
+        if (child instanceof LazyNode lazy) {
+            return lazy.parent == node && node.state == LoadState.LOADED ? lazy.index : -1;
+        }
+        return child == node.placeholder && node.state != LoadState.LOADED ? 0 : -1;
+    }
+    
+    @Override
+    public void addTreeModelListener(TreeModelListener listener) {
+        listeners.add(TreeModelListener.class, listener);
+    }
+    
+    @Override
+    public void removeTreeModelListener(TreeModelListener listener) {
+        listeners.remove(TreeModelListener.class, listener);
+    }
+    
+    private void fireTreeNodesChanged(TreePath path, int[] indices, Object[] children) {
+        TreeModelEvent event = new TreeModelEvent(this, path, indices, children);
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesChanged(event);
+        }
+    }
+    
+    private void fireTreeNodesInserted(TreePath path, int[] indices, Object[] children) {
+        TreeModelEvent event = new TreeModelEvent(this, path, indices, children);
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesInserted(event);
+        }
+    }
+    
+    private void fireTreeNodesRemoved(TreePath path, int[] indices, Object[] children) {
+        TreeModelEvent event = new TreeModelEvent(this, path, indices, children);
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesRemoved(event);
+        }
+    }
+    
+    private void fireTreeStructureChanged(TreePath path) {
+        TreeModelEvent event = new TreeModelEvent(this, path);
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeStructureChanged(event);
+        }
+    }
+    
+    private enum LoadState { UNLOADED, LOADING, LOADED }
+    
+    /**
+     * 树节点，显示为组织单位的名称
+     */
+    public static final class LazyNode {
+        
+        private final LazyNode parent;
+        private final int index;
+        private final OrgUnit unit;
+        private final Placeholder placeholder = new Placeholder();
+        private LazyNode[] children;
+        private LoadState state = LoadState.UNLOADED;
+        // 每次开始加载或释放时递增，丢弃过期的加载结果
+        private int generation;
+        private boolean detached;
+        
+        private LazyNode(LazyNode parent, int index, OrgUnit unit) {
+            this.parent = parent;
+            this.index = index;
+            this.unit = unit;
+        }
+        
+        public OrgUnit getUnit() {
+            return unit;
+        }
+        
+        public LazyNode getParent() {
+            return parent;
+        }
+        
+        public boolean isLoaded() {
+            return state == LoadState.LOADED;
+        }
+        
+        TreePath getPath() {
+            int depth = 0;
+            for (LazyNode node = this; node != null; node = node.parent) {
+                depth++;
+            }
+            Object[] path = new Object[depth];
+            for (LazyNode node = this; node != null; node = node.parent) {
+                path[--depth] = node;
+            }
+            return new TreePath(path);
+        }
+        
+        /**
+         * 所在子树已被释放
+         */
+        boolean isDetached() {
+            return detached;
+        }
+        
+        /**
+         * 本节点下已加载的节点数，不含本节点
+         */
+        int countLoaded() {
+            if (state != LoadState.LOADED) {
+                return 0;
+            }
+            int count = children.length;
+            for (LazyNode child : children) {
+                count += child.countLoaded();
+            }
+            return count;
+        }
+        
+        private void detachChildren() {
+            if (children == null) {
+                return;
+            }
+            for (LazyNode child : children) {
+                child.detachChildren();
+                child.detached = true;
+            }
+        }
+        
+        @Override
+        public String toString() {
+            return unit.name();
+        }
+    }
+    
+    /**
+     * 下级加载完成前显示的占位节点
+     */
+    private static final class Placeholder {
+        
+        @Override
+        public String toString() {
+            return "加载中...";
+        }
+    }
+    
+    private class ExpansionHandler implements TreeWillExpandListener, TreeExpansionListener {
+        
+        @Override
+        public void treeWillExpand(TreeExpansionEvent event) {
+            if (event.getPath().getLastPathComponent() instanceof LazyNode node) {
+                ensureLoaded(node);
+            }
+        }
+        
+        @Override
+        public void treeWillCollapse(TreeExpansionEvent event) {
+        }
+        
+        @Override
+        public void treeExpanded(TreeExpansionEvent event) {
+            collapsed.remove(event.getPath().getLastPathComponent());
+        }
+        
+        @Override
+        public void treeCollapsed(TreeExpansionEvent event) {
+            // 根节点不释放：根的结构变化会让 JTree 直接把它标记为展开
+            if (event.getPath().getLastPathComponent() instanceof LazyNode node && node.isLoaded() && node != root) {
+                collapsed.remove(node);
+                collapsed.put(node, System.currentTimeMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.swing.tree;
+
+import javax.swing.*;
+import javax.swing.tree.DefaultTreeCellRenderer;
+import java.awt.*;
+import java.util.BitSet;
+
+/**
+ * 高亮搜索命中节点的渲染器
+ * 命中集合是节点编号的位集，每个单元格只需一次位查询；员工分组的命中按员工 ID 记录
+ */
+public class MatchHighlightRenderer extends DefaultTreeCellRenderer {
+    
+    private static final Color HIGHLIGHT = new Color(255, 236, 140);
+    
+    private BitSet matches;
+    private BitSet employeeMatches;
+    private Color normalBackground;
+    
+    /**
+     * 设置命中的节点编号，null 表示不高亮
+     */
+    public void setMatches(BitSet matches) {
+        this.matches = matches;
+    }
+    
+    /**
+     * 设置员工分组中命中的员工 ID，null 表示不高亮
+     */
+    public void setEmployeeMatches(BitSet ids) {
+        this.employeeMatches = ids;
+    }
+    
+    @Override
+    public Component getTreeCellRendererComponent(JTree tree, Object value, boolean selected, boolean expanded,
+                                                  boolean leaf, int row, boolean hasFocus) {
+        if (normalBackground == null) {
+            normalBackground = getBackgroundNonSelectionColor();
+        }
+        boolean match = matches != null && value instanceof CompactTreeModel.Node node && matches.get(node.getId())
+            || employeeMatches != null && value instanceof EmployeeTreeModel.Employee employee
+            && employee.getId() >= 0 && employeeMatches.get(employee.getId());
+        setBackgroundNonSelectionColor(match ? HIGHLIGHT : normalBackground);
+        super.getTreeCellRendererComponent(tree, value, selected, expanded, leaf, row, hasFocus);
+        if (match && !selected) {
+            // 高亮背景上始终使用深色文字
+            setForeground(Color.BLACK);
+        }
+        return this;
+    }
+    
+    @Override
+    public void updateUI() {
+        // 先恢复外观提供的背景色，外观切换时才会被替换
+        if (normalBackground != null) {
+            setBackgroundNonSelectionColor(normalBackground);
+            normalBackground = null;
+        }
+        super.updateUI();
+    }
+}
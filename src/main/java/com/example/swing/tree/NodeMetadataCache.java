@@ -0,0 +1,195 @@
+package com.example.swing.tree;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 数组模型的节点统计缓存：层级、子树节点数、子树叶节点数，以及显示用的路径字符串
+ * 节点编号总是大于父节点编号，建立时正序一遍求层级、逆序一遍累加子树统计；
+ * 之后根据 TreeModelEvent 只更新变化节点到根的一条链。
+ * 路径字符串由父节点的路径拼接，只缓存最近用到的一部分
+ */
+public class NodeMetadataCache implements TreeModelListener {
+    
+    private static final int MAX_CACHED_PATHS = 4096;
+    private static final String PATH_SEPARATOR = " > ";
+    
+    private final CompactTreeModel model;
+    private int[] depths = new int[0];
+    private int[] subtreeSizes = new int[0];
+    private int[] leafCounts = new int[0];
+    private final Map<Integer, String> paths = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+            return size() > MAX_CACHED_PATHS;
+        }
+    };
+    
+    public NodeMetadataCache(CompactTreeModel model) {
+        this.model = model;
+        rebuild();
+        model.addTreeModelListener(this);
+    }
+    
+    public void dispose() {
+        model.removeTreeModelListener(this);
+    }
+    
+    public CompactTreeModel getModel() {
+        return model;
+    }
+    
+    /**
+     * 节点层级，根节点为 0
+     */
+    public int getDepth(int id) {
+        return depths[id];
+    }
+    
+    /**
+     * 子树中的节点数，包括节点自身
+     */
+    public int getSubtreeSize(int id) {
+        return subtreeSizes[id];
+    }
+    
+    /**
+     * 子树中的叶节点数，叶节点自身计为 1
+     */
+    public int getLeafCount(int id) {
+        return leafCounts[id];
+    }
+    
+    /**
+     * 从根节点开始、以 " > " 连接的路径
+     */
+    public String getPathString(int id) {
+        String path = paths.get(id);
+        if (path == null) {
+            int parent = model.getParent(id);
+            String label = model.getLabel(id);
+            path = parent < 0 ? label : getPathString(parent) + PATH_SEPARATOR + label;
+            paths.put(id, path);
+        }
+        return path;
+    }
+    
+    private void rebuild() {
+        int limit = model.getIdLimit();
+        depths = new int[limit];
+        subtreeSizes = new int[limit];
+        leafCounts = new int[limit];
+        paths.clear();
+        for (int id = 0; id < limit; id++) {
+            int parent = model.getParent(id);
+            if (parent >= 0 && model.contains(id)) {
+                depths[id] = depths[parent] + 1;
+            }
+        }
+        for (int id = limit - 1; id >= 0; id--) {
+            if (!model.contains(id)) {
+                continue;
+            }
+            subtreeSizes[id]++;
+            if (model.getChildCount(id) == 0) {
+                leafCounts[id]++;
+            }
+            int parent = model.getParent(id);
+            if (parent >= 0) {
+                subtreeSizes[parent] += subtreeSizes[id];
+                leafCounts[parent] += leafCounts[id];
+            }
+        }
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity <= depths.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, depths.length + (depths.length >> 1));
+        depths = Arrays.copyOf(depths, newCapacity);
+        subtreeSizes = Arrays.copyOf(subtreeSizes, newCapacity);
+        leafCounts = Arrays.copyOf(leafCounts, newCapacity);
+    }
+    
+    /**
+     * 计算新插入子树中各节点的统计
+     */
+    private void computeSubtree(int id, int depth) {
+        depths[id] = depth;
+        int size = 1;
+        int leaves = 0;
+        for (int child = model.getFirstChild(id); child != CompactTreeModel.NO_NODE; child = model.getNextSibling(child)) {
+            computeSubtree(child, depth + 1);
+            size += subtreeSizes[child];
+            leaves += leafCounts[child];
+        }
+        subtreeSizes[id] = size;
+        leafCounts[id] = leaves == 0 ? 1 : leaves;
+    }
+    
+    /**
+     * 从 id 开始向上累加到根节点
+     */
+    private void adjustAncestors(int id, int sizeDelta, int leafDelta) {
+        for (int node = id; node != CompactTreeModel.NO_NODE; node = model.getParent(node)) {
+            subtreeSizes[node] += sizeDelta;
+            leafCounts[node] += leafDelta;
+        }
+    }
+    
+    private static int parentId(TreeModelEvent e) {
+        return ((CompactTreeModel.Node) e.getTreePath().getLastPathComponent()).getId();
+    }
+    
+    @Override
+    public void treeNodesInserted(TreeModelEvent e) {
+        int parent = parentId(e);
+        ensureCapacity(model.getIdLimit());
+        int sizeDelta = 0;
+        int leafDelta = 0;
+        for (Object child : e.getChildren()) {
+            int id = ((CompactTreeModel.Node) child).getId();
+            computeSubtree(id, depths[parent] + 1);
+            sizeDelta += subtreeSizes[id];
+            leafDelta += leafCounts[id];
+        }
+        // 原来是叶节点的父节点不再计为叶节点
+        if (model.getChildCount(parent) == e.getChildren().length) {
+            leafDelta--;
+        }
+        adjustAncestors(parent, sizeDelta, leafDelta);
+    }
+    
+    @Override
+    public void treeNodesRemoved(TreeModelEvent e) {
+        int parent = parentId(e);
+        int sizeDelta = 0;
+        int leafDelta = 0;
+        for (Object child : e.getChildren()) {
+            int id = ((CompactTreeModel.Node) child).getId();
+            sizeDelta -= subtreeSizes[id];
+            leafDelta -= leafCounts[id];
+        }
+        // 失去全部子节点的父节点成为叶节点
+        if (model.getChildCount(parent) == 0) {
+            leafDelta++;
+        }
+        adjustAncestors(parent, sizeDelta, leafDelta);
+        // 被删除子树的路径不会再用到，留给 LRU 淘汰
+    }
+    
+    @Override
+    public void treeNodesChanged(TreeModelEvent e) {
+        // 改名会影响整棵子树的路径，改名很少，直接清空
+        paths.clear();
+    }
+    
+    @Override
+    public void treeStructureChanged(TreeModelEvent e) {
+        rebuild();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.swing.tree;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 组织架构数据源
+ * 按需返回某个单位的直接下级，可能很慢（远程查询、数据库等），只在后台线程中调用
+ */
+public interface OrgChartSource {
+    
+    OrgUnit getRoot();
+    
+    List<OrgUnit> loadChildren(OrgUnit parent) throws IOException;
+    
+    /**
+     * 组织单位或员工
+     *
+     * @param id   在数据源内唯一的标识
+     * @param name 显示名称
+     * @param leaf 是否没有下级（员工）
+     */
+    record OrgUnit(long id, String name, boolean leaf) {
+    }
+}
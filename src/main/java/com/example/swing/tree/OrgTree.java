@@ -0,0 +1,244 @@
+package com.example.swing.tree;
+
+import javax.swing.*;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
+import javax.swing.plaf.TreeUI;
+import javax.swing.tree.TreeCellRenderer;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 支持批量展开、折叠的树
+ * 逐行 expandRow 时，每展开一个节点 UI 都要遍历全部已展开路径并更新布局缓存，整体接近平方复杂度。
+ * 这里一次遍历模型得到要展开的路径，展开状态照常通知其他监听器，
+ * 只给 UI 发一次根节点的展开通知，并按先序交出全部路径，布局缓存一次建好。
+ * 使用固定行高的大模型布局缓存，展开、折叠只更新计数，不必逐行维护可见节点列表
+ */
+public class OrgTree extends JTree {
+    
+    // UI 注册的展开监听器，批量展开时单独通知；在父类构造期间赋值，不能有初始值
+    private Set<TreeExpansionListener> uiExpansionListeners;
+    // 行高由渲染器推算，外观变化时重新推算
+    private boolean autoRowHeight;
+    private boolean bulkExpanding;
+    // 批量展开后交给 UI 的路径，按先序排列
+    private TreePath bulkRoot;
+    private List<TreePath> bulkExpanded;
+    
+    public OrgTree(TreeModel model) {
+        super(model);
+        setLargeModel(true);
+    }
+    
+    @Override
+    public void updateUI() {
+        super.updateUI();
+        // 大模型只在固定行高时生效
+        if (autoRowHeight || getRowHeight() <= 0) {
+            autoRowHeight = true;
+            TreeCellRenderer renderer = getCellRenderer();
+            if (renderer != null) {
+                int leaf = renderer.getTreeCellRendererComponent(this, "中", false, false, true, 0, false)
+                    .getPreferredSize().height;
+                int branch = renderer.getTreeCellRendererComponent(this, "中", false, true, false, 0, false)
+                    .getPreferredSize().height;
+                super.setRowHeight(Math.max(leaf, branch));
+            }
+        }
+    }
+    
+    @Override
+    public void setRowHeight(int rowHeight) {
+        autoRowHeight = false;
+        super.setRowHeight(rowHeight);
+    }
+    
+    @Override
+    public void setUI(TreeUI ui) {
+        Set<TreeExpansionListener> before = identitySet(getTreeExpansionListeners());
+        super.setUI(ui);
+        Set<TreeExpansionListener> added = identitySet(getTreeExpansionListeners());
+        added.removeAll(before);
+        uiExpansionListeners = added;
+    }
+    
+    /**
+     * 展开全部已加载的节点，返回新展开的节点数
+     */
+    public int expandAll() {
+        TreeModel model = getModel();
+        if (model == null || model.getRoot() == null) {
+            return 0;
+        }
+        TreePath rootPath = new TreePath(model.getRoot());
+        List<TreePath> paths = new ArrayList<>();
+        int expanded = 0;
+        bulkExpanding = true;
+        try {
+            ArrayDeque<TreePath> stack = new ArrayDeque<>();
+            stack.push(rootPath);
+            while (!stack.isEmpty()) {
+                TreePath path = stack.pop();
+                Object node = path.getLastPathComponent();
+                if (!isExpanded(path)) {
+                    setExpandedState(path, true);
+                    if (!isExpanded(path)) {
+                        // 被 TreeWillExpandListener 否决
+                        continue;
+                    }
+                    expanded++;
+                }
+                paths.add(path);
+                // 逆序压栈，出栈顺序即先序
+                for (int i = model.getChildCount(node) - 1; i >= 0; i--) {
+                    Object child = model.getChild(node, i);
+                    if (!model.isLeaf(child)) {
+                        stack.push(path.pathByAddingChild(child));
+                    }
+                }
+            }
+        } finally {
+            bulkExpanding = false;
+        }
+        if (expanded > 0) {
+            notifyBulkExpansion(rootPath, paths);
+        }
+        return expanded;
+    }
+    
+    /**
+     * 展开各路径及其祖先，用于一次显示大量分散的节点，返回新展开的节点数
+     */
+    public int expandPaths(Collection<TreePath> paths) {
+        TreeModel model = getModel();
+        if (model == null || model.getRoot() == null || paths.isEmpty()) {
+            return 0;
+        }
+        TreePath rootPath = new TreePath(model.getRoot());
+        // 祖先总是排在后代之前
+        List<TreePath> expandedPaths = new ArrayList<>();
+        bulkExpanding = true;
+        try {
+            for (TreePath path : paths) {
+                int depth = path.getPathCount();
+                TreePath[] ancestors = new TreePath[depth];
+                for (TreePath p = path; p != null; p = p.getParentPath()) {
+                    ancestors[--depth] = p;
+                }
+                for (TreePath ancestor : ancestors) {
+                    if (isExpanded(ancestor)) {
+                        continue;
+                    }
+                    setExpandedState(ancestor, true);
+                    if (!isExpanded(ancestor)) {
+                        break;
+                    }
+                    expandedPaths.add(ancestor);
+                }
+            }
+        } finally {
+            bulkExpanding = false;
+        }
+        if (!expandedPaths.isEmpty()) {
+            notifyBulkExpansion(rootPath, expandedPaths);
+        }
+        return expandedPaths.size();
+    }
+    
+    /**
+     * 折叠根节点以外的全部节点，返回折叠的节点数
+     * 只遍历已展开的节点，按先序的逆序折叠：每次折叠时其后的节点都已折叠，布局缓存只需移动很少的行
+     */
+    public int collapseAll() {
+        TreeModel model = getModel();
+        if (model == null || model.getRoot() == null) {
+            return 0;
+        }
+        TreePath rootPath = new TreePath(model.getRoot());
+        if (!isExpanded(rootPath)) {
+            return 0;
+        }
+        List<TreePath> paths = new ArrayList<>();
+        ArrayDeque<TreePath> stack = new ArrayDeque<>();
+        stack.push(rootPath);
+        while (!stack.isEmpty()) {
+            TreePath path = stack.pop();
+            Object node = path.getLastPathComponent();
+            paths.add(path);
+            for (int i = model.getChildCount(node) - 1; i >= 0; i--) {
+                Object child = model.getChild(node, i);
+                if (!model.isLeaf(child)) {
+                    TreePath childPath = path.pathByAddingChild(child);
+                    if (isExpanded(childPath)) {
+                        stack.push(childPath);
+                    }
+                }
+            }
+        }
+        // 第 0 项是根节点，保持展开
+        for (int i = paths.size() - 1; i > 0; i--) {
+            collapsePath(paths.get(i));
+        }
+        return paths.size() - 1;
+    }
+    
+    /**
+     * 给 UI 发一次根节点的展开通知，UI 随后按 paths 的顺序更新布局缓存
+     */
+    private void notifyBulkExpansion(TreePath rootPath, List<TreePath> paths) {
+        bulkRoot = rootPath;
+        bulkExpanded = paths;
+        try {
+            TreeExpansionEvent event = new TreeExpansionEvent(this, rootPath);
+            for (TreeExpansionListener listener : uiExpansionListeners) {
+                listener.treeExpanded(event);
+            }
+        } finally {
+            bulkRoot = null;
+            bulkExpanded = null;
+        }
+    }
+    
+    /**
+     * 批量展开时 UI 最后统一处理，其余监听器照常逐个通知
+     */
+    @Override
+    public void fireTreeExpanded(TreePath path) {
+        if (!bulkExpanding) {
+            super.fireTreeExpanded(path);
+            return;
+        }
+        TreeExpansionEvent event = new TreeExpansionEvent(this, path);
+        TreeExpansionListener[] listeners = getTreeExpansionListeners();
+        // 与父类一致，按注册的逆序通知
+        for (int i = listeners.length - 1; i >= 0; i--) {
+            if (!uiExpansionListeners.contains(listeners[i])) {
+                listeners[i].treeExpanded(event);
+            }
+        }
+    }
+    
+    @Override
+    public Enumeration<TreePath> getExpandedDescendants(TreePath parent) {
+        if (bulkExpanded != null && bulkRoot.equals(parent)) {
+            return Collections.enumeration(bulkExpanded);
+        }
+        return super.getExpandedDescendants(parent);
+    }
+    
+    private static Set<TreeExpansionListener> identitySet(TreeExpansionListener[] listeners) {
+        Set<TreeExpansionListener> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(Arrays.asList(listeners));
+        return set;
+    }
+}
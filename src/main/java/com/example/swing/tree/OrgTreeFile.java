@@ -0,0 +1,320 @@
+package com.example.swing.tree;
+
+import com.example.swing.table.StringDictionary;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 组织架构的二进制快照文件（.org）
+ * 文件头之后是去重的名称表（变长整数长度 + UTF-8），然后按先序排列各节点：
+ * 名称编号和子节点数，都写成变长整数。大部分节点只占 2～4 字节，
+ * 读取时顺序扫描一遍，用一个栈记录各层剩余的子节点数即可还原父子关系
+ */
+public final class OrgTreeFile {
+    
+    public static final String EXTENSION = "org";
+    
+    static final int MAGIC = 0x4F524746; // "ORGF"
+    static final int VERSION = 1;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    
+    // 文件头：魔数、版本、节点数、名称数
+    static final int HEADER_SIZE = 16;
+    
+    private static final int BUFFER_SIZE = 256 * 1024;
+    // 一个 int 的变长编码最多 5 字节，一条节点记录最多 10 字节
+    private static final int MAX_RECORD_SIZE = 10;
+    // 一条节点记录至少 2 字节，一个名称至少 1 字节（长度为 0）
+    private static final int MIN_RECORD_SIZE = 2;
+    
+    private OrgTreeFile() {
+    }
+    
+    public static boolean isDataFile(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith("." + EXTENSION);
+    }
+    
+    /**
+     * 按先序写出整棵树，已删除的节点和只被它们使用的名称不写出；调用期间模型不能被修改。
+     * 与员工数据文件一样先写临时文件再原子替换，写入失败时原文件保持不变
+     */
+    public static void write(CompactTreeModel model, Path path) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString() + ".", ".tmp");
+        try {
+            writeTo(model, temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+    }
+    
+    private static void writeTo(CompactTreeModel model, Path path) throws IOException {
+        int rootId = model.getRootNode().getId();
+        
+        // 只为存活节点的名称重新编号
+        StringDictionary source = model.getLabelDictionary();
+        int[] remap = new int[source.size()];
+        Arrays.fill(remap, -1);
+        int[] used = new int[Math.min(source.size(), model.getNodeCount())];
+        int labelCount = 0;
+        int limit = model.getIdLimit();
+        for (int id = 0; id < limit; id++) {
+            if (model.contains(id)) {
+                int code = model.getLabelCode(id);
+                if (remap[code] < 0) {
+                    remap[code] = labelCount;
+                    used[labelCount++] = code;
+                }
+            }
+        }
+        
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Writer out = new Writer(channel, HEADER_SIZE);
+            for (int i = 0; i < labelCount; i++) {
+                byte[] bytes = source.decode(used[i]).getBytes(StandardCharsets.UTF_8);
+                out.putVarInt(bytes.length);
+                out.put(bytes);
+            }
+            
+            // 先序遍历：沿首个子节点向下，没有子节点时回到最近一个有下一个兄弟的祖先
+            int written = 0;
+            int node = rootId;
+            while (node != CompactTreeModel.NO_NODE) {
+                out.putVarInt(remap[model.getLabelCode(node)]);
+                out.putVarInt(model.getChildCount(node));
+                written++;
+                int next = model.getFirstChild(node);
+                while (next == CompactTreeModel.NO_NODE && node != rootId) {
+                    next = model.getNextSibling(node);
+                    node = model.getParent(node);
+                }
+                node = next;
+            }
+            out.flush();
+            
+            // 内容写完后再写文件头，写入中断的文件因魔数缺失不会被误读
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+            header.putInt(MAGIC).putInt(VERSION).putInt(written).putInt(labelCount);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+    
+    /**
+     * 顺序读取整个文件，重建数组模型
+     */
+    public static CompactTreeModel read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Reader in = new Reader(channel);
+            in.require(HEADER_SIZE);
+            ByteBuffer buffer = in.buffer;
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException("不是组织架构文件: " + path.getFileName());
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("不支持的文件版本: " + version);
+            }
+            int nodeCount = buffer.getInt();
+            int labelCount = buffer.getInt();
+            // 按每条记录的最小长度核对文件大小，损坏的文件头不会导致按它分配巨大的数组
+            if (nodeCount <= 0 || labelCount <= 0
+                || (long) nodeCount * MIN_RECORD_SIZE + labelCount > channel.size() - HEADER_SIZE) {
+                throw new IOException("文件已损坏: 节点数 " + nodeCount + "，名称数 " + labelCount);
+            }
+            
+            String[] names = new String[labelCount];
+            for (int i = 0; i < labelCount; i++) {
+                names[i] = in.getString();
+            }
+            
+            in.require(MAX_RECORD_SIZE);
+            String rootLabel = names[checkLabel(in.getVarInt(), labelCount)];
+            CompactTreeModel model = new CompactTreeModel(rootLabel, nodeCount);
+            // 名称表中的编号换成模型字典的编码，每个名称只查一次
+            StringDictionary dictionary = model.getLabelDictionary();
+            int[] codes = new int[labelCount];
+            for (int i = 0; i < labelCount; i++) {
+                codes[i] = dictionary.encode(names[i]);
+            }
+            
+            // 栈中是尚未读完子节点的祖先，以及它们还剩的子节点数
+            int[] stackNodes = new int[64];
+            int[] stackRemaining = new int[64];
+            int depth = 0;
+            int rootChildren = in.getVarInt();
+            if (rootChildren > 0) {
+                stackNodes[0] = model.getRootNode().getId();
+                stackRemaining[0] = rootChildren;
+                depth = 1;
+            }
+            for (int read = 1; read < nodeCount; read++) {
+                if (depth == 0) {
+                    throw new IOException("文件已损坏: 节点数与子节点数不符");
+                }
+                in.require(MAX_RECORD_SIZE);
+                int label = checkLabel(in.getVarInt(), labelCount);
+                int childCount = in.getVarInt();
+                int parent = stackNodes[depth - 1];
+                if (--stackRemaining[depth - 1] == 0) {
+                    depth--;
+                }
+                int id = model.appendEncodedNode(parent, codes[label]);
+                if (childCount > 0) {
+                    if (depth == stackNodes.length) {
+                        stackNodes = Arrays.copyOf(stackNodes, depth * 2);
+                        stackRemaining = Arrays.copyOf(stackRemaining, depth * 2);
+                    }
+                    stackNodes[depth] = id;
+                    stackRemaining[depth] = childCount;
+                    depth++;
+                }
+            }
+            if (depth != 0) {
+                throw new IOException("文件已损坏: 节点数与子节点数不符");
+            }
+            return model;
+        }
+    }
+    
+    private static int checkLabel(int label, int labelCount) throws IOException {
+        if (label < 0 || label >= labelCount) {
+            throw new IOException("文件已损坏: 名称编号越界 " + label);
+        }
+        return label;
+    }
+    
+    /**
+     * 带缓冲的顺序写出
+     */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(BYTE_ORDER);
+        private long position;
+        
+        Writer(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+        
+        /**
+         * 无符号变长整数，每字节 7 位，最高位表示后面还有字节
+         */
+        void putVarInt(int value) throws IOException {
+            if (buffer.remaining() < 5) {
+                flush();
+            }
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+        
+        void put(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+        
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+    }
+    
+    /**
+     * 带缓冲的顺序读取，缓冲区中剩余的字节不足一条记录时才从通道补充
+     */
+    private static final class Reader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(BYTE_ORDER);
+        private boolean eof;
+        
+        Reader(FileChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+        
+        /**
+         * 保证缓冲区中至少有 bytes 个字节，文件末尾除外
+         */
+        void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes || eof) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes && !eof) {
+                eof = channel.read(buffer) < 0;
+            }
+            buffer.flip();
+        }
+        
+        int getVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                if (!buffer.hasRemaining()) {
+                    throw new EOFException("文件不完整");
+                }
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("文件已损坏: 变长整数过长");
+        }
+        
+        /**
+         * 文件中尚未读取的字节数，包括缓冲区中的
+         */
+        long remaining() throws IOException {
+            return channel.size() - channel.position() + buffer.remaining();
+        }
+        
+        String getString() throws IOException {
+            require(5);
+            int length = getVarInt();
+            if (length < 0 || length > remaining()) {
+                throw new IOException("文件已损坏: 名称长度 " + length);
+            }
+            byte[] bytes = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                require(1);
+                if (!buffer.hasRemaining()) {
+                    throw new EOFException("文件不完整");
+                }
+                int count = Math.min(buffer.remaining(), length - offset);
+                buffer.get(bytes, offset, count);
+                offset += count;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.swing.tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 合成的大型组织架构
+ * 公司 → 事业部 → 部门 → 小组 → 员工，每个节点的下级由节点 ID 推算，不需要预先生成整棵树。
+ * 默认规模为 12 × 10 × 10 × 250 = 30 万名员工
+ */
+public class SyntheticOrgSource implements OrgChartSource {
+    
+    private static final String[] SURNAMES = {"张", "李", "王", "赵", "钱", "孙", "周", "吴", "郑", "冯", "陈", "褚", "卫", "蒋", "沈", "韩"};
+    private static final String[] GIVEN_NAMES = {"伟", "芳", "娜", "敏", "静", "丽", "强", "磊", "军", "洋", "勇", "艳", "杰", "涛", "明", "超"};
+    private static final String[] TITLES = {"工程师", "高级工程师", "测试工程师", "产品经理", "设计师", "分析师", "专员", "主管"};
+    private static final String[] UNIT_SUFFIXES = {"事业部", "部", "组"};
+    private static final String[] UNIT_PREFIXES = {"华东", "华南", "华北", "西南", "研发", "平台", "数据", "基础", "增长", "安全",
+        "终端", "云", "支付", "营销", "运营", "客服"};
+    // 每个子节点 ID = 父节点 ID × ID_RADIX + 序号 + 1
+    private static final long ID_RADIX = 1000;
+    
+    private final long seed;
+    private final int[] fanOut;
+    private final int latencyMillis;
+    
+    /**
+     * @param latencyMillis 每次加载模拟的查询延迟
+     */
+    public SyntheticOrgSource(long seed, int latencyMillis) {
+        this(seed, new int[]{12, 10, 10, 250}, latencyMillis);
+    }
+    
+    public SyntheticOrgSource(long seed, int[] fanOut, int latencyMillis) {
+        for (int count : fanOut) {
+            if (count >= ID_RADIX) {
+                throw new IllegalArgumentException("每层下级数不能超过 " + (ID_RADIX - 1));
+            }
+        }
+        this.seed = seed;
+        this.fanOut = fanOut.clone();
+        this.latencyMillis = latencyMillis;
+    }
+    
+    /**
+     * 员工总数
+     */
+    public long getEmployeeCount() {
+        long count = 1;
+        for (int n : fanOut) {
+            count *= n;
+        }
+        return count;
+    }
+    
+    @Override
+    public OrgUnit getRoot() {
+        return new OrgUnit(0, "公司组织架构", fanOut.length == 0);
+    }
+    
+    @Override
+    public List<OrgUnit> loadChildren(OrgUnit parent) {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int level = levelOf(parent.id());
+        if (level >= fanOut.length) {
+            return List.of();
+        }
+        int count = fanOut[level];
+        boolean leaf = level == fanOut.length - 1;
+        List<OrgUnit> children = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = parent.id() * ID_RADIX + i + 1;
+            SplittableRandom random = new SplittableRandom(seed ^ (id * 0x9E3779B97F4A7C15L));
+            String name;
+            if (leaf) {
+                name = SURNAMES[random.nextInt(SURNAMES.length)] + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)]
+                    + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)] + " - " + TITLES[random.nextInt(TITLES.length)];
+            } else {
+                String suffix = UNIT_SUFFIXES[Math.min(level, UNIT_SUFFIXES.length - 1)];
+                name = UNIT_PREFIXES[random.nextInt(UNIT_PREFIXES.length)] + (i + 1) + suffix;
+            }
+            children.add(new OrgUnit(id, name, leaf));
+        }
+        return children;
+    }
+    
+    private static int levelOf(long id) {
+        int level = 0;
+        while (id > 0) {
+            id = (id - 1) / ID_RADIX;
+            level++;
+        }
+        return level;
+    }
+}
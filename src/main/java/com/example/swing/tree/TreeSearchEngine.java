@@ -0,0 +1,151 @@
+package com.example.swing.tree;
+
+import com.example.swing.search.NGramIndex;
+import com.example.swing.search.SnapshotSearch;
+import com.example.swing.table.StringDictionary;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreePath;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 树节点搜索引擎
+ * 不同的节点名称登记在 n-gram 索引中，节点只保存名称编码；
+ * 查询时在 EDT 上复制各节点的名称编码和父节点，先求出命中的名称编码，再在后台线程中扫描快照，
+ * 得到命中的节点编号和前若干个节点的路径。
+ * 增删改节点时只登记新出现的名称，已删除的节点在扫描时跳过
+ */
+public class TreeSearchEngine extends SnapshotSearch<TreeSearchEngine.Snapshot, TreeSearchEngine.Result>
+    implements TreeModelListener {
+    
+    // 返回路径的命中节点数上限，其余命中只用于高亮
+    public static final int MAX_PATHS = 500;
+    // 扫描时每隔这么多节点检查一次查询是否已被取代
+    private static final int CHECK_INTERVAL = 64 * 1024;
+    
+    private final CompactTreeModel model;
+    private final NGramIndex labelIndex = new NGramIndex();
+    // 以下只在 EDT 上访问
+    private long modCount;
+    private int indexedLabels;
+    
+    public TreeSearchEngine(CompactTreeModel model) {
+        this.model = model;
+        indexLabels();
+        model.addTreeModelListener(this);
+    }
+    
+    /**
+     * 查询结果
+     *
+     * @param nodes 命中的节点编号
+     * @param count 命中的节点数
+     * @param paths 按编号顺序的前 MAX_PATHS 个命中节点的路径
+     */
+    public record Result(BitSet nodes, int count, List<TreePath> paths) {
+    }
+    
+    /**
+     * 查询时在 EDT 上复制的节点数据
+     */
+    record Snapshot(String text, long modCount, int[] labelCodes, int[] parents) {
+    }
+    
+    /**
+     * 取消进行中的查询并解除对模型的监听
+     */
+    public void dispose() {
+        cancel();
+        model.removeTreeModelListener(this);
+    }
+    
+    @Override
+    public void treeNodesChanged(TreeModelEvent e) {
+        modCount++;
+        indexLabels();
+    }
+    
+    @Override
+    public void treeNodesInserted(TreeModelEvent e) {
+        modCount++;
+        indexLabels();
+    }
+    
+    @Override
+    public void treeNodesRemoved(TreeModelEvent e) {
+        modCount++;
+    }
+    
+    @Override
+    public void treeStructureChanged(TreeModelEvent e) {
+        modCount++;
+        indexLabels();
+    }
+    
+    /**
+     * 登记字典中新出现的名称
+     */
+    private void indexLabels() {
+        StringDictionary labels = model.getLabelDictionary();
+        while (indexedLabels < labels.size()) {
+            labelIndex.put(indexedLabels, labels.decode(indexedLabels));
+            indexedLabels++;
+        }
+    }
+    
+    @Override
+    protected Snapshot snapshot(String text, Snapshot previous) {
+        return new Snapshot(text, modCount, model.copyLabelCodes(), model.copyParents());
+    }
+    
+    @Override
+    protected boolean isCurrent(Snapshot snapshot) {
+        return snapshot.modCount() == modCount;
+    }
+    
+    /**
+     * 在查询线程上执行，只读快照；查询已被取消时返回 null
+     */
+    @Override
+    protected Result evaluate(Snapshot snapshot, BooleanSupplier cancelled) {
+        BitSet labels = labelIndex.query(snapshot.text());
+        int[] labelCodes = snapshot.labelCodes();
+        int[] parents = snapshot.parents();
+        BitSet nodes = new BitSet();
+        List<TreePath> paths = new ArrayList<>();
+        int count = 0;
+        if (!labels.isEmpty()) {
+            for (int id = 0; id < labelCodes.length; id++) {
+                if ((id & (CHECK_INTERVAL - 1)) == 0 && cancelled.getAsBoolean()) {
+                    return null;
+                }
+                if (labels.get(labelCodes[id]) && parents[id] != CompactTreeModel.REMOVED) {
+                    nodes.set(id);
+                    if (count++ < MAX_PATHS) {
+                        paths.add(pathOf(id, parents));
+                    }
+                }
+            }
+        }
+        return cancelled.getAsBoolean() ? null : new Result(nodes, count, paths);
+    }
+    
+    /**
+     * 按快照中的父节点构造路径；节点对象只包含编号，可以在查询线程上创建
+     */
+    private TreePath pathOf(int id, int[] parents) {
+        int depth = 0;
+        for (int node = parents[id]; node != CompactTreeModel.NO_NODE; node = parents[node]) {
+            depth++;
+        }
+        Object[] path = new Object[depth + 1];
+        for (int node = id; node != CompactTreeModel.NO_NODE; node = parents[node]) {
+            path[depth--] = model.getNode(node);
+        }
+        return new TreePath(path);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.swing.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NGramIndexTest {
+    
+    private static BitSet ids(int... ids) {
+        BitSet set = new BitSet();
+        for (int id : ids) {
+            set.set(id);
+        }
+        return set;
+    }
+    
+    @Test
+    void findsSubstringsIgnoringCase() {
+        NGramIndex index = new NGramIndex();
+        index.put(0, "张伟");
+        index.put(1, "Zhang Wei");
+        index.put(2, "王伟明");
+        index.put(40, "研发部");
+        
+        assertEquals(ids(0, 2), index.query("伟"));
+        assertEquals(ids(2), index.query("伟明"));
+        assertEquals(ids(1), index.query("G W"));
+        assertEquals(ids(40), index.query("研发部"));
+        assertEquals(ids(), index.query("伟伟"));
+        assertEquals(ids(), index.query("x"));
+        assertEquals(4, index.size());
+    }
+    
+    @Test
+    void emptyQueryReturnsAllLiveIds() {
+        NGramIndex index = new NGramIndex();
+        index.put(0, "a");
+        index.put(3, "b");
+        index.put(5, "c");
+        index.remove(3);
+        
+        assertEquals(ids(0, 5), index.query(""));
+        assertEquals(ids(0, 5), index.query(null));
+    }
+    
+    @Test
+    void replacedAndRemovedTextsNoLongerMatch() {
+        NGramIndex index = new NGramIndex();
+        index.put(0, "李娜");
+        index.put(1, "李强");
+        index.put(0, "刘洋");
+        
+        assertEquals(ids(1), index.query("李"));
+        assertEquals(ids(0), index.query("刘洋"));
+        
+        // 改回原来的文本时旧的倒排项重新生效
+        index.put(0, "李娜");
+        assertEquals(ids(0, 1), index.query("李"));
+        
+        index.remove(1);
+        index.remove(1);
+        assertEquals(ids(0), index.query("李"));
+        assertEquals(1, index.size());
+    }
+    
+    @Test
+    void matchesStringContainsOnRandomTexts() {
+        String alphabet = "abcAB张王李伟";
+        Random random = new Random(5);
+        NGramIndex index = new NGramIndex();
+        String[] texts = new String[300];
+        for (int round = 0; round < 2_000; round++) {
+            int id = random.nextInt(texts.length);
+            if (random.nextInt(5) == 0) {
+                index.remove(id);
+                texts[id] = null;
+            } else {
+                texts[id] = randomText(random, alphabet, 1 + random.nextInt(6));
+                index.put(id, texts[id]);
+            }
+        }
+        for (int i = 0; i < 200; i++) {
+            String needle = randomText(random, alphabet, 1 + random.nextInt(3));
+            BitSet expected = new BitSet();
+            for (int id = 0; id < texts.length; id++) {
+                if (texts[id] != null && NGramIndex.normalize(texts[id]).contains(NGramIndex.normalize(needle))) {
+                    expected.set(id);
+                }
+            }
+            assertEquals(expected, index.query(needle), needle);
+        }
+    }
+    
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
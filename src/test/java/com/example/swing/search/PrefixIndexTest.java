@@ -0,0 +1,149 @@
+package com.example.swing.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrefixIndexTest {
+    
+    private static BitSet ids(int... ids) {
+        BitSet set = new BitSet();
+        for (int id : ids) {
+            set.set(id);
+        }
+        return set;
+    }
+    
+    @Test
+    void queriesPrefixRangeIgnoringCase() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(0, "Documents");
+        index.put(1, "doc");
+        index.put(2, "Downloads");
+        index.put(3, "desktop");
+        index.put(4, "doc");
+        
+        assertEquals(ids(0, 1, 4), index.query("DOC"));
+        assertEquals(3, index.count("doc"));
+        assertEquals(ids(0, 1, 2, 4), index.query("do"));
+        assertEquals(ids(0, 1, 2, 3, 4), index.query(""));
+        assertEquals(ids(), index.query("docz"));
+        assertEquals(ids(), index.query("e"));
+        assertEquals(5, index.size());
+    }
+    
+    @Test
+    void putReplacesAndRemoveDeletes() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(0, "alpha");
+        index.put(1, "beta");
+        index.put(0, "gamma");
+        
+        assertEquals(ids(), index.query("al"));
+        assertEquals(ids(0), index.query("ga"));
+        assertEquals(2, index.size());
+        
+        index.remove(1);
+        index.remove(1);
+        index.remove(99);
+        assertEquals(ids(), index.query("b"));
+        assertEquals(1, index.size());
+    }
+    
+    @Test
+    void putAllMergesWithExistingEntries() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(0, "b");
+        index.put(1, "d");
+        index.putAll(new int[]{5, 2, 3, 4}, new String[]{"c", "a", "b", "e"});
+        
+        assertEquals(ids(0, 3), index.query("b"));
+        assertEquals(ids(0, 1, 2, 3, 4, 5), index.query(""));
+        assertEquals(6, index.size());
+        
+        // 批量登记的编号同样可以单独删除
+        index.remove(3);
+        assertEquals(ids(0), index.query("b"));
+    }
+    
+    @Test
+    void removeAllCompactsAndForgetsIds() {
+        PrefixIndex index = new PrefixIndex();
+        for (int id = 0; id < 10; id++) {
+            index.put(id, "item" + id);
+        }
+        index.removeAll(ids(0, 3, 9));
+        
+        assertEquals(7, index.count("item"));
+        assertEquals(ids(), index.query("item3"));
+        // 删除后可以重新登记同一编号
+        index.put(3, "other");
+        assertEquals(ids(3), index.query("oth"));
+        assertEquals(8, index.size());
+    }
+    
+    @Test
+    void matchesStartsWithOnRandomOperations() {
+        Random random = new Random(9);
+        PrefixIndex index = new PrefixIndex();
+        String[] texts = new String[200];
+        for (int round = 0; round < 1_000; round++) {
+            int op = random.nextInt(10);
+            if (op == 0) {
+                BitSet removed = new BitSet();
+                for (int i = 0; i < 10; i++) {
+                    int id = random.nextInt(texts.length);
+                    removed.set(id);
+                    texts[id] = null;
+                }
+                index.removeAll(removed);
+            } else if (op == 1) {
+                int id = random.nextInt(texts.length);
+                index.remove(id);
+                texts[id] = null;
+            } else if (op == 2) {
+                // putAll 只接受尚未登记的编号
+                int[] newIds = new int[3];
+                String[] newTexts = new String[3];
+                int count = 0;
+                for (int id = random.nextInt(texts.length); id < texts.length && count < 3; id++) {
+                    if (texts[id] == null) {
+                        newIds[count] = id;
+                        newTexts[count] = randomText(random);
+                        texts[id] = newTexts[count];
+                        count++;
+                    }
+                }
+                index.putAll(Arrays.copyOf(newIds, count), Arrays.copyOf(newTexts, count));
+            } else {
+                int id = random.nextInt(texts.length);
+                texts[id] = randomText(random);
+                index.put(id, texts[id]);
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            String prefix = randomText(random).substring(0, 1 + random.nextInt(2));
+            BitSet expected = new BitSet();
+            for (int id = 0; id < texts.length; id++) {
+                if (texts[id] != null && NGramIndex.normalize(texts[id]).startsWith(NGramIndex.normalize(prefix))) {
+                    expected.set(id);
+                }
+            }
+            assertEquals(expected, index.query(prefix), prefix);
+            assertEquals(expected.cardinality(), index.count(prefix));
+        }
+    }
+    
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int length = 2 + random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            text.append("abAB".charAt(random.nextInt(4)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.swing.table;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class EmployeeCsvImporterTest {
+    
+    @TempDir
+    Path dir;
+    
+    private EmployeeCsvImporter importer;
+    
+    private EmployeeTableModel importFile(String fileName, String content) throws IOException {
+        Path path = dir.resolve(fileName);
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+        importer = new EmployeeCsvImporter(path);
+        EmployeeTableModel model = new EmployeeTableModel();
+        importer.run(model::addRows, (done, total) -> { }, () -> false);
+        return model;
+    }
+    
+    @Test
+    void parsesQuotedFieldsAndSkipsHeader() throws IOException {
+        EmployeeTableModel model = importFile("a.csv", "\uFEFFID,姓名,年龄,部门,薪资,在职\r\n"
+            + "1, 张三 ,30,研发部,12000.5,true\r\n"
+            + "2,\"李\"\"四\",41,\"市场部, 华东\",9000,否\r\n");
+        
+        assertEquals(2, model.getRowCount());
+        assertEquals(0, importer.getSkippedLines());
+        assertEquals("张三", model.getName(0));
+        assertEquals(12000.5, model.getSalary(0), 0);
+        assertEquals("李\"四", model.getName(1));
+        assertEquals("市场部, 华东", model.getDepartment(1));
+        assertFalse(model.isActive(1));
+    }
+    
+    @Test
+    void rowsWithWrongColumnCountAreSkipped() throws IOException {
+        EmployeeTableModel model = importFile("a.tsv", "1\t张三\t30\t研发部\t12000\t1\n"
+            + "2\t李四\t41\t市场部\t9000\t0\t多余\n"
+            + "3\t王五\t25\t研发部\t8000\t1\t\n"
+            + "4\t赵六\t33\t研发部\t8000\n"
+            + "5\t孙七\t28\t财务部\t7000\t0\n");
+        
+        assertEquals(2, model.getRowCount());
+        assertEquals(1, model.getId(0));
+        assertEquals(5, model.getId(1));
+        assertEquals(3, importer.getSkippedLines());
+    }
+    
+    @Test
+    void quotedNewlineSplitsRecordIntoSkippedLines() throws IOException {
+        EmployeeTableModel model = importFile("a.csv", "1,李四,41,市场部,9000,0\n"
+            + "2,\"张\n三\",30,研发部,12000,1\n");
+        
+        assertEquals(1, model.getRowCount());
+        assertEquals(1, model.getId(0));
+        assertEquals(2, importer.getSkippedLines());
+    }
+    
+    @Test
+    void largeFileKeepsRowOrderAcrossChunks() throws IOException {
+        StringBuilder content = new StringBuilder();
+        int rows = 200_000;
+        for (int id = 0; id < rows; id++) {
+            content.append(id).append(",员工").append(id).append(',').append(20 + id % 40)
+                .append(",研发部,").append(id % 1000).append(".25,").append(id % 2).append('\n');
+        }
+        List<Long> progress = new ArrayList<>();
+        Path path = dir.resolve("big.csv");
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+        importer = new EmployeeCsvImporter(path);
+        EmployeeTableModel model = new EmployeeTableModel();
+        importer.run(model::addRows, (done, total) -> progress.add(done), () -> false);
+        
+        assertEquals(rows, model.getRowCount());
+        assertEquals(0, importer.getSkippedLines());
+        for (int row = 0; row < rows; row++) {
+            assertEquals(row, model.getId(row));
+        }
+        assertEquals(Files.size(path), (long) progress.get(progress.size() - 1));
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.swing.table;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 排序器与 JTable 一起使用，行的增删由 JTable 转发给排序器；所有操作都在 EDT 上执行
+ */
+class EmployeeRowSorterTest {
+    
+    private EmployeeTableModel model;
+    private EmployeeRowSorter sorter;
+    
+    private void createTable(int rows) throws Exception {
+        onEdt(() -> {
+            model = SampleEmployees.generate(rows, 7);
+            JTable table = new JTable(model);
+            sorter = new EmployeeRowSorter(model);
+            table.setRowSorter(sorter);
+        });
+    }
+    
+    /**
+     * 在 EDT 上执行，断言失败时抛出原来的错误
+     */
+    private static void onEdt(Runnable action) throws Exception {
+        try {
+            SwingUtilities.invokeAndWait(action);
+        } catch (InvocationTargetException ex) {
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+    
+    /**
+     * 等待后台排序完成并发布到 EDT
+     */
+    private void awaitSorted() throws Exception {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        boolean[] sorting = {true};
+        while (sorting[0]) {
+            assertTrue(System.nanoTime() < deadline, "排序超时");
+            onEdt(() -> sorting[0] = sorter.isSorting());
+        }
+    }
+    
+    private List<Integer> viewIds() {
+        List<Integer> ids = new ArrayList<>();
+        for (int view = 0; view < sorter.getViewRowCount(); view++) {
+            ids.add(model.getId(sorter.convertRowIndexToModel(view)));
+        }
+        return ids;
+    }
+    
+    private void assertSortedByAge() {
+        int previous = Integer.MIN_VALUE;
+        for (int view = 0; view < sorter.getViewRowCount(); view++) {
+            int row = sorter.convertRowIndexToModel(view);
+            assertEquals(view, sorter.convertRowIndexToView(row));
+            int age = model.getAge(row);
+            assertTrue(age >= previous, "第 " + view + " 行未按年龄排序");
+            previous = age;
+        }
+    }
+    
+    @Test
+    void batchRemovalCompactsSortedOrderWithoutResorting() throws Exception {
+        createTable(2_000);
+        onEdt(() -> sorter.toggleSortOrder(AbstractEmployeeTableModel.COLUMN_AGE));
+        awaitSorted();
+        List<Integer> before = new ArrayList<>();
+        BitSet removed = new BitSet();
+        onEdt(() -> {
+            before.addAll(viewIds());
+            for (int row = 0; row < model.getRowCount(); row += 5) {
+                removed.set(row);
+            }
+            List<Integer> removedIds = new ArrayList<>();
+            for (int row = removed.nextSetBit(0); row >= 0; row = removed.nextSetBit(row + 1)) {
+                removedIds.add(model.getId(row));
+            }
+            before.removeAll(removedIds);
+            
+            model.removeRows(removed);
+            
+            // 删除事件按压缩处理，不重新排序，剩余行保持原来的相对顺序
+            assertFalse(sorter.isSorting());
+            assertEquals(model.getRowCount(), sorter.getModelRowCount());
+            assertEquals(before, viewIds());
+            assertSortedByAge();
+        });
+    }
+    
+    @Test
+    void insertedRowsAreMergedIntoSortedOrder() throws Exception {
+        createTable(2_000);
+        onEdt(() -> sorter.toggleSortOrder(AbstractEmployeeTableModel.COLUMN_AGE));
+        awaitSorted();
+        onEdt(() -> {
+            EmployeeTableModel batch = SampleEmployees.generate(300, 11);
+            EmployeeTableModel renumbered = new EmployeeTableModel();
+            for (int row = 0; row < batch.getRowCount(); row++) {
+                renumbered.appendRow(10_000 + row, batch.getName(row), batch.getAge(row), batch.getDepartment(row),
+                    batch.getSalary(row), batch.isActive(row));
+            }
+            model.addRows(renumbered);
+            // 新行暂时排在末尾
+            assertEquals(2_300, sorter.getViewRowCount());
+            assertEquals(10_000, model.getId(sorter.convertRowIndexToModel(2_000)));
+        });
+        awaitSorted();
+        onEdt(() -> {
+            assertEquals(2_300, sorter.getViewRowCount());
+            assertSortedByAge();
+            BitSet seen = new BitSet();
+            for (int view = 0; view < sorter.getViewRowCount(); view++) {
+                seen.set(sorter.convertRowIndexToModel(view));
+            }
+            assertEquals(2_300, seen.cardinality());
+        });
+    }
+    
+    @Test
+    void filterFollowsBatchRemoval() throws Exception {
+        createTable(10);
+        onEdt(() -> {
+            BitSet filter = new BitSet();
+            filter.set(1);
+            filter.set(3);
+            filter.set(5);
+            filter.set(7);
+            sorter.setFilter(filter);
+            int id5 = model.getId(5);
+            int id7 = model.getId(7);
+            
+            BitSet removed = new BitSet();
+            removed.set(0);
+            removed.set(3);
+            model.removeRows(removed);
+            
+            // 1→0，5→3，7→5，被删除的第 3 行不再出现
+            BitSet expected = new BitSet();
+            expected.set(0);
+            expected.set(3);
+            expected.set(5);
+            assertEquals(expected, sorter.getFilter());
+            assertEquals(3, sorter.getViewRowCount());
+            assertEquals(id5, model.getId(sorter.convertRowIndexToModel(1)));
+            assertEquals(id7, model.getId(sorter.convertRowIndexToModel(2)));
+            assertEquals(-1, sorter.convertRowIndexToView(1));
+        });
+    }
+    
+    @Test
+    void filterShiftsOnSingleDeletionAndShowsInsertedRows() throws Exception {
+        createTable(10);
+        onEdt(() -> {
+            BitSet filter = new BitSet();
+            filter.set(2);
+            filter.set(6);
+            sorter.setFilter(filter);
+            
+            model.removeRow(4);
+            model.addRow(model.allocateId(), "新员工", 30, "研发部", 8000, true);
+            
+            BitSet expected = new BitSet();
+            expected.set(2);
+            expected.set(5);
+            expected.set(9);
+            assertEquals(expected, sorter.getFilter());
+            assertEquals(3, sorter.getViewRowCount());
+            assertEquals(9, sorter.convertRowIndexToModel(2));
+        });
+    }
+    
+    @Test
+    void dataChangedWithoutRemovalResetsFilter() throws Exception {
+        createTable(10);
+        onEdt(() -> {
+            BitSet filter = new BitSet();
+            filter.set(1);
+            sorter.setFilter(filter);
+            
+            model.fireTableDataChanged();
+            
+            assertNull(sorter.getFilter());
+            assertEquals(10, sorter.getViewRowCount());
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.swing.table;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.TableModelEvent;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RowsRemovedEventTest {
+    
+    private static RowsRemovedEvent removing(int oldRowCount, int... rows) {
+        BitSet removed = new BitSet();
+        for (int row : rows) {
+            removed.set(row);
+        }
+        return new RowsRemovedEvent(new EmployeeTableModel(), removed, oldRowCount);
+    }
+    
+    @Test
+    void looksLikeAllRowsChangedToPlainListeners() {
+        RowsRemovedEvent event = removing(5, 1);
+        assertEquals(TableModelEvent.UPDATE, event.getType());
+        assertEquals(0, event.getFirstRow());
+        assertEquals(Integer.MAX_VALUE, event.getLastRow());
+        assertEquals(TableModelEvent.ALL_COLUMNS, event.getColumn());
+    }
+    
+    @Test
+    void compactsPrimitiveAndObjectArrays() {
+        RowsRemovedEvent event = removing(8, 0, 3, 4, 7);
+        int[] ints = {0, 1, 2, 3, 4, 5, 6, 7, 99};
+        String[] strings = {"a", "b", "c", "d", "e", "f", "g", "h"};
+        
+        assertEquals(4, event.compact(ints));
+        assertEquals(4, event.compact(strings));
+        assertEquals(4, event.getNewRowCount());
+        assertArrayEquals(new int[]{1, 2, 5, 6}, Arrays.copyOf(ints, 4));
+        // 旧行数之外的元素不受影响
+        assertEquals(99, ints[8]);
+        assertArrayEquals(new String[]{"b", "c", "f", "g"}, Arrays.copyOf(strings, 4));
+    }
+    
+    @Test
+    void compactWithoutRemovedRowsKeepsArray() {
+        RowsRemovedEvent event = removing(3);
+        double[] values = {1, 2, 3};
+        assertEquals(3, event.compact(values));
+        assertArrayEquals(new double[]{1, 2, 3}, values);
+    }
+    
+    @Test
+    void compactsBitSet() {
+        RowsRemovedEvent event = removing(10, 0, 3, 9);
+        BitSet bits = new BitSet();
+        bits.set(0);
+        bits.set(1);
+        bits.set(5);
+        bits.set(8);
+        bits.set(9);
+        
+        BitSet compacted = event.compact(bits);
+        
+        BitSet expected = new BitSet();
+        expected.set(0);
+        expected.set(3);
+        expected.set(6);
+        assertEquals(expected, compacted);
+    }
+    
+    @Test
+    void convertsOldRowIndexes() {
+        RowsRemovedEvent event = removing(6, 0, 2, 3);
+        int[] converted = new int[6];
+        for (int row = 0; row < 6; row++) {
+            converted[row] = event.convertRowIndex(row);
+        }
+        assertArrayEquals(new int[]{-1, 0, -1, -1, 1, 2}, converted);
+    }
+    
+    @Test
+    void modelRemovalKeepsColumnsAligned() {
+        EmployeeTableModel model = SampleEmployees.generate(50, 3);
+        int[] ids = new int[50];
+        for (int row = 0; row < 50; row++) {
+            ids[row] = model.getId(row);
+        }
+        BitSet removed = new BitSet();
+        for (int row = 0; row < 50; row += 3) {
+            removed.set(row);
+        }
+        EmployeeTableModel expected = new EmployeeTableModel();
+        for (int row = 0; row < 50; row++) {
+            if (!removed.get(row)) {
+                expected.appendRow(model.getId(row), model.getName(row), model.getAge(row), model.getDepartment(row),
+                    model.getSalary(row), model.isActive(row));
+            }
+        }
+        RowsRemovedEvent[] received = new RowsRemovedEvent[1];
+        model.addTableModelListener(e -> received[0] = (RowsRemovedEvent) e);
+        
+        model.removeRows(removed);
+        
+        assertEquals(expected.getRowCount(), model.getRowCount());
+        for (int row = 0; row < model.getRowCount(); row++) {
+            assertEquals(expected.getId(row), model.getId(row));
+            assertEquals(expected.getName(row), model.getName(row));
+            assertEquals(expected.getDepartment(row), model.getDepartment(row));
+            assertEquals(expected.isActive(row), model.isActive(row));
+        }
+        for (int row = 0; row < 50; row++) {
+            int newRow = received[0].convertRowIndex(row);
+            if (newRow >= 0) {
+                assertEquals(ids[row], model.getId(newRow));
+            }
+        }
+    }
+}
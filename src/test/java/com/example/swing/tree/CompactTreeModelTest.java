@@ -0,0 +1,165 @@
+package com.example.swing.tree;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactTreeModelTest {
+    
+    @Test
+    void insertKeepsSiblingOrderAndLinks() {
+        CompactTreeModel model = new CompactTreeModel("根");
+        CompactTreeModel.Node root = model.getRootNode();
+        model.appendNode(root.getId(), "b");
+        model.appendNode(root.getId(), "d");
+        model.insertNodeInto("a", root, 0);
+        model.insertNodeInto("c", root, 2);
+        model.insertNodeInto("e", root, 4);
+        // 插在末尾后 lastChild 应随之更新，继续追加的节点排在它后面
+        model.appendNode(root.getId(), "f");
+        
+        assertEquals(List.of("a", "b", "c", "d", "e", "f"), childLabels(model, root.getId()));
+        assertEquals(6, model.getChildCount(root));
+        assertEquals(7, model.getNodeCount());
+        assertEquals(7, model.getIdLimit());
+        for (int i = 0; i < 6; i++) {
+            Object child = model.getChild(root, i);
+            assertEquals(i, model.getIndexOfChild(root, child));
+        }
+    }
+    
+    @Test
+    void insertOutOfRangeThrows() {
+        CompactTreeModel model = new CompactTreeModel("根");
+        CompactTreeModel.Node root = model.getRootNode();
+        model.appendNode(root.getId(), "a");
+        assertThrows(IndexOutOfBoundsException.class, () -> model.insertNodeInto("x", root, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> model.insertNodeInto("x", root, -1));
+    }
+    
+    @Test
+    void removeTombstonesWholeSubtree() {
+        CompactTreeModel model = new CompactTreeModel("根");
+        int root = model.getRootNode().getId();
+        int a = model.appendNode(root, "a");
+        int b = model.appendNode(root, "b");
+        int c = model.appendNode(root, "c");
+        int b1 = model.appendNode(b, "b1");
+        int b2 = model.appendNode(b, "b2");
+        int b11 = model.appendNode(b1, "b11");
+        
+        model.removeNodeFromParent(model.getNode(b));
+        
+        assertEquals(3, model.getNodeCount());
+        // 编号不回收，上限不变
+        assertEquals(7, model.getIdLimit());
+        for (int id : new int[]{b, b1, b2, b11}) {
+            assertFalse(model.contains(id));
+        }
+        assertTrue(model.contains(a));
+        assertTrue(model.contains(c));
+        assertEquals(List.of("a", "c"), childLabels(model, root));
+        assertEquals(c, model.getNextSibling(a));
+        
+        int[] parents = model.copyParents();
+        assertEquals(CompactTreeModel.REMOVED, parents[b]);
+        assertEquals(CompactTreeModel.REMOVED, parents[b11]);
+        assertEquals(root, parents[c]);
+        
+        int d = model.appendNode(root, "d");
+        assertEquals(7, d);
+        assertEquals(List.of("a", "c", "d"), childLabels(model, root));
+        assertThrows(IllegalArgumentException.class, () -> model.appendNode(b1, "x"));
+    }
+    
+    @Test
+    void removeFirstAndLastChildUpdatesEnds() {
+        CompactTreeModel model = new CompactTreeModel("根");
+        int root = model.getRootNode().getId();
+        int a = model.appendNode(root, "a");
+        model.appendNode(root, "b");
+        int c = model.appendNode(root, "c");
+        
+        model.removeNodeFromParent(model.getNode(c));
+        model.appendNode(root, "d");
+        model.removeNodeFromParent(model.getNode(a));
+        
+        assertEquals(List.of("b", "d"), childLabels(model, root));
+        assertEquals(2, model.getChildCount(root));
+    }
+    
+    @Test
+    void removeRootThrows() {
+        CompactTreeModel model = new CompactTreeModel("根");
+        assertThrows(IllegalArgumentException.class, () -> model.removeNodeFromParent(model.getRootNode()));
+    }
+    
+    @Test
+    void eventsCarryChildIndexes() {
+        CompactTreeModel model = new CompactTreeModel("根");
+        CompactTreeModel.Node root = model.getRootNode();
+        model.appendNode(root.getId(), "a");
+        model.appendNode(root.getId(), "c");
+        List<String> events = new ArrayList<>();
+        model.addTreeModelListener(new TreeModelListener() {
+            @Override
+            public void treeNodesChanged(TreeModelEvent e) {
+                events.add("changed " + e.getChildIndices()[0] + " " + e.getChildren()[0]);
+            }
+            
+            @Override
+            public void treeNodesInserted(TreeModelEvent e) {
+                events.add("inserted " + e.getChildIndices()[0] + " " + e.getChildren()[0]);
+            }
+            
+            @Override
+            public void treeNodesRemoved(TreeModelEvent e) {
+                events.add("removed " + e.getChildIndices()[0] + " " + e.getChildren()[0]);
+            }
+            
+            @Override
+            public void treeStructureChanged(TreeModelEvent e) {
+                events.add("structure");
+            }
+        });
+        
+        CompactTreeModel.Node b = model.insertNodeInto("b", root, 1);
+        model.setLabel(b, "B");
+        model.removeNodeFromParent(b);
+        
+        assertEquals(List.of("inserted 1 b", "changed 1 B", "removed 1 B"), events);
+    }
+    
+    @Test
+    void copyIsIndependent() {
+        CompactTreeModel model = new CompactTreeModel("根");
+        int root = model.getRootNode().getId();
+        int a = model.appendNode(root, "a");
+        model.appendNode(root, "b");
+        
+        CompactTreeModel copy = model.copy();
+        model.removeNodeFromParent(model.getNode(a));
+        model.appendNode(root, "c");
+        
+        assertEquals(List.of("a", "b"), childLabels(copy, root));
+        assertEquals(3, copy.getNodeCount());
+        assertArrayEquals(new int[]{CompactTreeModel.NO_NODE, root, root}, copy.copyParents());
+    }
+    
+    private static List<String> childLabels(CompactTreeModel model, int parent) {
+        List<String> labels = new ArrayList<>();
+        for (int child = model.getFirstChild(parent); child != CompactTreeModel.NO_NODE; child = model.getNextSibling(child)) {
+            labels.add(model.getLabel(child));
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.swing.tree;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrgTreeFileTest {
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    void roundTripKeepsStructureAndLabels() throws IOException {
+        CompactTreeModel model = new CompactTreeModel("根");
+        int root = model.getRootNode().getId();
+        // 子节点数和名称编号超过 127，长名称的长度超过 127 字节，变长整数都要写成多个字节
+        for (int i = 0; i < 300; i++) {
+            int department = model.appendNode(root, "部门" + i);
+            model.appendNode(department, "员工" + i);
+        }
+        int big = model.appendNode(root, "大部门");
+        for (int i = 0; i < 20_000; i++) {
+            model.appendNode(big, "成员" + (i % 500));
+        }
+        model.appendNode(root, "长".repeat(100));
+        // 已删除的节点和只被它们使用的名称不写出
+        int removed = model.appendNode(root, "已撤销");
+        model.appendNode(removed, "只在已撤销部门中");
+        model.removeNodeFromParent(model.getNode(removed));
+        
+        Path path = dir.resolve("tree.org");
+        OrgTreeFile.write(model, path);
+        CompactTreeModel read = OrgTreeFile.read(path);
+        
+        assertEquals(model.getNodeCount(), read.getNodeCount());
+        assertEquals(preorder(model), preorder(read));
+        assertEquals(1 + 300 + 300 + 1 + 500 + 1, read.getLabelDictionary().size());
+    }
+    
+    @Test
+    void overwriteReplacesFileWithoutLeavingTemporaryFiles() throws IOException {
+        Path path = dir.resolve("tree.org");
+        CompactTreeModel first = new CompactTreeModel("旧");
+        first.appendNode(first.getRootNode().getId(), "a");
+        OrgTreeFile.write(first, path);
+        
+        CompactTreeModel second = new CompactTreeModel("新");
+        OrgTreeFile.write(second, path);
+        
+        assertEquals(List.of("新"), preorder(OrgTreeFile.read(path)));
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of(path), files.toList());
+        }
+    }
+    
+    @Test
+    void headerCountsLargerThanFileAreRejected() throws IOException {
+        Path path = dir.resolve("tree.org");
+        CompactTreeModel model = new CompactTreeModel("根");
+        model.appendNode(model.getRootNode().getId(), "a");
+        OrgTreeFile.write(model, path);
+        
+        writeInt(path, 8, Integer.MAX_VALUE);
+        assertThrows(IOException.class, () -> OrgTreeFile.read(path));
+        writeInt(path, 8, 2);
+        writeInt(path, 12, 1 << 30);
+        assertThrows(IOException.class, () -> OrgTreeFile.read(path));
+    }
+    
+    @Test
+    void labelLengthBeyondFileEndIsRejected() throws IOException {
+        Path path = dir.resolve("tree.org");
+        OrgTreeFile.write(new CompactTreeModel("根"), path);
+        // 第一个名称的长度改成 0x0FFFFFFF
+        byte[] bytes = Files.readAllBytes(path);
+        byte[] corrupt = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, corrupt, 0, OrgTreeFile.HEADER_SIZE);
+        corrupt[OrgTreeFile.HEADER_SIZE] = (byte) 0xFF;
+        corrupt[OrgTreeFile.HEADER_SIZE + 1] = (byte) 0xFF;
+        corrupt[OrgTreeFile.HEADER_SIZE + 2] = (byte) 0xFF;
+        corrupt[OrgTreeFile.HEADER_SIZE + 3] = 0x7F;
+        Files.write(path, corrupt);
+        
+        assertThrows(IOException.class, () -> OrgTreeFile.read(path));
+    }
+    
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        Path path = dir.resolve("tree.org");
+        CompactTreeModel model = new CompactTreeModel("根");
+        for (int i = 0; i < 100; i++) {
+            model.appendNode(model.getRootNode().getId(), "节点" + i);
+        }
+        OrgTreeFile.write(model, path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+        
+        assertThrows(IOException.class, () -> OrgTreeFile.read(path));
+    }
+    
+    private static void writeInt(Path path, int position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4).order(OrgTreeFile.BYTE_ORDER).putInt(value).flip();
+            channel.write(buffer, position);
+        }
+    }
+    
+    /**
+     * 先序列出各节点的名称和子节点数
+     */
+    private static List<String> preorder(CompactTreeModel model) {
+        List<String> nodes = new ArrayList<>();
+        List<Integer> pending = new ArrayList<>();
+        pending.add(model.getRootNode().getId());
+        while (!pending.isEmpty()) {
+            int id = pending.remove(pending.size() - 1);
+            int children = model.getChildCount(id);
+            nodes.add(children == 0 ? model.getLabel(id) : model.getLabel(id) + "/" + children);
+            List<Integer> ids = new ArrayList<>();
+            for (int child = model.getFirstChild(id); child != CompactTreeModel.NO_NODE; child = model.getNextSibling(child)) {
+                ids.add(child);
+            }
+            for (int i = ids.size() - 1; i >= 0; i--) {
+                pending.add(ids.get(i));
+            }
+        }
+        return nodes;
+    }
+}